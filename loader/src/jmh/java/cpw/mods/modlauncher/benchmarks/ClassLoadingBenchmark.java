@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import java.io.IOException;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import net.neoforged.fml.classloading.JarContentsModule;
+import net.neoforged.fml.classloading.JarContentsModuleFinder;
+import net.neoforged.fml.classloading.ModuleClassLoader;
+import net.neoforged.fml.jarcontents.JarContents;
+import org.apache.commons.io.file.PathUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures how long it takes a number of threads to load all classes of a synthetic module through a fresh
+ * {@link ModuleClassLoader}. Every thread loads every class, starting at a different offset, so threads contend for
+ * the same classes, as well as for the base classes that all classes of a package extend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+public class ClassLoadingBenchmark {
+    private static final String MODULE_NAME = "classloading.benchmark";
+    private static final int PACKAGE_COUNT = 20;
+    private static final int CLASSES_PER_PACKAGE = 200;
+
+    @Param({ "1", "4", "16" })
+    public int threads;
+
+    private Path tempDir;
+    private JarContents contents;
+    private List<String> classNames;
+    private ExecutorService executor;
+    private ModuleClassLoader classLoader;
+
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("classloadingbenchmark");
+        var jar = tempDir.resolve("benchmark.jar");
+        classNames = new ArrayList<>(PACKAGE_COUNT * CLASSES_PER_PACKAGE);
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Automatic-Module-Name", MODULE_NAME);
+        try (var out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (int p = 0; p < PACKAGE_COUNT; p++) {
+                var packageName = "benchmark/pkg" + p + "/";
+                writeClass(out, packageName + "Base", "java/lang/Object");
+                for (int c = 0; c < CLASSES_PER_PACKAGE; c++) {
+                    var className = packageName + "Class" + c;
+                    writeClass(out, className, packageName + "Base");
+                    classNames.add(className.replace('/', '.'));
+                }
+            }
+        }
+        contents = JarContents.ofPath(jar);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    private static void writeClass(JarOutputStream out, String internalName, String superName) throws IOException {
+        var cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V21, Opcodes.ACC_PUBLIC, internalName, null, superName, null);
+        var mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        out.putNextEntry(new JarEntry(internalName + ".class"));
+        out.write(cw.toByteArray());
+        out.closeEntry();
+    }
+
+    @Setup(Level.Invocation)
+    public void createClassLoader() {
+        var module = new JarContentsModule(contents);
+        var configuration = Configuration.resolveAndBind(
+                new JarContentsModuleFinder(List.of(module)),
+                List.of(ModuleLayer.boot().configuration()),
+                ModuleFinder.of(),
+                List.of(module.moduleName()));
+        classLoader = new ModuleClassLoader("benchmark", configuration, List.of(ModuleLayer.boot()));
+        ModuleLayer.defineModules(configuration, List.of(ModuleLayer.boot()), m -> classLoader);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeClassLoader() throws IOException {
+        classLoader.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        contents.close();
+        PathUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public int loadAllClasses() throws Exception {
+        var tasks = new ArrayList<Future<Integer>>(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * classNames.size() / threads;
+            tasks.add(executor.submit(() -> {
+                int loaded = 0;
+                for (int i = 0; i < classNames.size(); i++) {
+                    var name = classNames.get((offset + i) % classNames.size());
+                    if (Class.forName(name, false, classLoader) != null) {
+                        loaded++;
+                    }
+                }
+                return loaded;
+            }));
+        }
+        int loaded = 0;
+        for (var task : tasks) {
+            loaded += task.get();
+        }
+        return loaded;
+    }
+}
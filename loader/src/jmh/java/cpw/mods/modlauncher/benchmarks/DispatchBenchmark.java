@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import net.neoforged.fml.classloading.transformation.ClassProcessorSet;
+import net.neoforged.neoforgespi.transformation.ClassProcessor;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
+import net.neoforged.neoforgespi.transformation.ProcessorName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how long it takes to select the processors for a class out of a large number of processors.
+ * In {@code declared} mode, the processors declare their targets, while in {@code undeclared} mode every
+ * processor has to be asked about every class.
+ */
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+    private static final int PROCESSOR_COUNT = 500;
+    private static final int PACKAGE_TARGETING_COUNT = 50;
+
+    @Param({ "declared", "undeclared" })
+    public String targeting;
+
+    private ClassProcessorSet classProcessorSet;
+
+    @Setup
+    public void setup() {
+        var processors = new ArrayList<ClassProcessor>(PROCESSOR_COUNT);
+        for (int i = 0; i < PROCESSOR_COUNT; i++) {
+            ClassTargeting declared;
+            Set<String> classNames;
+            Set<String> packageNames;
+            if (i < PACKAGE_TARGETING_COUNT) {
+                classNames = Set.of();
+                packageNames = Set.of("net.minecraft.synthetic.pkg" + i);
+                declared = ClassTargeting.packages(packageNames);
+            } else {
+                classNames = Set.of("net.minecraft.synthetic.Target" + i, "net.minecraft.synthetic.Other" + i);
+                packageNames = Set.of();
+                declared = ClassTargeting.classes(classNames);
+            }
+            processors.add(new SyntheticProcessor(new ProcessorName("benchmark", "processor" + i),
+                    "declared".equals(targeting) ? declared : ClassTargeting.all(),
+                    classNames,
+                    packageNames));
+        }
+        classProcessorSet = ClassProcessorSet.builder().addProcessors(processors).build();
+    }
+
+    @Benchmark
+    public List<ClassProcessor> dispatchUntargetedClass() {
+        return classProcessorSet.transformersFor("net.minecraft.world.level.Level", false, null);
+    }
+
+    @Benchmark
+    public List<ClassProcessor> dispatchClassTargetedByName() {
+        return classProcessorSet.transformersFor("net.minecraft.synthetic.Target250", false, null);
+    }
+
+    @Benchmark
+    public List<ClassProcessor> dispatchClassTargetedByPackage() {
+        return classProcessorSet.transformersFor("net.minecraft.synthetic.pkg25.sub.Example", false, null);
+    }
+
+    private record SyntheticProcessor(ProcessorName name, ClassTargeting targeting, Set<String> classNames, Set<String> packageNames) implements ClassProcessor {
+        @Override
+        public boolean handlesClass(SelectionContext context) {
+            var className = context.type().getClassName();
+            if (classNames.contains(className)) {
+                return true;
+            }
+            for (var packageName : packageNames) {
+                if (className.startsWith(packageName + ".")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public ComputeFlags processClass(TransformationContext context) {
+            return ComputeFlags.NO_REWRITE;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarFileBackend;
+import org.apache.commons.io.file.PathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@linkplain JarFileBackend backends} for jar files on a synthetic jar, which contains a mix of
+ * compressed and uncompressed entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JarContentsBenchmark {
+    private static final int ENTRY_COUNT = 5000;
+
+    @Param({ "JAR_FILE", "MEMORY_MAPPED" })
+    public JarFileBackend backend;
+
+    private Path tempDir;
+    private JarContents contents;
+    private List<String> entryNames;
+    private List<String> missingNames;
+
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("jarcontentsbenchmark");
+        var jar = tempDir.resolve("benchmark.jar");
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        entryNames = new ArrayList<>(ENTRY_COUNT);
+        missingNames = new ArrayList<>(ENTRY_COUNT);
+        var random = new Random(0);
+        try (var out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                var name = "benchmark/pkg" + (i % 50) + "/Entry" + i + ".class";
+                // Somewhat compressible content, between 512 bytes and 8KiB
+                var content = new byte[512 + random.nextInt(8 * 1024 - 512)];
+                for (int j = 0; j < content.length; j++) {
+                    content[j] = (byte) random.nextInt(16);
+                }
+                var entry = new ZipEntry(name);
+                if (i % 4 == 0) {
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(content.length);
+                    var crc = new CRC32();
+                    crc.update(content);
+                    entry.setCrc(crc.getValue());
+                }
+                out.putNextEntry(entry);
+                out.write(content);
+                out.closeEntry();
+                entryNames.add(name);
+                missingNames.add("benchmark/pkg" + (i % 50) + "/Missing" + i + ".class");
+            }
+        }
+        contents = backend.open(jar);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        contents.close();
+        PathUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public int lookupExisting() {
+        int found = 0;
+        for (var name : entryNames) {
+            if (contents.containsFile(name)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int lookupMissing() {
+        int found = 0;
+        for (var name : missingNames) {
+            if (contents.containsFile(name)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public void readAll(Blackhole blackhole) throws IOException {
+        for (var name : entryNames) {
+            blackhole.consume(contents.readFile(name));
+        }
+    }
+
+    @Benchmark
+    public int visitContent() {
+        int[] count = new int[1];
+        contents.visitContent((relativePath, resource) -> count[0]++);
+        return count[0];
+    }
+}
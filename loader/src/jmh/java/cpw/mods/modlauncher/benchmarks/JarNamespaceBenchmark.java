@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarFileBackend;
+import org.apache.commons.io.file.PathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Enumerates the resources of a single namespace in a large jar, like resource and data pack reloads do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JarNamespaceBenchmark {
+    private static final int ENTRY_COUNT = 50_000;
+    private static final int NAMESPACE_COUNT = 50;
+    private static final String[] FOLDERS = { "assets/%s/textures/block/", "assets/%s/textures/item/", "assets/%s/models/item/", "data/%s/recipe/", "data/%s/loot_table/blocks/" };
+
+    @Param({ "JAR_FILE", "MEMORY_MAPPED" })
+    public JarFileBackend backend;
+
+    private Path tempDir;
+    private JarContents contents;
+
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("jarnamespacebenchmark");
+        var jar = tempDir.resolve("benchmark.jar");
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        try (var out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                // Spread the namespaces over the jar, as the order of entries in a jar is arbitrary
+                var namespace = "mod" + (i % NAMESPACE_COUNT);
+                var name = FOLDERS[(i / NAMESPACE_COUNT) % FOLDERS.length].formatted(namespace) + "entry" + i + ".json";
+                out.putNextEntry(new ZipEntry(name));
+                out.write(name.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        contents = backend.open(jar);
+        // Exclude building any lookup structures from the measurements
+        contents.listFolder("");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        contents.close();
+        PathUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public int visitNamespace() {
+        int[] count = new int[1];
+        contents.visitContent("assets/mod42", (relativePath, resource) -> count[0]++);
+        return count[0];
+    }
+
+    @Benchmark
+    public int visitNamespaceFolder() {
+        int[] count = new int[1];
+        contents.visitContent("data/mod42/recipe", (relativePath, resource) -> count[0]++);
+        return count[0];
+    }
+
+    @Benchmark
+    public List<String> listNamespaceFolder() {
+        return contents.listFolder("assets/mod42/textures");
+    }
+}
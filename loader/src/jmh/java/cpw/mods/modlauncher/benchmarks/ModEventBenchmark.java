@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import net.neoforged.bus.api.BusBuilder;
+import net.neoforged.bus.api.Event;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.fml.ListenedEventTypes;
+import net.neoforged.fml.ModContainer;
+import net.neoforged.fml.ModEventTargets;
+import net.neoforged.fml.event.IModBusEvent;
+import net.neoforged.neoforgespi.language.IModInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures posting an event to 1000 mods at every priority, where only every fiftieth mod has a listener for it,
+ * by posting to all mods and by posting only to the mods that may have a listener.
+ */
+@State(Scope.Benchmark)
+public class ModEventBenchmark {
+    private static final int MOD_COUNT = 1000;
+    private static final int LISTENING_MOD_INTERVAL = 50;
+
+    private List<ModContainer> mods;
+    private ModEventTargets targets;
+    private int received;
+
+    @Setup
+    public void setup() {
+        mods = new ArrayList<>(MOD_COUNT);
+        for (int i = 0; i < MOD_COUNT; i++) {
+            var mod = createMod("mod" + i);
+            if (i % LISTENING_MOD_INTERVAL == 0) {
+                mod.getEventBus().addListener(BenchmarkEvent.class, e -> received++);
+            }
+            mods.add(mod);
+        }
+        targets = new ModEventTargets(mods);
+    }
+
+    @Benchmark
+    public int postToAllMods() {
+        var event = new BenchmarkEvent();
+        for (var priority : EventPriority.values()) {
+            for (var mod : mods) {
+                mod.acceptEvent(priority, event);
+            }
+        }
+        return received;
+    }
+
+    @Benchmark
+    public int postToListeningMods() {
+        var event = new BenchmarkEvent();
+        for (var priority : EventPriority.values()) {
+            for (var mod : targets.get(BenchmarkEvent.class)) {
+                mod.acceptEvent(priority, event);
+            }
+        }
+        return received;
+    }
+
+    private static ModContainer createMod(String modId) {
+        var modInfo = (IModInfo) Proxy.newProxyInstance(IModInfo.class.getClassLoader(), new Class<?>[] { IModInfo.class }, (proxy, method, args) -> switch (method.getName()) {
+            case "getModId" -> modId;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> null;
+        });
+        var listenedEventTypes = new ListenedEventTypes();
+        var bus = BusBuilder.builder()
+                .markerType(IModBusEvent.class)
+                .classChecker(listenedEventTypes)
+                .allowPerPhasePost()
+                .build();
+        return new ModContainer(modInfo) {
+            @Override
+            public IEventBus getEventBus() {
+                return bus;
+            }
+
+            @Override
+            public ListenedEventTypes getListenedEventTypes() {
+                return listenedEventTypes;
+            }
+        };
+    }
+
+    public static class BenchmarkEvent extends Event implements IModBusEvent {}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import net.neoforged.fml.classloading.transformation.ClassHierarchyRecomputationContext;
+import net.neoforged.fml.classloading.transformation.ClassProcessorAuditLog;
+import net.neoforged.fml.classloading.transformation.ClassProcessorSet;
+import net.neoforged.fml.classloading.transformation.ClassTransformer;
+import net.neoforged.neoforgespi.transformation.ClassProcessor;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
+import net.neoforged.neoforgespi.transformation.ProcessorName;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures an access-flag-only rewrite of a class, depending on what the processor declares it needs to be parsed.
+ */
+@State(Scope.Benchmark)
+public class ParsingBenchmark {
+    private static final String CLASS_NAME = "cpw.mods.modlauncher.testjar.TestClass";
+
+    @Param({ "everything", "code", "nothing" })
+    public String requirements;
+
+    private ClassTransformer classTransformer;
+    private ClassProcessorAuditLog auditTrail;
+    private ClassHierarchyRecomputationContext classHierarchyContext;
+    private byte[] classBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        var parseRequirements = switch (requirements) {
+            case "everything" -> ClassProcessor.ParseRequirement.ALL;
+            case "code" -> Set.of(ClassProcessor.ParseRequirement.CODE);
+            default -> ClassProcessor.ParseRequirement.NONE;
+        };
+        var classProcessorSet = ClassProcessorSet.of(new ClassProcessor() {
+            @Override
+            public ProcessorName name() {
+                return new ProcessorName("benchmark", "make_public");
+            }
+
+            @Override
+            public ClassTargeting targeting() {
+                return ClassTargeting.classes(List.of(CLASS_NAME));
+            }
+
+            @Override
+            public Set<ParseRequirement> parseRequirements() {
+                return parseRequirements;
+            }
+
+            @Override
+            public boolean handlesClass(SelectionContext context) {
+                return true;
+            }
+
+            @Override
+            public ComputeFlags processClass(TransformationContext context) {
+                var node = context.node();
+                node.access = (node.access & ~(Opcodes.ACC_PRIVATE | Opcodes.ACC_PROTECTED)) | Opcodes.ACC_PUBLIC;
+                return ComputeFlags.SIMPLE_REWRITE;
+            }
+        });
+        auditTrail = new ClassProcessorAuditLog();
+        classTransformer = new ClassTransformer(classProcessorSet, auditTrail);
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream("cpw/mods/modlauncher/testjar/TestClass.class")) {
+            classBytes = is.readAllBytes();
+        }
+        classHierarchyContext = new ClassHierarchyRecomputationContext() {
+            @Override
+            public Class<?> findLoadedClass(String name) {
+                return null;
+            }
+
+            @Override
+            public byte[] upToFrames(String className) throws ClassNotFoundException {
+                throw new ClassNotFoundException();
+            }
+
+            @Override
+            public Class<?> locateParentClass(String className) throws ClassNotFoundException {
+                throw new ClassNotFoundException();
+            }
+        };
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearLog() {
+        auditTrail.clear();
+    }
+
+    @Benchmark
+    public byte[] rewriteAccessFlags() {
+        return classTransformer.transform(classBytes, CLASS_NAME, null, classHierarchyContext);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import java.io.IOException;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import net.neoforged.fml.classloading.JarContentsModule;
+import net.neoforged.fml.classloading.JarContentsModuleFinder;
+import net.neoforged.fml.classloading.ModuleClassLoader;
+import net.neoforged.fml.jarcontents.JarContents;
+import org.apache.commons.io.file.PathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures looking up resources that are not in any package of a module, through a {@link ModuleClassLoader} that
+ * defines a large number of modules, with and without its resource index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResourceLookupBenchmark {
+    private static final int MODULE_COUNT = 500;
+
+    @Param({ "true", "false" })
+    public boolean useIndex;
+
+    private Path tempDir;
+    private List<JarContents> contents;
+    private ModuleClassLoader classLoader;
+
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("resourcelookupbenchmark");
+        contents = new ArrayList<>(MODULE_COUNT);
+        var modules = new ArrayList<JarContentsModule>(MODULE_COUNT);
+        for (int i = 0; i < MODULE_COUNT; i++) {
+            var jar = tempDir.resolve("mod" + i + ".jar");
+            var manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().putValue("Automatic-Module-Name", "benchmark.mod" + i);
+            try (var out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+                writeResource(out, "benchmark/mod" + i + "/Resource.txt");
+                writeResource(out, "mod" + i + ".mixins.json");
+                writeResource(out, "pack.mcmeta");
+            }
+            var jarContents = JarContents.ofPath(jar);
+            contents.add(jarContents);
+            modules.add(new JarContentsModule(jarContents));
+        }
+
+        if (useIndex) {
+            System.clearProperty("fml.disableResourceIndex");
+        } else {
+            System.setProperty("fml.disableResourceIndex", "true");
+        }
+        var configuration = Configuration.resolveAndBind(
+                new JarContentsModuleFinder(modules),
+                List.of(ModuleLayer.boot().configuration()),
+                ModuleFinder.of(),
+                modules.stream().map(JarContentsModule::moduleName).toList());
+        classLoader = new ModuleClassLoader("benchmark", configuration, List.of(ModuleLayer.boot()));
+        ModuleLayer.defineModules(configuration, List.of(ModuleLayer.boot()), m -> classLoader);
+        System.clearProperty("fml.disableResourceIndex");
+        // Builds the index outside the measurement
+        classLoader.getResource("missing.json");
+    }
+
+    private static void writeResource(JarOutputStream out, String name) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.write(name.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        classLoader.close();
+        for (var jarContents : contents) {
+            jarContents.close();
+        }
+        PathUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public Object findUniqueResource() throws IOException {
+        return classLoader.getResources("mod250.mixins.json");
+    }
+
+    @Benchmark
+    public Object findSharedResource() throws IOException {
+        return classLoader.getResources("pack.mcmeta");
+    }
+
+    @Benchmark
+    public Object findMissingResource() throws IOException {
+        return classLoader.getResources("missing.json");
+    }
+}
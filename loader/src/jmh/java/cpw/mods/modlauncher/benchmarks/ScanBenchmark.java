@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+import net.neoforged.fml.loading.modscan.ModClassVisitor;
+import net.neoforged.fml.loading.modscan.Scanner;
+import net.neoforged.neoforgespi.language.ModFileScanData;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.spongepowered.asm.mixin.Mixins;
+
+/**
+ * Measures scanning all classes of real jars from the classpath for annotations, with the constant pool prefilter
+ * of {@link Scanner#scanClass} and by visiting every class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScanBenchmark {
+    @Param({ "guava", "mixin" })
+    public String jar;
+
+    private List<byte[]> classFiles;
+
+    @Setup
+    public void setup() throws Exception {
+        var jarClass = switch (jar) {
+            case "guava" -> ImmutableList.class;
+            case "mixin" -> Mixins.class;
+            default -> throw new IllegalArgumentException(jar);
+        };
+        var jarPath = Path.of(jarClass.getProtectionDomain().getCodeSource().getLocation().toURI());
+        classFiles = readClassFiles(jarPath);
+    }
+
+    private static List<byte[]> readClassFiles(Path jarPath) throws IOException {
+        var result = new ArrayList<byte[]>();
+        try (var zipFile = new ZipFile(jarPath.toFile())) {
+            var entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                if (entry.getName().endsWith(".class")) {
+                    try (var in = zipFile.getInputStream(entry)) {
+                        result.add(in.readAllBytes());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ModFileScanData scanWithPrefilter() {
+        var result = new ModFileScanData();
+        for (var classFile : classFiles) {
+            Scanner.scanClass(classFile, result);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ModFileScanData scanWithVisitor() {
+        var result = new ModFileScanData();
+        for (var classFile : classFiles) {
+            var visitor = new ModClassVisitor();
+            new ClassReader(classFile).accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG);
+            visitor.buildData(result.getClasses(), result.getAnnotations());
+        }
+        return result;
+    }
+}
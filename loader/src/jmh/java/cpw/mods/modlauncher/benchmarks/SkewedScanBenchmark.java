@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package cpw.mods.modlauncher.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.loading.moddiscovery.ModFile;
+import net.neoforged.fml.loading.modscan.Scanner;
+import net.neoforged.neoforgespi.language.ModFileScanData;
+import net.neoforged.neoforgespi.locating.ModFileDiscoveryAttributes;
+import org.apache.commons.io.file.PathUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures scanning a skewed installation, with one jar of 40000 classes and 100 jars of 200 classes, on a fixed
+ * pool that scans each file on one thread and on a work-stealing pool that scans files in chunks of classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SkewedScanBenchmark {
+    private static final int LARGE_JAR_CLASSES = 40_000;
+    private static final int SMALL_JARS = 100;
+    private static final int SMALL_JAR_CLASSES = 200;
+
+    @Param({ "PER_FILE", "WORK_STEALING" })
+    public String pool;
+
+    private Path tempDir;
+    private List<ModFile> modFiles;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("skewedscanbenchmark");
+        var jars = new ArrayList<Path>();
+        jars.add(writeJar(tempDir.resolve("large.jar"), "large", LARGE_JAR_CLASSES));
+        for (int i = 0; i < SMALL_JARS; i++) {
+            jars.add(writeJar(tempDir.resolve("small" + i + ".jar"), "small" + i, SMALL_JAR_CLASSES));
+        }
+        modFiles = new ArrayList<>();
+        for (var jar : jars) {
+            modFiles.add(new ModFile(JarContents.ofPath(jar), file -> null, new ModFileDiscoveryAttributes(null, null, null, null)));
+        }
+
+        int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = switch (pool) {
+            case "PER_FILE" -> Executors.newFixedThreadPool(poolSize);
+            case "WORK_STEALING" -> new ForkJoinPool(poolSize, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+            default -> throw new IllegalArgumentException(pool);
+        };
+    }
+
+    private static Path writeJar(Path jar, String packageName, int classCount) throws IOException {
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        try (var out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (int i = 0; i < classCount; i++) {
+                var name = packageName + "/pkg" + (i % 20) + "/Class" + i;
+                out.putNextEntry(new ZipEntry(name + ".class"));
+                // Every eighth class carries an annotation, as is typical for mods
+                out.write(createClass(name, i % 8 == 0));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static byte[] createClass(String name, boolean annotated) {
+        var cw = new ClassWriter(0);
+        cw.visit(Opcodes.V21, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", new String[] { "java/lang/Runnable" });
+        if (annotated) {
+            var av = cw.visitAnnotation("Lbenchmark/Marker;", true);
+            av.visit("value", name);
+            av.visitEnd();
+        }
+        for (int i = 0; i < 5; i++) {
+            cw.visitField(Opcodes.ACC_PRIVATE, "field" + i, "I", null, null).visitEnd();
+        }
+        var mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "run", "()V", null, null);
+        mv.visitCode();
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 1);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        for (var modFile : modFiles) {
+            modFile.getContents().close();
+        }
+        PathUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public int scanAll() {
+        var scans = new ArrayList<CompletableFuture<ModFileScanData>>(modFiles.size());
+        for (var modFile : modFiles) {
+            scans.add(CompletableFuture.supplyAsync(() -> new Scanner(modFile).scan(), executor));
+        }
+        int classes = 0;
+        for (var scan : scans) {
+            classes += scan.join().getClasses().size();
+        }
+        return classes;
+    }
+}
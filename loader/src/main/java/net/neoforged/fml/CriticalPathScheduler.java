@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml;
+
+import static net.neoforged.fml.Logging.LOADING;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import net.neoforged.neoforgespi.language.IModInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs a task for each mod in parallel, starting the task of a mod once the tasks of all its dependencies completed.
+ * <p>
+ * Of all mods whose dependencies completed, the task of the mod with the longest remaining path to the end of the
+ * dispatch runs first, so that long chains of slow mods start as early as possible. A path is weighed by the
+ * {@linkplain ModTaskTimings time its mods took} in the previous launch. Mods without a recorded time are assumed to
+ * take the median time of the others, so that without any timings, paths are weighed by the number of mods on them.
+ */
+final class CriticalPathScheduler {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @FunctionalInterface
+    interface ModTask {
+        /**
+         * Runs the task for a mod.
+         *
+         * @param dependencyFailure The exception of a dependency's task, or null if the tasks of all dependencies
+         *                          completed normally.
+         */
+        void run(ModContainer modContainer, @Nullable Throwable dependencyFailure);
+    }
+
+    private final String name;
+    private final Task[] tasks;
+    private final boolean hasPredictions;
+    private final PriorityBlockingQueue<Task> readyTasks;
+    private long startTime;
+
+    CriticalPathScheduler(String name, List<ModContainer> modContainers, Function<ModContainer, List<? extends IModInfo>> dependencies, Map<String, Long> predictedDurations) {
+        this.name = name;
+        this.tasks = new Task[modContainers.size()];
+        this.readyTasks = new PriorityBlockingQueue<>(Math.max(1, tasks.length),
+                Comparator.comparingLong((Task task) -> task.remainingPath).reversed().thenComparingInt(task -> task.index));
+
+        var known = modContainers.stream()
+                .map(modContainer -> predictedDurations.get(modContainer.getModId()))
+                .filter(duration -> duration != null && duration > 0)
+                .sorted()
+                .toList();
+        this.hasPredictions = !known.isEmpty();
+        long defaultDuration = hasPredictions ? known.get(known.size() / 2) : 1;
+
+        Map<IModInfo, Task> byModInfo = new IdentityHashMap<>(tasks.length);
+        for (int i = 0; i < tasks.length; i++) {
+            var modContainer = modContainers.get(i);
+            var deps = dependencies.apply(modContainer).stream()
+                    .map(modInfo -> {
+                        var dependency = byModInfo.get(modInfo);
+                        if (dependency == null) {
+                            throw new IllegalStateException("Dependency future for mod %s which is a dependency of %s not found!".formatted(
+                                    modInfo.getModId(), modContainer.getModId()));
+                        }
+                        return dependency;
+                    })
+                    .toArray(Task[]::new);
+            var predicted = predictedDurations.get(modContainer.getModId());
+            var task = new Task(i, modContainer, deps, predicted != null && predicted > 0 ? predicted : defaultDuration);
+            for (var dependency : deps) {
+                dependency.dependents.add(task);
+            }
+            tasks[i] = task;
+            byModInfo.put(modContainer.getModInfo(), task);
+        }
+
+        // Mods are sorted such that dependents come after their dependencies
+        for (int i = tasks.length - 1; i >= 0; i--) {
+            var task = tasks[i];
+            long longestDependent = 0;
+            for (var dependent : task.dependents) {
+                longestDependent = Math.max(longestDependent, dependent.remainingPath);
+            }
+            task.remainingPath = task.predictedDuration + longestDependent;
+        }
+    }
+
+    /**
+     * Starts running the task for all mods.
+     *
+     * @return the futures of the mods' tasks, in the order of the mods
+     */
+    List<CompletableFuture<Void>> start(Executor executor, ModTask modTask) {
+        startTime = System.nanoTime();
+        var roots = new ArrayList<Task>();
+        for (var task : tasks) {
+            if (task.dependencies.length == 0) {
+                readyTasks.add(task);
+                roots.add(task);
+            } else {
+                var dependencyFutures = Arrays.stream(task.dependencies).map(dependency -> dependency.future).toArray(CompletableFuture[]::new);
+                CompletableFuture.allOf(dependencyFutures).whenComplete((void_, exception) -> {
+                    task.dependencyFailure = exception;
+                    readyTasks.add(task);
+                    runNextTask(executor, modTask);
+                });
+            }
+        }
+        // Only submit the tasks once all mods without dependencies are ready, so that they start in order
+        for (int i = 0; i < roots.size(); i++) {
+            runNextTask(executor, modTask);
+        }
+        return Arrays.stream(tasks).map(task -> task.future).toList();
+    }
+
+    /**
+     * Submits a run of the ready task with the longest remaining path. Exactly one run is submitted for each task
+     * that becomes ready, but which task it runs is only decided once it starts.
+     */
+    private void runNextTask(Executor executor, ModTask modTask) {
+        try {
+            executor.execute(() -> {
+                var task = readyTasks.poll();
+                if (task != null) {
+                    task.run(modTask);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            var task = readyTasks.poll();
+            if (task != null) {
+                task.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * {@return the time the task took for each mod whose task completed normally, in nanoseconds}
+     */
+    Map<String, Long> getDurations() {
+        var durations = new HashMap<String, Long>();
+        for (var task : tasks) {
+            if (task.dependencyFailure == null && task.future.isDone() && !task.future.isCompletedExceptionally()) {
+                durations.put(task.modContainer.getModId(), task.endTime - task.startTime);
+            }
+        }
+        return durations;
+    }
+
+    /**
+     * Logs the critical path that was predicted before the tasks ran, and the one that actually determined how long
+     * it took until the tasks of all mods completed.
+     */
+    void logCriticalPaths() {
+        if (tasks.length == 0 || !LOGGER.isDebugEnabled(LOADING)) {
+            return;
+        }
+
+        var predicted = new ArrayList<Task>();
+        var next = Arrays.stream(tasks).filter(task -> task.dependencies.length == 0).max(Comparator.comparingLong(task -> task.remainingPath)).orElse(null);
+        while (next != null) {
+            predicted.add(next);
+            next = next.dependents.stream().max(Comparator.comparingLong(task -> task.remainingPath)).orElse(null);
+        }
+        LOGGER.debug(LOADING, "Predicted critical path of {} ({}): {}", name,
+                hasPredictions ? toMillis(predicted.getFirst().remainingPath) + " ms" : "no timings of previous launch",
+                describePath(predicted));
+
+        // Walk back from the task that completed last, through the dependency that held up each task the longest
+        var actual = new ArrayList<Task>();
+        next = Arrays.stream(tasks).max(Comparator.comparingLong(task -> task.endTime)).orElseThrow();
+        while (next != null) {
+            actual.add(next);
+            next = Arrays.stream(next.dependencies).max(Comparator.comparingLong(task -> task.endTime)).orElse(null);
+        }
+        Collections.reverse(actual);
+        long pathDuration = actual.stream().mapToLong(task -> task.endTime - task.startTime).sum();
+        long totalDuration = actual.getLast().endTime - startTime;
+        LOGGER.debug(LOADING, "Actual critical path of {} ({} ms, {} ms in total): {}", name, toMillis(pathDuration), toMillis(totalDuration), describePath(actual));
+    }
+
+    private static String describePath(List<Task> path) {
+        return path.stream().map(task -> task.modContainer.getModId()).collect(Collectors.joining(" -> "));
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static final class Task {
+        private final int index;
+        private final ModContainer modContainer;
+        private final Task[] dependencies;
+        private final List<Task> dependents = new ArrayList<>();
+        private final long predictedDuration;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private long remainingPath;
+        @Nullable
+        private Throwable dependencyFailure;
+        // Written before the future completes, and only read after
+        private long startTime;
+        private long endTime;
+
+        private Task(int index, ModContainer modContainer, Task[] dependencies, long predictedDuration) {
+            this.index = index;
+            this.modContainer = modContainer;
+            this.dependencies = dependencies;
+            this.predictedDuration = predictedDuration;
+        }
+
+        private void run(ModTask modTask) {
+            startTime = System.nanoTime();
+            try {
+                modTask.run(modContainer, dependencyFailure);
+                endTime = System.nanoTime();
+                future.complete(null);
+            } catch (Throwable e) {
+                endTime = System.nanoTime();
+                future.completeExceptionally(e instanceof CompletionException ? e : new CompletionException(e));
+            }
+        }
+    }
+}
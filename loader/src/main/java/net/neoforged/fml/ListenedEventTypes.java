@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.neoforged.bus.api.BusBuilder;
+import net.neoforged.bus.api.Event;
+import net.neoforged.bus.api.IEventClassChecker;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Collects the types of events that listeners were registered for on an event bus, so that posting an event to all
+ * mods can skip the mods that cannot have a listener for it.
+ * <p>
+ * It is installed as the {@linkplain BusBuilder#classChecker class checker} of the bus, which the bus calls with
+ * the type of every listener that is registered to it, including the types it infers from lambdas. Listeners are
+ * never considered removed, so the collected types may include more but never fewer types than the bus actually
+ * has listeners for.
+ */
+@ApiStatus.Internal
+public final class ListenedEventTypes implements IEventClassChecker {
+    private final Set<Class<?>> types = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger version = new AtomicInteger();
+
+    @Override
+    public void check(Class<? extends Event> eventClass) {
+        if (types.add(eventClass)) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * {@return whether a listener was registered for the given type of event or one of its supertypes}
+     */
+    public boolean mayHaveListener(Class<?> eventType) {
+        for (var type : types) {
+            if (type.isAssignableFrom(eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return a number that changes whenever a new type of event is listened to}
+     * Any result of {@link #mayHaveListener} is outdated once this changes.
+     */
+    public int version() {
+        return version.get();
+    }
+}
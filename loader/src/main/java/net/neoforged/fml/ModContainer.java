@@ -144,6 +144,17 @@ public abstract class ModContainer {
     @Nullable
     public abstract IEventBus getEventBus();
 
+    /**
+     * {@return the types of events that listeners were registered for on the {@linkplain #getEventBus() event bus},
+     * or null if they are unknown}
+     * Events are only posted to mods that may listen to them, or whose listened types are unknown.
+     */
+    @ApiStatus.Internal
+    @Nullable
+    public ListenedEventTypes getListenedEventTypes() {
+        return null;
+    }
+
     /**
      * Accept an arbitrary event for processing by the mod. Posted to {@link #getEventBus()}.
      * 
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Determines which mods to post an event to, skipping the mods whose event bus
+ * {@linkplain ListenedEventTypes cannot have a listener} for the event.
+ * <p>
+ * The mods are determined once per type of event, and again once any of the mods started listening to another type
+ * of event.
+ */
+@ApiStatus.Internal
+public final class ModEventTargets {
+    private final List<ModContainer> mods;
+    private final Map<Class<?>, Targets> targetsByEventType = new ConcurrentHashMap<>();
+
+    /**
+     * @param mods The mods to post events to, in the order to post them in.
+     */
+    public ModEventTargets(List<ModContainer> mods) {
+        this.mods = List.copyOf(mods);
+    }
+
+    /**
+     * {@return the mods that may have a listener for the given type of event, in order}
+     */
+    public List<ModContainer> get(Class<?> eventType) {
+        long version = version();
+        var targets = targetsByEventType.get(eventType);
+        if (targets == null || targets.version() != version) {
+            targets = computeTargets(eventType, version);
+            targetsByEventType.put(eventType, targets);
+        }
+        return targets.mods();
+    }
+
+    /**
+     * The sum of the versions of the listened types of all mods, which only ever grow, so that it changes whenever
+     * the version of any mod changes.
+     */
+    private long version() {
+        long version = 0;
+        for (var mod : mods) {
+            var listenedEventTypes = mod.getListenedEventTypes();
+            if (listenedEventTypes != null) {
+                version += listenedEventTypes.version();
+            }
+        }
+        return version;
+    }
+
+    private Targets computeTargets(Class<?> eventType, long version) {
+        var targets = new ArrayList<ModContainer>();
+        for (var mod : mods) {
+            var listenedEventTypes = mod.getListenedEventTypes();
+            if (mod.getEventBus() != null && (listenedEventTypes == null || listenedEventTypes.mayHaveListener(eventType))) {
+                targets.add(mod);
+            }
+        }
+        return new Targets(version, List.copyOf(targets));
+    }
+
+    /**
+     * @param version The {@linkplain #version() version} the targets were computed at.
+     */
+    private record Targets(long version, List<ModContainer> mods) {}
+}
@@ -45,6 +45,7 @@ public class ModList {
     private Map<String, ModContainer> indexedMods;
     private List<ModFileScanData> modFileScanData;
     private List<ModContainer> sortedContainers;
+    private ModEventTargets eventTargets;
 
     private ModList(List<ModFile> modFiles, List<ModInfo> sortedList) {
         this.modFiles = modFiles.stream().map(ModFile::getModFileInfo).toList();
@@ -120,6 +121,7 @@ public class ModList {
         this.mods = modContainers;
         this.sortedContainers = modContainers.stream().sorted(Comparator.comparingInt(c -> sortedList.indexOf(c.getModInfo()))).toList();
         this.indexedMods = modContainers.stream().collect(Collectors.toMap(ModContainer::getModId, Function.identity()));
+        this.eventTargets = new ModEventTargets(sortedContainers);
     }
 
     public Optional<? extends ModContainer> getModContainerById(String modId) {
@@ -175,6 +177,13 @@ public class ModList {
         this.sortedContainers.forEach(containerConsumer);
     }
 
+    /**
+     * Calls the consumer for each mod that may have a listener for the given type of event, in order.
+     */
+    void forEachModListeningInOrder(Class<?> eventType, Consumer<ModContainer> containerConsumer) {
+        this.eventTargets.get(eventType).forEach(containerConsumer);
+    }
+
     public <T> Stream<T> applyForEachModContainer(Function<ModContainer, T> function) {
         return indexedMods.values().stream().map(function);
     }
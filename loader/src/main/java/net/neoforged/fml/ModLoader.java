@@ -8,6 +8,7 @@ package net.neoforged.fml;
 import static net.neoforged.fml.Logging.CORE;
 import static net.neoforged.fml.Logging.LOADING;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -19,7 +20,6 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -28,10 +28,13 @@ import net.neoforged.bus.api.Event;
 import net.neoforged.bus.api.EventPriority;
 import net.neoforged.fml.event.IModBusEvent;
 import net.neoforged.fml.event.lifecycle.FMLConstructModEvent;
+import net.neoforged.fml.event.lifecycle.FMLLoadCompleteEvent;
 import net.neoforged.fml.event.lifecycle.ParallelDispatchEvent;
 import net.neoforged.fml.i18n.FMLTranslations;
 import net.neoforged.fml.loading.FMLLoader;
+import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.fml.loading.LoadingModList;
+import net.neoforged.fml.loading.StartupWait;
 import net.neoforged.fml.loading.moddiscovery.ModFileInfo;
 import net.neoforged.fml.loading.progress.StartupNotificationManager;
 import net.neoforged.neoforgespi.language.IModInfo;
@@ -57,9 +60,15 @@ public final class ModLoader {
     private ModLoader() {}
 
     private static final Logger LOGGER = LogManager.getLogger();
+    /**
+     * The interval at which the periodic task runs while waiting for tasks on other threads.
+     */
+    private static final Duration TICK_INTERVAL = Duration.ofMillis(50);
 
     private static final List<ModLoadingIssue> loadingIssues = new ArrayList<>();
     private static ModList modList;
+    @Nullable
+    private static ModTaskTimings taskTimings;
 
     /**
      * Run on the primary starting thread by ClientModLoader and ServerModLoader
@@ -97,6 +106,7 @@ public final class ModLoader {
 
         modList.setLoadedMods(modContainers);
         ModLoader.modList = modList;
+        taskTimings = new ModTaskTimings(FMLPaths.MOD_TASK_TIMINGS.get());
 
         constructMods(syncExecutor, parallelExecutor, periodicTask);
     }
@@ -146,6 +156,17 @@ public final class ModLoader {
         runInitTask(name + ": Deferred Queue", syncExecutor, periodicTask, workQueue::runTasks);
     }
 
+    /**
+     * Called on the main thread once the last loading task, usually the dispatch of {@link FMLLoadCompleteEvent},
+     * has completed. Persists the time each mod took for the parallel tasks of this launch, which are used to schedule
+     * them in the next launch.
+     */
+    public static void finishLoading() {
+        if (taskTimings != null) {
+            taskTimings.save();
+        }
+    }
+
     /**
      * Waits for a task to complete, displaying the name of the task on the loading screen.
      */
@@ -171,87 +192,75 @@ public final class ModLoader {
         var progress = StartupNotificationManager.addProgressBar(name, modList.size());
         try {
             periodicTask.run();
-            Map<IModInfo, CompletableFuture<Void>> modFutures = new IdentityHashMap<>(modList.size());
-            var futureList = modList.getSortedMods().stream()
-                    .map(modContainer -> {
-                        // Collect futures for all dependencies first
-                        var depFutures = FMLLoader.getCurrent().getLoadingModList().getDependencies(modContainer.getModInfo()).stream()
-                                .map(modInfo -> {
-                                    var future = modFutures.get(modInfo);
-                                    if (future == null) {
-                                        throw new IllegalStateException("Dependency future for mod %s which is a dependency of %s not found!".formatted(
-                                                modInfo.getModId(), modContainer.getModId()));
-                                    }
-                                    return future;
-                                })
-                                .toArray(CompletableFuture[]::new);
-
-                        // Build the future for this container
-                        var future = CompletableFuture.allOf(depFutures)
-                                .<Void>handleAsync((void_, exception) -> {
-                                    if (exception != null) {
-                                        // If there was any exception, short circuit.
-                                        // The exception will already be handled by `waitForFuture` since it comes from another mod.
-                                        LOGGER.debug("Skipping {} task for mod {} because a dependency threw an exception.", name, modContainer.getModId());
-                                        progress.increment();
-                                        // Throw a marker exception to make sure that dependencies of *this* task don't get executed.
-                                        throw new DependentFutureFailedException();
-                                    }
-
-                                    try {
-                                        ModLoadingContext.get().setActiveContainer(modContainer);
-                                        task.accept(modContainer);
-                                    } finally {
-                                        progress.increment();
-                                        ModLoadingContext.get().setActiveContainer(null);
-                                    }
-                                    return null;
-                                }, parallelExecutor);
-                        modFutures.put(modContainer.getModInfo(), future);
-                        return future;
-                    })
-                    .toList();
+            var scheduler = new CriticalPathScheduler(name, modList.getSortedMods(),
+                    modContainer -> FMLLoader.getCurrent().getLoadingModList().getDependencies(modContainer.getModInfo()),
+                    taskTimings != null ? taskTimings.get(name) : Map.of());
+            var futureList = scheduler.start(parallelExecutor, (modContainer, exception) -> {
+                if (exception != null) {
+                    // If there was any exception, short circuit.
+                    // The exception will already be handled by `waitForFuture` since it comes from another mod.
+                    LOGGER.debug("Skipping {} task for mod {} because a dependency threw an exception.", name, modContainer.getModId());
+                    progress.increment();
+                    // Throw a marker exception to make sure that dependencies of *this* task don't get executed.
+                    throw new DependentFutureFailedException();
+                }
+
+                try {
+                    ModLoadingContext.get().setActiveContainer(modContainer);
+                    task.accept(modContainer);
+                } finally {
+                    progress.increment();
+                    ModLoadingContext.get().setActiveContainer(null);
+                }
+            });
             var singleFuture = ModList.gather(futureList)
                     .thenCompose(ModList::completableFutureFromExceptionList);
             waitForFuture(name, periodicTask, singleFuture);
+            scheduler.logCriticalPaths();
+            if (taskTimings != null) {
+                taskTimings.record(name, scheduler.getDurations());
+            }
         } finally {
             progress.complete();
         }
     }
 
     private static void waitForFuture(String name, Runnable periodicTask, CompletableFuture<?> future) {
-        while (true) {
-            periodicTask.run();
-            try {
-                future.get(50, TimeUnit.MILLISECONDS);
-                return;
-            } catch (ExecutionException e) {
-                // Merge all potential modloading issues
-                var issueCountBefore = loadingIssues.size();
-                // Add the cause itself if it seems meaningful based on its type and/or message, since we'd
-                // present this exception to the user using toString().
-                // "RuntimeException: null" or "IllegalStateException: null" isn't meaningful.
-                if (isMeaningfulException(e.getCause())) {
-                    addLoadingIssuesFromException(name, e.getCause());
-                }
-                for (var error : e.getCause().getSuppressed()) {
-                    // When a prerequisite of the task failed due to an exception, skip this so only
-                    // the root cause is reported.
-                    if (!(error instanceof DependentFutureFailedException)) {
-                        addLoadingIssuesFromException(name, error);
-                    }
-                }
-                // If we discarded all exceptions, we'd report an empty issue list while still canceling the loading process
-                // Fall back to using the cause.
-                if (loadingIssues.isEmpty()) {
-                    addLoadingIssuesFromException(name, e.getCause());
+        try {
+            StartupWait.await(name, future, periodicTask, TICK_INTERVAL);
+        } catch (InterruptedException e) {
+            // Abandon loading, since the tasks may still be running
+            Thread.currentThread().interrupt();
+            addLoadingIssuesFromException(name, e);
+            LOGGER.fatal(LOADING, "Interrupted while waiting for future {}", name);
+            cancelLoading(modList);
+            throw new ModLoadingException(loadingIssues);
+        } catch (ExecutionException e) {
+            // Merge all potential modloading issues
+            var issueCountBefore = loadingIssues.size();
+            // Add the cause itself if it seems meaningful based on its type and/or message, since we'd
+            // present this exception to the user using toString().
+            // "RuntimeException: null" or "IllegalStateException: null" isn't meaningful.
+            if (isMeaningfulException(e.getCause())) {
+                addLoadingIssuesFromException(name, e.getCause());
+            }
+            for (var error : e.getCause().getSuppressed()) {
+                // When a prerequisite of the task failed due to an exception, skip this so only
+                // the root cause is reported.
+                if (!(error instanceof DependentFutureFailedException)) {
+                    addLoadingIssuesFromException(name, error);
                 }
+            }
+            // If we discarded all exceptions, we'd report an empty issue list while still canceling the loading process
+            // Fall back to using the cause.
+            if (loadingIssues.isEmpty()) {
+                addLoadingIssuesFromException(name, e.getCause());
+            }
 
-                var errorCount = loadingIssues.size() - issueCountBefore;
-                LOGGER.fatal(LOADING, "Failed to wait for future {}, {} errors found", name, errorCount);
-                cancelLoading(modList);
-                throw new ModLoadingException(loadingIssues);
-            } catch (Exception ignored) {}
+            var errorCount = loadingIssues.size() - issueCountBefore;
+            LOGGER.fatal(LOADING, "Failed to wait for future {}, {} errors found", name, errorCount);
+            cancelLoading(modList);
+            throw new ModLoadingException(loadingIssues);
         }
     }
 
@@ -327,7 +336,7 @@ public final class ModLoader {
             return;
         }
         for (EventPriority phase : EventPriority.values()) {
-            ModList.get().forEachModInOrder(mc -> mc.acceptEvent(phase, e));
+            ModList.get().forEachModListeningInOrder(e.getClass(), mc -> mc.acceptEvent(phase, e));
         }
     }
 
@@ -396,5 +405,6 @@ public final class ModLoader {
         LOGGER.info("Clearing ModLoader");
         loadingIssues.clear();
         modList = null;
+        taskTimings = null;
     }
 }
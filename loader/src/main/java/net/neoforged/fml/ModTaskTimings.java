@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The time each mod took for the parallel tasks of the previous launch, which {@link CriticalPathScheduler} uses to
+ * predict how long the tasks take.
+ * <p>
+ * Timings are kept per task name, such as {@code Mod Construction}, and are persisted to a file in the game
+ * directory when {@linkplain ModLoader#finishLoading() loading is finished}. A missing or corrupted file is ignored, in
+ * which case tasks are scheduled without predictions.
+ */
+final class ModTaskTimings {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String HEADER = "# FML mod task timings v1";
+
+    private final Path timingsFile;
+    private final Map<String, Map<String, Long>> timings = new HashMap<>();
+    private boolean loaded;
+    private boolean dirty;
+
+    ModTaskTimings(Path timingsFile) {
+        this.timingsFile = timingsFile;
+    }
+
+    /**
+     * {@return the duration of the given task for each mod in the previous launch, in nanoseconds}
+     */
+    synchronized Map<String, Long> get(String taskName) {
+        loadIfNeeded();
+        return Map.copyOf(timings.getOrDefault(taskName, Map.of()));
+    }
+
+    /**
+     * Records the durations of a task for each mod, which are written to the file by the next {@link #save()}.
+     */
+    synchronized void record(String taskName, Map<String, Long> durations) {
+        loadIfNeeded();
+        if (durations.isEmpty() || !isValidKey(taskName)) {
+            return;
+        }
+        timings.computeIfAbsent(taskName, k -> new HashMap<>()).putAll(durations);
+        dirty = true;
+    }
+
+    /**
+     * Writes all timings to the file, if any were recorded since they were last written.
+     */
+    synchronized void save() {
+        if (dirty) {
+            write();
+        }
+        dirty = false;
+    }
+
+    private void loadIfNeeded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        try {
+            var lines = Files.readAllLines(timingsFile);
+            if (lines.isEmpty() || !HEADER.equals(lines.getFirst())) {
+                LOGGER.debug("Ignoring mod task timings {} with unknown format", timingsFile);
+                return;
+            }
+            for (var line : lines.subList(1, lines.size())) {
+                var parts = line.split("\t", 3);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Malformed line: " + line);
+                }
+                timings.computeIfAbsent(parts[0], k -> new HashMap<>()).put(parts[1], Long.parseLong(parts[2]));
+            }
+        } catch (NoSuchFileException ignored) {
+            // First launch
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring corrupted mod task timings {}: {}", timingsFile, e.toString());
+            timings.clear();
+        }
+    }
+
+    private void write() {
+        var lines = new ArrayList<String>();
+        lines.add(HEADER);
+        timings.forEach((taskName, durations) -> durations.forEach((modId, duration) -> {
+            if (isValidKey(modId)) {
+                lines.add(taskName + "\t" + modId + "\t" + duration);
+            }
+        }));
+
+        try {
+            Files.createDirectories(timingsFile.getParent());
+            var tempFile = Files.createTempFile(timingsFile.getParent(), timingsFile.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tempFile, lines);
+                try {
+                    Files.move(tempFile, timingsFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, timingsFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to save mod task timings to {}", timingsFile, e);
+        }
+    }
+
+    private static boolean isValidKey(String key) {
+        return key.indexOf('\t') == -1 && key.indexOf('\n') == -1 && key.indexOf('\r') == -1;
+    }
+}
@@ -11,9 +11,12 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import net.neoforged.fml.loading.FMLConfig;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.VisibleForTesting;
 
 public class ModWorkManager {
     private static final Logger LOGGER = LogManager.getLogger();
@@ -31,18 +34,38 @@ public class ModWorkManager {
         return syncWorkExecutor;
     }
 
-    private static ForkJoinPool parallelThreadPool;
+    private static Executor parallelWorkExecutor;
 
     /**
      * Executor that runs tasks in parallel across multiple background threads.
      */
     public static Executor parallelExecutor() {
-        if (parallelThreadPool == null) {
-            int loadingThreadCount = FMLConfig.getIntConfigValue(FMLConfig.ConfigValue.MAX_THREADS);
-            LOGGER.debug(LOADING, "Using {} threads for parallel mod-loading", loadingThreadCount);
-            parallelThreadPool = new ForkJoinPool(loadingThreadCount, ModWorkManager::newForkJoinWorkerThread, null, false);
+        if (parallelWorkExecutor == null) {
+            int parallelism = FMLConfig.getIntConfigValue(FMLConfig.ConfigValue.MAX_THREADS);
+            boolean virtualThreads = FMLConfig.getBoolConfigValue(FMLConfig.ConfigValue.VIRTUAL_THREADS);
+            if (virtualThreads) {
+                // The virtual thread scheduler already limits how many tasks use the CPU at once, so this only
+                // bounds how many mods are loading concurrently, including the ones that are blocked
+                parallelism = FMLConfig.getIntConfigValue(FMLConfig.ConfigValue.VIRTUAL_THREAD_TASKS);
+                LOGGER.debug(LOADING, "Using virtual threads for parallel mod-loading, with up to {} tasks at once", parallelism);
+            } else {
+                LOGGER.debug(LOADING, "Using {} threads for parallel mod-loading", parallelism);
+            }
+            parallelWorkExecutor = createParallelExecutor(virtualThreads, parallelism);
         }
-        return parallelThreadPool;
+        return parallelWorkExecutor;
+    }
+
+    /**
+     * @param parallelism The maximum number of tasks running at the same time, which is the number of threads unless
+     *                    virtual threads are used.
+     */
+    @VisibleForTesting
+    static Executor createParallelExecutor(boolean virtualThreads, int parallelism) {
+        if (virtualThreads) {
+            return new VirtualThreadExecutor(parallelism);
+        }
+        return new ForkJoinPool(parallelism, ModWorkManager::newForkJoinWorkerThread, null, false);
     }
 
     private static ForkJoinWorkerThread newForkJoinWorkerThread(ForkJoinPool pool) {
@@ -52,4 +75,35 @@ public class ModWorkManager {
         thread.setContextClassLoader(Thread.currentThread().getContextClassLoader());
         return thread;
     }
+
+    /**
+     * Runs each task on a new virtual thread, with a semaphore bounding how many tasks run at the same time.
+     * <p>
+     * Tasks keep their permit while they are blocked, so the bound has to be well above the number of processors for
+     * blocked tasks not to hold up others.
+     */
+    private static final class VirtualThreadExecutor implements Executor {
+        private final Semaphore permits;
+        private final ThreadFactory threadFactory = Thread.ofVirtual().name("modloading-virtual-worker-", 0).factory();
+        // Virtual threads would otherwise inherit the context class loader of whichever thread submitted the task
+        private final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+        private VirtualThreadExecutor(int maxConcurrentTasks) {
+            this.permits = new Semaphore(maxConcurrentTasks);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            var thread = threadFactory.newThread(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+            thread.setContextClassLoader(contextClassLoader);
+            thread.start();
+        }
+    }
 }
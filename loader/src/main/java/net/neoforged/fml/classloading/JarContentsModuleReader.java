@@ -9,12 +9,30 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.module.ModuleReader;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.stream.Stream;
+import net.neoforged.fml.jarcontents.CompositeJarContents;
+import net.neoforged.fml.jarcontents.EmptyJarContents;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarFileContents;
+import net.neoforged.fml.jarcontents.MappedJarContents;
+import net.neoforged.fml.jarcontents.NestedJarContents;
 
 final class JarContentsModuleReader implements ModuleReader {
+    private static final int MIN_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_BUFFER_SIZE = 256 * 1024;
+    /**
+     * Buffers are shared between all readers, since a buffer is only held from reading a class until it is defined,
+     * and classes are loaded by at most a few threads at a time, whichever module they are in. Pooling two buffers
+     * per processor covers those threads, while the memory held by the pool stays bounded at
+     * {@value #MAX_BUFFER_SIZE} bytes per pooled buffer. Readers that find the pool empty simply allocate.
+     */
+    private static final BlockingQueue<byte[]> BUFFER_POOL = new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
     private final JarContents contents;
 
     public JarContentsModuleReader(JarContents contents) {
@@ -26,11 +44,76 @@ final class JarContentsModuleReader implements ModuleReader {
         return Optional.ofNullable(contents.openFile(name));
     }
 
+    /**
+     * Reads a resource in one go, using its size as a hint. Resources of up to {@value #MAX_BUFFER_SIZE} bytes are
+     * read into pooled buffers, which are reused once the buffer is {@linkplain #release(ByteBuffer) released}.
+     */
+    @Override
+    public Optional<ByteBuffer> read(String name) throws IOException {
+        if (contents instanceof MappedJarContents mappedContents) {
+            // Stored resources are returned as views of the mapped file, and compressed ones are inflated exactly
+            return Optional.ofNullable(mappedContents.readBuffer(name));
+        } else if (contents instanceof NestedJarContents nestedContents) {
+            return Optional.ofNullable(nestedContents.readBuffer(name));
+        }
+        var resource = contents.get(name);
+        if (resource == null) {
+            return Optional.empty();
+        }
+        long size = resource.attributes().size();
+        if (size >= 0 && size <= MAX_BUFFER_SIZE) {
+            var buffer = BUFFER_POOL.poll();
+            if (buffer == null || buffer.length < size) {
+                buffer = new byte[Math.max(MIN_BUFFER_SIZE, Integer.highestOneBit(Math.max(1, (int) size - 1)) << 1)];
+            }
+            try (var in = resource.open()) {
+                int read = in.readNBytes(buffer, 0, (int) size);
+                if (read == size && in.read() == -1) {
+                    return Optional.of(ByteBuffer.wrap(buffer, 0, read));
+                }
+            }
+            // The size hint was wrong, so the resource is read again without it
+            BUFFER_POOL.offer(buffer);
+        }
+        try (var in = resource.open()) {
+            return Optional.of(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    @Override
+    public void release(ByteBuffer bb) {
+        if (bb.hasArray()) {
+            var buffer = bb.array();
+            if (buffer.length >= MIN_BUFFER_SIZE && buffer.length <= MAX_BUFFER_SIZE) {
+                BUFFER_POOL.offer(buffer);
+            }
+        }
+    }
+
     @Override
     public Optional<URI> find(String name) {
         return contents.findFile(name);
     }
 
+    /**
+     * {@return whether the content of this module is fixed for as long as it is open, which is the case for jar files,
+     * but not for folders}
+     */
+    boolean hasFixedContent() {
+        return hasFixedContent(contents);
+    }
+
+    private static boolean hasFixedContent(JarContents contents) {
+        return switch (contents) {
+            case JarFileContents ignored -> true;
+            case MappedJarContents ignored -> true;
+            case NestedJarContents ignored -> true;
+            case EmptyJarContents ignored -> true;
+            case CompositeJarContents composite -> composite.hasFixedContent();
+            default -> false;
+        };
+    }
+
     @Override
     public Stream<String> list() {
         var content = new LinkedHashSet<String>();
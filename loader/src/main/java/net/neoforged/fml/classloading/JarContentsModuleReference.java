@@ -10,6 +10,7 @@ import java.lang.module.ModuleReader;
 import java.lang.module.ModuleReference;
 import java.net.URI;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.NestedJarContents;
 
 final class JarContentsModuleReference extends ModuleReference {
     private final JarContents contents;
@@ -20,6 +21,9 @@ final class JarContentsModuleReference extends ModuleReference {
     }
 
     private static URI getModuleLocation(JarContents contents) {
+        if (contents instanceof NestedJarContents nestedContents) {
+            return nestedContents.getLocation();
+        }
         if (contents.getContentRoots().isEmpty()) {
             return null;
         }
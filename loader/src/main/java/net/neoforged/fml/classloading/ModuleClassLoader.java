@@ -16,11 +16,13 @@ import java.lang.module.ResolvedModule;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.AllPermission;
 import java.security.CodeSigner;
 import java.security.CodeSource;
 import java.security.Permissions;
 import java.security.ProtectionDomain;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -31,6 +33,7 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -81,7 +84,12 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
     private final Map<String, ModuleInfo> moduleInfoCache;
     private final Map<String, ModuleInfo> packageLookup;
     private final Map<String, ClassLoader> parentLoaders;
+    private final ConcurrentHashMap<String, ClassLoadingLock> classLoadingLocks = new ConcurrentHashMap<>();
     private final Configuration configuration;
+    private final boolean useResourceIndex = System.getProperty("fml.disableResourceIndex") == null;
+    @Nullable
+    private volatile ResourceIndex<ModuleInfo> resourceIndex;
+    private final Object resourceIndexLock = new Object();
     private ClassLoader fallbackClassLoader;
     private volatile boolean closed = false;
 
@@ -198,65 +206,152 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
     }
 
     private static byte[] getClassBytes(ModuleInfo moduleInfo, String name) throws IOException {
-        var cname = name.replace('.', '/') + ".class";
         var reader = moduleInfo.getReader();
-        try (var istream = reader.open(cname).orElse(null)) {
-            if (istream == null) {
-                return new byte[0];
-            } else {
-                return istream.readAllBytes();
-            }
+        var buffer = reader.read(toClassFileName(name)).orElse(null);
+        if (buffer == null) {
+            return new byte[0];
+        }
+        try {
+            var bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } finally {
+            reader.release(buffer);
         }
     }
 
+    private static String toClassFileName(String className) {
+        return className.replace('.', '/').concat(".class");
+    }
+
     /**
-     * {@return null if the class should be treated as if it doesn't exist}
+     * Defines a class straight from the buffer it was read into, without copying it unless it is transformed.
+     *
+     * @return null if the class should be treated as if it doesn't exist
      */
     @Nullable
     private Class<?> readerToClass(ModuleInfo moduleInfo, String name) throws ClassNotFoundException {
-        byte[] bytes;
         try {
-            bytes = getClassBytes(moduleInfo, name);
+            var reader = moduleInfo.getReader();
+            var buffer = reader.read(toClassFileName(name)).orElse(null);
+            try {
+                // Transformers may still create classes that do not exist
+                var classBuffer = maybeTransformClassBuffer(buffer != null ? buffer : ByteBuffer.allocate(0), name);
+                if (!classBuffer.hasRemaining()) {
+                    return null; // Transformers decided to skip the class
+                }
+                return defineClass(name, classBuffer, moduleInfo.protectionDomain);
+            } finally {
+                if (buffer != null) {
+                    reader.release(buffer);
+                }
+            }
         } catch (IOException e) {
             throw new ClassNotFoundException(name, e);
         }
+    }
 
-        bytes = maybeTransformClassBytes(bytes, name, null);
-        if (bytes.length == 0) {
-            return null; // Transformers decided to skip the class
-        }
-
-        return defineClass(name, bytes, 0, bytes.length, moduleInfo.protectionDomain);
+    /**
+     * Transforms a class that is about to be defined, like {@link #maybeTransformClassBytes}, but reading it from
+     * the buffer of the module reader, which must not be kept after this method returns.
+     *
+     * @param buffer The class, which is empty if it does not exist
+     * @return the given buffer if the class was left unchanged, or a buffer holding the transformed class
+     */
+    protected ByteBuffer maybeTransformClassBuffer(ByteBuffer buffer, String name) {
+        return buffer;
     }
 
     protected byte[] maybeTransformClassBytes(byte[] bytes, String name, @Nullable String context) {
         return bytes;
     }
 
+    /**
+     * Returns a new object, so that the JDK does not keep a lock per class name for the lifetime of this loader.
+     * The JDK only locks it in {@code loadClass(Module, String)}, around {@link #findClass(String, String)}, which
+     * takes the same per-class lock as {@link #loadClass(String, boolean)} itself.
+     */
+    @Override
+    protected Object getClassLoadingLock(String className) {
+        return new Object();
+    }
+
+    /**
+     * Acquires the lock for loading a class, which is removed again once no thread is loading the class anymore.
+     * <p>
+     * Locks are per class, just like those of the JDK, so a thread only ever waits for another thread that is loading
+     * the same class. Striped or per-package locks would let a thread that is loading a class wait for an unrelated
+     * class sharing its lock. Since loading a class loads its superclass while still holding the lock, two threads
+     * loading classes whose superclasses share the other's lock would deadlock.
+     */
+    private ClassLoadingLock acquireClassLoadingLock(String className) {
+        return classLoadingLocks.compute(className, (name, lock) -> {
+            if (lock == null) {
+                lock = new ClassLoadingLock();
+            }
+            lock.users++;
+            return lock;
+        });
+    }
+
+    private void releaseClassLoadingLock(String className) {
+        classLoadingLocks.computeIfPresent(className, (name, lock) -> --lock.users == 0 ? null : lock);
+    }
+
     @Override
     protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
-        synchronized (getClassLoadingLock(name)) {
-            var c = findLoadedClass(name);
-            if (c == null) {
-                var packageName = packageName(name);
-                if (packageName != null) {
-                    var localModule = packageLookup.get(packageName);
-                    if (localModule != null) {
-                        c = readerToClass(localModule, name);
-                    } else {
-                        c = this.parentLoaders.getOrDefault(packageName, fallbackClassLoader).loadClass(name);
+        // Classes that are already loaded are found without contending for a lock
+        var c = findLoadedClass(name);
+        if (c == null) {
+            var lock = acquireClassLoadingLock(name);
+            try {
+                synchronized (lock) {
+                    c = findLoadedClass(name);
+                    if (c == null) {
+                        c = locateClass(name);
                     }
-                } else {
-                    c = fallbackClassLoader.loadClass(name);
                 }
+            } finally {
+                releaseClassLoadingLock(name);
             }
-            if (c == null) {
-                throw new ClassNotFoundException(name);
+        }
+        if (c == null) {
+            throw new ClassNotFoundException(name);
+        }
+        if (resolve) {
+            resolveClass(c);
+        }
+        return c;
+    }
+
+    /**
+     * Defines a class of a local module while holding its lock, unless another thread defined it in the meantime.
+     */
+    @Nullable
+    private Class<?> defineLocalClass(ModuleInfo moduleInfo, String name) throws ClassNotFoundException {
+        var lock = acquireClassLoadingLock(name);
+        try {
+            synchronized (lock) {
+                var c = findLoadedClass(name);
+                return c != null ? c : readerToClass(moduleInfo, name);
             }
-            if (resolve) {
-                resolveClass(c);
+        } finally {
+            releaseClassLoadingLock(name);
+        }
+    }
+
+    @Nullable
+    private Class<?> locateClass(String name) throws ClassNotFoundException {
+        var packageName = packageName(name);
+        if (packageName != null) {
+            var localModule = packageLookup.get(packageName);
+            if (localModule != null) {
+                return readerToClass(localModule, name);
+            } else {
+                return this.parentLoaders.getOrDefault(packageName, fallbackClassLoader).loadClass(name);
             }
-            return c;
+        } else {
+            return fallbackClassLoader.loadClass(name);
         }
     }
 
@@ -315,9 +410,7 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
     }
 
     private Enumeration<URL> enumerateResources(String name) throws IOException {
-        var idx = name.lastIndexOf('/');
-        var pkgname = (idx == -1 || idx == name.length() - 1) ? "" : name.substring(0, idx).replace('/', '.');
-        var localModule = packageLookup.get(pkgname);
+        var localModule = packageLookup.get(resourcePackageName(name));
 
         if (localModule != null) {
             var url = readerToURL(localModule, name);
@@ -329,7 +422,14 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
             // This tries to optimize for allocating as little as possible
             URL firstResult = null;
             List<URL> multipleResult = null;
-            for (var moduleInfo : moduleInfoCache.values()) {
+            Collection<ModuleInfo> candidates = null;
+            if (useResourceIndex) {
+                candidates = getResourceIndex().candidates(name);
+            }
+            if (candidates == null) {
+                candidates = moduleInfoCache.values();
+            }
+            for (var moduleInfo : candidates) {
                 var url = toURL(moduleInfo.getReader().find(name));
                 if (url != null) {
                     if (firstResult == null) {
@@ -353,6 +453,48 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
         }
     }
 
+    private static String resourcePackageName(String name) {
+        var idx = name.lastIndexOf('/');
+        return (idx == -1 || idx == name.length() - 1) ? "" : name.substring(0, idx).replace('/', '.');
+    }
+
+    /**
+     * Gets the index of resources that are not in any package of a local module, building it on first use by
+     * listing the content of all local modules.
+     */
+    private ResourceIndex<ModuleInfo> getResourceIndex() throws IOException {
+        var index = resourceIndex;
+        if (index == null) {
+            synchronized (resourceIndexLock) {
+                index = resourceIndex;
+                if (index == null) {
+                    resourceIndex = index = buildResourceIndex();
+                }
+            }
+        }
+        return index;
+    }
+
+    private ResourceIndex<ModuleInfo> buildResourceIndex() throws IOException {
+        var builder = new ResourceIndex.Builder<ModuleInfo>();
+        for (var moduleInfo : moduleInfoCache.values()) {
+            // Only modules with fixed content can be indexed, since folders may change after the index was built
+            if (moduleInfo.getReader() instanceof JarContentsModuleReader reader && reader.hasFixedContent()) {
+                try (var names = reader.list()) {
+                    names.forEach(resourceName -> {
+                        // Resources in local packages are always found through their package
+                        if (!packageLookup.containsKey(resourcePackageName(resourceName))) {
+                            builder.add(resourceName, moduleInfo);
+                        }
+                    });
+                }
+            } else {
+                builder.addUnindexed(moduleInfo);
+            }
+        }
+        return builder.build();
+    }
+
     private static Enumeration<URL> singletonEnumeration(URL url) {
         return new Enumeration<>() {
             boolean read = false;
@@ -378,7 +520,7 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
         var localModule = moduleInfoCache.get(moduleName);
         if (localModule != null) {
             try {
-                var c = readerToClass(localModule, name);
+                var c = defineLocalClass(localModule, name);
                 if (c != null) {
                     return c;
                 }
@@ -395,7 +537,7 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
         if (packageName != null) {
             var localModule = packageLookup.get(packageName);
             if (localModule != null) {
-                var c = readerToClass(localModule, name);
+                var c = defineLocalClass(localModule, name);
                 if (c != null) {
                     return c;
                 }
@@ -405,6 +547,20 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
         throw new ClassNotFoundException(name);
     }
 
+    /**
+     * {@return the untransformed bytecode of a class in one of the modules of this loader, or null if the class is not
+     * found in them}
+     */
+    protected byte @Nullable [] getOriginalClassBytes(String name) throws IOException {
+        var pname = packageName(name);
+        var localModule = pname != null ? packageLookup.get(pname) : null;
+        if (localModule == null) {
+            return null;
+        }
+        var bytes = getClassBytes(localModule, name);
+        return bytes.length > 0 ? bytes : null;
+    }
+
     protected byte[] getMaybeTransformedClassBytes(String name, String context) throws ClassNotFoundException {
         byte[] bytes = new byte[0];
         Throwable suppressed = null;
@@ -489,6 +645,14 @@ public class ModuleClassLoader extends ClassLoader implements AutoCloseable {
         return configuration;
     }
 
+    /**
+     * A lock for loading a class, along with the number of threads using it. It is only accessed while the map of
+     * locks holds the lock for its key.
+     */
+    private static final class ClassLoadingLock {
+        private int users;
+    }
+
     /**
      * Caches the module reader for a module, including its protection domain.
      * Ensures that we can clean up module readers when the loader is closed.
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.classloading;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Maps the names of resources to the modules that contain them, for resources that are not in a package owned by
+ * a single module (i.e. {@code META-INF/} entries or resources at the root of a jar).
+ * <p>
+ * Names are first checked against a Bloom filter, so lookups of resources that no module contains are rejected
+ * without touching the much larger map of owners. Modules whose content can change while the game is running
+ * cannot be indexed, and are always returned as candidates instead.
+ *
+ * @param <T> the type of the module handles
+ */
+final class ResourceIndex<T> {
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASH_FUNCTIONS = 3;
+
+    private final long[] filter;
+    private final int filterMask;
+    // Values are either a single module or a list of modules
+    private final Map<String, Object> owners;
+    private final List<T> unindexedModules;
+
+    private ResourceIndex(Map<String, Object> owners, List<T> unindexedModules) {
+        this.owners = owners;
+        this.unindexedModules = unindexedModules;
+        int bitCount = Math.max(64, Integer.highestOneBit(Math.max(1, owners.size() * BITS_PER_ENTRY - 1)) << 1);
+        this.filter = new long[bitCount >>> 6];
+        this.filterMask = bitCount - 1;
+        for (var name : owners.keySet()) {
+            int h1 = name.hashCode();
+            int h2 = secondaryHash(h1);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (h1 + i * h2) & filterMask;
+                filter[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * {@return the modules that may contain the given resource, or null if the name is not normalized and all modules
+     * have to be asked, since they resolve such names themselves}
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    List<T> candidates(String name) {
+        if (!isNormalized(name)) {
+            return null;
+        }
+        if (!mightContain(name)) {
+            return unindexedModules;
+        }
+        var owner = owners.get(name);
+        if (owner == null) {
+            return unindexedModules;
+        } else if (owner instanceof List<?> list) {
+            if (unindexedModules.isEmpty()) {
+                return (List<T>) list;
+            }
+            var result = new ArrayList<T>(list.size() + unindexedModules.size());
+            result.addAll((List<T>) list);
+            result.addAll(unindexedModules);
+            return result;
+        } else if (unindexedModules.isEmpty()) {
+            return List.of((T) owner);
+        } else {
+            var result = new ArrayList<T>(1 + unindexedModules.size());
+            result.add((T) owner);
+            result.addAll(unindexedModules);
+            return result;
+        }
+    }
+
+    private boolean mightContain(String name) {
+        int h1 = name.hashCode();
+        int h2 = secondaryHash(h1);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = (h1 + i * h2) & filterMask;
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The second hash is derived from the first using the murmur3 finalizer, and forced to be odd, so that
+     * the probed bits are spread over the entire filter.
+     */
+    private static int secondaryHash(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+
+    /**
+     * Mirrors the rules of relative paths in jar contents: forward slashes only, no leading, trailing or repeated
+     * separators and no {@code .} or {@code ..} segments.
+     */
+    private static boolean isNormalized(String name) {
+        int segmentStart = 0;
+        for (int i = 0; i <= name.length(); i++) {
+            if (i == name.length() || name.charAt(i) == '/') {
+                int segmentLength = i - segmentStart;
+                if (segmentLength == 0
+                        || segmentLength == 1 && name.charAt(segmentStart) == '.'
+                        || segmentLength == 2 && name.charAt(segmentStart) == '.' && name.charAt(segmentStart + 1) == '.') {
+                    return false;
+                }
+                segmentStart = i + 1;
+            } else if (name.charAt(i) == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static final class Builder<T> {
+        private final Map<String, Object> owners = new HashMap<>();
+        private final List<T> unindexedModules = new ArrayList<>();
+
+        /**
+         * Records that the given module contains a resource.
+         */
+        @SuppressWarnings("unchecked")
+        void add(String name, T module) {
+            var owner = owners.putIfAbsent(name, module);
+            if (owner == null || owner == module) {
+                return;
+            }
+            if (owner instanceof List<?> list) {
+                // Every module lists each of its resources once, so it can only have been added last
+                if (list.getLast() != module) {
+                    ((List<T>) list).add(module);
+                }
+            } else {
+                // Modules are only allocated a list once they share a resource with another module
+                var list = new ArrayList<T>(2);
+                list.add((T) owner);
+                list.add(module);
+                owners.put(name, list);
+            }
+        }
+
+        /**
+         * Records that the content of the given module is not known in advance, which makes it a candidate for
+         * every resource.
+         */
+        void addUnindexed(T module) {
+            unindexedModules.add(module);
+        }
+
+        ResourceIndex<T> build() {
+            return new ResourceIndex<>(owners, List.copyOf(unindexedModules));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.classloading.transformation;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.neoforged.neoforgespi.language.ModFileScanData;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * The class hierarchy as seen by frame computation.
+ * <p>
+ * Every class is interned as a single node that only refers to the nodes of its direct supertypes, so supertype
+ * checks walk the graph instead of keeping the transitive supertypes of every class around. The index also knows the
+ * declared headers of classes from {@linkplain ModFileScanData mod scan data}, which allows the hierarchy of classes
+ * that are not transformed before frames are computed to be resolved without reading them again.
+ * <p>
+ * All class names used by this index are internal names.
+ */
+@ApiStatus.Internal
+public final class ClassHierarchyIndex {
+    private static final Node[] NO_INTERFACES = new Node[0];
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private final Map<String, ModFileScanData.ClassData> scannedClasses = new ConcurrentHashMap<>();
+    private final Set<String> scannedInterfaces = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Adds the declared headers of all classes of a scanned mod file. Scan data may be added at any time, from any
+     * thread.
+     */
+    public void addScanData(ModFileScanData scanData) {
+        for (var classData : scanData.getClasses()) {
+            scannedClasses.putIfAbsent(classData.clazz().getInternalName(), classData);
+        }
+        for (var interfaceClass : scanData.getInterfaceClasses()) {
+            scannedInterfaces.add(interfaceClass.getInternalName());
+        }
+    }
+
+    /**
+     * {@return the header of the class as it was scanned, or null if it is not part of any added scan data}
+     * Of the access flags, only {@link Opcodes#ACC_INTERFACE} is known for scanned classes, which is all that frame
+     * computation needs.
+     */
+    @Nullable
+    public ClassHeader getScannedHeader(String className) {
+        var classData = scannedClasses.get(className);
+        if (classData == null) {
+            return null;
+        }
+        var interfaces = new String[classData.interfaces().size()];
+        int i = 0;
+        for (var itf : classData.interfaces()) {
+            interfaces[i++] = itf.getInternalName();
+        }
+        int access = scannedInterfaces.contains(className) ? Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT : 0;
+        return new ClassHeader(access, classData.parent() != null ? classData.parent().getInternalName() : null, interfaces);
+    }
+
+    @Nullable
+    Node get(String className) {
+        return nodes.get(className);
+    }
+
+    /**
+     * Adds a class to the graph, once all of its supertypes are part of it.
+     *
+     * @return the node of the class, which is the existing node if another thread added the class first
+     */
+    Node add(String className, boolean isInterface, @Nullable Node parent, Node[] interfaces) {
+        var node = new Node(className, isInterface, parent, interfaces.length == 0 ? NO_INTERFACES : interfaces);
+        var existing = nodes.putIfAbsent(className, node);
+        return existing != null ? existing : node;
+    }
+
+    /**
+     * The direct supertypes of a class, as they are declared in its class file.
+     *
+     * @param access     the access flags of the class
+     * @param superName  the internal name of the super class, or null if the class is {@code java/lang/Object}
+     * @param interfaces the internal names of the directly implemented interfaces
+     */
+    public record ClassHeader(int access, @Nullable String superName, String[] interfaces) {
+        /**
+         * Reads the header of a class file, without parsing anything past the constant pool.
+         */
+        public static ClassHeader read(byte[] classFile) {
+            var reader = new ClassReader(classFile);
+            return new ClassHeader(reader.getAccess(), reader.getSuperName(), reader.getInterfaces());
+        }
+
+        public boolean isInterface() {
+            return (access & Opcodes.ACC_INTERFACE) != 0;
+        }
+    }
+
+    static final class Node {
+        final String name;
+        final boolean isInterface;
+        @Nullable
+        final Node parent;
+        final Node[] interfaces;
+
+        private Node(String name, boolean isInterface, @Nullable Node parent, Node[] interfaces) {
+            this.name = name;
+            this.isInterface = isInterface;
+            this.parent = parent;
+            this.interfaces = interfaces;
+        }
+
+        /**
+         * {@return whether this class is the given class, or extends or implements it}
+         */
+        boolean isSubtypeOf(Node other) {
+            for (var node = this; node != null; node = node.parent) {
+                if (node == other) {
+                    return true;
+                }
+                // Interfaces can only be reached through interfaces, apart from java/lang/Object, which every class reaches
+                if (other.isInterface) {
+                    for (var itf : node.interfaces) {
+                        if (itf.isSubtypeOf(other)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
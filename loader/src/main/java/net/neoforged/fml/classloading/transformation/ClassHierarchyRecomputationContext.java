@@ -32,4 +32,24 @@ public interface ClassHierarchyRecomputationContext {
      * Loads and returns a class by name, if it's not subject to transformation.
      */
     Class<?> locateParentClass(String className) throws ClassNotFoundException;
+
+    /**
+     * {@return the header of the class, if it is known to be the header the class has once any class processors that
+     * require frame recomputation have been applied, or null if it would have to be transformed to find out}
+     * This allows the hierarchy of untransformed classes to be resolved without running them through the processors
+     * or loading them.
+     */
+    @Nullable
+    default ClassHierarchyIndex.ClassHeader findUntransformedHeader(String className) {
+        return null;
+    }
+
+    /**
+     * {@return the index that hierarchies computed in this context are kept in, or null to use an index shared by all
+     * contexts that do not provide one}
+     */
+    @Nullable
+    default ClassHierarchyIndex hierarchyIndex() {
+        return null;
+    }
 }
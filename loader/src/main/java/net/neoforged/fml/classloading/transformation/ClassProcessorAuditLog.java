@@ -52,6 +52,22 @@ public class ClassProcessorAuditLog implements ClassProcessorAuditSource {
             include = true;
         }
 
+        ProcessorName processorName() {
+            return processorName;
+        }
+
+        boolean includesRewrite() {
+            return include;
+        }
+
+        List<String> activities() {
+            return activities;
+        }
+
+        void addFormattedActivity(String activity) {
+            activities.add(activity);
+        }
+
         private String getActivityString() {
             return processorName + (activities.isEmpty() ? "" : "[" + String.join(",", activities) + "]");
         }
@@ -63,8 +79,12 @@ public class ClassProcessorAuditLog implements ClassProcessorAuditSource {
     }
 
     TransformerActivity forClassProcessor(String clazz, ClassProcessor classProcessor) {
+        return forClassProcessor(clazz, classProcessor.name());
+    }
+
+    TransformerActivity forClassProcessor(String clazz, ProcessorName processorName) {
         var activities = getTransformerActivities(clazz);
-        var activity = new TransformerActivity(classProcessor.name());
+        var activity = new TransformerActivity(processorName);
         activities.add(activity);
         return activity;
     }
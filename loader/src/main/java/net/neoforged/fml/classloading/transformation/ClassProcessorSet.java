@@ -10,6 +10,7 @@ import com.google.common.graph.Graphs;
 import com.mojang.logging.LogUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -17,6 +18,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SequencedMap;
 import java.util.Set;
 import java.util.function.Function;
@@ -29,8 +31,10 @@ import net.neoforged.neoforgespi.transformation.BytecodeProvider;
 import net.neoforged.neoforgespi.transformation.ClassProcessor;
 import net.neoforged.neoforgespi.transformation.ClassProcessorIds;
 import net.neoforged.neoforgespi.transformation.ClassProcessorProvider;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
 import net.neoforged.neoforgespi.transformation.ProcessorName;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 
@@ -45,6 +49,9 @@ public final class ClassProcessorSet {
     private final Set<String> generatedPackages;
     private final SequencedMap<ProcessorName, ClassProcessor> processors;
     private final Set<ProcessorName> allowedToRecomputeFrames;
+    private final Map<ProcessorName, Integer> indexByName;
+    @Nullable
+    private volatile ClassTargetIndex targetIndex;
     private boolean linked;
 
     private ClassProcessorSet(List<ClassProcessor> sortedProcessors,
@@ -56,11 +63,14 @@ public final class ClassProcessorSet {
         this.markerProcessors = Set.copyOf(markers);
         this.generatedPackages = Set.copyOf(generatedPackages);
         var processors = LinkedHashMap.<ProcessorName, ClassProcessor>newLinkedHashMap(sortedProcessors.size());
-        for (var processor : sortedProcessors) {
+        var indexByName = HashMap.<ProcessorName, Integer>newHashMap(sortedProcessors.size());
+        for (var processor : this.sortedProcessors) {
             processors.put(processor.name(), processor);
+            indexByName.put(processor.name(), indexByName.size());
         }
         this.allowedToRecomputeFrames = Set.copyOf(allowedToRecomputeFrames);
         this.processors = Collections.unmodifiableSequencedMap(processors);
+        this.indexByName = indexByName;
     }
 
     public static ClassProcessorSet of(ClassProcessor... processors) {
@@ -81,30 +91,65 @@ public final class ClassProcessorSet {
         return generatedPackages;
     }
 
+    /**
+     * {@return the position of the given processor in the processing order, or the number of processors if it is not
+     * part of this set} Processors before this position are the ones that run when transforming up to the processor.
+     */
+    int indexOf(ProcessorName name) {
+        return indexByName.getOrDefault(name, sortedProcessors.size());
+    }
+
     List<ClassProcessor> getSortedProcessors() {
         return sortedProcessors;
     }
 
-    public List<ClassProcessor> transformersFor(Type classDesc, boolean isEmpty, ProcessorName upToTransformer) {
-        var out = new ArrayList<ClassProcessor>();
+    public List<ClassProcessor> transformersFor(Type classDesc, boolean isEmpty, @Nullable ProcessorName upToTransformer) {
+        return transformersFor(classDesc.getClassName(), isEmpty, upToTransformer);
+    }
+
+    /**
+     * Selects the processors that handle the given class. Only processors whose {@linkplain ClassProcessor#targeting() targeting}
+     * matches the class are asked; if no processor targets the class, this returns an empty list without allocating.
+     *
+     * @param className the binary name of the class
+     */
+    public List<ClassProcessor> transformersFor(String className, boolean isEmpty, @Nullable ProcessorName upToTransformer) {
+        BitSet candidates = getTargetIndex().candidates(className);
+        if (candidates == null) {
+            return List.of();
+        }
+        int limit = sortedProcessors.size();
+        if (upToTransformer != null) {
+            var upToIndex = indexByName.get(upToTransformer);
+            if (upToIndex != null) {
+                limit = upToIndex;
+            }
+        }
+
+        ArrayList<ClassProcessor> out = null;
+        ClassProcessor.SelectionContext context = null;
         boolean includesComputingFrames = false;
-        for (var transformer : sortedProcessors) {
-            if (upToTransformer != null && upToTransformer.equals(transformer.name())) {
-                break;
-            } else if (ClassProcessorIds.COMPUTING_FRAMES.equals(transformer.name())) {
+        for (int i = candidates.nextSetBit(0); i >= 0 && i < limit; i = candidates.nextSetBit(i + 1)) {
+            var transformer = sortedProcessors.get(i);
+            if (ClassProcessorIds.COMPUTING_FRAMES.equals(transformer.name())) {
                 includesComputingFrames = true;
-                out.add(transformer);
             } else {
                 ClassTransformStatistics.incrementAskedForTransform(transformer);
 
-                var context = new ClassProcessor.SelectionContext(classDesc, isEmpty);
-                if (transformer.handlesClass(context)) {
-                    ClassTransformStatistics.incrementTransforms(transformer);
-                    out.add(transformer);
+                if (context == null) {
+                    context = new ClassProcessor.SelectionContext(Type.getObjectType(className.replace('.', '/')), isEmpty);
+                }
+                if (!transformer.handlesClass(context)) {
+                    continue;
                 }
+                ClassTransformStatistics.incrementTransforms(transformer);
             }
+            if (out == null) {
+                out = new ArrayList<>();
+            }
+            out.add(transformer);
         }
-        if ((out.size() == 1 && includesComputingFrames)) {
+        if (out == null || (out.size() == 1 && includesComputingFrames)) {
             // The class does not actually require any transformation, as the only transformer present is the special
             // no-op marker for where class hierarchy computation in frame computation goes up to, and potentially the
             // marker for where results are fixed and may be responded to.
@@ -113,6 +158,41 @@ public final class ClassProcessorSet {
         return out;
     }
 
+    /**
+     * The targeting of processors is only queried once the first class is loaded, since processors may only know their
+     * targets once they have been linked.
+     */
+    private ClassTargetIndex getTargetIndex() {
+        var index = targetIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = targetIndex;
+                if (index == null) {
+                    targetIndex = index = buildTargetIndex();
+                }
+            }
+        }
+        return index;
+    }
+
+    private ClassTargetIndex buildTargetIndex() {
+        var targeting = new ArrayList<ClassTargeting>(sortedProcessors.size());
+        int computingFramesIndex = -1;
+        for (var processor : sortedProcessors) {
+            if (ClassProcessorIds.COMPUTING_FRAMES.equals(processor.name())) {
+                computingFramesIndex = targeting.size();
+                targeting.add(ClassTargeting.none());
+            } else {
+                var processorTargeting = processor.targeting();
+                if (!processorTargeting.isAll()) {
+                    ClassTransformStatistics.registerTargetedProcessor(processor);
+                }
+                targeting.add(processorTargeting);
+            }
+        }
+        return new ClassTargetIndex(targeting, computingFramesIndex);
+    }
+
     public void link(Function<ProcessorName, BytecodeProvider> bytecodeProviderLookup) {
         if (linked) {
             throw new IllegalStateException("This set of class processors is already linked.");
@@ -236,6 +316,11 @@ public final class ClassProcessorSet {
                     return OrderingHint.EARLY;
                 }
 
+                @Override
+                public ClassTargeting targeting() {
+                    return ClassTargeting.none();
+                }
+
                 @Override
                 public boolean handlesClass(SelectionContext context) {
                     return false;
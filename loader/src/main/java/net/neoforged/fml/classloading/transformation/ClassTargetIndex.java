@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.classloading.transformation;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.neoforged.neoforgespi.transformation.ClassProcessor;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Indexes the {@linkplain ClassProcessor#targeting() targeting} of a sorted list of processors, so that the processors
+ * potentially interested in a class can be found without consulting every processor.
+ * <p>
+ * Processors are identified by their position in the sorted list.
+ */
+final class ClassTargetIndex {
+    private final int size;
+    private final int alwaysIncluded;
+    private final BitSet allClasses = new BitSet();
+    /**
+     * The result for classes that are only targeted by processors that target all classes, or null if there are
+     * no such processors.
+     */
+    @Nullable
+    private final BitSet allClassesResult;
+    private final Map<String, BitSet> byClassName = new HashMap<>();
+    private final PackageTable byPackage;
+
+    /**
+     * @param targeting      the targeting of each processor, in sorted order
+     * @param alwaysIncluded the index of a processor that is part of every non-empty result, or -1
+     */
+    ClassTargetIndex(List<ClassTargeting> targeting, int alwaysIncluded) {
+        this.size = targeting.size();
+        this.alwaysIncluded = alwaysIncluded;
+        var packages = new HashMap<String, BitSet>();
+        for (int i = 0; i < size; i++) {
+            if (i == alwaysIncluded) {
+                continue;
+            }
+            var processorTargeting = targeting.get(i);
+            if (processorTargeting.isAll()) {
+                allClasses.set(i);
+                continue;
+            }
+            for (var className : processorTargeting.classNames()) {
+                byClassName.computeIfAbsent(className, k -> new BitSet()).set(i);
+            }
+            for (var packageName : processorTargeting.packageNames()) {
+                packages.computeIfAbsent(packageName, k -> new BitSet()).set(i);
+            }
+        }
+        this.byPackage = new PackageTable(packages);
+        if (allClasses.isEmpty()) {
+            this.allClassesResult = null;
+        } else {
+            this.allClassesResult = (BitSet) allClasses.clone();
+            if (alwaysIncluded != -1) {
+                allClassesResult.set(alwaysIncluded);
+            }
+        }
+    }
+
+    /**
+     * {@return the indices of all processors that target the given class, or null if no processor targets it}
+     * Does not allocate if the class is only targeted by processors that target all classes, or not at all. The
+     * result may be shared between calls and must not be modified.
+     *
+     * @param className the binary name of the class
+     */
+    @Nullable
+    BitSet candidates(String className) {
+        BitSet result = null;
+        var exact = byClassName.get(className);
+        if (exact != null) {
+            result = newResult();
+            result.or(exact);
+        }
+        if (!byPackage.isEmpty()) {
+            int hash = 0;
+            for (int i = 0; i < className.length(); i++) {
+                char c = className.charAt(i);
+                if (c == '.') {
+                    var packageMatch = byPackage.get(className, i, hash);
+                    if (packageMatch != null) {
+                        if (result == null) {
+                            result = newResult();
+                        }
+                        result.or(packageMatch);
+                    }
+                }
+                hash = 31 * hash + c;
+            }
+        }
+        if (result == null) {
+            return allClassesResult;
+        }
+        if (alwaysIncluded != -1) {
+            result.set(alwaysIncluded);
+        }
+        return result;
+    }
+
+    private BitSet newResult() {
+        var result = new BitSet(size);
+        result.or(allClasses);
+        return result;
+    }
+
+    /**
+     * An open-addressing table of package names, which can be probed with a prefix of a class name without
+     * allocating a substring. Hashes are computed like {@link String#hashCode()}.
+     */
+    private static final class PackageTable {
+        private final String[] keys;
+        private final BitSet[] values;
+        private final int mask;
+        private final int size;
+
+        PackageTable(Map<String, BitSet> entries) {
+            this.size = entries.size();
+            int capacity = Integer.highestOneBit(Math.max(1, entries.size() * 2 - 1)) << 1;
+            this.keys = new String[capacity];
+            this.values = new BitSet[capacity];
+            this.mask = capacity - 1;
+            for (var entry : entries.entrySet()) {
+                int slot = mix(entry.getKey().hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = entry.getKey();
+                values[slot] = entry.getValue();
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Looks up the package formed by the first {@code length} characters of {@code className}.
+         */
+        @Nullable
+        BitSet get(String className, int length, int hash) {
+            int slot = mix(hash) & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.length() == length && className.regionMatches(0, key, 0, length)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
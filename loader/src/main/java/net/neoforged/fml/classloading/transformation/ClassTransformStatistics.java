@@ -7,6 +7,7 @@ package net.neoforged.fml.classloading.transformation;
 
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -23,14 +24,25 @@ public class ClassTransformStatistics {
 
     private static final Map<ProcessorName, Integer> TRANSFORMS_BY_PROCESSOR = new ConcurrentHashMap<>();
     private static final Map<ProcessorName, Integer> POTENTIAL_BY_PROCESSOR = new ConcurrentHashMap<>();
+    // Processors that declare their targets are only asked about targeted classes, so a high ratio is expected for them
+    private static final Set<ProcessorName> TARGETED_PROCESSORS = ConcurrentHashMap.newKeySet();
     private static final AtomicInteger LOADED_CLASS_COUNT = new AtomicInteger(0);
     private static final AtomicInteger TRANSFORMED_CLASS_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger STREAMED_CLASS_COUNT = new AtomicInteger(0);
     private static final AtomicInteger MIXIN_PARSED_CLASS_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger CLASS_CACHE_HIT_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger CLASS_CACHE_MISS_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger INTERMEDIATE_CACHE_HIT_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger INTERMEDIATE_CACHE_MISS_COUNT = new AtomicInteger(0);
 
     public static void incrementMixinParsedClasses() {
         MIXIN_PARSED_CLASS_COUNT.incrementAndGet();
     }
 
+    static void registerTargetedProcessor(ClassProcessor processor) {
+        TARGETED_PROCESSORS.add(processor.name());
+    }
+
     static void incrementAskedForTransform(ClassProcessor processor) {
         if (!processor.name().equals(ClassProcessorIds.COMPUTING_FRAMES)) {
             POTENTIAL_BY_PROCESSOR.compute(processor.name(), (k, v) -> v == null ? 1 : v + 1);
@@ -51,6 +63,52 @@ public class ClassTransformStatistics {
         TRANSFORMED_CLASS_COUNT.incrementAndGet();
     }
 
+    static void incrementStreamedClasses() {
+        STREAMED_CLASS_COUNT.incrementAndGet();
+    }
+
+    static void incrementClassCacheHits() {
+        CLASS_CACHE_HIT_COUNT.incrementAndGet();
+    }
+
+    static void incrementClassCacheMisses() {
+        CLASS_CACHE_MISS_COUNT.incrementAndGet();
+    }
+
+    static void incrementIntermediateCacheHits() {
+        INTERMEDIATE_CACHE_HIT_COUNT.incrementAndGet();
+    }
+
+    static void incrementIntermediateCacheMisses() {
+        INTERMEDIATE_CACHE_MISS_COUNT.incrementAndGet();
+    }
+
+    @ApiStatus.Internal
+    public static int getClassCacheHits() {
+        return CLASS_CACHE_HIT_COUNT.get();
+    }
+
+    @ApiStatus.Internal
+    public static int getClassCacheMisses() {
+        return CLASS_CACHE_MISS_COUNT.get();
+    }
+
+    @ApiStatus.Internal
+    public static String getClassCacheSummary() {
+        var hits = CLASS_CACHE_HIT_COUNT.get();
+        var total = hits + CLASS_CACHE_MISS_COUNT.get();
+        double ratio = total == 0 ? 0d : ((double) hits) / total * 100;
+        return String.format("%s/%s (%.2f%%)", hits, total, ratio);
+    }
+
+    @ApiStatus.Internal
+    public static String getIntermediateCacheSummary() {
+        var hits = INTERMEDIATE_CACHE_HIT_COUNT.get();
+        var total = hits + INTERMEDIATE_CACHE_MISS_COUNT.get();
+        double ratio = total == 0 ? 0d : ((double) hits) / total * 100;
+        return String.format("%s/%s (%.2f%%)", hits, total, ratio);
+    }
+
     @ApiStatus.Internal
     public static synchronized String getTransformationSummary() {
         var loaded = LOADED_CLASS_COUNT.get();
@@ -67,6 +125,9 @@ public class ClassTransformStatistics {
     @ApiStatus.Internal
     public static synchronized void logTransformationSummary() {
         LOGGER.debug("Transformed/total loaded classes: {} and {} parsed for mixin", getTransformationSummary(), getMixinParsedClassesSummary());
+        LOGGER.debug("Transformed classes that were streamed without building a tree: {}", STREAMED_CLASS_COUNT.get());
+        LOGGER.debug("Transformed class cache hits/lookups: {}", getClassCacheSummary());
+        LOGGER.debug("Intermediate class state cache hits/lookups: {}", getIntermediateCacheSummary());
     }
 
     @ApiStatus.Internal
@@ -75,6 +136,9 @@ public class ClassTransformStatistics {
         // that are.
         var keys = new ArrayList<>(TRANSFORMS_BY_PROCESSOR.keySet());
         keys.forEach(name -> {
+            if (TARGETED_PROCESSORS.contains(name)) {
+                return;
+            }
             var actual = TRANSFORMS_BY_PROCESSOR.get(name);
             var potential = POTENTIAL_BY_PROCESSOR.get(name);
             var ratio = ((double) actual) / potential;
@@ -105,7 +169,15 @@ public class ClassTransformStatistics {
             } else {
                 ratio = 100d * ((double) actual) / potential;
             }
-            entries.add(new Entry(ratio, classProcessorSet.isMarker(transform) ? name + " (marker)" : name.toString()));
+            String label;
+            if (classProcessorSet.isMarker(transform)) {
+                label = name + " (marker)";
+            } else if (TARGETED_PROCESSORS.contains(name)) {
+                label = name + " (targeted)";
+            } else {
+                label = name.toString();
+            }
+            entries.add(new Entry(ratio, label));
         }
         return entries.stream()
                 .map(e -> String.format("%05.2f%%: %s", e.ratio, e.name))
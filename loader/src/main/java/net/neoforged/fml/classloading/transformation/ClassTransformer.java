@@ -15,21 +15,27 @@
 package net.neoforged.fml.classloading.transformation;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 import net.neoforged.neoforgespi.transformation.ClassProcessor;
 import net.neoforged.neoforgespi.transformation.ClassProcessorIds;
 import net.neoforged.neoforgespi.transformation.ProcessorName;
+import net.neoforged.neoforgespi.transformation.StreamingClassProcessor;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
@@ -45,37 +51,104 @@ public class ClassTransformer {
     private final Marker CLASSDUMP = MarkerManager.getMarker("CLASSDUMP");
     private final ClassProcessorSet processors;
     private final ClassProcessorAuditLog auditTrail;
+    @Nullable
+    private final TransformedClassCache classCache;
 
     public ClassTransformer(ClassProcessorSet processors, ClassProcessorAuditLog auditTrail) {
+        this(processors, auditTrail, null);
+    }
+
+    public ClassTransformer(ClassProcessorSet processors, ClassProcessorAuditLog auditTrail, @Nullable TransformedClassCache classCache) {
         this.processors = processors;
         this.auditTrail = auditTrail;
+        this.classCache = classCache;
     }
 
     public byte[] transform(byte[] inputClass, String className, ProcessorName upToTransformer, ClassHierarchyRecomputationContext locator) {
-        String internalName = className.replace('.', '/');
-        Type classDesc = Type.getObjectType(internalName);
+        var result = transform(inputClass, inputClass.length, className, upToTransformer, locator);
+        return result != null ? result : inputClass;
+    }
 
+    /**
+     * Transforms a class that was read into a buffer, which is only copied if a processor rewrites the class.
+     *
+     * @return the given buffer if the class was left unchanged, otherwise a buffer holding the transformed class
+     */
+    public ByteBuffer transform(ByteBuffer inputClass, String className, @Nullable ProcessorName upToTransformer, ClassHierarchyRecomputationContext locator) {
+        byte[] array;
+        if (inputClass.hasArray() && inputClass.arrayOffset() + inputClass.position() == 0) {
+            array = inputClass.array();
+        } else {
+            array = new byte[inputClass.remaining()];
+            inputClass.duplicate().get(array);
+        }
+        var result = transform(array, inputClass.remaining(), className, upToTransformer, locator);
+        return result != null ? ByteBuffer.wrap(result) : inputClass;
+    }
+
+    /**
+     * @param inputClass  A buffer starting with the class, which may be longer than the class
+     * @param inputLength The length of the class in the buffer
+     * @return the transformed class, or null if it was left unchanged
+     */
+    private byte @Nullable [] transform(byte[] inputClass, int inputLength, String className, @Nullable ProcessorName upToTransformer, ClassHierarchyRecomputationContext locator) {
         ClassTransformStatistics.incrementLoadedClasses();
 
-        var transformersToUse = this.processors.transformersFor(classDesc, inputClass.length == 0, upToTransformer);
+        var transformersToUse = this.processors.transformersFor(className, inputLength == 0, upToTransformer);
         if (transformersToUse.isEmpty()) {
-            return inputClass;
+            return null;
         }
 
+        String internalName = className.replace('.', '/');
+        Type classDesc = Type.getObjectType(internalName);
+
         ClassTransformStatistics.incrementTransformedClasses();
 
+        // Only classes that are actually being loaded are cached, not intermediate states requested by processors
+        byte[] cacheKey = null;
+        byte[] inputSha256 = null;
+        if (classCache != null && upToTransformer == null && inputLength > 0) {
+            inputSha256 = sha256(inputClass, inputLength);
+            cacheKey = classCache.computeKey(className, inputSha256, transformersToUse);
+            if (cacheKey != null) {
+                var cachedClass = classCache.get(cacheKey);
+                if (cachedClass != null) {
+                    ClassTransformStatistics.incrementClassCacheHits();
+                    return useCachedClass(cachedClass, classDesc, transformersToUse);
+                }
+                ClassTransformStatistics.incrementClassCacheMisses();
+            }
+        }
+
         Supplier<byte[]> digest;
+        if (inputLength > 0) {
+            var knownSha256 = inputSha256;
+            digest = knownSha256 != null ? () -> knownSha256 : () -> sha256(inputClass, inputLength);
+        } else {
+            digest = () -> EMPTY;
+        }
+        var trails = cacheKey != null ? new ArrayList<ClassProcessorAuditLog.TransformerActivity>() : null;
+
+        if (inputLength > 0 && isStreamable(transformersToUse)) {
+            var streamedClass = streamClass(inputClass, classDesc, transformersToUse, digest, trails, locator);
+            if (upToTransformer == null) {
+                runAfterProcessing(classDesc, transformersToUse);
+            }
+            return finishTransform(className, streamedClass.flags(), streamedClass.bytecode(), upToTransformer, cacheKey, trails);
+        }
+
         ClassNode clazz = new ClassNode(Opcodes.ASM9);
-        boolean isEmpty = inputClass.length == 0;
-        if (inputClass.length > 0) {
-            ClassReader classReader = new ClassReader(inputClass);
-            classReader.accept(clazz, ClassReader.EXPAND_FRAMES);
-            digest = () -> getSha256().digest(inputClass);
+        boolean isEmpty = inputLength == 0;
+        ClassReader classReader = null;
+        int parsingOptions = 0;
+        if (inputLength > 0) {
+            classReader = new ClassReader(inputClass);
+            parsingOptions = getParsingOptions(transformersToUse);
+            classReader.accept(clazz, parsingOptions);
         } else {
             clazz.name = classDesc.getInternalName();
             clazz.version = Opcodes.V1_8;
             clazz.superName = Type.getInternalName(Object.class);
-            digest = () -> EMPTY;
         }
 
         boolean allowsComputeFrames = false;
@@ -87,6 +160,9 @@ public class ClassTransformer {
                 continue;
             }
             var trail = auditTrail.forClassProcessor(classDesc.getClassName(), transformer);
+            if (trails != null) {
+                trails.add(trail);
+            }
             var context = new ClassProcessor.TransformationContext(
                     classDesc,
                     clazz,
@@ -94,41 +170,190 @@ public class ClassTransformer {
                     trail,
                     digest);
             var newFlags = transformer.processClass(context);
+            clazz = context.node();
             if (newFlags != ClassProcessor.ComputeFlags.NO_REWRITE) {
                 trail.rewrites();
                 isEmpty = false;
             }
             flags = flags.max(newFlags);
-            if (flags.ordinal() >= ClassProcessor.ComputeFlags.COMPUTE_FRAMES.ordinal()) {
-                if (!processors.canRecomputeFrames(transformer.name())) {
-                    LOGGER.error("Transformer {} requested COMPUTE_FRAMES but does not depend, directly or indirectly, on running after {}", transformer.name(), ClassProcessorIds.COMPUTING_FRAMES);
-                    throw new IllegalStateException("Transformer " + transformer.name() + " requested COMPUTE_FRAMES but does not depend, directly or indirectly, on running after " + ClassProcessorIds.COMPUTING_FRAMES);
-                }
-                if (!allowsComputeFrames) {
-                    LOGGER.error("Transformer {} requested COMPUTE_FRAMES but is not allowed to do so as it runs before transformer {}", transformer.name(), ClassProcessorIds.COMPUTING_FRAMES);
-                    throw new IllegalStateException("Transformer " + transformer.name() + " requested COMPUTE_FRAMES but is not allowed to do so as it runs before transformer " + ClassProcessorIds.COMPUTING_FRAMES);
-                }
-            }
+            checkComputeFrames(transformer, flags, allowsComputeFrames);
         }
         if (upToTransformer == null) {
-            // run post-result callbacks
-            var context = new ClassProcessor.AfterProcessingContext(classDesc);
-            for (var transformer : transformersToUse) {
-                transformer.afterProcessing(context);
-            }
+            runAfterProcessing(classDesc, transformersToUse);
         }
 
         if (flags == ClassProcessor.ComputeFlags.NO_REWRITE) {
-            return inputClass; // No changes were made, return the original class
+            return finishTransform(className, flags, null, upToTransformer, cacheKey, trails);
+        }
+
+        ClassWriter cw = createClassWriter(flags, clazz, null, locator);
+        if ((parsingOptions & ClassReader.SKIP_CODE) != 0) {
+            // Nobody looked at the code, so it is copied over from the original class
+            OriginalCodeWriter.write(clazz, classReader, (parsingOptions & ClassReader.SKIP_DEBUG) != 0, cw, flags == ClassProcessor.ComputeFlags.COMPUTE_FRAMES);
+        } else {
+            clazz.accept(cw);
+        }
+        return finishTransform(className, flags, cw.toByteArray(), upToTransformer, cacheKey, trails);
+    }
+
+    private byte @Nullable [] finishTransform(String className, ClassProcessor.ComputeFlags flags, byte @Nullable [] result,
+            @Nullable ProcessorName upToTransformer, byte @Nullable [] cacheKey, @Nullable List<ClassProcessorAuditLog.TransformerActivity> trails) {
+        if (result == null) {
+            if (cacheKey != null) {
+                classCache.put(cacheKey, new TransformedClassCache.CachedClass(null, toAuditEntries(trails)));
+            }
+            return null; // No changes were made, so the original class is used
         }
 
-        ClassWriter cw = createClassWriter(flags, clazz, locator);
-        clazz.accept(cw);
+        // Frames depend on the hierarchy of other classes, which can change independently of this class
+        if (cacheKey != null && flags.ordinal() < ClassProcessor.ComputeFlags.COMPUTE_FRAMES.ordinal()) {
+            classCache.put(cacheKey, new TransformedClassCache.CachedClass(result, toAuditEntries(trails)));
+        }
         // if upToTransformer is null, we are doing this for classloading purposes
         if (LOGGER.isEnabled(Level.TRACE) && upToTransformer == null && LOGGER.isEnabled(Level.TRACE, CLASSDUMP)) {
-            dumpClass(cw.toByteArray(), className);
+            dumpClass(result, className);
         }
-        return cw.toByteArray();
+        return result;
+    }
+
+    private static boolean isStreamable(List<ClassProcessor> transformers) {
+        for (var transformer : transformers) {
+            if (!(transformer instanceof StreamingClassProcessor) && !ClassProcessorIds.COMPUTING_FRAMES.equals(transformer.name())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Transforms a class in a single pass from a reader through the visitors of all processors into a writer, which
+     * copies everything the visitors pass through unchanged from the reader.
+     */
+    private StreamedClass streamClass(byte[] inputClass, Type classDesc, List<ClassProcessor> transformers, Supplier<byte[]> digest,
+            @Nullable List<ClassProcessorAuditLog.TransformerActivity> trails, ClassHierarchyRecomputationContext locator) {
+        ClassTransformStatistics.incrementStreamedClasses();
+        boolean allowsComputeFrames = false;
+        boolean expandFrames = false;
+        var flags = ClassProcessor.ComputeFlags.NO_REWRITE;
+        var streamingProcessors = new ArrayList<StreamingClassProcessor>(transformers.size());
+        var contexts = new ArrayList<StreamingClassProcessor.StreamingTransformationContext>(transformers.size());
+        var streamingTrails = new ArrayList<ClassProcessorAuditLog.TransformerActivity>(transformers.size());
+        for (var transformer : transformers) {
+            if (ClassProcessorIds.COMPUTING_FRAMES.equals(transformer.name())) {
+                allowsComputeFrames = true;
+                continue;
+            }
+            var streamingProcessor = (StreamingClassProcessor) transformer;
+            var trail = auditTrail.forClassProcessor(classDesc.getClassName(), transformer);
+            if (trails != null) {
+                trails.add(trail);
+            }
+            streamingTrails.add(trail);
+            flags = flags.max(streamingProcessor.computeFlags());
+            checkComputeFrames(transformer, flags, allowsComputeFrames);
+            expandFrames |= streamingProcessor.parseRequirements().contains(ClassProcessor.ParseRequirement.EXPANDED_FRAMES);
+            streamingProcessors.add(streamingProcessor);
+            contexts.add(new StreamingClassProcessor.StreamingTransformationContext(classDesc, false, trail, digest));
+        }
+
+        var classReader = new ClassReader(inputClass);
+        var cw = createClassWriter(flags, null, classReader, locator);
+        // Visitors may change the hierarchy of the class, which matters for frame computation
+        ClassVisitor chain = cw instanceof TransformerClassWriter transformerClassWriter ? transformerClassWriter.recordingHeader() : cw;
+        for (int i = streamingProcessors.size() - 1; i >= 0; i--) {
+            chain = streamingProcessors.get(i).createVisitor(chain, contexts.get(i));
+        }
+        int parsingOptions;
+        if (expandFrames) {
+            parsingOptions = ClassReader.EXPAND_FRAMES;
+        } else {
+            // Frames of methods that are copied as-is are not affected by this
+            parsingOptions = flags == ClassProcessor.ComputeFlags.COMPUTE_FRAMES ? ClassReader.SKIP_FRAMES : 0;
+        }
+        classReader.accept(chain, parsingOptions);
+
+        // The class is written while it is visited, so the output is used unless every visitor left the class unchanged
+        boolean rewritten = false;
+        for (int i = 0; i < contexts.size(); i++) {
+            if (!contexts.get(i).isUnchanged()) {
+                streamingTrails.get(i).rewrites();
+                rewritten = true;
+            }
+        }
+        if (!rewritten) {
+            return new StreamedClass(ClassProcessor.ComputeFlags.NO_REWRITE, null);
+        }
+        return new StreamedClass(flags.max(ClassProcessor.ComputeFlags.SIMPLE_REWRITE), cw.toByteArray());
+    }
+
+    /**
+     * @param bytecode the transformed class, or null if no processor changed it
+     */
+    private record StreamedClass(ClassProcessor.ComputeFlags flags, byte @Nullable [] bytecode) {}
+
+    private void checkComputeFrames(ClassProcessor transformer, ClassProcessor.ComputeFlags flags, boolean allowsComputeFrames) {
+        if (flags.ordinal() >= ClassProcessor.ComputeFlags.COMPUTE_FRAMES.ordinal()) {
+            if (!processors.canRecomputeFrames(transformer.name())) {
+                LOGGER.error("Transformer {} requested COMPUTE_FRAMES but does not depend, directly or indirectly, on running after {}", transformer.name(), ClassProcessorIds.COMPUTING_FRAMES);
+                throw new IllegalStateException("Transformer " + transformer.name() + " requested COMPUTE_FRAMES but does not depend, directly or indirectly, on running after " + ClassProcessorIds.COMPUTING_FRAMES);
+            }
+            if (!allowsComputeFrames) {
+                LOGGER.error("Transformer {} requested COMPUTE_FRAMES but is not allowed to do so as it runs before transformer {}", transformer.name(), ClassProcessorIds.COMPUTING_FRAMES);
+                throw new IllegalStateException("Transformer " + transformer.name() + " requested COMPUTE_FRAMES but is not allowed to do so as it runs before transformer " + ClassProcessorIds.COMPUTING_FRAMES);
+            }
+        }
+    }
+
+    private static void runAfterProcessing(Type classDesc, List<ClassProcessor> transformers) {
+        // run post-result callbacks
+        var context = new ClassProcessor.AfterProcessingContext(classDesc);
+        for (var transformer : transformers) {
+            transformer.afterProcessing(context);
+        }
+    }
+
+    private byte @Nullable [] useCachedClass(TransformedClassCache.CachedClass cachedClass, Type classDesc, List<ClassProcessor> transformersToUse) {
+        for (var entry : cachedClass.audit()) {
+            var trail = auditTrail.forClassProcessor(classDesc.getClassName(), entry.processor());
+            entry.activities().forEach(trail::addFormattedActivity);
+            if (entry.rewrites()) {
+                trail.rewrites();
+            }
+        }
+        // Post-result callbacks still have to run, since they signal that the class is about to be loaded
+        runAfterProcessing(classDesc, transformersToUse);
+        return cachedClass.bytecode();
+    }
+
+    /**
+     * {@return the cheapest {@link ClassReader} options that satisfy the parse requirements of all given processors}
+     */
+    static int getParsingOptions(List<ClassProcessor> transformers) {
+        boolean code = false;
+        boolean debugInfo = false;
+        boolean expandedFrames = false;
+        for (var transformer : transformers) {
+            if (ClassProcessorIds.COMPUTING_FRAMES.equals(transformer.name())) {
+                continue;
+            }
+            var requirements = transformer.parseRequirements();
+            code |= requirements.contains(ClassProcessor.ParseRequirement.CODE);
+            debugInfo |= requirements.contains(ClassProcessor.ParseRequirement.DEBUG_INFO);
+            expandedFrames |= requirements.contains(ClassProcessor.ParseRequirement.EXPANDED_FRAMES);
+        }
+        if (!code) {
+            return ClassReader.SKIP_CODE | (debugInfo ? 0 : ClassReader.SKIP_DEBUG);
+        }
+        // Debug information of the code cannot be skipped, since the code is written back from the node
+        return expandedFrames ? ClassReader.EXPAND_FRAMES : 0;
+    }
+
+    private static List<TransformedClassCache.AuditEntry> toAuditEntries(List<ClassProcessorAuditLog.TransformerActivity> trails) {
+        var entries = new ArrayList<TransformedClassCache.AuditEntry>(trails.size());
+        for (var trail : trails) {
+            entries.add(new TransformedClassCache.AuditEntry(trail.processorName(), trail.includesRewrite(), List.copyOf(trail.activities())));
+        }
+        return entries;
     }
 
     private static volatile Path tempDir;
@@ -155,6 +380,12 @@ public class ClassTransformer {
         }
     }
 
+    private static byte[] sha256(byte[] bytes, int length) {
+        var digest = getSha256();
+        digest.update(bytes, 0, length);
+        return digest.digest();
+    }
+
     private static MessageDigest getSha256() {
         try {
             return MessageDigest.getInstance("SHA-256");
@@ -163,7 +394,10 @@ public class ClassTransformer {
         }
     }
 
-    private static ClassWriter createClassWriter(ClassProcessor.ComputeFlags flags, ClassNode clazzAccessor, ClassHierarchyRecomputationContext locator) {
+    /**
+     * Creates a writer for either a transformed node, or a class that is streamed from the given reader.
+     */
+    private static ClassWriter createClassWriter(ClassProcessor.ComputeFlags flags, @Nullable ClassNode clazzAccessor, @Nullable ClassReader classReader, ClassHierarchyRecomputationContext locator) {
         int writerFlag = switch (flags) {
             case COMPUTE_MAXS -> ClassWriter.COMPUTE_MAXS;
             case COMPUTE_FRAMES -> ClassWriter.COMPUTE_FRAMES;
@@ -171,6 +405,9 @@ public class ClassTransformer {
         };
 
         //Only use the TransformerClassWriter when needed as it's slower, and only COMPUTE_FRAMES calls getCommonSuperClass
-        return flags.ordinal() >= ClassProcessor.ComputeFlags.COMPUTE_FRAMES.ordinal() ? new TransformerClassWriter(writerFlag, clazzAccessor, locator) : new ClassWriter(writerFlag);
+        if (flags.ordinal() >= ClassProcessor.ComputeFlags.COMPUTE_FRAMES.ordinal()) {
+            return classReader != null ? new TransformerClassWriter(classReader, writerFlag, locator) : new TransformerClassWriter(writerFlag, clazzAccessor, locator);
+        }
+        return classReader != null ? new ClassWriter(classReader, writerFlag) : new ClassWriter(writerFlag);
     }
 }
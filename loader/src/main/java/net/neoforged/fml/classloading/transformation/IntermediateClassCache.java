@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.classloading.transformation;
+
+import java.util.LinkedHashMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An in-memory cache of the intermediate states of classes, as requested from a {@link TransformingClassLoader} up to
+ * a given processor, for example by {@link net.neoforged.neoforgespi.transformation.BytecodeProvider} or by frame
+ * computation. Without it, every such request reads the class again and runs all processors up to that point.
+ * <p>
+ * The cache is bounded by the total size of the cached bytecode, and evicts the least recently used entries first.
+ * Entries are copied in and out, so callers are free to modify the arrays they pass or receive.
+ */
+final class IntermediateClassCache {
+    private static final long MAX_DEFAULT_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    IntermediateClassCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Creates a cache that uses at most 1/32 of the maximum heap, up to 64MiB.
+     */
+    static IntermediateClassCache create() {
+        return new IntermediateClassCache(Math.min(MAX_DEFAULT_BYTES, Runtime.getRuntime().maxMemory() / 32));
+    }
+
+    /**
+     * {@return the cached state of the class before the processor at the given index ran, or null if it is not cached}
+     */
+    byte @Nullable [] get(String className, int processorIndex) {
+        byte[] bytecode;
+        synchronized (entries) {
+            bytecode = entries.get(new Key(className, processorIndex));
+        }
+        if (bytecode == null) {
+            ClassTransformStatistics.incrementIntermediateCacheMisses();
+            return null;
+        }
+        ClassTransformStatistics.incrementIntermediateCacheHits();
+        return bytecode.clone();
+    }
+
+    void put(String className, int processorIndex, byte[] bytecode) {
+        if (bytecode.length > maxBytes) {
+            return;
+        }
+        var copy = bytecode.clone();
+        synchronized (entries) {
+            var previous = entries.put(new Key(className, processorIndex), copy);
+            if (previous != null) {
+                totalBytes -= previous.length;
+            }
+            totalBytes += copy.length;
+            var iterator = entries.values().iterator();
+            while (totalBytes > maxBytes) {
+                totalBytes -= iterator.next().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    long totalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private record Key(String className, int processorIndex) {}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.classloading.transformation;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Attribute;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.TypePath;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Writes a class that was parsed with {@link ClassReader#SKIP_CODE}, streaming the code of every method that was left
+ * without instructions from the original class. Everything else, including the method headers, is taken from the node.
+ * If the node was also parsed with {@link ClassReader#SKIP_DEBUG}, the source file and method parameters are restored
+ * from the original class as well, unless the node provides them.
+ */
+final class OriginalCodeWriter {
+    private OriginalCodeWriter() {}
+
+    /**
+     * @param node          the transformed class, parsed without code
+     * @param original      the reader of the original class
+     * @param skippedDebug  whether the node was also parsed with {@link ClassReader#SKIP_DEBUG}
+     * @param writer        the writer to write the class to
+     * @param computeFrames whether the writer recomputes frames, in which case the original frames are not read
+     */
+    static void write(ClassNode node, ClassReader original, boolean skippedDebug, ClassWriter writer, boolean computeFrames) {
+        var incomplete = new HashMap<String, MethodNode>();
+        for (var method : node.methods) {
+            if (needsCode(method) || needsParameters(method, skippedDebug)) {
+                incomplete.put(method.name + method.desc, method);
+            }
+        }
+
+        var pending = new HashMap<String, PendingMethod>();
+        node.accept(new ClassVisitor(Opcodes.ASM9, writer) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                var visitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+                var key = name + descriptor;
+                var method = incomplete.get(key);
+                if (method == null) {
+                    return visitor;
+                }
+                // The header is visited from the node, the rest follows once the original class is read
+                pending.put(key, new PendingMethod(visitor, needsCode(method), needsParameters(method, skippedDebug)));
+                return new MethodVisitor(Opcodes.ASM9, visitor) {
+                    @Override
+                    public void visitEnd() {}
+                };
+            }
+
+            @Override
+            public void visitEnd() {
+                boolean restoreSource = skippedDebug && node.sourceFile == null && node.sourceDebug == null;
+                original.accept(new OriginalPartsForwarder(pending, restoreSource ? writer : null), computeFrames ? ClassReader.SKIP_FRAMES : 0);
+                for (var method : pending.values()) {
+                    method.visitor().visitEnd();
+                }
+                super.visitEnd();
+            }
+        });
+    }
+
+    private static boolean needsCode(MethodNode method) {
+        return method.instructions.size() == 0 && (method.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) == 0;
+    }
+
+    private static boolean needsParameters(MethodNode method, boolean skippedDebug) {
+        return skippedDebug && method.parameters == null;
+    }
+
+    private record PendingMethod(MethodVisitor visitor, boolean code, boolean parameters) {}
+
+    private static final class OriginalPartsForwarder extends ClassVisitor {
+        private final Map<String, PendingMethod> pending;
+        @Nullable
+        private final ClassWriter sourceTarget;
+
+        /**
+         * @param sourceTarget where to restore the source file to, or null if it should not be restored
+         */
+        OriginalPartsForwarder(Map<String, PendingMethod> pending, @Nullable ClassWriter sourceTarget) {
+            super(Opcodes.ASM9);
+            this.pending = pending;
+            this.sourceTarget = sourceTarget;
+        }
+
+        @Override
+        public void visitSource(String source, String debug) {
+            if (sourceTarget != null) {
+                sourceTarget.visitSource(source, debug);
+            }
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            var method = pending.remove(name + descriptor);
+            if (method == null) {
+                return null;
+            }
+            return new OriginalPartsVisitor(method);
+        }
+    }
+
+    /**
+     * Forwards the code and parameters of a method as requested, dropping everything else that belongs to its header.
+     * Ends the target method once the original method has been visited.
+     */
+    private static final class OriginalPartsVisitor extends MethodVisitor {
+        private final PendingMethod method;
+        private boolean inCode;
+
+        OriginalPartsVisitor(PendingMethod method) {
+            // Code events are only forwarded if the code is needed
+            super(Opcodes.ASM9, method.code() ? method.visitor() : null);
+            this.method = method;
+        }
+
+        @Override
+        public void visitParameter(String name, int access) {
+            if (method.parameters()) {
+                method.visitor().visitParameter(name, access);
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotationDefault() {
+            return null;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public void visitAnnotableParameterCount(int parameterCount, boolean visible) {}
+
+        @Override
+        public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public void visitAttribute(Attribute attribute) {
+            // Non-standard attributes of the method itself are part of the header, those of its code are not
+            if (inCode) {
+                super.visitAttribute(attribute);
+            }
+        }
+
+        @Override
+        public void visitCode() {
+            inCode = true;
+            super.visitCode();
+        }
+
+        @Override
+        public void visitEnd() {
+            method.visitor().visitEnd();
+        }
+    }
+}
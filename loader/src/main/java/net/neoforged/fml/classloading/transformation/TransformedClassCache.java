@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.classloading.transformation;
+
+import com.mojang.logging.LogUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import net.neoforged.fml.FMLVersion;
+import net.neoforged.neoforgespi.transformation.ClassProcessor;
+import net.neoforged.neoforgespi.transformation.ClassProcessorIds;
+import net.neoforged.neoforgespi.transformation.ProcessorName;
+import org.apache.commons.io.file.PathUtils;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * A content-addressed on-disk cache of transformed class bytecode.
+ * <p>
+ * Entries are keyed by the SHA-256 of the original class, its name, and the {@linkplain ClassProcessor#cacheVersion() cache version}
+ * of every processor that handles the class, in order. Only results that did not require frame computation are
+ * stored, since frames depend on the hierarchy of other classes. Every entry repeats its key and carries a checksum,
+ * so that stale or corrupted entries are discarded and the class is simply transformed again.
+ * <p>
+ * The whole cache is discarded when the version of FML changes. Entries that were not used for
+ * {@linkplain #MAX_UNUSED_AGE a while} are deleted, since they are most likely left over from
+ * processors or mods that changed since.
+ */
+@ApiStatus.Internal
+public final class TransformedClassCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int MAGIC = 0x464D4C43; // FMLC
+    private static final int FORMAT_VERSION = 1;
+    private static final String VERSION_FILE = "version.txt";
+    private static final String LAST_PRUNED_FILE = "last_pruned";
+    /**
+     * Entries that were neither read nor written for this long are deleted.
+     */
+    private static final Duration MAX_UNUSED_AGE = Duration.ofDays(14);
+    /**
+     * How often the cache is checked for unused entries.
+     */
+    private static final Duration PRUNE_INTERVAL = Duration.ofDays(1);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path directory;
+    /**
+     * The processors that opted out of caching, which is only logged once per processor.
+     */
+    private final Set<ProcessorName> uncachedProcessors = ConcurrentHashMap.newKeySet();
+
+    private TransformedClassCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the cache in the given directory. If the directory was written by another version of FML or of the
+     * cache format, its content is discarded. Otherwise, entries that were not used recently are deleted.
+     */
+    public static TransformedClassCache open(Path directory) {
+        var versionFile = directory.resolve(VERSION_FILE);
+        var expectedVersion = FORMAT_VERSION + " " + FMLVersion.getVersion();
+        try {
+            if (Files.isDirectory(directory)) {
+                String actualVersion = null;
+                if (Files.isRegularFile(versionFile)) {
+                    actualVersion = Files.readString(versionFile).trim();
+                }
+                if (!expectedVersion.equals(actualVersion)) {
+                    LOGGER.info("Discarding transformed class cache in {} due to version change", directory);
+                    PathUtils.cleanDirectory(directory);
+                } else {
+                    pruneIfDue(directory);
+                }
+            }
+            Files.createDirectories(directory);
+            if (!Files.isRegularFile(versionFile)) {
+                Files.writeString(versionFile, expectedVersion);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to prepare transformed class cache in {}", directory, e);
+        }
+        return new TransformedClassCache(directory);
+    }
+
+    /**
+     * Deletes the entries that were not used for {@link #MAX_UNUSED_AGE}, unless that was already done in the last
+     * {@link #PRUNE_INTERVAL}.
+     */
+    private static void pruneIfDue(Path directory) throws IOException {
+        var now = Instant.now();
+        var lastPrunedFile = directory.resolve(LAST_PRUNED_FILE);
+        try {
+            if (Files.getLastModifiedTime(lastPrunedFile).toInstant().isAfter(now.minus(PRUNE_INTERVAL))) {
+                return;
+            }
+        } catch (NoSuchFileException ignored) {
+            // Never pruned before
+        }
+
+        var deleteBefore = now.minus(MAX_UNUSED_AGE);
+        int deleted = 0;
+        try (var folders = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (var folder : folders) {
+                boolean empty = true;
+                try (var entries = Files.newDirectoryStream(folder)) {
+                    for (var entry : entries) {
+                        if (Files.getLastModifiedTime(entry).toInstant().isBefore(deleteBefore) && Files.deleteIfExists(entry)) {
+                            deleted++;
+                        } else {
+                            empty = false;
+                        }
+                    }
+                }
+                if (empty) {
+                    Files.deleteIfExists(folder);
+                }
+            }
+        }
+        if (deleted > 0) {
+            LOGGER.debug("Deleted {} unused entries from transformed class cache in {}", deleted, directory);
+        }
+        Files.writeString(lastPrunedFile, now.toString());
+    }
+
+    /**
+     * {@return the cache key for the given class, or null if any of the processors opts out of caching}
+     */
+    byte @Nullable [] computeKey(String className, byte[] inputSha256, List<ClassProcessor> processors) {
+        var digest = getSha256();
+        update(digest, FMLVersion.getVersion());
+        update(digest, className);
+        digest.update(inputSha256);
+        for (var processor : processors) {
+            if (ClassProcessorIds.COMPUTING_FRAMES.equals(processor.name())) {
+                continue;
+            }
+            var version = processor.cacheVersion();
+            if (version == null) {
+                if (uncachedProcessors.add(processor.name())) {
+                    LOGGER.debug("Not caching classes transformed by {}, since it does not provide a cache version", processor.name());
+                }
+                return null;
+            }
+            update(digest, processor.name().toString());
+            update(digest, version);
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * {@return the cached result for the given key, or null if there is no valid entry}
+     */
+    @Nullable
+    CachedClass get(byte[] key) {
+        var file = getEntryPath(key);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.debug("Failed to read transformed class cache entry {}", file, e);
+            return null;
+        }
+
+        CachedClass cachedClass;
+        try {
+            cachedClass = readEntry(key, content);
+        } catch (IOException e) {
+            LOGGER.warn("Discarding corrupted transformed class cache entry {}: {}", file, e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {}
+            return null;
+        }
+
+        // Keep the entry from being pruned while it is still used
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            LOGGER.debug("Failed to update last use of transformed class cache entry {}", file, e);
+        }
+        return cachedClass;
+    }
+
+    void put(byte[] key, CachedClass cachedClass) {
+        var file = getEntryPath(key);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(tempFile, writeEntry(key, cachedClass));
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Failed to write transformed class cache entry {}", file, e);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private Path getEntryPath(byte[] key) {
+        var hex = HEX.formatHex(key);
+        return directory.resolve(hex.substring(0, 2)).resolve(hex + ".bin");
+    }
+
+    private static byte[] writeEntry(byte[] key, CachedClass cachedClass) throws IOException {
+        var bout = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bout)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.write(key);
+            out.writeShort(cachedClass.audit().size());
+            for (var entry : cachedClass.audit()) {
+                out.writeUTF(entry.processor().toString());
+                out.writeBoolean(entry.rewrites());
+                out.writeShort(entry.activities().size());
+                for (var activity : entry.activities()) {
+                    out.writeUTF(activity);
+                }
+            }
+            var bytecode = cachedClass.bytecode();
+            out.writeInt(bytecode == null ? -1 : bytecode.length);
+            if (bytecode != null) {
+                out.write(bytecode);
+            }
+            var crc = new CRC32();
+            crc.update(bout.toByteArray());
+            out.writeLong(crc.getValue());
+        }
+        return bout.toByteArray();
+    }
+
+    private static CachedClass readEntry(byte[] key, byte[] content) throws IOException {
+        if (content.length < Long.BYTES) {
+            throw new IOException("Truncated entry");
+        }
+        var crc = new CRC32();
+        crc.update(content, 0, content.length - Long.BYTES);
+
+        try (var in = new DataInputStream(new ByteArrayInputStream(content))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Invalid magic");
+            }
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported format version");
+            }
+            var storedKey = in.readNBytes(key.length);
+            if (!Arrays.equals(key, storedKey)) {
+                throw new IOException("Key mismatch");
+            }
+            var auditCount = in.readUnsignedShort();
+            var audit = new ArrayList<AuditEntry>(auditCount);
+            for (int i = 0; i < auditCount; i++) {
+                var processor = ProcessorName.parse(in.readUTF());
+                var rewrites = in.readBoolean();
+                var activityCount = in.readUnsignedShort();
+                var activities = new ArrayList<String>(activityCount);
+                for (int j = 0; j < activityCount; j++) {
+                    activities.add(in.readUTF());
+                }
+                audit.add(new AuditEntry(processor, rewrites, activities));
+            }
+            var length = in.readInt();
+            byte[] bytecode = null;
+            if (length >= 0) {
+                bytecode = in.readNBytes(length);
+                if (bytecode.length != length) {
+                    throw new IOException("Truncated bytecode");
+                }
+            }
+            if (in.readLong() != crc.getValue()) {
+                throw new IOException("Checksum mismatch");
+            }
+            return new CachedClass(bytecode, audit);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid processor name", e);
+        }
+    }
+
+    private static MessageDigest getSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param bytecode the transformed bytecode, or null if the processors left the class unchanged
+     * @param audit    the audit trail of the processors that handled the class, to be replayed on a cache hit
+     */
+    record CachedClass(byte @Nullable [] bytecode, List<AuditEntry> audit) {}
+
+    record AuditEntry(ProcessorName processor, boolean rewrites, List<String> activities) {}
+}
@@ -14,13 +14,10 @@
 
 package net.neoforged.fml.classloading.transformation;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
@@ -29,120 +26,138 @@ import org.objectweb.asm.tree.ClassNode;
 
 class TransformerClassWriter extends ClassWriter {
     private static final Logger LOGGER = LogManager.getLogger();
-    private static final Map<String, String> CLASS_PARENTS = new ConcurrentHashMap<>();
-    private static final Map<String, Set<String>> CLASS_HIERARCHIES = new ConcurrentHashMap<>();
-    private static final Map<String, Boolean> IS_INTERFACE = new ConcurrentHashMap<>();
-    private final ClassNode clazzAccessor;
+    private static final ClassHierarchyIndex SHARED_HIERARCHY = new ClassHierarchyIndex();
     private boolean computedThis = false;
     private final ClassHierarchyRecomputationContext recomputationContext;
+    private final ClassHierarchyIndex hierarchy;
+    private int thisAccess;
+    private String thisName;
+    @Nullable
+    private String thisSuperName;
+    private String[] thisInterfaces;
 
     public TransformerClassWriter(int writerFlags, ClassNode clazzAccessor, ClassHierarchyRecomputationContext recomputationContext) {
         super(writerFlags);
-        this.clazzAccessor = clazzAccessor;
         this.recomputationContext = recomputationContext;
+        this.hierarchy = Objects.requireNonNullElse(recomputationContext.hierarchyIndex(), SHARED_HIERARCHY);
+        recordThis(clazzAccessor.access, clazzAccessor.name, clazzAccessor.superName, clazzAccessor.interfaces.toArray(String[]::new));
+    }
+
+    /**
+     * Creates a writer that copies the constant pool and untouched methods from the given reader.
+     * If the class is visited through {@link #recordingHeader()}, its hierarchy is taken from the header it is written
+     * with, otherwise from the reader.
+     */
+    public TransformerClassWriter(ClassReader classReader, int writerFlags, ClassHierarchyRecomputationContext recomputationContext) {
+        super(classReader, writerFlags);
+        this.recomputationContext = recomputationContext;
+        this.hierarchy = Objects.requireNonNullElse(recomputationContext.hierarchyIndex(), SHARED_HIERARCHY);
+        recordThis(classReader.getAccess(), classReader.getClassName(), classReader.getSuperName(), classReader.getInterfaces());
+    }
+
+    /**
+     * {@return a visitor that passes the class on to this writer, while recording its header}
+     */
+    public ClassVisitor recordingHeader() {
+        return new ClassVisitor(Opcodes.ASM9, this) {
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                recordThis(access, name, superName, interfaces == null ? new String[0] : interfaces);
+                super.visit(version, access, name, signature, superName, interfaces);
+            }
+        };
+    }
+
+    private void recordThis(int access, String name, @Nullable String superName, String[] interfaces) {
+        this.thisAccess = access;
+        this.thisName = name;
+        this.thisSuperName = superName;
+        this.thisInterfaces = interfaces;
     }
 
     @Override
     protected String getCommonSuperClass(String type1, String type2) {
         if (!computedThis) {
-            computeHierarchy(clazzAccessor);
+            if (hierarchy.get(thisName) == null) {
+                computeHierarchy(thisName, thisAccess, thisSuperName, thisInterfaces);
+            }
             computedThis = true;
         }
 
-        if (getSupers(type2).contains(type1)) {
+        var node1 = getNode(type1);
+        var node2 = getNode(type2);
+        if (node2.isSubtypeOf(node1)) {
             return type1;
         }
-        if (getSupers(type1).contains(type2)) {
+        if (node1.isSubtypeOf(node2)) {
             return type2;
         }
 
-        if (isIntf(type1) || isIntf(type2)) {
+        if (node1.isInterface || node2.isInterface) {
             return "java/lang/Object";
         }
 
-        String type = type1;
+        var node = node1;
         do {
-            type = getSuper(type);
-        } while (!getSupers(type2).contains(type));
-        return type;
-    }
-
-    private Set<String> getSupers(String typeName) {
-        computeHierarchy(typeName);
-        return CLASS_HIERARCHIES.get(typeName);
-    }
-
-    private boolean isIntf(String typeName) {
-        //We don't need computeHierarchy as it has been called already from a different method every time this method is called
-        return IS_INTERFACE.get(typeName);
-    }
-
-    private String getSuper(String typeName) {
-        computeHierarchy(typeName);
-        return CLASS_PARENTS.get(typeName);
-    }
-
-    private void computeHierarchy(ClassNode clazzNode) {
-        if (!CLASS_HIERARCHIES.containsKey(clazzNode.name)) {
-            clazzNode.accept(new SuperCollectingVisitor());
-        }
+            node = node.parent;
+        } while (!node2.isSubtypeOf(node));
+        return node.name;
     }
 
     /**
-     * Computes the hierarchy for a specific class if it has not been computed yet
+     * Gets the hierarchy node for a specific class, computing its hierarchy if it has not been computed yet
      */
-    private void computeHierarchy(String className) {
-        if (CLASS_HIERARCHIES.containsKey(className)) return; //already computed
+    private ClassHierarchyIndex.Node getNode(String className) {
+        var node = hierarchy.get(className);
+        if (node != null) return node; //already computed
         Class<?> clz = recomputationContext.findLoadedClass(className.replace('/', '.'));
         if (clz != null) {
-            computeHierarchyFromClass(className, clz);
-        } else {
-            computeHierarchyFromFile(className);
+            return computeHierarchyFromClass(className, clz);
         }
+        var header = recomputationContext.findUntransformedHeader(className.replace('/', '.'));
+        if (header != null) {
+            return computeHierarchy(className, header.access(), header.superName(), header.interfaces());
+        }
+        return computeHierarchyFromFile(className);
     }
 
     /**
      * Computes the hierarchy for a specific class using the already loaded class object
-     * Must be kept in sync with the file counterpart {@link SuperCollectingVisitor#visit(int, int, String, String, String, String[])}
+     * Must be kept in sync with the header counterpart {@link #computeHierarchy(String, int, String, String[])}
      */
-    private void computeHierarchyFromClass(String name, Class<?> clazz) {
+    private ClassHierarchyIndex.Node computeHierarchyFromClass(String name, Class<?> clazz) {
+        var node = hierarchy.get(name);
+        if (node != null) return node;
         Class<?> superClass = clazz.getSuperclass();
-        Set<String> hierarchies = new HashSet<>();
+        ClassHierarchyIndex.Node parent = null;
         if (superClass != null) {
-            String superName = superClass.getName().replace('.', '/');
-            CLASS_PARENTS.put(name, superName);
-            if (!CLASS_HIERARCHIES.containsKey(superName))
-                computeHierarchyFromClass(superName, superClass);
-            hierarchies.add(name);
-            hierarchies.addAll(CLASS_HIERARCHIES.get(superName));
-        } else {
-            hierarchies.add("java/lang/Object");
+            parent = computeHierarchyFromClass(superClass.getName().replace('.', '/'), superClass);
+        } else if (clazz.isInterface()) {
+            // Unlike in the class file, interfaces have no super class here
+            parent = computeHierarchyFromClass("java/lang/Object", Object.class);
+        }
+        var interfaces = clazz.getInterfaces();
+        var interfaceNodes = new ClassHierarchyIndex.Node[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceNodes[i] = computeHierarchyFromClass(interfaces[i].getName().replace('.', '/'), interfaces[i]);
         }
-        IS_INTERFACE.put(name, clazz.isInterface());
-        Arrays.stream(clazz.getInterfaces()).forEach(c -> {
-            String n = c.getName().replace('.', '/');
-            if (!CLASS_HIERARCHIES.containsKey(n))
-                computeHierarchyFromClass(n, c);
-            hierarchies.add(n);
-            hierarchies.addAll(CLASS_HIERARCHIES.get(n));
-        });
-        CLASS_HIERARCHIES.put(name, hierarchies); //Only put the set in the map once it is fully populated, to prevent another thread from using incomplete data
+        return hierarchy.add(name, clazz.isInterface(), parent, interfaceNodes);
     }
 
     /**
      * Computes the hierarchy for a specific class by loading the class from disk and running it through modlauncher.
      */
-    private void computeHierarchyFromFile(String className) {
+    private ClassHierarchyIndex.Node computeHierarchyFromFile(String className) {
         try {
             byte[] classData = recomputationContext.upToFrames(className.replace('/', '.'));
-            ClassReader classReader = new ClassReader(classData);
-            classReader.accept(new SuperCollectingVisitor(), ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+            var header = ClassHierarchyIndex.ClassHeader.read(classData);
+            return computeHierarchy(className, header.access(), header.superName(), header.interfaces());
         } catch (ClassNotFoundException e) {
             //Don't panic just yet. Do a classload on the super classloader
             //This is safe, as the TCL can't find the class, so it has to be on the super classloader, and it can't cause circulation,
             //as classes from the parent classloader cannot reference classes from the TCL, as the parent only contains libraries and std lib
             try {
-                computeHierarchyFromClass(className, recomputationContext.locateParentClass(className.replace('/', '.')));
+                return computeHierarchyFromClass(className, recomputationContext.locateParentClass(className.replace('/', '.')));
             } catch (ClassNotFoundException classNotFoundException) {
                 classNotFoundException.addSuppressed(e);
                 LOGGER.fatal("Failed to find class {} ", className, classNotFoundException);
@@ -151,29 +166,16 @@ class TransformerClassWriter extends ClassWriter {
         }
     }
 
-    private class SuperCollectingVisitor extends ClassVisitor {
-        public SuperCollectingVisitor() {
-            super(Opcodes.ASM9);
-        }
-
-        @Override
-        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
-            Set<String> hierarchies = new HashSet<>();
-            if (superName != null) {
-                CLASS_PARENTS.put(name, superName);
-                computeHierarchy(superName);
-                hierarchies.add(name);
-                hierarchies.addAll(CLASS_HIERARCHIES.get(superName));
-            } else {
-                hierarchies.add("java/lang/Object");
-            }
-            IS_INTERFACE.put(name, (access & Opcodes.ACC_INTERFACE) != 0);
-            Arrays.stream(interfaces).forEach(n -> {
-                computeHierarchy(n);
-                hierarchies.add(n);
-                hierarchies.addAll(CLASS_HIERARCHIES.get(n));
-            });
-            CLASS_HIERARCHIES.put(name, hierarchies); //Only put the set in the map once it is fully populated, to prevent another thread from using incomplete data
+    /**
+     * Computes the hierarchy for a specific class from its header.
+     */
+    private ClassHierarchyIndex.Node computeHierarchy(String name, int access, @Nullable String superName, String[] interfaces) {
+        var parent = superName != null ? getNode(superName) : null;
+        var interfaceNodes = new ClassHierarchyIndex.Node[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceNodes[i] = getNode(interfaces[i]);
         }
+        //The node is only added once all supertypes are, to prevent another thread from using incomplete data
+        return hierarchy.add(name, (access & Opcodes.ACC_INTERFACE) != 0, parent, interfaceNodes);
     }
 }
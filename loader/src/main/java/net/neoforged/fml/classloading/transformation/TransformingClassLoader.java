@@ -14,7 +14,9 @@
 
 package net.neoforged.fml.classloading.transformation;
 
+import java.io.IOException;
 import java.lang.module.Configuration;
+import java.nio.ByteBuffer;
 import java.util.List;
 import net.neoforged.fml.classloading.ModuleClassLoader;
 import net.neoforged.neoforgespi.transformation.ClassProcessorIds;
@@ -32,19 +34,36 @@ public class TransformingClassLoader extends ModuleClassLoader {
         ClassLoader.registerAsParallelCapable();
     }
     private final ClassTransformer classTransformer;
+    private final ClassProcessorSet classProcessorSet;
+    private final ClassHierarchyIndex hierarchyIndex = new ClassHierarchyIndex();
+    private final IntermediateClassCache intermediateClassCache = IntermediateClassCache.create();
 
     @VisibleForTesting
     public TransformingClassLoader(ClassProcessorSet classProcessorSet, ClassProcessorAuditLog auditTrail, Configuration configuration, List<ModuleLayer> parentLayers, ClassLoader parentClassLoader) {
+        this(classProcessorSet, auditTrail, null, configuration, parentLayers, parentClassLoader);
+    }
+
+    public TransformingClassLoader(ClassProcessorSet classProcessorSet, ClassProcessorAuditLog auditTrail, @Nullable TransformedClassCache classCache, Configuration configuration, List<ModuleLayer> parentLayers, ClassLoader parentClassLoader) {
         super("TRANSFORMER", configuration, parentLayers, parentClassLoader);
-        this.classTransformer = new ClassTransformer(classProcessorSet, auditTrail);
+        this.classTransformer = new ClassTransformer(classProcessorSet, auditTrail, classCache);
+        this.classProcessorSet = classProcessorSet;
         // The state of this class has to be set up fully before the processors are linked
         classProcessorSet.link(processorName -> className -> buildTransformedClassNodeFor(className, processorName));
     }
 
+    @Override
+    protected ByteBuffer maybeTransformClassBuffer(ByteBuffer buffer, String name) {
+        return classTransformer.transform(buffer, name, null, createRecomputationContext());
+    }
+
     @Override
     protected byte[] maybeTransformClassBytes(byte[] bytes, String name, @Nullable String upToTransformer) {
         var upToTransformerName = upToTransformer == null ? null : ProcessorName.parse(upToTransformer);
-        return classTransformer.transform(bytes, name, upToTransformerName, new ClassHierarchyRecomputationContext() {
+        return classTransformer.transform(bytes, name, upToTransformerName, createRecomputationContext());
+    }
+
+    private ClassHierarchyRecomputationContext createRecomputationContext() {
+        return new ClassHierarchyRecomputationContext() {
             @Override
             public @Nullable Class<?> findLoadedClass(String name) {
                 return TransformingClassLoader.this.getLoadedClass(name);
@@ -59,7 +78,44 @@ public class TransformingClassLoader extends ModuleClassLoader {
             public Class<?> locateParentClass(String className) throws ClassNotFoundException {
                 return Class.forName(className, false, TransformingClassLoader.this.getParent());
             }
-        });
+
+            @Override
+            public ClassHierarchyIndex.@Nullable ClassHeader findUntransformedHeader(String className) {
+                return TransformingClassLoader.this.findUntransformedHeader(className);
+            }
+
+            @Override
+            public ClassHierarchyIndex hierarchyIndex() {
+                return hierarchyIndex;
+            }
+        };
+    }
+
+    /**
+     * {@return the hierarchy of the classes in this loader, as used for frame computation}
+     * Scan data added to it lets the hierarchy of mod classes be resolved without reading them.
+     */
+    public ClassHierarchyIndex getHierarchyIndex() {
+        return hierarchyIndex;
+    }
+
+    @Nullable
+    private ClassHierarchyIndex.ClassHeader findUntransformedHeader(String className) {
+        // If a processor that runs before frames are computed handles the class, it may change the hierarchy
+        if (!classProcessorSet.transformersFor(className, false, ClassProcessorIds.COMPUTING_FRAMES).isEmpty()) {
+            return null;
+        }
+        var header = hierarchyIndex.getScannedHeader(className.replace('.', '/'));
+        if (header != null) {
+            return header;
+        }
+        try {
+            var bytes = getOriginalClassBytes(className);
+            return bytes != null ? ClassHierarchyIndex.ClassHeader.read(bytes) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            // Leave it to the regular lookup to report the problem
+            return null;
+        }
     }
 
     private Class<?> getLoadedClass(String name) {
@@ -67,6 +123,13 @@ public class TransformingClassLoader extends ModuleClassLoader {
     }
 
     byte[] buildTransformedClassNodeFor(String className, ProcessorName upToTransformer) throws ClassNotFoundException {
-        return super.getMaybeTransformedClassBytes(className, upToTransformer.toString());
+        // Requests for processors that are not part of the set run all processors, just like those for the last one
+        int processorIndex = classProcessorSet.indexOf(upToTransformer);
+        var bytecode = intermediateClassCache.get(className, processorIndex);
+        if (bytecode == null) {
+            bytecode = super.getMaybeTransformedClassBytes(className, upToTransformer.toString());
+            intermediateClassCache.put(className, processorIndex, bytecode);
+        }
+        return bytecode;
     }
 }
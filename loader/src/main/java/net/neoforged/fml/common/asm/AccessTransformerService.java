@@ -9,15 +9,22 @@ import java.util.Set;
 import net.neoforged.accesstransformer.api.AccessTransformerEngine;
 import net.neoforged.neoforgespi.transformation.ClassProcessor;
 import net.neoforged.neoforgespi.transformation.ClassProcessorIds;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
 import net.neoforged.neoforgespi.transformation.ProcessorName;
 import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.Type;
 
 @ApiStatus.Internal
 public class AccessTransformerService implements ClassProcessor {
     private final AccessTransformerEngine engine;
+    private final String cacheVersion;
 
-    public AccessTransformerService(AccessTransformerEngine engine) {
+    /**
+     * @param cacheVersion identifies the set of access transformers loaded into the engine
+     */
+    public AccessTransformerService(AccessTransformerEngine engine, String cacheVersion) {
         this.engine = engine;
+        this.cacheVersion = cacheVersion;
     }
 
     @Override
@@ -30,11 +37,27 @@ public class AccessTransformerService implements ClassProcessor {
         return Set.of(ClassProcessorIds.MIXIN);
     }
 
+    @Override
+    public String cacheVersion() {
+        return cacheVersion;
+    }
+
     @Override
     public ComputeFlags processClass(TransformationContext context) {
         return engine.transform(context.node(), context.type()) ? ComputeFlags.SIMPLE_REWRITE : ComputeFlags.NO_REWRITE;
     }
 
+    @Override
+    public ClassTargeting targeting() {
+        return ClassTargeting.classes(engine.getTargets().stream().map(Type::getClassName).toList());
+    }
+
+    @Override
+    public Set<ParseRequirement> parseRequirements() {
+        // Code is needed to fix up calls to methods that are no longer private
+        return Set.of(ParseRequirement.CODE);
+    }
+
     @Override
     public boolean handlesClass(SelectionContext context) {
         return !context.empty() && engine.getTargets().contains(context.type());
@@ -8,6 +8,7 @@ package net.neoforged.fml.common.asm;
 import java.util.Set;
 import net.neoforged.neoforgespi.transformation.ClassProcessor;
 import net.neoforged.neoforgespi.transformation.ClassProcessorIds;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
 import net.neoforged.neoforgespi.transformation.ProcessorName;
 import org.jetbrains.annotations.ApiStatus;
 
@@ -24,6 +25,16 @@ public class SimpleProcessorsGroup implements ClassProcessor {
         return Set.of(ClassProcessorIds.COMPUTING_FRAMES, ClassProcessorIds.MIXIN);
     }
 
+    @Override
+    public ClassTargeting targeting() {
+        return ClassTargeting.none();
+    }
+
+    @Override
+    public Set<ParseRequirement> parseRequirements() {
+        return ParseRequirement.NONE;
+    }
+
     @Override
     public boolean handlesClass(SelectionContext context) {
         return false;
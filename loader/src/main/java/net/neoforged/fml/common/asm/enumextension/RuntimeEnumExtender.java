@@ -23,6 +23,7 @@ import net.neoforged.fml.jarcontents.JarResource;
 import net.neoforged.neoforgespi.language.IModInfo;
 import net.neoforged.neoforgespi.transformation.ClassProcessor;
 import net.neoforged.neoforgespi.transformation.ClassProcessorIds;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
 import net.neoforged.neoforgespi.transformation.ProcessorName;
 import org.jetbrains.annotations.ApiStatus;
 import org.objectweb.asm.Opcodes;
@@ -78,6 +79,16 @@ public class RuntimeEnumExtender implements ClassProcessor {
         return OrderingHint.EARLY;
     }
 
+    @Override
+    public ClassTargeting targeting() {
+        return ClassTargeting.classes(prototypes.keySet().stream().map(name -> name.replace('/', '.')).toList());
+    }
+
+    @Override
+    public Set<ParseRequirement> parseRequirements() {
+        return Set.of(ParseRequirement.CODE);
+    }
+
     @Override
     public boolean handlesClass(SelectionContext context) {
         return !context.empty() && prototypes.containsKey(context.type().getInternalName());
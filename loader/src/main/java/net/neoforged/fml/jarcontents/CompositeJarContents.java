@@ -14,9 +14,11 @@ import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -31,12 +33,21 @@ import org.jetbrains.annotations.Nullable;
  */
 @ApiStatus.Internal
 public final class CompositeJarContents implements JarContents {
+    private static final String VERSIONS_FOLDER = "META-INF/versions/";
+    private static final int NOT_INDEXED = -1;
+
     private final JarContents[] delegates;
     @Nullable
     private final PathFilter @Nullable [] filters;
     private final List<Path> contentRoots;
+    private final boolean fixedContent;
 
     private volatile Optional<String> checksum;
+    /**
+     * Index of the delegate that provides each file, which is built on first use if {@link #hasFixedContent()}.
+     */
+    @Nullable
+    private volatile PathIndex pathIndex;
 
     /**
      * Constructs a new composite jar contents without filtering.
@@ -87,6 +98,7 @@ public final class CompositeJarContents implements JarContents {
             }
         }
         this.contentRoots = List.copyOf(contentRoots.reversed());
+        this.fixedContent = Arrays.stream(this.delegates).allMatch(CompositeJarContents::hasFixedContent);
     }
 
     @Override
@@ -98,6 +110,25 @@ public final class CompositeJarContents implements JarContents {
         return filters != null && Arrays.stream(filters).anyMatch(Objects::nonNull);
     }
 
+    /**
+     * {@return whether the content of all delegates is fixed for as long as they are open, which is the case for jar
+     * files, but not for folders}
+     */
+    public boolean hasFixedContent() {
+        return fixedContent;
+    }
+
+    private static boolean hasFixedContent(JarContents contents) {
+        return switch (contents) {
+            case JarFileContents ignored -> true;
+            case MappedJarContents ignored -> true;
+            case NestedJarContents ignored -> true;
+            case EmptyJarContents ignored -> true;
+            case CompositeJarContents composite -> composite.hasFixedContent();
+            default -> false;
+        };
+    }
+
     /**
      * For a composite jar, we compute the checksum as the SHA-256 of the concatenation of the
      * checksums of the delegates, in order. If the composite jar is filtered, or any delegate
@@ -168,6 +199,10 @@ public final class CompositeJarContents implements JarContents {
 
     @Override
     public Optional<URI> findFile(String relativePath) {
+        var owner = indexedOwner(relativePath);
+        if (owner != NOT_INDEXED) {
+            return owner < delegates.length ? delegates[owner].findFile(relativePath) : Optional.empty();
+        }
         for (int i = 0; i < delegates.length; i++) {
             if (isMasked(i, relativePath)) {
                 continue;
@@ -199,6 +234,10 @@ public final class CompositeJarContents implements JarContents {
 
     @Override
     public @Nullable JarResource get(String relativePath) {
+        var owner = indexedOwner(relativePath);
+        if (owner != NOT_INDEXED) {
+            return owner < delegates.length ? delegates[owner].get(relativePath) : null;
+        }
         for (int i = 0; i < delegates.length; i++) {
             if (isMasked(i, relativePath)) {
                 continue;
@@ -214,6 +253,10 @@ public final class CompositeJarContents implements JarContents {
 
     @Override
     public boolean containsFile(String relativePath) {
+        var owner = indexedOwner(relativePath);
+        if (owner != NOT_INDEXED) {
+            return owner < delegates.length && delegates[owner].containsFile(relativePath);
+        }
         for (int i = 0; i < delegates.length; i++) {
             if (isMasked(i, relativePath)) {
                 continue;
@@ -228,6 +271,10 @@ public final class CompositeJarContents implements JarContents {
 
     @Override
     public InputStream openFile(String relativePath) throws IOException {
+        var owner = indexedOwner(relativePath);
+        if (owner != NOT_INDEXED) {
+            return owner < delegates.length ? delegates[owner].openFile(relativePath) : null;
+        }
         for (int i = 0; i < delegates.length; i++) {
             if (isMasked(i, relativePath)) {
                 continue;
@@ -243,6 +290,10 @@ public final class CompositeJarContents implements JarContents {
 
     @Override
     public byte[] readFile(String relativePath) throws IOException {
+        var owner = indexedOwner(relativePath);
+        if (owner != NOT_INDEXED) {
+            return owner < delegates.length ? delegates[owner].readFile(relativePath) : null;
+        }
         for (int i = 0; i < delegates.length; i++) {
             if (isMasked(i, relativePath)) {
                 continue;
@@ -258,6 +309,21 @@ public final class CompositeJarContents implements JarContents {
 
     @Override
     public void visitContent(String startingFolder, JarResourceVisitor visitor) {
+        var pathIndex = getPathIndex();
+        if (pathIndex != null) {
+            // Every relative path is only visited for the delegate that provides it
+            for (int i = 0; i < delegates.length; i++) {
+                var delegateIdx = i;
+                delegates[i].visitContent(startingFolder, (relativePath, resource) -> {
+                    var owner = pathIndex.owners().get(relativePath);
+                    if (owner != null && owner == delegateIdx) {
+                        visitor.visit(relativePath, resource);
+                    }
+                });
+            }
+            return;
+        }
+
         // This is based on the logic that openResource will return the file from the *first* delegate
         // Every relative path we return will not be returned again
         var distinctVisitor = new JarResourceVisitor() {
@@ -297,6 +363,77 @@ public final class CompositeJarContents implements JarContents {
         }
     }
 
+    /**
+     * {@return the index of the delegate that provides the given relative path according to the path index, the number
+     * of delegates if no delegate provides it, or {@link #NOT_INDEXED} if all delegates need to be checked}
+     * <p>Folders and non-normalized paths are not indexed, so that delegates handle them consistently.
+     */
+    private int indexedOwner(String relativePath) {
+        var pathIndex = getPathIndex();
+        if (pathIndex == null || relativePath.isEmpty() || !PathNormalization.isNormalized(relativePath)
+                || pathIndex.unindexedPaths().contains(relativePath)) {
+            return NOT_INDEXED;
+        }
+        var owner = pathIndex.owners().get(relativePath);
+        return owner != null ? owner : delegates.length;
+    }
+
+    @Nullable
+    private PathIndex getPathIndex() {
+        var pathIndex = this.pathIndex;
+        if (pathIndex == null) {
+            if (!fixedContent) {
+                return null;
+            }
+            synchronized (this) {
+                pathIndex = this.pathIndex;
+                if (pathIndex == null) {
+                    this.pathIndex = pathIndex = buildPathIndex();
+                }
+            }
+        }
+        return pathIndex;
+    }
+
+    private PathIndex buildPathIndex() {
+        var owners = new HashMap<String, Integer>();
+        var unindexedPaths = new HashSet<String>();
+        for (int i = 0; i < delegates.length; i++) {
+            var delegateIdx = i;
+            delegates[i].visitContent("", (relativePath, resource) -> {
+                if (!isMasked(delegateIdx, relativePath)) {
+                    owners.putIfAbsent(relativePath, delegateIdx);
+                }
+                addParentFolders(relativePath, unindexedPaths);
+                // Multi-release jars may provide a file only through a versioned entry, which has a different name
+                if (relativePath.startsWith(VERSIONS_FOLDER)) {
+                    var versionEnd = relativePath.indexOf('/', VERSIONS_FOLDER.length());
+                    if (versionEnd != -1) {
+                        var unversionedPath = relativePath.substring(versionEnd + 1);
+                        unindexedPaths.add(unversionedPath);
+                        addParentFolders(unversionedPath, unindexedPaths);
+                    }
+                }
+            });
+        }
+        return new PathIndex(owners, unindexedPaths);
+    }
+
+    private static void addParentFolders(String relativePath, Set<String> folders) {
+        for (int i = relativePath.lastIndexOf('/'); i > 0; i = relativePath.lastIndexOf('/', i - 1)) {
+            if (!folders.add(relativePath.substring(0, i))) {
+                break; // Its parents have already been added as well
+            }
+        }
+    }
+
+    /**
+     * @param owners         The index of the first delegate that provides each file, with filters applied.
+     * @param unindexedPaths Folders, and paths that a delegate may provide under a different name.
+     *                       Lookups for these check all delegates.
+     */
+    private record PathIndex(Map<String, Integer> owners, Set<String> unindexedPaths) {}
+
     /**
      * {@return {@code true} if the given relative path is hidden by the given delegates filter}
      */
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Identifies a version of a file by its attributes, to decide whether information derived from the file is still
+ * up to date.
+ *
+ * @param lastModified in microseconds since the epoch
+ * @param fileKey      the {@linkplain BasicFileAttributes#fileKey() file key}, if the file system provides one
+ */
+@ApiStatus.Internal
+public record FileIdentity(long size, long lastModified, @Nullable String fileKey) {
+    /**
+     * Files modified this recently may still be written to without their size or modification time changing.
+     */
+    private static final long RACY_INTERVAL_MICROS = TimeUnit.SECONDS.toMicros(2);
+
+    public static FileIdentity read(Path path) throws IOException {
+        var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        var fileKey = attributes.fileKey();
+        // Keys may not contain the separators of the persisted caches
+        var fileKeyString = fileKey != null ? fileKey.toString().replace('\t', ' ').replace('\n', ' ') : null;
+        return new FileIdentity(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS), fileKeyString);
+    }
+
+    @Nullable
+    public static FileIdentity tryRead(Path path) {
+        try {
+            return read(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@return whether the file was modified so recently that it may still change without its identity changing}
+     */
+    public boolean isRacy() {
+        return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()) - lastModified < RACY_INTERVAL_MICROS;
+    }
+}
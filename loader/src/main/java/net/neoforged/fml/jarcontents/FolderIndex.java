@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchKey;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * An in-memory snapshot of the files and folders below a folder, which is used by {@link FolderJarContents} to avoid
+ * accessing the file system for every lookup.
+ * <p>
+ * The snapshot is built on first use and discarded as soon as the {@link FolderWatcher} reports that files were
+ * created or deleted, or when it is {@linkplain #invalidate() invalidated} explicitly. Since the file system reports
+ * changes asynchronously, a snapshot can briefly be out of date after a change.
+ * <p>
+ * Folders containing symbolic links, and folders on file systems that cannot be watched, are not indexed.
+ */
+final class FolderIndex implements AutoCloseable {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final Path root;
+    private final FolderWatcher watcher;
+    private final Set<WatchKey> watchKeys = ConcurrentHashMap.newKeySet();
+    @Nullable
+    private volatile Snapshot snapshot;
+    private volatile boolean disabled;
+
+    FolderIndex(Path root, FolderWatcher watcher) {
+        this.root = root;
+        this.watcher = watcher;
+    }
+
+    /**
+     * {@return the current snapshot of the folder, or {@code null} if the folder cannot be indexed or the watcher was closed}
+     */
+    @Nullable
+    Snapshot get() {
+        if (disabled || watcher.isClosed()) {
+            return null;
+        }
+        watcher.pollChanges();
+
+        var snapshot = this.snapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = this.snapshot;
+                if (snapshot == null && !disabled) {
+                    this.snapshot = snapshot = build();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Discards the current snapshot, so that it is rebuilt from the file system on next use.
+     * <p>Waits for snapshots that are currently being built, since they may not include the change.
+     */
+    synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    @Nullable
+    private Snapshot build() {
+        var entries = new ArrayList<String>();
+        try {
+            // Symbolic links are not followed below the root, but the root itself may be one
+            var realRoot = root.toRealPath();
+            Files.walkFileTree(realRoot, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    // Register before listing the folder, so that no change is missed
+                    watchKeys.add(watcher.register(dir, FolderIndex.this));
+                    if (!dir.equals(realRoot)) {
+                        entries.add(relativePath(realRoot, dir) + "/");
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (attrs.isSymbolicLink()) {
+                        throw new IOException("Cannot index symbolic link " + file);
+                    }
+                    if (attrs.isRegularFile()) {
+                        entries.add(relativePath(realRoot, file));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.debug("Disabling index of folder {}", root, e);
+            disabled = true;
+            return null;
+        }
+
+        var sortedEntries = entries.toArray(String[]::new);
+        Arrays.sort(sortedEntries);
+        return new Snapshot(sortedEntries);
+    }
+
+    private static String relativePath(Path root, Path path) {
+        return PathNormalization.normalize(root.relativize(path).toString());
+    }
+
+    @Override
+    public synchronized void close() {
+        disabled = true;
+        snapshot = null;
+        watcher.unregister(this, watchKeys);
+        watchKeys.clear();
+    }
+
+    /**
+     * @param entries The sorted, normalized relative paths of all files and folders. Folders end with a separator.
+     */
+    record Snapshot(String[] entries) {
+        boolean isFile(String relativePath) {
+            return Arrays.binarySearch(entries, relativePath) >= 0;
+        }
+
+        boolean isFolder(String relativePath) {
+            return relativePath.isEmpty() || Arrays.binarySearch(entries, relativePath + "/") >= 0;
+        }
+
+        /**
+         * Visits the relative paths of all files below a folder.
+         *
+         * @param folderPrefix The folder, which must be empty or end with a separator.
+         */
+        void visitFiles(String folderPrefix, Consumer<String> visitor) {
+            int start = 0;
+            if (!folderPrefix.isEmpty()) {
+                start = Arrays.binarySearch(entries, folderPrefix);
+                if (start < 0) {
+                    return; // The folder does not exist
+                }
+            }
+            for (int i = start; i < entries.length && entries[i].startsWith(folderPrefix); i++) {
+                var entry = entries[i];
+                if (!entry.endsWith("/")) {
+                    visitor.accept(entry);
+                }
+            }
+        }
+    }
+}
@@ -25,11 +25,41 @@ import org.jetbrains.annotations.Nullable;
 @ApiStatus.Internal
 public final class FolderJarContents implements JarContents {
     private final Path path;
+    @Nullable
+    private final FolderIndex index;
     private final Object manifestLock = new Object();
     private Manifest cachedManifest;
 
     public FolderJarContents(Path path) {
+        this(path, null);
+    }
+
+    /**
+     * @param watcher If not null, keep an in-memory index of the files in the folder, instead of accessing the file
+     *                system for every lookup. The index is updated when the watcher reports changes, or when the folder
+     *                is {@linkplain #refresh() refreshed}, and is no longer used once the watcher is closed. Lookups
+     *                using the index are case-sensitive on all file systems.
+     */
+    public FolderJarContents(Path path, @Nullable FolderWatcher watcher) {
         this.path = path;
+        this.index = watcher != null ? new FolderIndex(path, watcher) : null;
+    }
+
+    /**
+     * Discards the index of this folder, if it is indexed, so that changes which the file system did not report yet
+     * become visible.
+     */
+    public void refresh() {
+        if (index != null) {
+            index.invalidate();
+        }
+    }
+
+    /**
+     * {@return the current snapshot of the index, or {@code null} if this folder is not indexed}
+     */
+    private FolderIndex.@Nullable Snapshot snapshot() {
+        return index != null ? index.get() : null;
     }
 
     @Override
@@ -44,22 +74,26 @@ public final class FolderJarContents implements JarContents {
 
     @Override
     public @Nullable JarResource get(String relativePath) {
-        var path = fromRelativePath(relativePath);
-        if (Files.isRegularFile(path)) {
-            return new FileResource(path, false);
+        relativePath = PathNormalization.normalize(relativePath);
+        if (isRegularFile(relativePath)) {
+            return new FileResource(path.resolve(relativePath), false);
         }
         return null;
     }
 
     @Override
     public boolean containsFile(String relativePath) {
-        return Files.isRegularFile(fromRelativePath(relativePath));
+        return isRegularFile(PathNormalization.normalize(relativePath));
     }
 
     @Override
     public InputStream openFile(String relativePath) throws IOException {
+        relativePath = PathNormalization.normalize(relativePath);
+        if (isMissing(relativePath)) {
+            return null;
+        }
         try {
-            return Files.newInputStream(fromRelativePath(relativePath));
+            return Files.newInputStream(path.resolve(relativePath));
         } catch (NoSuchFileException e) {
             return null;
         }
@@ -67,8 +101,12 @@ public final class FolderJarContents implements JarContents {
 
     @Override
     public byte[] readFile(String relativePath) throws IOException {
+        relativePath = PathNormalization.normalize(relativePath);
+        if (isMissing(relativePath)) {
+            return null;
+        }
         try {
-            return Files.readAllBytes(fromRelativePath(relativePath));
+            return Files.readAllBytes(path.resolve(relativePath));
         } catch (NoSuchFileException e) {
             return null;
         }
@@ -81,6 +119,16 @@ public final class FolderJarContents implements JarContents {
 
     @Override
     public void visitContent(String startingFolder, JarResourceVisitor visitor) {
+        var snapshot = snapshot();
+        if (snapshot != null) {
+            var locatedResource = new FileResource(null, true);
+            snapshot.visitFiles(PathNormalization.normalizeFolderPrefix(startingFolder), relativePath -> {
+                locatedResource.path = path.resolve(relativePath);
+                visitor.visit(relativePath, locatedResource);
+            });
+            return;
+        }
+
         var startingPoint = getVisitStartingPoint(startingFolder);
         if (!startingPoint.startsWith(path)) {
             return; // Don't allow ../ escapes
@@ -117,8 +165,8 @@ public final class FolderJarContents implements JarContents {
 
     @Override
     public Optional<URI> findFile(String relativePath) {
-        var pathToFile = fromRelativePath(relativePath);
-        return Files.isRegularFile(pathToFile) ? Optional.of(pathToFile.toUri()) : Optional.empty();
+        relativePath = PathNormalization.normalize(relativePath);
+        return isRegularFile(relativePath) ? Optional.of(path.resolve(relativePath).toUri()) : Optional.empty();
     }
 
     @Override
@@ -144,17 +192,32 @@ public final class FolderJarContents implements JarContents {
     }
 
     @Override
-    public void close() {}
+    public void close() {
+        if (index != null) {
+            index.close();
+        }
+    }
 
     @Override
     public String toString() {
         return "folder(" + PathPrettyPrinting.prettyPrint(path) + ")";
     }
 
-    private Path fromRelativePath(String relativePath) {
-        // Checking for normalization here prevents path escapes
-        relativePath = PathNormalization.normalize(relativePath);
-        return path.resolve(relativePath);
+    /**
+     * {@return whether the given normalized relative path refers to a regular file}
+     */
+    private boolean isRegularFile(String relativePath) {
+        var snapshot = snapshot();
+        return snapshot != null ? snapshot.isFile(relativePath) : Files.isRegularFile(path.resolve(relativePath));
+    }
+
+    /**
+     * {@return whether the index knows that neither a file nor a folder exists at the given normalized relative path}
+     * Other paths are opened through the file system, which also reports the appropriate errors for folders.
+     */
+    private boolean isMissing(String relativePath) {
+        var snapshot = snapshot();
+        return snapshot != null && !snapshot.isFile(relativePath) && !snapshot.isFolder(relativePath);
     }
 
     private static class FileResource implements JarResource {
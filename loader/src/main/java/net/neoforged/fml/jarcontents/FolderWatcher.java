@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Watches the folders of all {@linkplain FolderJarContents indexed folders} opened with it for changes, using a single
+ * {@link WatchService} per file system, instead of one per indexed folder.
+ * <p>
+ * Changes are not delivered by a thread of this watcher, but picked up whenever one of the indexes is used. Once the
+ * watcher is closed, the folders opened with it stop using their index.
+ */
+@ApiStatus.Internal
+public final class FolderWatcher implements AutoCloseable {
+    private final Map<FileSystem, WatchService> watchServices = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Set<FolderIndex>> indexesByKey = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Watches a folder for files being created or deleted, which invalidates the given index.
+     *
+     * @throws IOException if the folder cannot be watched, including when its file system does not support it
+     */
+    synchronized WatchKey register(Path folder, FolderIndex index) throws IOException {
+        if (closed) {
+            throw new IOException("Folder watcher has been closed");
+        }
+        var fileSystem = folder.getFileSystem();
+        var watchService = watchServices.get(fileSystem);
+        if (watchService == null) {
+            try {
+                watchService = fileSystem.newWatchService();
+            } catch (UnsupportedOperationException e) {
+                throw new IOException("Cannot watch folders of " + fileSystem, e);
+            }
+            watchServices.put(fileSystem, watchService);
+        }
+        // Folders that are registered again, also by other indexes, keep their key
+        var key = folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+        indexesByKey.computeIfAbsent(key, ignored -> ConcurrentHashMap.newKeySet()).add(index);
+        return key;
+    }
+
+    /**
+     * Stops watching the given folders for an index, unless other indexes are still watching them.
+     */
+    synchronized void unregister(FolderIndex index, Collection<WatchKey> keys) {
+        for (var key : keys) {
+            var indexes = indexesByKey.get(key);
+            if (indexes != null && indexes.remove(index) && indexes.isEmpty()) {
+                indexesByKey.remove(key);
+                key.cancel();
+            }
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Invalidates the indexes of all folders that changed since the last time changes were polled.
+     */
+    void pollChanges() {
+        for (var watchService : watchServices.values()) {
+            try {
+                WatchKey key;
+                while ((key = watchService.poll()) != null) {
+                    handleChange(key);
+                }
+            } catch (ClosedWatchServiceException ignored) {
+                // The watcher was closed concurrently
+            }
+        }
+    }
+
+    /**
+     * Waits until the file system reports a change to any watched folder, and invalidates the affected indexes.
+     *
+     * @return whether a change was reported before the timeout elapsed
+     */
+    @VisibleForTesting
+    boolean awaitChange(Duration timeout) throws InterruptedException {
+        if (watchServices.size() != 1) {
+            throw new IllegalStateException("Can only wait for changes to a single file system");
+        }
+        var key = watchServices.values().iterator().next().poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        if (key == null) {
+            return false;
+        }
+        handleChange(key);
+        return true;
+    }
+
+    private void handleChange(WatchKey key) {
+        key.pollEvents();
+        var indexes = key.reset() ? indexesByKey.get(key) : indexesByKey.remove(key);
+        if (indexes != null) {
+            for (var index : indexes) {
+                index.invalidate();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        indexesByKey.clear();
+        IOException exception = null;
+        for (var watchService : watchServices.values()) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        watchServices.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+
+/**
+ * Caches the SHA-256 checksums of jar files, so that jars which did not change are not hashed again.
+ * <p>
+ * Checksums are keyed by the real path of a file, and are only reused as long as the size, last modification time
+ * and file key of the file are unchanged. The cache is kept for the lifetime of the process, and can be
+ * {@linkplain #load(Path) loaded from} and {@linkplain #save(Path) saved to} a file to carry it across launches.
+ * Any entry that cannot be trusted is simply ignored, which means the file is hashed again.
+ */
+@ApiStatus.Internal
+public final class JarChecksumCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String HEADER = "# FML jar checksum cache v1";
+    private static final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private static volatile boolean dirty;
+
+    private JarChecksumCache() {}
+
+    /**
+     * Gets the checksum of a file from the cache, or computes it if the file is not cached or changed since it was.
+     */
+    static String getChecksum(Path path, Function<Path, String> hasher) {
+        Path realPath;
+        FileIdentity identity;
+        try {
+            realPath = path.toRealPath();
+            identity = FileIdentity.read(realPath);
+        } catch (IOException e) {
+            return hasher.apply(path);
+        }
+
+        var entry = entries.get(realPath);
+        if (entry != null && entry.identity().equals(identity)) {
+            return entry.checksum();
+        }
+
+        var checksum = hasher.apply(path);
+        // Only cache the checksum if the file did not change while it was hashed
+        if (!identity.isRacy() && identity.equals(FileIdentity.tryRead(realPath))) {
+            entries.put(realPath, new Entry(identity, checksum));
+            dirty = true;
+        }
+        return checksum;
+    }
+
+    /**
+     * Records the checksum of a file that is known from the process that wrote it, such as the extraction of an
+     * embedded jar.
+     */
+    public static void record(Path path, String checksum) {
+        try {
+            var realPath = path.toRealPath();
+            entries.put(realPath, new Entry(FileIdentity.read(realPath), checksum));
+            dirty = true;
+        } catch (IOException e) {
+            LOGGER.debug("Failed to record checksum of {}", path, e);
+        }
+    }
+
+    /**
+     * Adds the checksums persisted in the given file to the cache. Missing, outdated or corrupted files are ignored.
+     */
+    public static void load(Path cacheFile) {
+        var loaded = new HashMap<Path, Entry>();
+        try {
+            var lines = Files.readAllLines(cacheFile);
+            if (lines.isEmpty() || !HEADER.equals(lines.getFirst())) {
+                LOGGER.debug("Ignoring jar checksum cache {} with unknown format", cacheFile);
+                return;
+            }
+            for (var line : lines.subList(1, lines.size())) {
+                var parts = line.split("\t", 5);
+                if (parts.length != 5 || parts[0].length() != 64) {
+                    throw new IllegalArgumentException("Malformed line: " + line);
+                }
+                HexFormat.of().parseHex(parts[0]);
+                var identity = new FileIdentity(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3].equals("-") ? null : parts[3]);
+                loaded.put(Path.of(parts[4]), new Entry(identity, parts[0]));
+            }
+        } catch (NoSuchFileException ignored) {
+            return;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring corrupted jar checksum cache {}: {}", cacheFile, e.toString());
+            return;
+        }
+        // Checksums computed during this session take precedence
+        loaded.forEach(entries::putIfAbsent);
+    }
+
+    /**
+     * Writes the cached checksums of all files that still exist unchanged to the given file, if any checksums were
+     * added since the cache was last saved.
+     */
+    public static void save(Path cacheFile) {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        var lines = new ArrayList<String>(entries.size() + 1);
+        lines.add(HEADER);
+        entries.forEach((path, entry) -> {
+            if (path.toString().indexOf('\n') == -1 && entry.identity().equals(FileIdentity.tryRead(path))) {
+                var identity = entry.identity();
+                lines.add(entry.checksum() + "\t" + identity.size() + "\t" + identity.lastModified() + "\t"
+                        + (identity.fileKey() != null ? identity.fileKey() : "-") + "\t" + path);
+            }
+        });
+
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            var tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tempFile, lines);
+                try {
+                    Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to save jar checksum cache to {}", cacheFile, e);
+        }
+    }
+
+    @VisibleForTesting
+    static void clear() {
+        entries.clear();
+        dirty = false;
+    }
+
+    private record Entry(FileIdentity identity, String checksum) {}
+}
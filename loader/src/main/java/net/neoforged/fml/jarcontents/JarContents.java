@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.ApiStatus;
@@ -53,12 +54,34 @@ public interface JarContents extends Closeable {
         }
     }
 
+    /**
+     * Options for opening jar contents from paths.
+     *
+     * @param jarFileBackend The backend to read jar files with.
+     * @param folderWatcher  If not null, folders are indexed and watched for changes with this watcher.
+     */
+    record OpenOptions(JarFileBackend jarFileBackend, @Nullable FolderWatcher folderWatcher) {
+        /**
+         * The options used by the methods that do not take any.
+         */
+        public static final OpenOptions DEFAULT = new OpenOptions(JarFileBackend.JAR_FILE, null);
+    }
+
+    /**
+     * Creates jar contents from paths with optional per-path filters, using the {@linkplain OpenOptions#DEFAULT default options}.
+     *
+     * @see #ofFilteredPaths(Collection, OpenOptions)
+     */
+    static JarContents ofFilteredPaths(Collection<FilteredPath> paths) throws IOException {
+        return ofFilteredPaths(paths, OpenOptions.DEFAULT);
+    }
+
     /**
      * Creates jar contents from paths with optional per-path filters.
      * <p>Non-existent paths are ignored. If all paths are missing, throws {@link NoSuchFileException}.
-     * <p>If only one valid unfiltered path is provided, behaves as {@link #ofPath(Path)}.
+     * <p>If only one valid unfiltered path is provided, behaves as {@link #ofPath(Path, OpenOptions)}.
      */
-    static JarContents ofFilteredPaths(Collection<FilteredPath> paths) throws IOException {
+    static JarContents ofFilteredPaths(Collection<FilteredPath> paths, OpenOptions options) throws IOException {
         if (paths.isEmpty()) {
             throw new IllegalArgumentException("Cannot construct jar contents without any paths.");
         } else {
@@ -66,7 +89,7 @@ public interface JarContents extends Closeable {
             List<PathFilter> filters = new ArrayList<>(paths.size());
             for (var filteredPath : paths) {
                 if (Files.exists(filteredPath.path)) {
-                    contents.add(ofPath(filteredPath.path));
+                    contents.add(ofPath(filteredPath.path, options));
                     filters.add(filteredPath.filter);
                 }
             }
@@ -82,20 +105,29 @@ public interface JarContents extends Closeable {
         }
     }
 
+    /**
+     * Creates jar contents from multiple paths, using the {@linkplain OpenOptions#DEFAULT default options}.
+     *
+     * @see #ofPaths(Collection, OpenOptions)
+     */
+    static JarContents ofPaths(Collection<Path> paths) throws IOException {
+        return ofPaths(paths, OpenOptions.DEFAULT);
+    }
+
     /**
      * Creates jar contents from multiple paths, treating them as overlay layers.
      * <p>Later paths override earlier ones for conflicting files.
      * <p>Non-existent paths are ignored. If all paths are missing, throws {@link NoSuchFileException}.
-     * <p>If only one valid path is provided, behaves as {@link #ofPath(Path)}.
+     * <p>If only one valid path is provided, behaves as {@link #ofPath(Path, OpenOptions)}.
      */
-    static JarContents ofPaths(Collection<Path> paths) throws IOException {
+    static JarContents ofPaths(Collection<Path> paths, OpenOptions options) throws IOException {
         if (paths.isEmpty()) {
             throw new IllegalArgumentException("Cannot construct jar contents without any paths.");
         } else {
             List<JarContents> contents = new ArrayList<>(paths.size());
             for (var path : paths) {
                 if (Files.exists(path)) {
-                    contents.add(ofPath(path));
+                    contents.add(ofPath(path, options));
                 }
             }
 
@@ -109,15 +141,26 @@ public interface JarContents extends Closeable {
         }
     }
 
+    /**
+     * Creates jar contents from a single path, using the {@linkplain OpenOptions#DEFAULT default options}.
+     *
+     * @see #ofPath(Path, OpenOptions)
+     */
+    static JarContents ofPath(Path path) throws IOException {
+        return ofPath(path, OpenOptions.DEFAULT);
+    }
+
     /**
      * Creates jar contents from a single path.
      * <p>The path must exist and be either a regular file (treated as a jar/zip) or a directory.
+     * <p>Jar files are read using the {@linkplain OpenOptions#jarFileBackend() backend of the given options},
+     * and folders are indexed if the options {@linkplain OpenOptions#folderWatcher() have a folder watcher}.
      */
-    static JarContents ofPath(Path path) throws IOException {
+    static JarContents ofPath(Path path, OpenOptions options) throws IOException {
         if (Files.isRegularFile(path)) {
-            return new JarFileContents(path);
+            return options.jarFileBackend().open(path);
         } else if (Files.isDirectory(path)) {
-            return new FolderJarContents(path);
+            return new FolderJarContents(path, options.folderWatcher());
         } else {
             throw new NoSuchFileException("Cannot construct mod container from missing " + path);
         }
@@ -220,4 +263,22 @@ public interface JarContents extends Closeable {
      * <p>If the folder does not exist, the visitor is not invoked and no error is raised.
      */
     void visitContent(String startingFolder, JarResourceVisitor visitor);
+
+    /**
+     * Lists the files and folders directly inside the given folder.
+     * <p>Only folders that contain files are listed. Their names end with a {@code /}, so they can be told apart from
+     * files.
+     *
+     * @param folder See {@link JarContents} for a definition of relative paths.
+     * @return The lexicographically sorted names of the files and folders, or an empty list if the folder does not exist.
+     */
+    default List<String> listFolder(String folder) {
+        var prefix = PathNormalization.normalizeFolderPrefix(folder);
+        var children = new TreeSet<String>();
+        visitContent(prefix, (relativePath, resource) -> {
+            var childEnd = relativePath.indexOf('/', prefix.length());
+            children.add(relativePath.substring(prefix.length(), childEnd != -1 ? childEnd + 1 : relativePath.length()));
+        });
+        return List.copyOf(children);
+    }
 }
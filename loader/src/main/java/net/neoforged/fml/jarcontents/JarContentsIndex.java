@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.Manifest;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+
+/**
+ * Everything that loading needs to know about the content of a jar, collected in a single traversal of the jar.
+ * <p>
+ * The module descriptor of a jar and the scan of its classes both read from the same index instead of each visiting
+ * the content of the jar on their own.
+ * <p>
+ * While loading, indices of single jar files are {@linkplain #startSharing() shared} by path, so that a jar that is
+ * opened more than once, such as an early service jar that mod discovery opens again, is only traversed once.
+ *
+ * @param classFiles       The relative paths of all class files.
+ * @param classPackages    The packages containing class files, excluding service provider files. Package names are
+ *                         derived from folder names and are not validated.
+ * @param packages         The packages containing any file. Package names are derived from folder names and are not
+ *                         validated.
+ * @param serviceProviders The providers listed in each file in {@code META-INF/services/}, keyed by the file name, with
+ *                         comments and whitespace removed. File names are not validated.
+ * @param manifest         The manifest of the jar. Since manifests are mutable and indices may be shared, the
+ *                         accessor returns a copy.
+ */
+@ApiStatus.Internal
+public record JarContentsIndex(
+        List<String> classFiles,
+        Set<String> classPackages,
+        Set<String> packages,
+        Map<String, List<String>> serviceProviders,
+        Manifest manifest) {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String SERVICES_FOLDER = "META-INF/services/";
+
+    private static final Map<Path, AtomicInteger> traversals = new ConcurrentHashMap<>();
+    private static final AtomicLong traversalNanos = new AtomicLong();
+    @Nullable
+    private static volatile Map<Path, SharedIndex> sharedIndices;
+
+    /**
+     * {@return a copy of the manifest of the jar}
+     */
+    @Override
+    public Manifest manifest() {
+        return new Manifest(manifest);
+    }
+
+    /**
+     * Gets the index of the given contents, which is either shared with other contents opened from the same jar file
+     * or built by traversing the contents.
+     */
+    public static JarContentsIndex of(JarContents contents) {
+        var shared = sharedIndices;
+        if (shared == null || !(contents instanceof JarFileContents || contents instanceof MappedJarContents)) {
+            return build(contents);
+        }
+
+        Path realPath;
+        FileIdentity identity;
+        try {
+            realPath = contents.getPrimaryPath().toRealPath();
+            identity = FileIdentity.read(realPath);
+        } catch (IOException e) {
+            return build(contents);
+        }
+        var sharedIndex = shared.compute(realPath, (path, existing) -> {
+            if (existing != null && existing.identity.equals(identity)) {
+                return existing;
+            }
+            return new SharedIndex(identity);
+        });
+        return sharedIndex.get(contents);
+    }
+
+    /**
+     * {@return the shared index of the jar file at the given path, or null if it was not built yet or sharing is
+     * not active}
+     */
+    @Nullable
+    public static JarContentsIndex findShared(Path path) {
+        var shared = sharedIndices;
+        if (shared == null) {
+            return null;
+        }
+
+        try {
+            var realPath = path.toRealPath();
+            var sharedIndex = shared.get(realPath);
+            if (sharedIndex == null || !sharedIndex.identity.equals(FileIdentity.read(realPath))) {
+                return null;
+            }
+            return sharedIndex.peek();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the index of the given contents by traversing them.
+     */
+    public static JarContentsIndex build(JarContents contents) {
+        long start = System.nanoTime();
+
+        var classFiles = new ArrayList<String>();
+        var classPackages = new HashSet<String>();
+        var packages = new HashSet<String>();
+        var serviceProviderFiles = new HashMap<String, JarResource>();
+        contents.visitContent((relativePath, resource) -> {
+            var lastSeparator = relativePath.lastIndexOf('/');
+            String packageName = null;
+            if (lastSeparator > 0) {
+                packageName = relativePath.substring(0, lastSeparator).replace('/', '.');
+                packages.add(packageName);
+            }
+
+            if (relativePath.startsWith(SERVICES_FOLDER)) {
+                if (lastSeparator == SERVICES_FOLDER.length() - 1) {
+                    serviceProviderFiles.put(relativePath.substring(SERVICES_FOLDER.length()), resource.retain());
+                }
+            } else if (relativePath.endsWith(".class")) {
+                classFiles.add(relativePath);
+                if (packageName != null) {
+                    classPackages.add(packageName);
+                }
+            }
+        });
+
+        var serviceProviders = new HashMap<String, List<String>>(serviceProviderFiles.size());
+        serviceProviderFiles.forEach((serviceName, resource) -> {
+            try {
+                serviceProviders.put(serviceName, readServiceProviders(resource));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read service provider file " + serviceName + " in " + contents, e);
+            }
+        });
+
+        var index = new JarContentsIndex(
+                List.copyOf(classFiles),
+                Set.copyOf(classPackages),
+                Set.copyOf(packages),
+                Map.copyOf(serviceProviders),
+                new Manifest(contents.getManifest()));
+
+        traversals.computeIfAbsent(contents.getPrimaryPath(), ignored -> new AtomicInteger()).incrementAndGet();
+        traversalNanos.addAndGet(System.nanoTime() - start);
+        return index;
+    }
+
+    /**
+     * Reads the providers from a Java ServiceLoader file.
+     * <p>Equivalent to the code found in ModulePath#deriveModuleDescriptor(JarFile)
+     */
+    private static List<String> readServiceProviders(JarResource resource) throws IOException {
+        var providers = new ArrayList<String>();
+        try (var reader = resource.bufferedReader(StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Strip comments
+                var startOfComment = line.indexOf('#');
+                if (startOfComment != -1) {
+                    line = line.substring(0, startOfComment);
+                }
+                line = line.trim(); // Trim whitespace *after* removing the comment
+                if (!line.isEmpty()) {
+                    providers.add(line);
+                }
+            }
+        }
+        return List.copyOf(providers);
+    }
+
+    /**
+     * Starts sharing the indices of jar files between all contents opened from the same file, and resets the
+     * traversal statistics.
+     */
+    public static void startSharing() {
+        traversals.clear();
+        traversalNanos.set(0);
+        sharedIndices = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Stops sharing indices, so that they can be garbage collected once their users are done with them, and logs
+     * how often each jar was traversed. Does nothing if sharing was already stopped.
+     */
+    public static void stopSharing() {
+        if (sharedIndices == null) {
+            return;
+        }
+        sharedIndices = null;
+
+        if (LOGGER.isDebugEnabled()) {
+            var counts = getTraversalCounts();
+            int total = counts.values().stream().mapToInt(Integer::intValue).sum();
+            LOGGER.debug("Indexed {} jars using {} traversals in {}ms", counts.size(), total, TimeUnit.NANOSECONDS.toMillis(traversalNanos.get()));
+            counts.forEach((path, count) -> {
+                if (count > 1) {
+                    LOGGER.debug("Traversed {} {} times", path, count);
+                }
+            });
+        }
+    }
+
+    /**
+     * {@return how often the content of each jar was traversed to build an index since sharing was last started}
+     */
+    @VisibleForTesting
+    public static Map<Path, Integer> getTraversalCounts() {
+        var counts = new TreeMap<Path, Integer>();
+        traversals.forEach((path, count) -> counts.put(path, count.get()));
+        return counts;
+    }
+
+    private static final class SharedIndex {
+        private final FileIdentity identity;
+        @Nullable
+        private JarContentsIndex index;
+
+        private SharedIndex(FileIdentity identity) {
+            this.identity = identity;
+        }
+
+        /**
+         * Concurrent requests for the same jar wait for a single traversal.
+         */
+        private synchronized JarContentsIndex get(JarContents contents) {
+            if (index == null) {
+                index = build(contents);
+            }
+            return index;
+        }
+
+        @Nullable
+        private synchronized JarContentsIndex peek() {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * The implementations that {@link JarContents#ofPath(Path, JarContents.OpenOptions)} can use to read jar files.
+ */
+@ApiStatus.Internal
+public enum JarFileBackend {
+    /**
+     * Reads jar files through {@link java.util.jar.JarFile}.
+     *
+     * @see JarFileContents
+     */
+    JAR_FILE,
+    /**
+     * Reads jar files by memory-mapping them. Jars larger than 2GiB cannot be mapped and are read through
+     * {@link java.util.jar.JarFile} instead.
+     *
+     * @see MappedJarContents
+     */
+    MEMORY_MAPPED;
+
+    /**
+     * Opens the jar file at the given path using this backend.
+     */
+    public JarContents open(Path path) throws IOException {
+        if (this == MEMORY_MAPPED && Files.size(path) <= MappedJarContents.MAX_SIZE) {
+            return new MappedJarContents(path);
+        }
+        return new JarFileContents(path);
+    }
+}
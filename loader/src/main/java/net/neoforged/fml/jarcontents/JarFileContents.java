@@ -5,6 +5,7 @@
 
 package net.neoforged.fml.jarcontents;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -15,7 +16,10 @@ import java.nio.file.Path;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
@@ -23,6 +27,7 @@ import java.util.Optional;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
 import net.neoforged.fml.util.PathPrettyPrinting;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
@@ -32,6 +37,11 @@ public final class JarFileContents implements JarContents {
     private final Path path;
     private final JarFile jarFile;
     private final Manifest jarManifest;
+    /**
+     * The files in the jar sorted by their normalized name, which is only built once a folder is visited or listed.
+     */
+    @Nullable
+    private volatile EntryTable entryTable;
 
     public JarFileContents(Path path) throws IOException {
         this.path = path;
@@ -51,11 +61,15 @@ public final class JarFileContents implements JarContents {
 
     @Override
     public Optional<String> getChecksum() {
+        return Optional.of(JarChecksumCache.getChecksum(path, JarFileContents::computeChecksum));
+    }
+
+    private static String computeChecksum(Path path) {
         try (var in = Files.newInputStream(path)) {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             DigestInputStream digestIn = new DigestInputStream(in, digest);
             digestIn.transferTo(OutputStream.nullOutputStream());
-            return Optional.of(HexFormat.of().formatHex(digest.digest()));
+            return HexFormat.of().formatHex(digest.digest());
         } catch (IOException e) {
             throw new UncheckedIOException("Failed to compute checksum for " + path, e);
         } catch (NoSuchAlgorithmException e) {
@@ -96,6 +110,15 @@ public final class JarFileContents implements JarContents {
         return new JarEntryResource(entry, false);
     }
 
+    /**
+     * {@return whether the given path refers to a file that is stored without compression}
+     */
+    boolean isStored(String relativePath) {
+        relativePath = PathNormalization.normalize(relativePath);
+        var entry = jarFile.getEntry(relativePath);
+        return entry != null && !entry.isDirectory() && entry.getMethod() == ZipEntry.STORED;
+    }
+
     @Override
     public boolean containsFile(String relativePath) {
         relativePath = PathNormalization.normalize(relativePath);
@@ -134,8 +157,24 @@ public final class JarFileContents implements JarContents {
                 throw new IOException("The path " + relativePath + " refers to a directory");
             }
             try (var input = jarFile.getInputStream(entry)) {
-                // TODO in theory we can at least use entry uncompressed size as a hint here
-                return input.readAllBytes();
+                long size = entry.getSize();
+                if (size < 0 || size > Integer.MAX_VALUE - 8) {
+                    return input.readAllBytes();
+                }
+                // Read into an array of the exact size, and only fall back to collecting the content if the size was wrong
+                var content = new byte[(int) size];
+                int read = input.readNBytes(content, 0, content.length);
+                int next = input.read();
+                if (read == content.length && next == -1) {
+                    return content;
+                }
+                var out = new ByteArrayOutputStream();
+                out.write(content, 0, read);
+                if (next != -1) {
+                    out.write(next);
+                    input.transferTo(out);
+                }
+                return out.toByteArray();
             }
         }
         return null;
@@ -146,6 +185,16 @@ public final class JarFileContents implements JarContents {
         startingFolder = PathNormalization.normalizeFolderPrefix(startingFolder);
 
         var resource = new JarEntryResource(null, true);
+        if (!startingFolder.isEmpty()) {
+            // Visiting a folder only has to look at the contiguous range of names starting with it
+            var table = getEntryTable();
+            for (int i = table.firstIndexOf(startingFolder); i < table.names.length && table.names[i].startsWith(startingFolder); i++) {
+                resource.entry = table.entries[i];
+                visitor.visit(table.names[i], resource);
+            }
+            return;
+        }
+
         var it = jarFile.entries().asIterator();
         while (it.hasNext()) {
             var entry = it.next();
@@ -153,16 +202,45 @@ public final class JarFileContents implements JarContents {
                 continue;
             }
 
-            if (!startingFolder.isEmpty() && !entry.getName().startsWith(startingFolder)) {
-                continue;
-            }
-
             var relativePath = PathNormalization.normalize(entry.getName());
             resource.entry = entry;
             visitor.visit(relativePath, resource);
         }
     }
 
+    @Override
+    public List<String> listFolder(String folder) {
+        var prefix = PathNormalization.normalizeFolderPrefix(folder);
+        var table = getEntryTable();
+        var children = new ArrayList<String>();
+        String lastFolder = null;
+        for (int i = table.firstIndexOf(prefix); i < table.names.length && table.names[i].startsWith(prefix); i++) {
+            var name = table.names[i];
+            var childEnd = name.indexOf('/', prefix.length());
+            if (childEnd == -1) {
+                children.add(name.substring(prefix.length()));
+            } else if (lastFolder == null || !name.startsWith(lastFolder, prefix.length())) {
+                // Files in the same subfolder are next to each other, so each subfolder is only added once
+                lastFolder = name.substring(prefix.length(), childEnd + 1);
+                children.add(lastFolder);
+            }
+        }
+        return children;
+    }
+
+    private EntryTable getEntryTable() {
+        var entryTable = this.entryTable;
+        if (entryTable == null) {
+            synchronized (this) {
+                entryTable = this.entryTable;
+                if (entryTable == null) {
+                    this.entryTable = entryTable = EntryTable.build(jarFile);
+                }
+            }
+        }
+        return entryTable;
+    }
+
     @Override
     public void close() {
         try {
@@ -172,6 +250,42 @@ public final class JarFileContents implements JarContents {
         }
     }
 
+    /**
+     * @param names   The normalized names of all files in the jar, sorted lexicographically.
+     * @param entries The entry of each file in {@code names}. These are the entries as stored in the jar, not the
+     *                entries that multi-release jars resolve for a name.
+     */
+    private record EntryTable(String[] names, JarEntry[] entries) {
+        static EntryTable build(JarFile jarFile) {
+            record NamedEntry(String name, JarEntry entry) {}
+            var files = new ArrayList<NamedEntry>();
+            var it = jarFile.entries().asIterator();
+            while (it.hasNext()) {
+                var entry = it.next();
+                if (!entry.isDirectory()) {
+                    files.add(new NamedEntry(PathNormalization.normalize(entry.getName()), entry));
+                }
+            }
+            files.sort(Comparator.comparing(NamedEntry::name));
+
+            var names = new String[files.size()];
+            var entries = new JarEntry[files.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = files.get(i).name();
+                entries[i] = files.get(i).entry();
+            }
+            return new EntryTable(names, entries);
+        }
+
+        /**
+         * {@return the index of the first name that is equal to or sorted after the given prefix}
+         */
+        int firstIndexOf(String prefix) {
+            int index = Arrays.binarySearch(names, prefix);
+            return index >= 0 ? index : -(index + 1);
+        }
+    }
+
     private final class JarEntryResource implements JarResource {
         private final boolean mutable;
         private JarEntry entry;
@@ -188,7 +302,7 @@ public final class JarFileContents implements JarContents {
 
         @Override
         public JarResourceAttributes attributes() {
-            return new JarResourceAttributes(entry.getLastModifiedTime(), entry.getSize());
+            return new JarResourceAttributes(entry.getLastModifiedTime(), entry.getSize(), entry.getCrc());
         }
 
         @Override
@@ -12,5 +12,10 @@ import java.nio.file.attribute.FileTime;
  *
  * @param lastModified The last modification time of the resource.
  * @param size         The file size of the resource in bytes.
+ * @param crc32        The CRC-32 checksum of the content of the resource, or {@code -1} if it is not known.
  */
-public record JarResourceAttributes(FileTime lastModified, long size) {}
+public record JarResourceAttributes(FileTime lastModified, long size, long crc32) {
+    public JarResourceAttributes(FileTime lastModified, long size) {
+        this(lastModified, size, -1);
+    }
+}
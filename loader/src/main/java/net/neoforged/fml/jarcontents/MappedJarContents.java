@@ -0,0 +1,856 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import net.neoforged.fml.util.PathPrettyPrinting;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Jar contents backed by a memory-mapped zip file.
+ * <p>
+ * The central directory of the archive is parsed once into an open-addressing hash table, which refers to the
+ * central directory records in the mapped file instead of holding onto an entry object per file. Entries stored
+ * without compression are read as zero-copy slices of the mapping, and compressed entries are inflated directly
+ * into arrays of their exact size.
+ * <p>
+ * Lookups follow the same rules as {@link JarFileContents}, including multi-release jars, but the signatures of
+ * signed jars are not verified. The file is not kept open, but the mapping is only released once it becomes
+ * unreachable, which on Windows prevents the file from being deleted until then.
+ * <p>
+ * Archives can also be read from a region of another mapping, which is how {@link NestedJarContents} reads jars
+ * that are stored inside other jars.
+ */
+@ApiStatus.Internal
+public final class MappedJarContents implements JarContents {
+    /**
+     * The largest file that can be mapped into a single buffer.
+     */
+    static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_END_SIZE = 56;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final int NTFS_EXTRA = 0x000a;
+    private static final int EXTENDED_TIMESTAMP_EXTRA = 0x5455;
+    private static final long WINDOWS_EPOCH_IN_MICROSECONDS = -11644473600000000L;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final String META_INF = "META-INF/";
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+    private static final BlockingQueue<Inflater> INFLATER_POOL = new ArrayBlockingQueue<>(16);
+
+    private final Path path;
+    private final ByteBuffer mapping;
+    // Offset of the archive in the file, which is non-zero if data was prepended to it
+    private final long archiveOffset;
+    // Position of the central directory record of each entry, in the order of the central directory
+    private final int[] centralHeaders;
+    private final int[] nameHashes;
+    // Open-addressing hash table of entry index + 1, with 0 marking empty slots
+    private final int[] table;
+    private final int tableMask;
+    // For multi-release jars, the entry that replaces a file for the current runtime version
+    private final Map<String, Integer> versionedEntries;
+    private final Manifest manifest;
+
+    public MappedJarContents(Path path) throws IOException {
+        this(path, map(path));
+    }
+
+    /**
+     * Reads a zip archive from a buffer, such as a region of the mapping of another archive.
+     *
+     * @param path Identifies the archive in error messages.
+     */
+    MappedJarContents(Path path, ByteBuffer mapping) throws IOException {
+        this.path = path;
+        this.mapping = mapping.order(ByteOrder.LITTLE_ENDIAN);
+
+        // Locate the central directory
+        int end = findEnd();
+        long centralDirectorySize = u32(end + 12);
+        long centralDirectoryOffset = u32(end + 16);
+        long centralDirectoryEnd = end;
+        if (centralDirectorySize == ZIP64_MAGIC || centralDirectoryOffset == ZIP64_MAGIC || u16(end + 10) == 0xFFFF) {
+            int zip64End = findZip64End(end);
+            if (zip64End >= 0) {
+                centralDirectorySize = mapping.getLong(zip64End + 40);
+                centralDirectoryOffset = mapping.getLong(zip64End + 48);
+                centralDirectoryEnd = zip64End;
+            }
+        }
+        long centralDirectoryStart = centralDirectoryEnd - centralDirectorySize;
+        if (centralDirectoryStart < 0 || centralDirectoryOffset < 0 || centralDirectoryOffset > centralDirectoryStart) {
+            throw new ZipException("invalid END header (bad central directory offset) in " + path);
+        }
+        this.archiveOffset = centralDirectoryStart - centralDirectoryOffset;
+
+        // Walk the central directory, which is more reliable than the entry count of the END header
+        var headers = new int[(int) Math.min(u16(end + 10), centralDirectorySize / CENTRAL_HEADER_SIZE)];
+        int count = 0;
+        List<Integer> metaInfEntries = new ArrayList<>();
+        for (int pos = (int) centralDirectoryStart; pos < centralDirectoryEnd;) {
+            if (pos + CENTRAL_HEADER_SIZE > centralDirectoryEnd || mapping.getInt(pos) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("invalid CEN header (bad signature) in " + path);
+            }
+            if (count == headers.length) {
+                headers = Arrays.copyOf(headers, Math.max(16, count * 2));
+            }
+            if (startsWithIgnoreCase(pos + CENTRAL_HEADER_SIZE, u16(pos + 28), META_INF)) {
+                metaInfEntries.add(count);
+            }
+            headers[count++] = pos;
+            pos += CENTRAL_HEADER_SIZE + u16(pos + 28) + u16(pos + 30) + u16(pos + 32);
+        }
+        this.centralHeaders = count == headers.length ? headers : Arrays.copyOf(headers, count);
+
+        // Index all entries by the hash of their name, with later entries replacing earlier ones of the same name
+        this.nameHashes = new int[count];
+        int tableSize = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1;
+        this.table = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        for (int i = 0; i < count; i++) {
+            int cen = centralHeaders[i];
+            int nameLength = u16(cen + 28);
+            int hash = 0;
+            for (int j = 0; j < nameLength; j++) {
+                hash = 31 * hash + (mapping.get(cen + CENTRAL_HEADER_SIZE + j) & 0xFF);
+            }
+            nameHashes[i] = hash;
+            int slot = spread(hash) & tableMask;
+            while (table[slot] != 0 && !sameName(table[slot] - 1, i)) {
+                slot = (slot + 1) & tableMask;
+            }
+            table[slot] = i + 1;
+        }
+
+        this.manifest = readManifest(metaInfEntries);
+        this.versionedEntries = findVersionedEntries(metaInfEntries);
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAX_SIZE) {
+                throw new IOException("Cannot map " + path + " since it is larger than 2GiB");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private int findEnd() throws ZipException {
+        int minPos = Math.max(0, mapping.limit() - END_SIZE - 0xFFFF);
+        for (int pos = mapping.limit() - END_SIZE; pos >= minPos; pos--) {
+            if (mapping.getInt(pos) == END_SIGNATURE && pos + END_SIZE + u16(pos + 20) <= mapping.limit()) {
+                return pos;
+            }
+        }
+        throw new ZipException("zip END header not found in " + path);
+    }
+
+    private int findZip64End(int end) throws ZipException {
+        int locator = end - ZIP64_LOCATOR_SIZE;
+        if (locator < 0 || mapping.getInt(locator) != ZIP64_LOCATOR_SIGNATURE) {
+            return -1;
+        }
+        // The recorded position does not account for data prepended to the archive, in which case the record is
+        // assumed to directly precede the locator
+        long recorded = mapping.getLong(locator + 8);
+        for (long candidate : new long[] { recorded, locator - ZIP64_END_SIZE }) {
+            if (candidate >= 0 && candidate + ZIP64_END_SIZE <= locator && mapping.getInt((int) candidate) == ZIP64_END_SIGNATURE) {
+                return (int) candidate;
+            }
+        }
+        throw new ZipException("invalid zip64 END header in " + path);
+    }
+
+    private Manifest readManifest(List<Integer> metaInfEntries) throws IOException {
+        int entry = find(JarFile.MANIFEST_NAME, false);
+        if (entry < 0) {
+            // Like JarFile, accept manifests regardless of the case of their name
+            for (var candidate : metaInfEntries) {
+                if (entryName(candidate).equalsIgnoreCase(JarFile.MANIFEST_NAME)) {
+                    entry = candidate;
+                    break;
+                }
+            }
+        }
+        if (entry < 0) {
+            return EmptyManifest.INSTANCE;
+        }
+        return new Manifest(new ByteArrayInputStream(readAllBytes(entry)));
+    }
+
+    private Map<String, Integer> findVersionedEntries(List<Integer> metaInfEntries) {
+        if (!"true".equalsIgnoreCase(manifest.getMainAttributes().getValue(Attributes.Name.MULTI_RELEASE))) {
+            return Map.of();
+        }
+        int runtimeVersion = JarFile.runtimeVersion().feature();
+        record VersionedEntry(String name, int version, int entry) {}
+        var candidates = new ArrayList<VersionedEntry>();
+        for (var entry : metaInfEntries) {
+            var name = entryName(entry);
+            if (!name.startsWith(VERSIONS_PREFIX) || name.endsWith("/")) {
+                continue;
+            }
+            int versionEnd = name.indexOf('/', VERSIONS_PREFIX.length());
+            if (versionEnd < 0 || versionEnd == name.length() - 1) {
+                continue;
+            }
+            int version;
+            try {
+                version = Integer.parseInt(name, VERSIONS_PREFIX.length(), versionEnd, 10);
+            } catch (NumberFormatException ignored) {
+                continue;
+            }
+            if (version >= 9 && version <= runtimeVersion) {
+                candidates.add(new VersionedEntry(name.substring(versionEnd + 1), version, entry));
+            }
+        }
+        // The highest version not exceeding the runtime version wins
+        candidates.sort(Comparator.comparingInt(VersionedEntry::version));
+        var result = new HashMap<String, Integer>(candidates.size());
+        for (var candidate : candidates) {
+            result.put(candidate.name(), candidate.entry());
+        }
+        return result;
+    }
+
+    @Override
+    public Path getPrimaryPath() {
+        return path;
+    }
+
+    @Override
+    public Collection<Path> getContentRoots() {
+        return List.of(path);
+    }
+
+    @Override
+    public Optional<String> getChecksum() {
+        return Optional.of(JarChecksumCache.getChecksum(path, ignored -> {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(buffer());
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("Standard JCA algorithm is missing.", e);
+            }
+        }));
+    }
+
+    @Override
+    public String toString() {
+        return "jar(" + PathPrettyPrinting.prettyPrint(path) + ")";
+    }
+
+    @Override
+    public Manifest getManifest() {
+        return manifest;
+    }
+
+    @Override
+    public Optional<URI> findFile(String relativePath) {
+        relativePath = PathNormalization.normalize(relativePath);
+
+        if (resolve(relativePath) >= 0) {
+            return Optional.of(URI.create("jar:" + path.toUri() + "!/" + relativePath));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public @Nullable JarResource get(String relativePath) {
+        relativePath = PathNormalization.normalize(relativePath);
+
+        int entry = resolve(relativePath);
+        return entry >= 0 ? new MappedResource(entry, false) : null;
+    }
+
+    @Override
+    public boolean containsFile(String relativePath) {
+        relativePath = PathNormalization.normalize(relativePath);
+        return resolve(relativePath) >= 0;
+    }
+
+    @Override
+    public @Nullable InputStream openFile(String relativePath) throws IOException {
+        relativePath = PathNormalization.normalize(relativePath);
+        int entry = resolveForReading(relativePath);
+        return entry >= 0 ? open(entry) : null;
+    }
+
+    @Override
+    public byte @Nullable [] readFile(String relativePath) throws IOException {
+        relativePath = PathNormalization.normalize(relativePath);
+        int entry = resolveForReading(relativePath);
+        return entry >= 0 ? readAllBytes(entry) : null;
+    }
+
+    /**
+     * Reads a file into a buffer. For files that are stored without compression, the buffer is a read-only view of
+     * the mapped file, otherwise it wraps an array of the exact size of the inflated content.
+     *
+     * @return null if the file does not exist, or if {@code relativePath} refers to a directory
+     */
+    public @Nullable ByteBuffer readBuffer(String relativePath) throws IOException {
+        relativePath = PathNormalization.normalize(relativePath);
+        int entry = resolve(relativePath);
+        return entry >= 0 ? read(entry) : null;
+    }
+
+    /**
+     * Gets a read-only view of the mapped file for a file that is stored without compression.
+     *
+     * @return null if the file does not exist, refers to a directory, or is compressed
+     */
+    @Nullable
+    ByteBuffer readStoredBuffer(String relativePath) throws IOException {
+        relativePath = PathNormalization.normalize(relativePath);
+        int entry = resolve(relativePath);
+        if (entry < 0 || u16(centralHeaders[entry] + 10) != STORED) {
+            return null;
+        }
+        return compressedData(centralHeaders[entry]);
+    }
+
+    /**
+     * {@return a read-only view of the whole archive}
+     */
+    ByteBuffer buffer() {
+        return mapping.asReadOnlyBuffer().clear();
+    }
+
+    @Override
+    public void visitContent(String startingFolder, JarResourceVisitor visitor) {
+        startingFolder = PathNormalization.normalizeFolderPrefix(startingFolder);
+        var prefix = startingFolder.getBytes(StandardCharsets.UTF_8);
+
+        var resource = new MappedResource(-1, true);
+        var nameBuffer = new byte[256];
+        for (int i = 0; i < centralHeaders.length; i++) {
+            int cen = centralHeaders[i];
+            int nameLength = u16(cen + 28);
+            if (nameLength == 0 || mapping.get(cen + CENTRAL_HEADER_SIZE + nameLength - 1) == '/') {
+                continue; // Directory
+            }
+            if (!startsWith(cen + CENTRAL_HEADER_SIZE, nameLength, prefix)) {
+                continue;
+            }
+
+            if (nameBuffer.length < nameLength) {
+                nameBuffer = new byte[nameLength];
+            }
+            mapping.get(cen + CENTRAL_HEADER_SIZE, nameBuffer, 0, nameLength);
+            var relativePath = PathNormalization.normalize(new String(nameBuffer, 0, nameLength, StandardCharsets.UTF_8));
+            resource.entry = i;
+            visitor.visit(relativePath, resource);
+        }
+    }
+
+    /**
+     * The mapping is released once these contents become unreachable, since unmapping it while buffers handed out
+     * by {@link #readBuffer(String)} are still in use would be unsafe. On Windows, the file cannot be deleted or
+     * replaced until then.
+     */
+    @Override
+    public void close() {}
+
+    /**
+     * Finds the entry for a file, taking multi-release jars into account.
+     *
+     * @return the index of the entry, or -1 if there is no such file
+     */
+    private int resolve(String relativePath) {
+        if (!versionedEntries.isEmpty() && !relativePath.startsWith(META_INF)) {
+            var versioned = versionedEntries.get(relativePath);
+            if (versioned != null) {
+                return versioned;
+            }
+        }
+        return find(relativePath, false);
+    }
+
+    private int resolveForReading(String relativePath) throws IOException {
+        if (relativePath.isEmpty()) {
+            throw new IOException("The path refers to the root directory");
+        }
+        int entry = resolve(relativePath);
+        if (entry < 0 && find(relativePath, true) >= 0) {
+            throw new IOException("The path " + relativePath + " refers to a directory");
+        }
+        return entry;
+    }
+
+    /**
+     * Looks up an entry by its exact name, or by its name followed by a slash, which is how directories are stored.
+     */
+    private int find(String name, boolean directory) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (ch >= 0x80) {
+                return findEncoded(name, directory);
+            }
+            hash = 31 * hash + ch;
+        }
+        if (directory) {
+            hash = 31 * hash + '/';
+        }
+        int expectedLength = name.length() + (directory ? 1 : 0);
+        for (int slot = spread(hash) & tableMask; table[slot] != 0; slot = (slot + 1) & tableMask) {
+            int entry = table[slot] - 1;
+            int cen = centralHeaders[entry];
+            if (nameHashes[entry] != hash || u16(cen + 28) != expectedLength) {
+                continue;
+            }
+            int namePos = cen + CENTRAL_HEADER_SIZE;
+            boolean matches = !directory || mapping.get(namePos + name.length()) == '/';
+            for (int i = 0; matches && i < name.length(); i++) {
+                matches = mapping.get(namePos + i) == name.charAt(i);
+            }
+            if (matches) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private int findEncoded(String name, boolean directory) {
+        var encoded = (directory ? name + "/" : name).getBytes(StandardCharsets.UTF_8);
+        int hash = 0;
+        for (byte b : encoded) {
+            hash = 31 * hash + (b & 0xFF);
+        }
+        var expected = ByteBuffer.wrap(encoded);
+        for (int slot = spread(hash) & tableMask; table[slot] != 0; slot = (slot + 1) & tableMask) {
+            int entry = table[slot] - 1;
+            int cen = centralHeaders[entry];
+            if (nameHashes[entry] == hash && u16(cen + 28) == encoded.length
+                    && mapping.slice(cen + CENTRAL_HEADER_SIZE, encoded.length).equals(expected)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private boolean sameName(int entry, int otherEntry) {
+        int cen = centralHeaders[entry];
+        int otherCen = centralHeaders[otherEntry];
+        int length = u16(cen + 28);
+        return nameHashes[entry] == nameHashes[otherEntry] && length == u16(otherCen + 28)
+                && mapping.slice(cen + CENTRAL_HEADER_SIZE, length).equals(mapping.slice(otherCen + CENTRAL_HEADER_SIZE, length));
+    }
+
+    private String entryName(int entry) {
+        int cen = centralHeaders[entry];
+        var name = new byte[u16(cen + 28)];
+        mapping.get(cen + CENTRAL_HEADER_SIZE, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private boolean startsWith(int pos, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (mapping.get(pos + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsWithIgnoreCase(int pos, int length, String prefix) {
+        if (length < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            int ch = mapping.get(pos + i);
+            if (Character.toUpperCase(ch) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer read(int entry) throws IOException {
+        int cen = centralHeaders[entry];
+        var data = compressedData(cen);
+        return switch (u16(cen + 10)) {
+            case STORED -> data;
+            case DEFLATED -> ByteBuffer.wrap(inflate(cen, data));
+            default -> throw unsupportedMethod(cen);
+        };
+    }
+
+    private byte[] readAllBytes(int entry) throws IOException {
+        int cen = centralHeaders[entry];
+        var data = compressedData(cen);
+        return switch (u16(cen + 10)) {
+            case STORED -> {
+                var content = new byte[data.remaining()];
+                data.get(content);
+                yield content;
+            }
+            case DEFLATED -> inflate(cen, data);
+            default -> throw unsupportedMethod(cen);
+        };
+    }
+
+    private InputStream open(int entry) throws IOException {
+        int cen = centralHeaders[entry];
+        var data = compressedData(cen);
+        return switch (u16(cen + 10)) {
+            case STORED -> new BufferInputStream(data);
+            case DEFLATED -> new InflatingInputStream(data, size(cen));
+            default -> throw unsupportedMethod(cen);
+        };
+    }
+
+    private ZipException unsupportedMethod(int cen) {
+        return new ZipException("unsupported compression method " + u16(cen + 10) + " in " + path);
+    }
+
+    /**
+     * {@return a read-only view of the data of an entry, as it is stored in the archive}
+     */
+    private ByteBuffer compressedData(int cen) throws ZipException {
+        if ((u16(cen + 8) & 1) != 0) {
+            throw new ZipException("encrypted entries are not supported in " + path);
+        }
+        long localHeader = archiveOffset + localHeaderOffset(cen);
+        if (localHeader < 0 || localHeader + LOCAL_HEADER_SIZE > mapping.limit() || mapping.getInt((int) localHeader) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("invalid LOC header (bad signature) in " + path);
+        }
+        long data = localHeader + LOCAL_HEADER_SIZE + u16(localHeader + 26) + u16(localHeader + 28);
+        long compressedSize = compressedSize(cen);
+        if (data + compressedSize > mapping.limit()) {
+            throw new ZipException("invalid LOC header (bad compressed size) in " + path);
+        }
+        return mapping.slice((int) data, (int) compressedSize).asReadOnlyBuffer();
+    }
+
+    private byte[] inflate(int cen, ByteBuffer data) throws IOException {
+        long size = size(cen);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Entry in " + path + " is too large to be read into an array");
+        }
+        var content = new byte[(int) size];
+        var inflater = acquireInflater();
+        try {
+            inflater.setInput(data);
+            int read = 0;
+            while (read < content.length) {
+                int n = inflater.inflate(content, read, content.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsDictionary() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != content.length) {
+                throw new ZipException("invalid entry size (expected " + content.length + " but got " + read + " bytes) in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(Objects.requireNonNullElse(e.getMessage(), "invalid deflate data") + " in " + path);
+        } finally {
+            releaseInflater(inflater);
+        }
+        return content;
+    }
+
+    private static Inflater acquireInflater() {
+        var inflater = INFLATER_POOL.poll();
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    private static void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (!INFLATER_POOL.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    private long size(int cen) throws ZipException {
+        long size = u32(cen + 24);
+        return size == ZIP64_MAGIC ? zip64Value(cen, 0) : size;
+    }
+
+    private long compressedSize(int cen) throws ZipException {
+        long compressedSize = u32(cen + 20);
+        return compressedSize == ZIP64_MAGIC ? zip64Value(cen, 1) : compressedSize;
+    }
+
+    private long localHeaderOffset(int cen) throws ZipException {
+        long offset = u32(cen + 42);
+        return offset == ZIP64_MAGIC ? zip64Value(cen, 2) : offset;
+    }
+
+    /**
+     * The zip64 extra field only contains the values that did not fit into the central directory record, in the order
+     * size, compressed size and local header offset.
+     */
+    private long zip64Value(int cen, int field) throws ZipException {
+        int skipped = 0;
+        if (field > 0 && u32(cen + 24) == ZIP64_MAGIC) {
+            skipped++;
+        }
+        if (field > 1 && u32(cen + 20) == ZIP64_MAGIC) {
+            skipped++;
+        }
+        int extra = findExtra(cen, ZIP64_EXTRA);
+        if (extra < 0 || u16(extra + 2) < (skipped + 1) * 8) {
+            throw new ZipException("invalid zip64 extra data field in " + path);
+        }
+        return mapping.getLong(extra + 4 + skipped * 8);
+    }
+
+    /**
+     * {@return the position of the header of the extra field with the given id, or -1 if the entry has none}
+     */
+    private int findExtra(int cen, int id) {
+        int pos = cen + CENTRAL_HEADER_SIZE + u16(cen + 28);
+        int end = pos + u16(cen + 30);
+        while (pos + 4 <= end) {
+            int size = u16(pos + 2);
+            if (pos + 4 + size > end) {
+                break;
+            }
+            if (u16(pos) == id) {
+                return pos;
+            }
+            pos += 4 + size;
+        }
+        return -1;
+    }
+
+    /**
+     * Mirrors {@link java.util.zip.ZipEntry#getLastModifiedTime()}, which prefers the precise timestamps of the NTFS
+     * and extended timestamp extra fields over the MS-DOS timestamp.
+     */
+    private FileTime lastModified(int cen) {
+        int extendedTimestamp = findExtra(cen, EXTENDED_TIMESTAMP_EXTRA);
+        if (extendedTimestamp >= 0 && u16(extendedTimestamp + 2) >= 5 && (mapping.get(extendedTimestamp + 4) & 1) != 0) {
+            return FileTime.from(u32(extendedTimestamp + 5), TimeUnit.SECONDS);
+        }
+        int ntfs = findExtra(cen, NTFS_EXTRA);
+        if (ntfs >= 0) {
+            int pos = ntfs + 8;
+            int end = ntfs + 4 + u16(ntfs + 2);
+            while (pos + 4 <= end) {
+                int size = u16(pos + 2);
+                if (u16(pos) == 1 && size >= 24 && pos + 4 + size <= end) {
+                    return FileTime.from(mapping.getLong(pos + 4) / 10 + WINDOWS_EPOCH_IN_MICROSECONDS, TimeUnit.MICROSECONDS);
+                }
+                pos += 4 + size;
+            }
+        }
+        long dosTime = u32(cen + 12);
+        try {
+            var dateTime = LocalDateTime.of(
+                    (int) ((dosTime >> 25) & 0x7f) + 1980,
+                    (int) ((dosTime >> 21) & 0x0f),
+                    (int) ((dosTime >> 16) & 0x1f),
+                    (int) ((dosTime >> 11) & 0x1f),
+                    (int) ((dosTime >> 5) & 0x3f),
+                    (int) ((dosTime << 1) & 0x3e));
+            return FileTime.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private int u16(long pos) {
+        return mapping.getShort((int) pos) & 0xFFFF;
+    }
+
+    private long u32(long pos) {
+        return mapping.getInt((int) pos) & 0xFFFFFFFFL;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class MappedResource implements JarResource {
+        private final boolean mutable;
+        private int entry;
+
+        MappedResource(int entry, boolean mutable) {
+            this.entry = entry;
+            this.mutable = mutable;
+        }
+
+        @Override
+        public InputStream open() throws IOException {
+            return MappedJarContents.this.open(entry);
+        }
+
+        @Override
+        public byte[] readAllBytes() throws IOException {
+            return MappedJarContents.this.readAllBytes(entry);
+        }
+
+        @Override
+        public JarResourceAttributes attributes() throws IOException {
+            int cen = centralHeaders[entry];
+            return new JarResourceAttributes(lastModified(cen), size(cen), u32(cen + 16));
+        }
+
+        @Override
+        public JarResource retain() {
+            if (mutable) {
+                return new MappedResource(entry, false);
+            } else {
+                return this;
+            }
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    /**
+     * Inflates an entry straight from the mapped file, without buffering its compressed data.
+     */
+    private final class InflatingInputStream extends InputStream {
+        private final Inflater inflater = acquireInflater();
+        private long remaining;
+        private boolean closed;
+
+        InflatingInputStream(ByteBuffer data, long size) {
+            this.remaining = size;
+            inflater.setInput(data);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            try {
+                int n;
+                while ((n = inflater.inflate(b, off, len)) == 0) {
+                    if (inflater.finished() || inflater.needsDictionary()) {
+                        return -1;
+                    }
+                    if (inflater.needsInput()) {
+                        throw new EOFException("Unexpected end of ZLIB input stream in " + path);
+                    }
+                }
+                remaining -= n;
+                return n;
+            } catch (DataFormatException e) {
+                throw new ZipException(Objects.requireNonNullElse(e.getMessage(), "invalid deflate data") + " in " + path);
+            }
+        }
+
+        @Override
+        public int available() {
+            return closed ? 0 : (int) Math.max(0, Math.min(remaining, Integer.MAX_VALUE));
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                releaseInflater(inflater);
+            }
+        }
+    }
+}
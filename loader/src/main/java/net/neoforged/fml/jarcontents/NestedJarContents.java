@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Manifest;
+import net.neoforged.fml.util.PathPrettyPrinting;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Jar contents of a jar that is stored without compression inside another jar, read in place from the mapping of
+ * the outer jar instead of being extracted first.
+ * <p>
+ * The nested jar does not exist on disk. Its {@linkplain #getPrimaryPath() primary path} is the path of the outer jar
+ * followed by the path of the nested jar inside it, which keeps the file name of the nested jar for deriving
+ * automatic module names. Files in the nested jar are located by URIs of the form
+ * {@code jarjar:<outer jar URI>!/<nested jar path>!/<file path>}, which can be opened as URLs anywhere through
+ * {@link NestedJarURLStreamHandlerProvider}.
+ */
+@ApiStatus.Internal
+public final class NestedJarContents implements JarContents {
+    public static final String SCHEME = "jarjar";
+    private static final String SEPARATOR = "!/";
+    /**
+     * The nested jars that are currently open by their location, so that URLs are resolved without mapping the
+     * outer jar again.
+     */
+    private static final Map<String, NestedJarContents> openContents = new ConcurrentHashMap<>();
+
+    private final Path path;
+    // The URI of the nested jar without the scheme, i.e. <outer jar URI>!/<nested jar path>
+    private final String location;
+    private final MappedJarContents delegate;
+    @Nullable
+    private volatile String checksum;
+
+    private NestedJarContents(Path path, String location, ByteBuffer data) throws IOException {
+        this.path = path;
+        this.location = location;
+        this.delegate = new MappedJarContents(path, data);
+    }
+
+    /**
+     * Opens a jar nested in the given jar in place, if the nested jar is stored without compression.
+     *
+     * @param relativePath The path of the nested jar in the outer jar.
+     * @return null if the nested jar is compressed, or if the outer jar cannot be read in place
+     * @throws NoSuchFileException if the outer jar does not contain the nested jar
+     */
+    public static @Nullable NestedJarContents open(JarContents outer, String relativePath) throws IOException {
+        var contents = openInPlace(outer, relativePath);
+        if (contents != null) {
+            openContents.put(contents.location, contents);
+        }
+        return contents;
+    }
+
+    private static @Nullable NestedJarContents openInPlace(JarContents outer, String relativePath) throws IOException {
+        relativePath = PathNormalization.normalize(relativePath);
+        if (!outer.containsFile(relativePath)) {
+            throw new NoSuchFileException(outer + " does not contain " + relativePath);
+        }
+
+        ByteBuffer data;
+        String outerLocation;
+        switch (outer) {
+            case MappedJarContents mapped -> {
+                data = mapped.readStoredBuffer(relativePath);
+                outerLocation = mapped.getPrimaryPath().toUri().toString();
+            }
+            case JarFileContents jarFile -> {
+                // Only map the outer jar if the nested jar can be read from the mapping
+                var outerPath = jarFile.getPrimaryPath();
+                if (!jarFile.isStored(relativePath) || Files.size(outerPath) > MappedJarContents.MAX_SIZE) {
+                    return null;
+                }
+                data = new MappedJarContents(outerPath).readStoredBuffer(relativePath);
+                outerLocation = outerPath.toUri().toString();
+            }
+            case NestedJarContents nested -> {
+                data = nested.delegate.readStoredBuffer(relativePath);
+                outerLocation = nested.location;
+            }
+            default -> {
+                return null;
+            }
+        }
+        if (data == null) {
+            return null;
+        }
+        return new NestedJarContents(outer.getPrimaryPath().resolve(relativePath), outerLocation + SEPARATOR + relativePath, data);
+    }
+
+    /**
+     * Opens a file by its {@code jarjar:} URI. Nested jars that are not open are read again from the outer jar.
+     *
+     * @throws FileNotFoundException if the file does not exist
+     */
+    static InputStream openFile(URI uri) throws IOException {
+        var spec = uri.getRawSchemeSpecificPart();
+        int fileSeparator = spec.lastIndexOf(SEPARATOR);
+        if (!SCHEME.equals(uri.getScheme()) || fileSeparator == -1) {
+            throw new IOException("Not a nested jar URI: " + uri);
+        }
+        var location = spec.substring(0, fileSeparator);
+        var relativePath = spec.substring(fileSeparator + SEPARATOR.length());
+
+        var contents = openContents.get(location);
+        InputStream in;
+        if (contents != null) {
+            in = contents.openFile(relativePath);
+        } else {
+            try (var reopened = reopen(location)) {
+                var content = reopened.readFile(relativePath);
+                in = content != null ? new ByteArrayInputStream(content) : null;
+            }
+        }
+        if (in == null) {
+            throw new FileNotFoundException(uri.toString());
+        }
+        return in;
+    }
+
+    /**
+     * Opens the nested jar at the given location by walking down from the outermost jar. Unlike
+     * {@link #open(JarContents, String)}, compressed nested jars are inflated into memory.
+     */
+    private static JarContents reopen(String location) throws IOException {
+        var segments = location.split(SEPARATOR);
+        var outerPath = Path.of(URI.create(segments[0]));
+        JarContents current = JarFileBackend.MEMORY_MAPPED.open(outerPath);
+        for (int i = 1; i < segments.length; i++) {
+            try (var outer = current) {
+                var nested = openInPlace(outer, segments[i]);
+                if (nested == null) {
+                    var content = outer.readFile(segments[i]);
+                    var nestedLocation = String.join(SEPARATOR, List.of(segments).subList(0, i + 1));
+                    nested = new NestedJarContents(outer.getPrimaryPath().resolve(segments[i]), nestedLocation, ByteBuffer.wrap(content));
+                }
+                current = nested;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * {@return the URI of this nested jar}
+     */
+    public URI getLocation() {
+        return URI.create(SCHEME + ":" + location);
+    }
+
+    @Override
+    public Path getPrimaryPath() {
+        return path;
+    }
+
+    /**
+     * The nested jar has no location of its own on the file system.
+     */
+    @Override
+    public Collection<Path> getContentRoots() {
+        return List.of();
+    }
+
+    @Override
+    public Optional<String> getChecksum() {
+        var checksum = this.checksum;
+        if (checksum == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(delegate.buffer());
+                checksum = HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("Standard JCA algorithm is missing.", e);
+            }
+            this.checksum = checksum;
+        }
+        return Optional.of(checksum);
+    }
+
+    @Override
+    public String toString() {
+        return "jar(" + PathPrettyPrinting.prettyPrint(path) + ")";
+    }
+
+    @Override
+    public Manifest getManifest() {
+        return delegate.getManifest();
+    }
+
+    @Override
+    public Optional<URI> findFile(String relativePath) {
+        relativePath = PathNormalization.normalize(relativePath);
+
+        if (delegate.containsFile(relativePath)) {
+            return Optional.of(URI.create(SCHEME + ":" + location + SEPARATOR + relativePath));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public @Nullable JarResource get(String relativePath) {
+        return delegate.get(relativePath);
+    }
+
+    @Override
+    public boolean containsFile(String relativePath) {
+        return delegate.containsFile(relativePath);
+    }
+
+    @Override
+    public @Nullable InputStream openFile(String relativePath) throws IOException {
+        return delegate.openFile(relativePath);
+    }
+
+    @Override
+    public byte @Nullable [] readFile(String relativePath) throws IOException {
+        return delegate.readFile(relativePath);
+    }
+
+    /**
+     * @see MappedJarContents#readBuffer(String)
+     */
+    public @Nullable ByteBuffer readBuffer(String relativePath) throws IOException {
+        return delegate.readBuffer(relativePath);
+    }
+
+    @Override
+    public void visitContent(String startingFolder, JarResourceVisitor visitor) {
+        delegate.visitContent(startingFolder, visitor);
+    }
+
+    @Override
+    public void close() {
+        openContents.remove(location, this);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.net.spi.URLStreamHandlerProvider;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Opens the URLs of files in {@linkplain NestedJarContents nested jars}, which are handed out as resource URLs by
+ * module class loaders.
+ */
+@ApiStatus.Internal
+public final class NestedJarURLStreamHandlerProvider extends URLStreamHandlerProvider {
+    @Override
+    public URLStreamHandler createURLStreamHandler(String protocol) {
+        return NestedJarContents.SCHEME.equals(protocol) ? new Handler() : null;
+    }
+
+    private static final class Handler extends URLStreamHandler {
+        @Override
+        protected URLConnection openConnection(URL url) {
+            return new Connection(url);
+        }
+    }
+
+    private static final class Connection extends URLConnection {
+        private InputStream in;
+
+        private Connection(URL url) {
+            super(url);
+        }
+
+        @Override
+        public void connect() throws IOException {
+            if (!connected) {
+                try {
+                    in = NestedJarContents.openFile(url.toURI());
+                } catch (URISyntaxException e) {
+                    throw new IOException("Invalid nested jar URL " + url, e);
+                }
+                connected = true;
+            }
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            connect();
+            return in;
+        }
+    }
+}
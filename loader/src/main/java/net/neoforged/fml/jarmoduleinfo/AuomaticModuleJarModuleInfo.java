@@ -7,6 +7,7 @@ package net.neoforged.fml.jarmoduleinfo;
 
 import java.lang.module.ModuleDescriptor;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -47,12 +48,17 @@ class AuomaticModuleJarModuleInfo implements JarModuleInfo {
 
     @Override
     public ModuleDescriptor createDescriptor(JarContents contents) {
+        return createDescriptor(contents, JarContentsIndex.of(contents));
+    }
+
+    @Override
+    public ModuleDescriptor createDescriptor(JarContents contents, JarContentsIndex index) {
         var bld = ModuleDescriptor.newAutomaticModule(name());
         if (version() != null) {
             bld.version(version());
         }
 
-        ModuleDescriptorFactory.scanAutomaticModule(contents, bld);
+        ModuleDescriptorFactory.scanAutomaticModule(index, bld);
 
         return bld.build();
     }
@@ -8,6 +8,7 @@ package net.neoforged.fml.jarmoduleinfo;
 import java.lang.module.ModuleDescriptor;
 import java.util.Set;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -23,6 +24,14 @@ public interface JarModuleInfo {
 
     ModuleDescriptor createDescriptor(JarContents contents);
 
+    /**
+     * Creates the module descriptor for the given contents, reading any information about the content of the jar
+     * from the given index instead of traversing the contents again.
+     */
+    default ModuleDescriptor createDescriptor(JarContents contents, JarContentsIndex index) {
+        return createDescriptor(contents);
+    }
+
     /**
      * Builds the jar metadata for a jar following the normal rules for Java jars.
      *
@@ -55,7 +64,18 @@ public interface JarModuleInfo {
             JarContents jar,
             ModuleDescriptor.Builder builder,
             String... excludedRootDirectories) {
-        ModuleDescriptorFactory.scanAutomaticModule(jar, builder, excludedRootDirectories);
+        scanAutomaticModule(JarContentsIndex.of(jar), builder, excludedRootDirectories);
+    }
+
+    /**
+     * Same as {@link #scanAutomaticModule(JarContents, ModuleDescriptor.Builder, String...)}, but reads the content
+     * of the jar from an existing index.
+     */
+    static void scanAutomaticModule(
+            JarContentsIndex index,
+            ModuleDescriptor.Builder builder,
+            String... excludedRootDirectories) {
+        ModuleDescriptorFactory.scanAutomaticModule(index, builder, excludedRootDirectories);
     }
 
     /**
@@ -64,6 +84,13 @@ public interface JarModuleInfo {
      * consistent with the behavior of {@link java.lang.module.ModuleFinder} for modular Jar files.
      */
     static Set<String> scanModulePackages(JarContents jar) {
-        return ModuleDescriptorFactory.scanModulePackages(jar);
+        return scanModulePackages(JarContentsIndex.of(jar));
+    }
+
+    /**
+     * Same as {@link #scanModulePackages(JarContents)}, but reads the content of the jar from an existing index.
+     */
+    static Set<String> scanModulePackages(JarContentsIndex index) {
+        return ModuleDescriptorFactory.scanModulePackages(index);
     }
 }
@@ -5,22 +5,15 @@
 
 package net.neoforged.fml.jarmoduleinfo;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.lang.module.InvalidModuleDescriptorException;
 import java.lang.module.ModuleDescriptor;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import net.neoforged.fml.jarcontents.JarContents;
-import net.neoforged.fml.jarcontents.JarResource;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
 
 /**
  * Utilities for creating {@link java.lang.module.ModuleDescriptor} from {@link JarContents}.
@@ -138,76 +131,35 @@ final class ModuleDescriptorFactory {
      * @see JarModuleInfo#scanAutomaticModule
      */
     public static void scanAutomaticModule(
-            JarContents jar,
+            JarContentsIndex index,
             ModuleDescriptor.Builder builder,
             String... excludedRootDirectories) {
-        Set<String> ignoredRootDirs = Set.of(excludedRootDirectories);
-
-        Set<String> packageNames = new HashSet<>();
-        Map<String, JarResource> serviceProviderFiles = new HashMap<>();
-        jar.visitContent((relativePath, resource) -> {
-            // Ignore all content in META-INF except for service files
-            if (relativePath.startsWith("META-INF/services/")) {
-                String filename = relativePath.substring(relativePath.lastIndexOf('/') + 1);
-
-                // Ignore files in META-INF/services/ whose filenames are not valid Java class names
-                if (JlsConstants.isTypeName(filename)) {
-                    serviceProviderFiles.put(filename, resource.retain());
-                }
-            } else {
-                // In automatic modules, only packages with .class files are considered,
-                // unlike with normal modules where resources would also be scanned.
-                if (relativePath.endsWith(".class")) {
-                    var lastSeparator = relativePath.lastIndexOf('/');
-                    if (lastSeparator > 0) {
-                        String relativeDir = relativePath.substring(0, lastSeparator);
-                        var packageName = relativeDir.replace('/', '.');
-                        if (JlsConstants.isTypeName(packageName)) {
-                            packageNames.add(packageName);
-                        }
-                    }
-                }
-            }
-        });
+        // In automatic modules, only packages with .class files are considered,
+        // unlike with normal modules where resources would also be scanned.
+        Set<String> packageNames = validPackageNames(index.classPackages());
         builder.packages(packageNames);
 
-        for (var serviceProviderEntry : serviceProviderFiles.entrySet()) {
-            var serviceProviderName = serviceProviderEntry.getKey();
-
-            try (var reader = serviceProviderEntry.getValue().bufferedReader(StandardCharsets.UTF_8)) {
-                parseServiceFile(serviceProviderName, reader, packageNames, builder);
-            } catch (IOException e) {
-                throw new UncheckedIOException("Failed to parse service provider file " + serviceProviderName + " in " + jar, e);
+        index.serviceProviders().forEach((serviceName, providerClasses) -> {
+            // Ignore files in META-INF/services/ whose filenames are not valid Java class names
+            if (JlsConstants.isTypeName(serviceName)) {
+                addServiceProviders(serviceName, providerClasses, packageNames, builder);
             }
-        }
+        });
     }
 
     /**
-     * Parses a Java ServiceLoader file and adds its content as a provided service to the given module
-     * descriptor builder.
+     * Adds the content of a Java ServiceLoader file as a provided service to the given module descriptor builder.
      * <p>Equivalent to the code found in ModulePath#deriveModuleDescriptor(JarFile)
      */
-    private static void parseServiceFile(String serviceName, BufferedReader reader, Set<String> packageNames, ModuleDescriptor.Builder builder) throws IOException {
-        List<String> providerClasses = new ArrayList<>();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            // Strip comments
-            var startOfComment = line.indexOf('#');
-            if (startOfComment != -1) {
-                line = line.substring(0, startOfComment);
-            }
-            line = line.trim(); // Trim whitespace *after* removing the comment
-
-            // We're parsing service files after scanning for packages,
-            // which means we can validate at this point that a service provider
-            // only provides a class that is contained in the Jar file.
-            if (!line.isEmpty()) {
-                String packageName = JlsConstants.getPackageName(line);
-                if (!packageNames.contains(packageName)) {
-                    String msg = "Service provider file " + serviceName + " contains service that is not in this Jar file: " + line;
-                    throw new InvalidModuleDescriptorException(msg);
-                }
-                providerClasses.add(line);
+    private static void addServiceProviders(String serviceName, List<String> providerClasses, Set<String> packageNames, ModuleDescriptor.Builder builder) {
+        // We're parsing service files after scanning for packages,
+        // which means we can validate at this point that a service provider
+        // only provides a class that is contained in the Jar file.
+        for (var providerClass : providerClasses) {
+            String packageName = JlsConstants.getPackageName(providerClass);
+            if (!packageNames.contains(packageName)) {
+                String msg = "Service provider file " + serviceName + " contains service that is not in this Jar file: " + providerClass;
+                throw new InvalidModuleDescriptorException(msg);
             }
         }
 
@@ -219,21 +171,17 @@ final class ModuleDescriptorFactory {
     /**
      * @see JarModuleInfo#scanModulePackages
      */
-    public static Set<String> scanModulePackages(JarContents jar) {
-        Set<String> packageNames = new HashSet<>();
-
-        jar.visitContent((relativePath, resource) -> {
-            var lastSeparator = relativePath.lastIndexOf('/');
-            if (lastSeparator < 1) {
-                return; // File is in the default package
-            }
+    public static Set<String> scanModulePackages(JarContentsIndex index) {
+        return validPackageNames(index.packages());
+    }
 
-            var packageName = relativePath.substring(0, lastSeparator).replace('/', '.');
+    private static Set<String> validPackageNames(Set<String> packageNames) {
+        Set<String> result = new HashSet<>(packageNames.size());
+        for (var packageName : packageNames) {
             if (JlsConstants.isTypeName(packageName)) {
-                packageNames.add(packageName);
+                result.add(packageName);
             }
-        });
-
-        return Set.copyOf(packageNames);
+        }
+        return Set.copyOf(result);
     }
 }
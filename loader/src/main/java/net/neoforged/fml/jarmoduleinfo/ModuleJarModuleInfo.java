@@ -9,7 +9,10 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.module.ModuleDescriptor;
 import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.function.Supplier;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
 import net.neoforged.fml.jarcontents.JarResource;
 import org.jetbrains.annotations.Nullable;
 
@@ -32,7 +35,19 @@ class ModuleJarModuleInfo implements JarModuleInfo {
 
     @Override
     public ModuleDescriptor createDescriptor(JarContents contents) {
-        var fullDescriptor = ModuleDescriptor.read(ByteBuffer.wrap(originalDescriptorBytes), () -> ModuleDescriptorFactory.scanModulePackages(contents));
+        return createDescriptor(() -> ModuleDescriptorFactory.scanModulePackages(JarContentsIndex.of(contents)));
+    }
+
+    @Override
+    public ModuleDescriptor createDescriptor(JarContents contents, JarContentsIndex index) {
+        return createDescriptor(() -> ModuleDescriptorFactory.scanModulePackages(index));
+    }
+
+    /**
+     * @param packageFinder Finds the packages of the jar, if the module descriptor does not list them.
+     */
+    private ModuleDescriptor createDescriptor(Supplier<Set<String>> packageFinder) {
+        var fullDescriptor = ModuleDescriptor.read(ByteBuffer.wrap(originalDescriptorBytes), packageFinder);
 
         // We do inherit the name and version, as well as the package list.
         var builder = ModuleDescriptor.newAutomaticModule(fullDescriptor.name());
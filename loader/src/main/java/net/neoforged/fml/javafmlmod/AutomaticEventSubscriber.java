@@ -41,8 +41,8 @@ public class AutomaticEventSubscriber {
     public static void inject(ModContainer mod, ModFileScanData scanData, Module layer) {
         if (scanData == null) return;
         LOGGER.debug(LOADING, "Attempting to inject @EventBusSubscriber classes into the eventbus for {}", mod.getModId());
-        List<ModFileScanData.AnnotationData> ebsTargets = scanData.getAnnotations().stream().filter(annotationData -> AUTO_SUBSCRIBER.equals(annotationData.annotationType())).collect(Collectors.toList());
-        Map<String, String> modids = scanData.getAnnotations().stream().filter(annotationData -> MOD_TYPE.equals(annotationData.annotationType())).collect(Collectors.toMap(a -> a.clazz().getClassName(), a -> (String) a.annotationData().get("value")));
+        List<ModFileScanData.AnnotationData> ebsTargets = scanData.getAnnotatedBy(AUTO_SUBSCRIBER).collect(Collectors.toList());
+        Map<String, String> modids = scanData.getAnnotatedBy(MOD_TYPE).collect(Collectors.toMap(a -> a.clazz().getClassName(), a -> (String) a.annotationData().get("value")));
 
         ebsTargets.forEach(ad -> {
             EnumSet<Dist> sides = getSides(ad.annotationData().get("value"));
@@ -18,6 +18,7 @@ import net.neoforged.bus.api.BusBuilder;
 import net.neoforged.bus.api.Event;
 import net.neoforged.bus.api.EventListener;
 import net.neoforged.bus.api.IEventBus;
+import net.neoforged.fml.ListenedEventTypes;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.ModLoadingContext;
 import net.neoforged.fml.ModLoadingException;
@@ -42,6 +43,7 @@ public class FMLModContainer extends ModContainer {
     private static final Marker LOADING = MarkerManager.getMarker("LOADING");
     private final ModFileScanData scanResults;
     private final IEventBus eventBus;
+    private final ListenedEventTypes listenedEventTypes = new ListenedEventTypes();
     private final List<Class<?>> modClasses;
     private final Module layer;
 
@@ -52,6 +54,7 @@ public class FMLModContainer extends ModContainer {
         this.eventBus = BusBuilder.builder()
                 .setExceptionHandler(this::onEventFailed)
                 .markerType(IModBusEvent.class)
+                .classChecker(listenedEventTypes)
                 .allowPerPhasePost()
                 .build();
         this.layer = gameLayer.findModule(info.getOwningFile().getFile().getId()).orElseThrow();
@@ -166,4 +169,9 @@ public class FMLModContainer extends ModContainer {
     public IEventBus getEventBus() {
         return this.eventBus;
     }
+
+    @Override
+    public ListenedEventTypes getListenedEventTypes() {
+        return this.listenedEventTypes;
+    }
 }
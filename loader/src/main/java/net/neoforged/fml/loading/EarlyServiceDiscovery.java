@@ -18,6 +18,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.jar.JarFile;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
 import net.neoforged.fml.jarmoduleinfo.JarModuleInfo;
 import net.neoforged.fml.loading.moddiscovery.ModFile;
 import net.neoforged.fml.loading.moddiscovery.readers.JarModsDotTomlModFileReader;
@@ -46,8 +47,10 @@ final class EarlyServiceDiscovery {
 
     /**
      * Find and load early services from the mods directory.
+     *
+     * @param options The options to open the jars containing early services with
      */
-    public static List<ModFile> findEarlyServiceJars(StartupArgs startupArgs, Path directory) {
+    public static List<ModFile> findEarlyServiceJars(StartupArgs startupArgs, Path directory, JarContents.OpenOptions options) {
         if (!Files.exists(directory)) {
             // Skip if the mods dir doesn't exist yet.
             return List.of();
@@ -73,7 +76,7 @@ final class EarlyServiceDiscovery {
         findClasspathServices(startupArgs, candidates);
 
         var earlyServiceJars = candidates.parallelStream()
-                .map(EarlyServiceDiscovery::getEarlyServiceModFile)
+                .map(path -> getEarlyServiceModFile(path, options))
                 .filter(Objects::nonNull)
                 .toList();
 
@@ -96,7 +99,21 @@ final class EarlyServiceDiscovery {
         }
     }
 
-    private static ModFile getEarlyServiceModFile(Path path) {
+    private static ModFile getEarlyServiceModFile(Path path, JarContents.OpenOptions options) {
+        // Traversing the jar just to find a few service files would be slower than looking them up, so an index is
+        // only used if it was already built
+        var index = JarContentsIndex.findShared(path);
+        if (index != null) {
+            for (var service : SERVICES) {
+                String serviceClass = service.getName();
+                if (index.serviceProviders().containsKey(serviceClass)) {
+                    LOGGER.debug("{} contains early service {}", path, serviceClass);
+                    return createEarlyServiceModFile(path, options);
+                }
+            }
+            return null;
+        }
+
         // We do not need to verify the Jar since we just test for existence of the service file and do not
         // actually load any code here.
         try (var jarFile = new JarFile(path.toFile(), false, JarFile.OPEN_READ)) {
@@ -105,7 +122,7 @@ final class EarlyServiceDiscovery {
                 if (jarFile.getEntry("META-INF/services/" + serviceClass) != null) {
                     LOGGER.debug("{} contains early service {}", path, serviceClass);
                     // Calling this while the JarFile is still open will allow the JVM to internally reuse it
-                    return createEarlyServiceModFile(path);
+                    return createEarlyServiceModFile(path, options);
                 }
             }
         } catch (IOException e) {
@@ -115,8 +132,14 @@ final class EarlyServiceDiscovery {
         return null;
     }
 
-    private static ModFile createEarlyServiceModFile(Path path) throws IOException {
-        var contents = JarContents.ofPath(path);
+    private static ModFile createEarlyServiceModFile(Path path, JarContents.OpenOptions options) {
+        JarContents contents;
+        try {
+            contents = JarContents.ofPath(path, options);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read Jar file {} in mods directory: {}", path, e);
+            return null;
+        }
         try {
             return (ModFile) IModFile.create(contents, JarModuleInfo.from(contents), JarModsDotTomlModFileReader::manifestParser);
         } catch (Exception e) {
@@ -32,10 +32,14 @@ import org.jetbrains.annotations.UnmodifiableView;
 import org.slf4j.Logger;
 
 public class FMLConfig {
+    private static final int DEFAULT_VIRTUAL_THREAD_TASKS = 256;
+
     public enum ConfigValue {
         DISABLE_CONFIG_WATCHER("disableConfigWatcher", Boolean.FALSE, "Disables File Watcher. Used to automatically update config if its file has been modified."),
         EARLY_WINDOW_CONTROL("earlyWindowControl", Boolean.TRUE, "Shows an early loading screen for mod loading which improves the user experience with early feedback about mod loading."),
         MAX_THREADS("maxThreads", -1, "Max threads for early initialization parallelism,  -1 is based on processor count", FMLConfig::maxThreads),
+        VIRTUAL_THREADS("virtualThreads", Boolean.FALSE, "Runs each parallel mod loading task on its own virtual thread instead of a pool of maxThreads threads, so that mods blocking on I/O or locks do not hold up other mods. At most virtualThreadTasks tasks run at the same time"),
+        VIRTUAL_THREAD_TASKS("virtualThreadTasks", -1, "Max parallel mod loading tasks running at the same time when virtualThreads is enabled, -1 is " + DEFAULT_VIRTUAL_THREAD_TASKS + ". A task keeps its slot while it is blocked, so this should be well above maxThreads for blocked mods not to hold up others. The CPU is still only shared between as many tasks as there are processors, so higher values mostly cost the memory of the extra mods being loaded at once", FMLConfig::virtualThreadTasks),
         VERSION_CHECK("versionCheck", Boolean.TRUE, "Enable NeoForge global version checking"),
         DEBUG_OPENGL("debugOpenGl", Boolean.FALSE, "Enable synchronous OpenGL debug output and object labeling"),
         DEFAULT_CONFIG_PATH("defaultConfigPath", "defaultconfigs", "Default config path for servers"),
@@ -44,7 +48,13 @@ public class FMLConfig {
         EARLY_WINDOW_WIDTH("earlyWindowWidth", 854, "Early window width"),
         EARLY_WINDOW_HEIGHT("earlyWindowHeight", 480, "Early window height"),
         EARLY_WINDOW_MAXIMIZED("earlyWindowMaximized", Boolean.FALSE, "Early window starts maximized"),
-        EARLY_LOADING_SCREEN_THEME("earlyLoadingScreenTheme", "", "Force a given theme-id to be used for the early loading screen");
+        EARLY_LOADING_SCREEN_THEME("earlyLoadingScreenTheme", "", "Force a given theme-id to be used for the early loading screen"),
+        TRANSFORMED_CLASS_CACHE("transformedClassCache", Boolean.TRUE, "Caches transformed classes on disk to speed up subsequent launches"),
+        SCAN_DATA_CACHE("scanDataCache", Boolean.TRUE, "Caches the results of scanning mod files for classes and annotations on disk, keyed by the checksum of each mod file"),
+        MEMORY_MAPPED_JARS("memoryMappedJars", Boolean.FALSE, "Reads jar files by memory-mapping them instead of opening them with java.util.jar.JarFile. Signatures of signed jars are not verified in this mode, and on Windows mapped jars stay locked until the mapping is garbage collected, even after they were closed"),
+        INDEXED_FOLDERS("indexedFolders", Boolean.FALSE, "Keeps an in-memory index of the files in mod folders, which is updated when the file system reports changes, instead of accessing the file system for every lookup"),
+        PARALLEL_DISCOVERY("parallelDiscovery", Boolean.FALSE, "Opens and reads candidate mod files in parallel during mod discovery, using up to maxThreads threads. Custom mod file readers must be thread-safe in this mode"),
+        IN_PLACE_JAR_IN_JAR("inPlaceJarInJar", Boolean.FALSE, "Reads Jar-in-Jar files that are stored without compression directly from the jar containing them, instead of extracting them to the cache folder first. Compressed Jar-in-Jar files are still extracted");
 
         private final String entry;
         private final Object defaultValue;
@@ -90,6 +100,12 @@ public class FMLConfig {
         else return val;
     }
 
+    private static Object virtualThreadTasks(Object value) {
+        int val = (Integer) value;
+        if (val <= 0) return DEFAULT_VIRTUAL_THREAD_TASKS;
+        else return val;
+    }
+
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final FMLConfig INSTANCE = new FMLConfig();
     private static Map<String, List<DependencyOverride>> dependencyOverrides = Map.of();
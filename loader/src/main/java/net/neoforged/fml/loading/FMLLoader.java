@@ -6,7 +6,7 @@
 package net.neoforged.fml.loading;
 
 import com.mojang.logging.LogUtils;
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.instrument.Instrumentation;
@@ -19,9 +19,13 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -30,8 +34,6 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -51,6 +53,7 @@ import net.neoforged.fml.classloading.ResourceMaskingClassLoader;
 import net.neoforged.fml.classloading.transformation.ClassProcessorAuditLog;
 import net.neoforged.fml.classloading.transformation.ClassProcessorAuditSource;
 import net.neoforged.fml.classloading.transformation.ClassProcessorSet;
+import net.neoforged.fml.classloading.transformation.TransformedClassCache;
 import net.neoforged.fml.classloading.transformation.TransformingClassLoader;
 import net.neoforged.fml.common.asm.AccessTransformerService;
 import net.neoforged.fml.common.asm.SimpleProcessorsGroup;
@@ -59,9 +62,15 @@ import net.neoforged.fml.i18n.FMLTranslations;
 import net.neoforged.fml.jarcontents.CompositeJarContents;
 import net.neoforged.fml.jarcontents.EmptyJarContents;
 import net.neoforged.fml.jarcontents.FolderJarContents;
+import net.neoforged.fml.jarcontents.FolderWatcher;
+import net.neoforged.fml.jarcontents.JarChecksumCache;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
+import net.neoforged.fml.jarcontents.JarFileBackend;
 import net.neoforged.fml.jarcontents.JarFileContents;
 import net.neoforged.fml.jarcontents.JarResource;
+import net.neoforged.fml.jarcontents.MappedJarContents;
+import net.neoforged.fml.jarcontents.NestedJarContents;
 import net.neoforged.fml.loading.mixin.MixinFacade;
 import net.neoforged.fml.loading.moddiscovery.ModDiscoverer;
 import net.neoforged.fml.loading.moddiscovery.ModFile;
@@ -133,6 +142,7 @@ public final class FMLLoader implements AutoCloseable {
     @VisibleForTesting
     DiscoveryResult discoveryResult;
     private final ClassProcessorAuditLog classTransformerAuditLog = new ClassProcessorAuditLog();
+    private JarContents.OpenOptions jarContentsOptions = JarContents.OpenOptions.DEFAULT;
     @Nullable
     @VisibleForTesting
     volatile IBindingsProvider bindings;
@@ -324,6 +334,22 @@ public final class FMLLoader implements AutoCloseable {
         try {
             FMLPaths.loadAbsolutePaths(startupArgs.gameDirectory());
             FMLConfig.load();
+            FolderWatcher folderWatcher = null;
+            if (FMLConfig.getBoolConfigValue(FMLConfig.ConfigValue.INDEXED_FOLDERS)) {
+                // All indexed folders of this launch share one watcher, which is closed together with the loader
+                folderWatcher = new FolderWatcher();
+                loader.ownedResources.add(folderWatcher);
+            }
+            loader.jarContentsOptions = new JarContents.OpenOptions(
+                    FMLConfig.getBoolConfigValue(FMLConfig.ConfigValue.MEMORY_MAPPED_JARS) ? JarFileBackend.MEMORY_MAPPED : JarFileBackend.JAR_FILE,
+                    folderWatcher);
+            var checksumCacheFile = FMLPaths.JAR_CHECKSUM_CACHE.get();
+            JarChecksumCache.load(checksumCacheFile);
+            // Checksums may still be requested once loading is done, so they are saved again when the loader is closed
+            loader.ownedResources.add(() -> JarChecksumCache.save(checksumCacheFile));
+            // Jars that are opened more than once during discovery share the index of their content
+            JarContentsIndex.startSharing();
+            loader.ownedResources.add(JarContentsIndex::stopSharing);
 
             var launchContext = loader.new LaunchContextAdapter();
             for (var claimedFile : startupArgs.claimedFiles()) {
@@ -345,7 +371,7 @@ public final class FMLLoader implements AutoCloseable {
             if (startupArgs.headless()) {
                 discoveryResult = loader.runDiscovery();
             } else {
-                discoveryResult = runOffThread(loader::runDiscovery);
+                discoveryResult = runOffThread("mod discovery", loader::runDiscovery);
             }
             for (var issue : discoveryResult.discoveryIssues()) {
                 LOGGER.atLevel(issue.severity() == ModLoadingIssue.Severity.ERROR ? Level.ERROR : Level.WARN)
@@ -358,6 +384,8 @@ public final class FMLLoader implements AutoCloseable {
 
             // Build all module descriptors in parallel
             discoveryResult.allContent().stream().parallel().forEach(ModFile::getModuleDescriptor);
+            JarContentsIndex.stopSharing();
+            JarChecksumCache.save(checksumCacheFile);
 
             ClassLoadingGuardian classLoadingGuardian = null;
             if (instrumentation != null) {
@@ -395,6 +423,8 @@ public final class FMLLoader implements AutoCloseable {
                         descriptor));
             }
             var transformingLoader = loader.buildTransformingLoader(classProcessorSet, loader.classTransformerAuditLog, gameContent);
+            // Scanned mod classes do not need to be read again to compute the hierarchy for frame computation
+            loader.backgroundScanHandler.forEachScanResult(transformingLoader.getHierarchyIndex()::addScanData);
 
             // From here on out, try loading through the TCL
             if (classLoadingGuardian != null) {
@@ -453,6 +483,8 @@ public final class FMLLoader implements AutoCloseable {
 
     private static ClassProcessor createAccessTransformerService(DiscoveryResult discoveryResult) {
         var engine = AccessTransformerEngine.newEngine();
+        // The cache version of the AT processor is derived from the content of all loaded AT files
+        var atDigest = getSha256();
         for (var modFile : discoveryResult.gameContent()) {
             for (var atPath : modFile.getAccessTransformers()) {
                 LOGGER.debug("Adding Access Transformer {} in {}", atPath, modFile);
@@ -460,7 +492,10 @@ public final class FMLLoader implements AutoCloseable {
                     if (in == null) {
                         LOGGER.error(LogMarkers.LOADING, "Access transformer file {} provided by {} does not exist!", atPath, modFile);
                     } else {
-                        engine.loadAT(new InputStreamReader(new BufferedInputStream(in)), atPath);
+                        var content = in.readAllBytes();
+                        atDigest.update(atPath.getBytes(StandardCharsets.UTF_8));
+                        atDigest.update(content);
+                        engine.loadAT(new InputStreamReader(new ByteArrayInputStream(content)), atPath);
                     }
                 } catch (IOException e) {
                     // TODO: Convert to translated issue?
@@ -468,7 +503,15 @@ public final class FMLLoader implements AutoCloseable {
                 }
             }
         }
-        return new AccessTransformerService(engine);
+        return new AccessTransformerService(engine, HexFormat.of().formatHex(atDigest.digest()));
+    }
+
+    private static MessageDigest getSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     private TransformingClassLoader buildTransformingLoader(ClassProcessorSet classProcessorSet,
@@ -488,7 +531,11 @@ public final class FMLLoader implements AutoCloseable {
 
         var moduleNames = getModuleNameList(cf, content);
         LOGGER.info("Building game content classloader:\n{}", moduleNames);
-        var loader = new TransformingClassLoader(classProcessorSet, auditTrail, cf, parentLayers, currentClassLoader);
+        TransformedClassCache classCache = null;
+        if (FMLConfig.getBoolConfigValue(FMLConfig.ConfigValue.TRANSFORMED_CLASS_CACHE)) {
+            classCache = TransformedClassCache.open(FMLPaths.TRANSFORMED_CLASS_CACHEDIR.get());
+        }
+        var loader = new TransformingClassLoader(classProcessorSet, auditTrail, classCache, cf, parentLayers, currentClassLoader);
 
         var layer = ModuleLayer.defineModules(
                 cf,
@@ -556,6 +603,8 @@ public final class FMLLoader implements AutoCloseable {
             case EmptyJarContents ignored -> {}
             case FolderJarContents folderModContainer -> result.add(folderModContainer.getPrimaryPath());
             case JarFileContents jarModContainer -> result.add(jarModContainer.getPrimaryPath());
+            case MappedJarContents jarModContainer -> result.add(jarModContainer.getPrimaryPath());
+            case NestedJarContents ignored -> {} // Nested jars are never on the classpath
             default -> throw new IllegalStateException("Don't know how to handle " + contents);
         }
         return result;
@@ -614,7 +663,7 @@ public final class FMLLoader implements AutoCloseable {
 
     private void loadEarlyServices(StartupArgs startupArgs) {
         // Search for early services
-        this.earlyServicesJars.addAll(EarlyServiceDiscovery.findEarlyServiceJars(startupArgs, FMLPaths.MODSDIR.get()));
+        this.earlyServicesJars.addAll(EarlyServiceDiscovery.findEarlyServiceJars(startupArgs, FMLPaths.MODSDIR.get(), jarContentsOptions));
         if (!earlyServicesJars.isEmpty()) {
             appendLoader("FML Early Services", earlyServicesJars.stream().map(IModFile::getContents).toList());
         }
@@ -669,7 +718,11 @@ public final class FMLLoader implements AutoCloseable {
         additionalLocators.add(new InDevJarLocator());
         additionalLocators.add(new ModsFolderLocator());
 
-        var modDiscoverer = new ModDiscoverer(new LaunchContextAdapter(), additionalLocators);
+        int discoveryParallelism = 1;
+        if (FMLConfig.getBoolConfigValue(FMLConfig.ConfigValue.PARALLEL_DISCOVERY)) {
+            discoveryParallelism = FMLConfig.getIntConfigValue(FMLConfig.ConfigValue.MAX_THREADS);
+        }
+        var modDiscoverer = new ModDiscoverer(new LaunchContextAdapter(), additionalLocators, discoveryParallelism);
         var discoveryResult = modDiscoverer.discoverMods(earlyServicesJars);
 
         // Now we should have a mod for "minecraft" and "neoforge" allowing us to fill in the versions
@@ -724,7 +777,7 @@ public final class FMLLoader implements AutoCloseable {
                 loadingModList.getModLoadingIssues());
     }
 
-    private static <T> T runOffThread(Supplier<T> supplier) {
+    private static <T> T runOffThread(String phase, Supplier<T> supplier) {
         var cl = Thread.currentThread().getContextClassLoader();
         var future = CompletableFuture.supplyAsync(() -> {
             var previousCl = Thread.currentThread().getContextClassLoader();
@@ -739,16 +792,13 @@ public final class FMLLoader implements AutoCloseable {
             }
         });
 
-        while (true) {
-            ImmediateWindowHandler.renderTick();
-            try {
-                return future.get(10L, TimeUnit.MILLISECONDS);
-            } catch (ExecutionException e) {
-                throw new CompletionException(e.getCause());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Interrupted while waiting for future", e);
-            } catch (TimeoutException ignored) {}
+        try {
+            return StartupWait.await(phase, future, ImmediateWindowHandler::renderTick, Duration.ofMillis(10));
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + phase, e);
         }
     }
 
@@ -773,6 +823,14 @@ public final class FMLLoader implements AutoCloseable {
         return dist;
     }
 
+    /**
+     * {@return the options that jar files and folders found during this launch are opened with}
+     */
+    @ApiStatus.Internal
+    public JarContents.OpenOptions getJarContentsOptions() {
+        return jarContentsOptions;
+    }
+
     /**
      * @throws IllegalStateException if the loading mod list hasn't been built yet.
      */
@@ -844,5 +902,10 @@ public final class FMLLoader implements AutoCloseable {
         public VersionInfo getVersions() {
             return versionInfo;
         }
+
+        @Override
+        public JarContents.OpenOptions jarContentsOptions() {
+            return jarContentsOptions;
+        }
     }
 }
@@ -20,6 +20,10 @@ import org.slf4j.Logger;
 public enum FMLPaths {
     GAMEDIR(),
     JIJ_CACHEDIR(".cache/jij"),
+    TRANSFORMED_CLASS_CACHEDIR(".cache/transformed_classes"),
+    SCAN_DATA_CACHEDIR(".cache/scan_data"),
+    JAR_CHECKSUM_CACHE(false, GAMEDIR, ".cache", "jar_checksums.txt"),
+    MOD_TASK_TIMINGS(false, GAMEDIR, ".cache", "mod_task_timings.txt"),
     MODSDIR("mods"),
     CONFIGDIR("config"),
     FMLCONFIG(false, CONFIGDIR, "fml.toml");
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading;
+
+import com.mojang.logging.LogUtils;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Waits for a startup phase that runs on other threads to complete, while running a periodic task such as a
+ * loading screen update on the waiting thread.
+ * <p>
+ * The waiting thread blocks on the future itself, so it resumes as soon as the phase completes. The periodic task
+ * runs at a fixed cadence, independent of how long the task itself takes; ticks that were missed because the task
+ * overran are skipped rather than run back to back. The time spent waiting for each phase is logged.
+ */
+@ApiStatus.Internal
+public final class StartupWait {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private StartupWait() {}
+
+    /**
+     * Waits for the given future to complete, without a timeout.
+     *
+     * @see #await(String, Future, Runnable, Duration, Duration)
+     */
+    public static <T> T await(String phase, Future<T> future, Runnable periodicTask, Duration tickInterval) throws ExecutionException, InterruptedException {
+        try {
+            return await(phase, future, periodicTask, tickInterval, null);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out without a timeout", e);
+        }
+    }
+
+    /**
+     * Waits for the given future to complete, running the periodic task once right away and then once per tick
+     * interval until the future completes.
+     *
+     * @param phase        The name of the phase, which the time spent waiting is logged for.
+     * @param tickInterval The interval between the starts of consecutive runs of the periodic task.
+     * @param timeout      The maximum time to wait, or null to wait indefinitely.
+     * @return the result of the future
+     * @throws ExecutionException   if the future completed exceptionally
+     * @throws InterruptedException if the waiting thread was interrupted
+     * @throws TimeoutException     if the future did not complete within the timeout
+     */
+    public static <T> T await(String phase, Future<T> future, Runnable periodicTask, Duration tickInterval, @Nullable Duration timeout)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        long interval = Math.max(1, tickInterval.toNanos());
+        long start = System.nanoTime();
+        long deadline = timeout != null ? start + timeout.toNanos() : Long.MAX_VALUE;
+        long nextTick = start;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    periodicTask.run();
+                    // Skip the ticks that were missed while the task ran, so that the cadence stays fixed
+                    now = System.nanoTime();
+                    nextTick += Math.max(1, (now - nextTick) / interval + 1) * interval;
+                }
+                if (timeout != null && now - deadline >= 0) {
+                    throw new TimeoutException("Timed out waiting for " + phase);
+                }
+                long wait = nextTick - now;
+                if (timeout != null) {
+                    wait = Math.min(wait, deadline - now);
+                }
+                try {
+                    return future.get(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException ignored) {
+                    // Time for the next tick
+                }
+            }
+        } finally {
+            LOGGER.debug(LogMarkers.LOADING, "Waited {} ms for {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), phase);
+        }
+    }
+}
@@ -17,6 +17,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.zip.ZipException;
 import net.neoforged.fml.ModLoadingException;
@@ -44,6 +49,7 @@ public class ModDiscoverer {
     private final List<IDependencyLocator> dependencyLocators;
     private final List<IModFileReader> modFileReaders;
     private final ILaunchContext launchContext;
+    private final int parallelism;
 
     public ModDiscoverer(ILaunchContext launchContext) {
         this(launchContext, List.of());
@@ -51,7 +57,19 @@ public class ModDiscoverer {
 
     public ModDiscoverer(ILaunchContext launchContext,
             Collection<IModFileCandidateLocator> additionalModFileLocators) {
+        this(launchContext, additionalModFileLocators, 1);
+    }
+
+    /**
+     * @param parallelism The number of threads used to open and read the files that locators add in bulk. With a
+     *                    parallelism of 1, all files are read on the discovering thread. The discovered files and
+     *                    reported issues do not depend on the parallelism.
+     */
+    public ModDiscoverer(ILaunchContext launchContext,
+            Collection<IModFileCandidateLocator> additionalModFileLocators,
+            int parallelism) {
         this.launchContext = launchContext;
+        this.parallelism = parallelism;
 
         modFileLocators = ServiceLoaderUtil.loadEarlyServices(launchContext, IModFileCandidateLocator.class, additionalModFileLocators);
         modFileReaders = ServiceLoaderUtil.loadEarlyServices(launchContext, IModFileReader.class, List.of());
@@ -63,6 +81,26 @@ public class ModDiscoverer {
             List<ModLoadingIssue> discoveryIssues) {}
 
     public Result discoverMods(List<ModFile> additionalDependencySources) {
+        if (parallelism <= 1) {
+            return discoverMods(additionalDependencySources, null);
+        }
+
+        LOGGER.debug(LogMarkers.SCAN, "Reading mod files with {} threads", parallelism);
+        var threadCount = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(r);
+            thread.setDaemon(true);
+            thread.setName("mod-discovery-" + threadCount.getAndIncrement());
+            return thread;
+        });
+        try {
+            return discoverMods(additionalDependencySources, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Result discoverMods(List<ModFile> additionalDependencySources, @Nullable Executor executor) {
         LOGGER.debug(LogMarkers.SCAN, "Scanning for mods and other resources to load. We know {} ways to find mods", modFileLocators.size());
         List<ModFile> loadedFiles = new ArrayList<>();
         List<ModLoadingIssue> discoveryIssues = new ArrayList<>();
@@ -74,7 +112,7 @@ public class ModDiscoverer {
             LOGGER.debug(LogMarkers.SCAN, "Trying locator {}", locator);
 
             var defaultAttributes = ModFileDiscoveryAttributes.DEFAULT.withLocator(locator);
-            var pipeline = new DiscoveryPipeline(defaultAttributes, loadedFiles, discoveryIssues);
+            var pipeline = new DiscoveryPipeline(defaultAttributes, loadedFiles, discoveryIssues, executor);
             try {
                 locator.findCandidates(launchContext, pipeline);
             } catch (ModLoadingException e) {
@@ -117,7 +155,7 @@ public class ModDiscoverer {
             for (var locator : dependencyLocators) {
                 try {
                     LOGGER.debug(LogMarkers.SCAN, "Trying locator {}", locator);
-                    var pipeline = new DiscoveryPipeline(ModFileDiscoveryAttributes.DEFAULT.withDependencyLocator(locator), loadedFiles, discoveryIssues);
+                    var pipeline = new DiscoveryPipeline(ModFileDiscoveryAttributes.DEFAULT.withDependencyLocator(locator), loadedFiles, discoveryIssues, executor);
                     locator.scanMods(dependencySources, pipeline);
                 } catch (ModLoadingException exception) {
                     LOGGER.error(LogMarkers.SCAN, "Failed to load dependencies with locator {}", locator, exception);
@@ -173,6 +211,8 @@ public class ModDiscoverer {
         private final ModFileDiscoveryAttributes defaultAttributes;
         private final List<ModFile> loadedFiles;
         private final List<ModLoadingIssue> issues;
+        @Nullable
+        private final Executor executor;
 
         private int successCount;
         private int errorCount;
@@ -181,35 +221,85 @@ public class ModDiscoverer {
 
         public DiscoveryPipeline(ModFileDiscoveryAttributes defaultAttributes,
                 List<ModFile> loadedFiles,
-                List<ModLoadingIssue> issues) {
+                List<ModLoadingIssue> issues,
+                @Nullable Executor executor) {
             this.defaultAttributes = defaultAttributes;
             this.loadedFiles = loadedFiles;
             this.issues = issues;
+            this.executor = executor;
         }
 
         @Override
         public Optional<IModFile> addPath(List<Path> groupedPaths, ModFileDiscoveryAttributes attributes, IncompatibleFileReporting reporting) {
-            var primaryPath = groupedPaths.getFirst();
+            if (!markLocated(groupedPaths.getFirst())) {
+                return Optional.empty();
+            }
+            return addReadResult(readPath(groupedPaths, attributes, reporting));
+        }
+
+        @Override
+        public void addPaths(List<Path> paths, ModFileDiscoveryAttributes attributes, IncompatibleFileReporting reporting) {
+            if (executor == null) {
+                IDiscoveryPipeline.super.addPaths(paths, attributes, reporting);
+                return;
+            }
+
+            // Paths are claimed and results are added in order, so that only the reading happens concurrently
+            var readPaths = new ArrayList<Path>(paths.size());
+            var reads = new ArrayList<CompletableFuture<ReadResult>>(paths.size());
+            for (var path : paths) {
+                if (markLocated(path)) {
+                    readPaths.add(path);
+                    reads.add(CompletableFuture.supplyAsync(() -> readPath(List.of(path), attributes, reporting), executor));
+                }
+            }
+            int added = 0;
+            try {
+                for (; added < reads.size(); added++) {
+                    ReadResult result;
+                    try {
+                        result = reads.get(added).join();
+                    } catch (CompletionException e) {
+                        addIssue(ModLoadingIssue.error("fml.modloadingissue.brokenfile").withAffectedPath(readPaths.get(added)).withCause(e.getCause()));
+                        continue;
+                    }
+                    addReadResult(result);
+                }
+            } finally {
+                // If adding a result failed, the contents of the remaining reads would otherwise never be closed
+                for (int i = added + 1; i < reads.size(); i++) {
+                    closeReadResult(reads.get(i));
+                }
+            }
+        }
 
+        private boolean markLocated(Path primaryPath) {
             if (!launchContext.addLocated(primaryPath)) {
                 LOGGER.debug("Skipping {} because it was already located earlier", primaryPath);
                 skipCount++;
-                return Optional.empty();
+                return false;
             }
+            return true;
+        }
 
+        /**
+         * Opens and reads the given paths without adding anything to the pipeline, which allows it to be called
+         * concurrently.
+         */
+        private ReadResult readPath(List<Path> groupedPaths, ModFileDiscoveryAttributes attributes, IncompatibleFileReporting reporting) {
             JarContents jarContents;
             try {
-                jarContents = JarContents.ofPaths(groupedPaths);
+                jarContents = JarContents.ofPaths(groupedPaths, launchContext.jarContentsOptions());
             } catch (Exception e) {
-                if (causeChainContains(e, ZipException.class)) {
-                    addIssue(ModLoadingIssue.error("fml.modloadingissue.brokenfile.invalidzip").withAffectedPath(primaryPath).withCause(e));
-                } else {
-                    addIssue(ModLoadingIssue.error("fml.modloadingissue.brokenfile").withAffectedPath(primaryPath).withCause(e));
-                }
-                return Optional.empty();
+                return new ReadResult.Unopenable(groupedPaths.getFirst(), e);
             }
 
-            return addJarContent(jarContents, attributes, reporting);
+            try {
+                return readJarContent(jarContents, attributes, reporting);
+            } catch (RuntimeException e) {
+                // Readers are already guarded, but detecting the reason for an incompatibility may still fail
+                return new ReadResult.Crashed(jarContents, e);
+            }
         }
 
         @Override
@@ -224,8 +314,21 @@ public class ModDiscoverer {
             throw new RuntimeException("No mod reader felt responsible for " + jarContents.getPrimaryPath());
         }
 
+        @Override
+        public JarContents openJarContents(Path path) throws IOException {
+            return JarContents.ofPath(path, launchContext.jarContentsOptions());
+        }
+
         @Override
         public Optional<IModFile> addJarContent(JarContents jarContents, ModFileDiscoveryAttributes attributes, IncompatibleFileReporting reporting) {
+            return addReadResult(readJarContent(jarContents, attributes, reporting));
+        }
+
+        /**
+         * Reads the given contents without adding anything to the pipeline, which allows it to be called
+         * concurrently.
+         */
+        private ReadResult readJarContent(JarContents jarContents, ModFileDiscoveryAttributes attributes, IncompatibleFileReporting reporting) {
             attributes = defaultAttributes.merge(attributes);
 
             List<ModLoadingIssue> incompatibilityIssues = new ArrayList<>();
@@ -234,56 +337,79 @@ public class ModDiscoverer {
                 try {
                     var provided = reader.read(jarContents, attributes);
                     if (provided != null) {
-                        if (addModFile(provided)) {
-                            return Optional.of(provided);
-                        }
-                        // The reader might have returned something other than a ModFile (that is one reason for addModFile rejecting it)
-                        if (provided instanceof ModFile modFile) {
-                            modFile.close();
-                        } else {
-                            closeJarContents(jarContents);
-                        }
-                        return Optional.empty();
+                        return new ReadResult.Provided(jarContents, provided);
                     }
                 } catch (ModLoadingException e) {
                     // The reader didn't outright crash but reported reasons for incompatibility.
                     // We'll stash them here in case no other reader successfully reads the file.
                     incompatibilityIssues.addAll(e.getIssues());
                 } catch (Exception e) {
-                    closeJarContents(jarContents); // Ensure the jar contents are closed
-
-                    // When a reader just outright crashes while reading the file, we do error intentionally.
-                    addIssue(ModLoadingIssue.error("fml.modloadingissue.brokenfile").withAffectedPath(jarContents.getPrimaryPath()).withCause(e));
-                    return Optional.empty();
+                    return new ReadResult.Crashed(jarContents, e);
                 }
             }
 
             // If a jar file was found in a subdirectory of the game directory, but could not be loaded,
             // it might be an incompatible mod type. We do not perform this validation for jars that we
             // found on the classpath or other locations since these are usually not under user control.
-            if (reporting != IncompatibleFileReporting.IGNORE) {
-                // Detect additional, potential reasons for the jar being incompatible
-                var reason = IncompatibleModReason.detect(jarContents);
-                if (reason.isPresent()) {
-                    incompatibilityIssues.add(ModLoadingIssue.error(reason.get().getReason()).withAffectedPath(jarContents.getPrimaryPath()));
-                } else if (reporting != IncompatibleFileReporting.WARN_ON_KNOWN_INCOMPATIBILITY && incompatibilityIssues.isEmpty()) {
-                    incompatibilityIssues.add(ModLoadingIssue.error("fml.modloadingissue.brokenfile.unknown").withAffectedPath(jarContents.getPrimaryPath()));
-                }
+            if (reporting == IncompatibleFileReporting.IGNORE) {
+                return new ReadResult.Unreadable(jarContents, reporting, List.of());
+            }
 
-                for (var issue : incompatibilityIssues) {
-                    // Convert the issue to the desired reporting severity
-                    issue = issue.withSeverity(reporting.getIssueSeverity());
+            // Detect additional, potential reasons for the jar being incompatible
+            var reason = IncompatibleModReason.detect(jarContents);
+            if (reason.isPresent()) {
+                incompatibilityIssues.add(ModLoadingIssue.error(reason.get().getReason()).withAffectedPath(jarContents.getPrimaryPath()));
+            } else if (reporting != IncompatibleFileReporting.WARN_ON_KNOWN_INCOMPATIBILITY && incompatibilityIssues.isEmpty()) {
+                incompatibilityIssues.add(ModLoadingIssue.error("fml.modloadingissue.brokenfile.unknown").withAffectedPath(jarContents.getPrimaryPath()));
+            }
+
+            // Convert the issues to the desired reporting severity
+            return new ReadResult.Unreadable(jarContents, reporting, incompatibilityIssues.stream()
+                    .map(issue -> issue.withSeverity(reporting.getIssueSeverity()))
+                    .toList());
+        }
 
-                    LOGGER.atLevel(reporting.getLogLevel())
-                            .addMarker(LogMarkers.SCAN)
-                            .log("Skipping jar. {}", FMLTranslations.translateIssueEnglish(issue));
-                    addIssue(issue);
+        /**
+         * Adds the outcome of reading a path or jar contents to the pipeline.
+         */
+        private Optional<IModFile> addReadResult(ReadResult result) {
+            switch (result) {
+                case ReadResult.Provided(var jarContents, var provided) -> {
+                    if (addModFile(provided)) {
+                        return Optional.of(provided);
+                    }
+                    // The reader might have returned something other than a ModFile (that is one reason for addModFile rejecting it)
+                    if (provided instanceof ModFile modFile) {
+                        modFile.close();
+                    } else {
+                        closeJarContents(jarContents);
+                    }
                 }
-            }
+                case ReadResult.Crashed(var jarContents, var cause) -> {
+                    closeJarContents(jarContents); // Ensure the jar contents are closed
 
-            // No reader successfully parsed the contents, ensure they're properly closed now
-            closeJarContents(jarContents);
+                    // When a reader just outright crashes while reading the file, we do error intentionally.
+                    addIssue(ModLoadingIssue.error("fml.modloadingissue.brokenfile").withAffectedPath(jarContents.getPrimaryPath()).withCause(cause));
+                }
+                case ReadResult.Unreadable(var jarContents, var reporting, var incompatibilityIssues) -> {
+                    for (var issue : incompatibilityIssues) {
+                        LOGGER.atLevel(reporting.getLogLevel())
+                                .addMarker(LogMarkers.SCAN)
+                                .log("Skipping jar. {}", FMLTranslations.translateIssueEnglish(issue));
+                        addIssue(issue);
+                    }
 
+                    // No reader successfully parsed the contents, ensure they're properly closed now
+                    closeJarContents(jarContents);
+                }
+                case ReadResult.Unopenable(var primaryPath, var cause) -> {
+                    if (causeChainContains(cause, ZipException.class)) {
+                        addIssue(ModLoadingIssue.error("fml.modloadingissue.brokenfile.invalidzip").withAffectedPath(primaryPath).withCause(cause));
+                    } else {
+                        addIssue(ModLoadingIssue.error("fml.modloadingissue.brokenfile").withAffectedPath(primaryPath).withCause(cause));
+                    }
+                }
+            }
             return Optional.empty();
         }
 
@@ -316,6 +442,53 @@ public class ModDiscoverer {
         }
     }
 
+    /**
+     * The outcome of opening and reading a path or jar contents, before it is added to the pipeline.
+     */
+    private sealed interface ReadResult {
+        /**
+         * A reader created a mod file from the contents.
+         */
+        record Provided(JarContents jarContents, IModFile provided) implements ReadResult {}
+
+        /**
+         * A reader failed unexpectedly while reading the contents.
+         */
+        record Crashed(JarContents jarContents, Exception cause) implements ReadResult {}
+
+        /**
+         * No reader was responsible for the contents, for the given reasons.
+         */
+        record Unreadable(JarContents jarContents, IncompatibleFileReporting reporting, List<ModLoadingIssue> issues) implements ReadResult {}
+
+        /**
+         * The path could not be opened.
+         */
+        record Unopenable(Path primaryPath, Exception cause) implements ReadResult {}
+    }
+
+    private static void closeReadResult(CompletableFuture<ReadResult> read) {
+        ReadResult result;
+        try {
+            result = read.join();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to read mod file", e);
+            return;
+        }
+        switch (result) {
+            case ReadResult.Provided(var jarContents, var provided) -> {
+                if (provided instanceof ModFile modFile) {
+                    modFile.close();
+                } else {
+                    closeJarContents(jarContents);
+                }
+            }
+            case ReadResult.Crashed(var jarContents, var cause) -> closeJarContents(jarContents);
+            case ReadResult.Unreadable(var jarContents, var reporting, var issues) -> closeJarContents(jarContents);
+            case ReadResult.Unopenable(var primaryPath, var cause) -> {}
+        }
+    }
+
     private static void closeJarContents(JarContents jarContents) {
         try {
             jarContents.close();
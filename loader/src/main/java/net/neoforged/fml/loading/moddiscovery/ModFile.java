@@ -22,9 +22,11 @@ import java.util.function.Supplier;
 import java.util.jar.Attributes;
 import java.util.stream.Stream;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
 import net.neoforged.fml.jarmoduleinfo.JarModuleInfo;
 import net.neoforged.fml.loading.FMLLoader;
 import net.neoforged.fml.loading.LogMarkers;
+import net.neoforged.fml.loading.modscan.ScanDataCache;
 import net.neoforged.fml.loading.modscan.Scanner;
 import net.neoforged.neoforgespi.language.IModFileInfo;
 import net.neoforged.neoforgespi.language.IModInfo;
@@ -53,6 +55,9 @@ public class ModFile implements IModFile {
     private final JarModuleInfo jarModuleInfo;
     @Nullable
     private volatile ModuleDescriptor moduleDescriptor;
+    @Nullable
+    private volatile JarContentsIndex contentsIndex;
+    private volatile boolean scanned;
     private final Type modFileType;
     private final IModFileInfo modFileInfo;
     private final List<ModFileParser.MixinConfig> mixinConfigs;
@@ -153,11 +158,37 @@ public class ModFile implements IModFile {
     }
 
     public CompletionStage<ModFileScanData> startScan(Executor executor) {
+        return startScan(executor, null);
+    }
+
+    /**
+     * Starts scanning this mod file on the given executor. If a cache is given, a cached scan result for the
+     * checksum of this mod file is used instead of scanning it, and a new scan result is stored in the cache.
+     */
+    public CompletionStage<ModFileScanData> startScan(Executor executor, @Nullable ScanDataCache cache) {
         if (this.futureScanResult != null) {
             throw new IllegalStateException("The mod file scan was already started.");
         }
 
-        this.futureScanResult = CompletableFuture.supplyAsync(() -> new Scanner(this).scan(), executor);
+        this.futureScanResult = CompletableFuture.supplyAsync(() -> {
+            var checksum = cache != null ? getContents().getChecksum().orElse(null) : null;
+            ModFileScanData result = null;
+            if (checksum != null) {
+                result = cache.get(checksum);
+                if (result != null) {
+                    result.addModFileInfo(getModFileInfo());
+                }
+            }
+            if (result == null) {
+                result = new Scanner(this).scan();
+                if (checksum != null) {
+                    cache.put(checksum, result);
+                }
+            }
+            scanned = true;
+            releaseContentsIndex();
+            return result;
+        }, executor);
         return this.futureScanResult;
     }
 
@@ -233,13 +264,41 @@ public class ModFile implements IModFile {
             synchronized (this) {
                 result = moduleDescriptor;
                 if (result == null) {
-                    moduleDescriptor = result = jarModuleInfo.createDescriptor(contents);
+                    moduleDescriptor = result = jarModuleInfo.createDescriptor(contents, getContentsIndex());
+                    releaseContentsIndex();
                 }
             }
         }
         return result;
     }
 
+    /**
+     * {@return the index of the content of this mod file, which is built on first use}
+     * Building the module descriptor and scanning the mod file share this index, so that the content is
+     * only traversed once.
+     */
+    public JarContentsIndex getContentsIndex() {
+        var result = contentsIndex;
+        if (result == null) {
+            synchronized (this) {
+                result = contentsIndex;
+                if (result == null) {
+                    contentsIndex = result = JarContentsIndex.of(contents);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the index once both of its users are done with it, since the list of class files is no longer needed.
+     */
+    private void releaseContentsIndex() {
+        if (scanned && moduleDescriptor != null) {
+            contentsIndex = null;
+        }
+    }
+
     public void close() {
         // Cancel background scanning to avoid "closed zip file" errors from access to the jar file we're about to close
         if (futureScanResult != null) {
@@ -8,6 +8,7 @@ package net.neoforged.fml.loading.moddiscovery;
 import java.lang.module.ModuleDescriptor;
 import java.util.Objects;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
 import net.neoforged.fml.jarmoduleinfo.JarModuleInfo;
 import net.neoforged.neoforgespi.locating.IModFile;
 
@@ -30,10 +31,15 @@ public final class ModJarMetadata implements JarModuleInfo {
 
     @Override
     public ModuleDescriptor createDescriptor(JarContents contents) {
+        return createDescriptor(contents, JarContentsIndex.of(contents));
+    }
+
+    @Override
+    public ModuleDescriptor createDescriptor(JarContents contents, JarContentsIndex index) {
         var bld = ModuleDescriptor.newAutomaticModule(name())
                 .version(version());
 
-        JarModuleInfo.scanAutomaticModule(contents, bld, "assets", "data");
+        JarModuleInfo.scanAutomaticModule(index, bld, "assets", "data");
 
         modFile.getModFileInfo().usesServices().forEach(bld::uses);
         return bld.build();
@@ -111,7 +111,7 @@ public class GameLocator implements IModFileCandidateLocator {
         }
         JarContents nfJarContents;
         try {
-            nfJarContents = JarContents.ofFilteredPaths(nfJarRoots);
+            nfJarContents = JarContents.ofFilteredPaths(nfJarRoots, context.jarContentsOptions());
         } catch (IOException e) {
             LOG.error("Failed to construct filtered NeoForge jar from {}", nfJarRoots);
             throw new ModLoadingException(ModLoadingIssue.error("fml.modloadingissue.corrupted_neoforge_jar").withCause(e));
@@ -152,7 +152,7 @@ public class GameLocator implements IModFileCandidateLocator {
 
         JarContents mcJarContents;
         try {
-            mcJarContents = JarContents.ofFilteredPaths(mcJarRoots);
+            mcJarContents = JarContents.ofFilteredPaths(mcJarRoots, context.jarContentsOptions());
         } catch (IOException e) {
             LOG.error("Failed to construct filtered Minecraft jar from {}", mcJarRoots);
             throw new ModLoadingException(ModLoadingIssue.error("fml.modloadingissue.corrupted_minecraft_jar").withCause(e));
@@ -311,7 +311,7 @@ public class GameLocator implements IModFileCandidateLocator {
             }
 
             try {
-                var mcJarContents = JarContents.ofPaths(content);
+                var mcJarContents = JarContents.ofPaths(content, context.jarContentsOptions());
 
                 var mcJarMetadata = new ModJarMetadata();
                 var mcjar = IModFile.create(mcJarContents, mcJarMetadata, new MinecraftModInfo(minecraftVersion)::buildMinecraftModInfo);
@@ -43,7 +43,7 @@ public class InDevFolderLocator implements IModFileCandidateLocator {
             var paths = entry.files.stream().map(File::toPath).toList();
             if (paths.stream().noneMatch(context::isLocated)) {
                 try {
-                    pipeline.addJarContent(JarContents.ofPaths(paths), ModFileDiscoveryAttributes.DEFAULT, IncompatibleFileReporting.ERROR);
+                    pipeline.addJarContent(JarContents.ofPaths(paths, context.jarContentsOptions()), ModFileDiscoveryAttributes.DEFAULT, IncompatibleFileReporting.ERROR);
                 } catch (IOException e) {
                     pipeline.addIssue(ModLoadingIssue.error("fml.modloadingissue.brokenfile.invalidzip").withAffectedPath(paths.getFirst()).withCause(e));
                 }
@@ -26,11 +26,11 @@ public class InDevJarLocator implements IModFileCandidateLocator {
     @Override
     public void findCandidates(ILaunchContext context, IDiscoveryPipeline pipeline) {
         // Search for mods first, since all mods need to be located
-        for (var path : ClasspathResourceUtils.findFileSystemRootsOfFileOnClasspath(JarModsDotTomlModFileReader.MODS_TOML)) {
-            if (Files.isRegularFile(path)) {
-                pipeline.addPath(path, ModFileDiscoveryAttributes.DEFAULT, IncompatibleFileReporting.WARN_ON_KNOWN_INCOMPATIBILITY);
-            }
-        }
+        var modPaths = ClasspathResourceUtils.findFileSystemRootsOfFileOnClasspath(JarModsDotTomlModFileReader.MODS_TOML)
+                .stream()
+                .filter(Files::isRegularFile)
+                .toList();
+        pipeline.addPaths(modPaths, ModFileDiscoveryAttributes.DEFAULT, IncompatibleFileReporting.WARN_ON_KNOWN_INCOMPATIBILITY);
 
         // For (game)-libraries, we need to inspect the Jar manifests for the mod type attribute
         for (var path : ClasspathResourceUtils.findFileSystemRootsOfFileOnClasspath(JarFile.MANIFEST_NAME)) {
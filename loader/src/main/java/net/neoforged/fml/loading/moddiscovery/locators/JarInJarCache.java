@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading.moddiscovery.locators;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import net.neoforged.fml.jarcontents.FileIdentity;
+import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.JarFileContents;
+import net.neoforged.fml.jarcontents.MappedJarContents;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Remembers which file in the Jar-in-Jar cache folder a nested jar was extracted to, so that the nested jars of outer
+ * jars that did not change are reused without reading them again.
+ * <p>
+ * Extracted files are named after the SHA-256 checksum of their content. The index maps the identity of the outer
+ * jar file, the path of the nested jar in it, and the CRC-32 and size of that entry to the extracted file. It is
+ * persisted in the cache folder. When it is saved, entries whose outer jar changed or no longer exists are dropped,
+ * and extracted files that are no longer referenced are deleted.
+ */
+final class JarInJarCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String INDEX_FILE = "index.txt";
+    private static final String HEADER = "# FML jar-in-jar cache v1";
+    /**
+     * Unreferenced files are only deleted once they are this old, since another instance of the game may be using
+     * the same cache folder.
+     */
+    private static final Duration GARBAGE_GRACE_PERIOD = Duration.ofDays(1);
+
+    private final Path cacheDir;
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final Set<Path> usedFiles = new HashSet<>();
+    private boolean dirty;
+
+    private JarInJarCache(Path cacheDir) {
+        this.cacheDir = cacheDir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Loads the index persisted in the given cache folder. A missing, outdated or corrupted index is ignored.
+     */
+    static JarInJarCache load(Path cacheDir) {
+        var cache = new JarInJarCache(cacheDir);
+        var indexFile = cache.cacheDir.resolve(INDEX_FILE);
+        try {
+            var lines = Files.readAllLines(indexFile);
+            if (lines.isEmpty() || !HEADER.equals(lines.getFirst())) {
+                LOGGER.debug("Ignoring jar-in-jar cache index {} with unknown format", indexFile);
+                return cache;
+            }
+            for (var line : lines.subList(1, lines.size())) {
+                var parts = line.split("\t", 9);
+                if (parts.length != 9 || parts[0].length() != 64 || !isPlainFileName(parts[1])) {
+                    throw new IllegalArgumentException("Malformed line: " + line);
+                }
+                HexFormat.of().parseHex(parts[0]);
+                var outerIdentity = new FileIdentity(Long.parseLong(parts[4]), Long.parseLong(parts[5]), parts[6].equals("-") ? null : parts[6]);
+                var key = new Key(Path.of(parts[7]), outerIdentity, parts[8], Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+                cache.entries.put(key, new Entry(parts[0], parts[1]));
+            }
+        } catch (NoSuchFileException ignored) {
+            // Nothing was cached yet
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring corrupted jar-in-jar cache index {}: {}", indexFile, e.toString());
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    private static boolean isPlainFileName(String fileName) {
+        return !fileName.isEmpty() && !fileName.equals(".") && !fileName.equals("..")
+                && fileName.indexOf('/') == -1 && fileName.indexOf('\\') == -1;
+    }
+
+    /**
+     * {@return the key of a nested jar in the given outer jar, or {@code null} if the nested jar cannot be cached}
+     * Only nested jars in jar files can be cached, since the identity of folders does not change with their content.
+     */
+    @Nullable
+    static Key keyOf(JarContents outer, String relativePath) {
+        if (!(outer instanceof JarFileContents || outer instanceof MappedJarContents)) {
+            return null;
+        }
+        var resource = outer.get(relativePath);
+        if (resource == null) {
+            return null;
+        }
+        try {
+            var attributes = resource.attributes();
+            if (attributes.crc32() == -1 || attributes.size() < 0) {
+                return null;
+            }
+            var outerPath = outer.getPrimaryPath().toRealPath();
+            return new Key(outerPath, FileIdentity.read(outerPath), relativePath, attributes.crc32(), attributes.size());
+        } catch (IOException e) {
+            LOGGER.debug("Not caching jar-in-jar {} of {}", relativePath, outer, e);
+            return null;
+        }
+    }
+
+    /**
+     * {@return the extracted file for the given nested jar, or {@code null} if it was not extracted before}
+     */
+    @Nullable
+    Extracted get(Key key) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        var file = entry.resolve(cacheDir);
+        try {
+            if (Files.size(file) == key.size()) {
+                return new Extracted(file, entry.checksum());
+            }
+        } catch (IOException ignored) {
+            // The file was deleted
+        }
+        entries.remove(key);
+        dirty = true;
+        return null;
+    }
+
+    /**
+     * Records that a nested jar was extracted to the file with the given checksum and file name.
+     */
+    void put(Key key, String checksum, String fileName) {
+        entries.put(key, new Entry(checksum, fileName));
+        dirty = true;
+    }
+
+    /**
+     * Protects an extracted file that was used by this launch from garbage collection, even if it is not indexed.
+     */
+    void markUsed(Path file) {
+        usedFiles.add(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Drops the entries of outer jars that changed or no longer exist, deletes extracted files that are no longer
+     * referenced, and saves the index if it changed.
+     */
+    void saveAndCollectGarbage() {
+        if (entries.keySet().removeIf(key -> !key.outerIdentity().equals(FileIdentity.tryRead(key.outerPath())))) {
+            dirty = true;
+        }
+
+        var referencedFiles = new HashSet<>(usedFiles);
+        for (var entry : entries.values()) {
+            referencedFiles.add(entry.resolve(cacheDir));
+        }
+        collectGarbage(referencedFiles);
+
+        if (dirty) {
+            save();
+            dirty = false;
+        }
+    }
+
+    private void collectGarbage(Set<Path> referencedFiles) {
+        var deleteBefore = Instant.now().minus(GARBAGE_GRACE_PERIOD);
+        try (var children = Files.newDirectoryStream(cacheDir)) {
+            for (var child : children) {
+                if (Files.isDirectory(child)) {
+                    if (collectGarbage(child, referencedFiles, deleteBefore)) {
+                        tryDelete(child);
+                    }
+                } else if (child.getFileName().toString().endsWith(".tmp")) {
+                    // Left behind by an extraction that was interrupted
+                    if (isUnreferencedBefore(child, referencedFiles, deleteBefore)) {
+                        tryDelete(child);
+                    }
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+            // Nothing was cached yet
+        } catch (IOException e) {
+            LOGGER.warn("Failed to collect garbage in jar-in-jar cache {}", cacheDir, e);
+        }
+    }
+
+    /**
+     * @return True if the folder is empty afterward.
+     */
+    private static boolean collectGarbage(Path folder, Set<Path> referencedFiles, Instant deleteBefore) throws IOException {
+        boolean empty = true;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder)) {
+            for (var file : files) {
+                if (!isUnreferencedBefore(file, referencedFiles, deleteBefore) || !tryDelete(file)) {
+                    empty = false;
+                }
+            }
+        }
+        return empty;
+    }
+
+    private static boolean isUnreferencedBefore(Path file, Set<Path> referencedFiles, Instant deleteBefore) {
+        if (referencedFiles.contains(file.toAbsolutePath().normalize())) {
+            return false;
+        }
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(deleteBefore);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean tryDelete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+            LOGGER.debug("Deleted unused jar-in-jar cache file {}", path);
+            return true;
+        } catch (IOException e) {
+            // The file may still be in use by another instance of the game
+            LOGGER.debug("Failed to delete unused jar-in-jar cache file {}", path, e);
+            return false;
+        }
+    }
+
+    private void save() {
+        var lines = new ArrayList<String>(entries.size() + 1);
+        lines.add(HEADER);
+        entries.forEach((key, entry) -> {
+            var outerPath = key.outerPath().toString();
+            if (isPersistable(outerPath) && isPersistable(key.entryPath())) {
+                var identity = key.outerIdentity();
+                lines.add(entry.checksum() + "\t" + entry.fileName() + "\t" + key.crc32() + "\t" + key.size() + "\t"
+                        + identity.size() + "\t" + identity.lastModified() + "\t" + (identity.fileKey() != null ? identity.fileKey() : "-") + "\t"
+                        + outerPath + "\t" + key.entryPath());
+            }
+        });
+
+        var indexFile = cacheDir.resolve(INDEX_FILE);
+        try {
+            Files.createDirectories(cacheDir);
+            var tempFile = Files.createTempFile(cacheDir, INDEX_FILE, ".tmp");
+            try {
+                Files.write(tempFile, lines);
+                try {
+                    Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to save jar-in-jar cache index to {}", indexFile, e);
+        }
+    }
+
+    private static boolean isPersistable(String value) {
+        return value.indexOf('\t') == -1 && value.indexOf('\n') == -1 && value.indexOf('\r') == -1;
+    }
+
+    /**
+     * Identifies a nested jar by the identity of its outer jar, its path in the outer jar, and the CRC-32 and size
+     * of its content.
+     */
+    record Key(Path outerPath, FileIdentity outerIdentity, String entryPath, long crc32, long size) {}
+
+    /**
+     * @param file     The extracted file.
+     * @param checksum The SHA-256 checksum of the content of the file.
+     */
+    record Extracted(Path file, String checksum) {}
+
+    /**
+     * The extracted file {@code <checksum>/<fileName>} in the cache folder.
+     */
+    private record Entry(String checksum, String fileName) {
+        Path resolve(Path cacheDir) {
+            return cacheDir.resolve(checksum).resolve(fileName);
+        }
+    }
+}
@@ -23,11 +23,15 @@ import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import net.neoforged.fml.ModLoadingException;
 import net.neoforged.fml.ModLoadingIssue;
+import net.neoforged.fml.jarcontents.JarChecksumCache;
 import net.neoforged.fml.jarcontents.JarContents;
+import net.neoforged.fml.jarcontents.NestedJarContents;
+import net.neoforged.fml.loading.FMLConfig;
 import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.fml.loading.moddiscovery.ModFile;
 import net.neoforged.fml.util.PathPrettyPrinting;
@@ -41,23 +45,33 @@ import net.neoforged.neoforgespi.locating.ModFileLoadingException;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
 import org.apache.maven.artifact.versioning.VersionRange;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 
 @ApiStatus.Internal
 public class JarInJarDependencyLocator implements IDependencyLocator {
     private static final Logger LOGGER = LogUtils.getLogger();
+    private static final AtomicInteger nestedJarReads = new AtomicInteger();
 
     record EmbeddedJarKey(IModFile modFile, String relativePath) {}
 
     @Override
     public void scanMods(List<IModFile> loadedMods, IDiscoveryPipeline pipeline) {
         Map<EmbeddedJarKey, IModFile> createdModFiles = new HashMap<>();
-        List<IModFile> dependenciesToLoad = JarSelector.detectAndSelect(
-                loadedMods,
-                this::loadResourceFromModFile,
-                (file, path) -> loadModFileFrom(file, path, pipeline, createdModFiles),
-                this::identifyMod,
-                this::exception);
+        var cache = JarInJarCache.load(FMLPaths.JIJ_CACHEDIR.get());
+        boolean inPlace = FMLConfig.getBoolConfigValue(FMLConfig.ConfigValue.IN_PLACE_JAR_IN_JAR);
+        List<IModFile> dependenciesToLoad;
+        try {
+            dependenciesToLoad = JarSelector.detectAndSelect(
+                    loadedMods,
+                    this::loadResourceFromModFile,
+                    (file, path) -> loadModFileFrom(file, path, pipeline, createdModFiles, cache, inPlace),
+                    this::identifyMod,
+                    this::exception);
+        } finally {
+            cache.saveAndCollectGarbage();
+        }
 
         if (dependenciesToLoad.isEmpty()) {
             LOGGER.info("No dependencies to load found. Skipping!");
@@ -74,45 +88,51 @@ public class JarInJarDependencyLocator implements IDependencyLocator {
     private Optional<IModFile> loadModFileFrom(IModFile file,
             String relativePath,
             IDiscoveryPipeline pipeline,
-            Map<EmbeddedJarKey, IModFile> createdModFiles) {
+            Map<EmbeddedJarKey, IModFile> createdModFiles,
+            JarInJarCache cache,
+            boolean inPlace) {
         var key = new EmbeddedJarKey(file, relativePath);
         var innerModFile = createdModFiles.computeIfAbsent(key, ignored -> {
-            // Copy it to disk as we go, while hashing it
-            var jijCacheDir = FMLPaths.JIJ_CACHEDIR.get();
-            Path tempFile;
-            try {
-                tempFile = Files.createTempFile(jijCacheDir, "_jij", ".tmp");
-            } catch (IOException e) {
-                throw new ModFileLoadingException("Failed to create a temporary file for JIJ in " + jijCacheDir + ": " + e);
+            // We must maintain the original filename, as it could be used to determine the module name and version
+            String filename = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+
+            // Jars stored without compression are read straight from the outer jar
+            if (inPlace) {
+                var nestedJar = openInPlace(file, relativePath);
+                if (nestedJar != null) {
+                    PathPrettyPrinting.addSubstitution(
+                            nestedJar.getPrimaryPath(), PathPrettyPrinting.prettyPrint(file.getFilePath()) + " > " + filename, "");
+                    return pipeline.readModFile(nestedJar, ModFileDiscoveryAttributes.DEFAULT.withParent(file));
+                }
             }
 
-            // Copy the file to the temp-file, while hashing it to produce its final filename
+            // Reuse the file extracted by a previous launch if the outer jar did not change since
+            var cacheKey = JarInJarCache.keyOf(file.getContents(), relativePath);
+            var cached = cacheKey != null ? cache.get(cacheKey) : null;
             Path finalPath;
-            try {
-                String checksum = extractEmbeddedJarFile(file, relativePath, tempFile);
-
-                // We must maintain the original filename, as it could be used to determine the module name and version
-                String filename = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+            String checksum;
+            if (cached != null) {
+                finalPath = cached.file();
+                checksum = cached.checksum();
+            } else {
+                var jijCacheDir = FMLPaths.JIJ_CACHEDIR.get();
+                checksum = extractEmbeddedJarFile(file, relativePath, jijCacheDir);
                 finalPath = jijCacheDir.resolve(checksum + "/" + filename);
-                // If the file already exists, reuse it, since it might already be opened.
-                if (!Files.isRegularFile(finalPath)) {
-                    moveExtractedFileIntoPlace(tempFile, finalPath);
-                }
-
-                // Mark the extracted file with its source for the duration of this session
-                PathPrettyPrinting.addSubstitution(
-                        finalPath, PathPrettyPrinting.prettyPrint(file.getFilePath()) + " > " + filename, "");
-            } finally {
-                try {
-                    Files.deleteIfExists(tempFile);
-                } catch (IOException e) {
-                    LOGGER.error("Failed to remove temporary file {}: {}", tempFile, e);
+                if (cacheKey != null) {
+                    cache.put(cacheKey, checksum, filename);
                 }
             }
+            cache.markUsed(finalPath);
+            // The checksum of the extracted file is already known, so it does not have to be hashed again
+            JarChecksumCache.record(finalPath, checksum);
+
+            // Mark the extracted file with its source for the duration of this session
+            PathPrettyPrinting.addSubstitution(
+                    finalPath, PathPrettyPrinting.prettyPrint(file.getFilePath()) + " > " + filename, "");
 
             JarContents jar;
             try {
-                jar = JarContents.ofPath(finalPath);
+                jar = pipeline.openJarContents(finalPath);
             } catch (IOException e) {
                 LOGGER.error("Failed to read Jar-in-Jar file {} extracted from mod file {} to {}", relativePath, file, finalPath, e);
                 throw new ModFileLoadingException("Failed to load mod file " + relativePath + " from " + file, e);
@@ -123,7 +143,63 @@ public class JarInJarDependencyLocator implements IDependencyLocator {
         return Optional.ofNullable(innerModFile);
     }
 
-    private static String extractEmbeddedJarFile(IModFile file, String relativePath, Path destination) {
+    @Nullable
+    private static NestedJarContents openInPlace(IModFile file, String relativePath) {
+        try {
+            return NestedJarContents.open(file.getContents(), relativePath);
+        } catch (NoSuchFileException e) {
+            LOGGER.error("Mod file {} declares Jar-in-Jar {} but does not contain it.", file, relativePath);
+            throw new ModFileLoadingException("Mod file " + file + " declares Jar-in-Jar " + relativePath + " but does not contain it.");
+        } catch (IOException e) {
+            LOGGER.error("Failed to read Jar-in-Jar file {} in place from mod file {}", relativePath, file, e);
+            throw new ModFileLoadingException("Failed to load mod file " + relativePath + " from " + file, e);
+        }
+    }
+
+    /**
+     * Extracts an embedded jar into the given cache folder, at {@code <checksum>/<filename>}.
+     *
+     * @return The SHA-256 checksum of the embedded jar.
+     */
+    private static String extractEmbeddedJarFile(IModFile file, String relativePath, Path jijCacheDir) {
+        // Copy it to disk as we go, while hashing it
+        Path tempFile;
+        try {
+            tempFile = Files.createTempFile(jijCacheDir, "_jij", ".tmp");
+        } catch (IOException e) {
+            throw new ModFileLoadingException("Failed to create a temporary file for JIJ in " + jijCacheDir + ": " + e);
+        }
+
+        // Copy the file to the temp-file, while hashing it to produce its final filename
+        try {
+            nestedJarReads.incrementAndGet();
+            String checksum = copyEmbeddedJarFile(file, relativePath, tempFile);
+
+            String filename = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+            var finalPath = jijCacheDir.resolve(checksum + "/" + filename);
+            // If the file already exists, reuse it, since it might already be opened.
+            if (!Files.isRegularFile(finalPath)) {
+                moveExtractedFileIntoPlace(tempFile, finalPath);
+            }
+            return checksum;
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                LOGGER.error("Failed to remove temporary file {}: {}", tempFile, e);
+            }
+        }
+    }
+
+    /**
+     * {@return how many embedded jars were read from their outer jars since the game was started}
+     */
+    @VisibleForTesting
+    public static int getNestedJarReads() {
+        return nestedJarReads.get();
+    }
+
+    private static String copyEmbeddedJarFile(IModFile file, String relativePath, Path destination) {
         try (var inStream = file.getContents().openFile(relativePath); var outStream = Files.newOutputStream(destination)) {
             if (inStream == null) {
                 LOGGER.error("Mod file {} declares Jar-in-Jar {} but does not contain it.", file, relativePath);
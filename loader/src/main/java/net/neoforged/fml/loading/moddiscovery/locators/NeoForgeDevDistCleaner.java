@@ -19,6 +19,7 @@ import net.neoforged.fml.ModLoadingIssue;
 import net.neoforged.fml.jarcontents.JarContents;
 import net.neoforged.neoforgespi.transformation.ClassProcessor;
 import net.neoforged.neoforgespi.transformation.ClassProcessorIds;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
 import net.neoforged.neoforgespi.transformation.ProcessorName;
 import org.jetbrains.annotations.ApiStatus;
 import org.slf4j.Logger;
@@ -79,6 +80,16 @@ public class NeoForgeDevDistCleaner implements ClassProcessor {
         return ComputeFlags.NO_REWRITE;
     }
 
+    @Override
+    public ClassTargeting targeting() {
+        return ClassTargeting.classes(maskedClasses);
+    }
+
+    @Override
+    public Set<ParseRequirement> parseRequirements() {
+        return ParseRequirement.NONE;
+    }
+
     @Override
     public boolean handlesClass(SelectionContext context) {
         if (maskedClasses.contains(context.type().getClassName())) {
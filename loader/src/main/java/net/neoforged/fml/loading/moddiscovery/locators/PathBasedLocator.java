@@ -23,9 +23,7 @@ public record PathBasedLocator(String name, List<Path> paths) implements IModFil
 
     @Override
     public void findCandidates(ILaunchContext context, IDiscoveryPipeline pipeline) {
-        for (var path : paths) {
-            pipeline.addPath(path, ModFileDiscoveryAttributes.DEFAULT, IncompatibleFileReporting.ERROR);
-        }
+        pipeline.addPaths(paths, ModFileDiscoveryAttributes.DEFAULT, IncompatibleFileReporting.ERROR);
     }
 
     @Override
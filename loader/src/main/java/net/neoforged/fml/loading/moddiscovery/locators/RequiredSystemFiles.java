@@ -100,7 +100,7 @@ final class RequiredSystemFiles implements AutoCloseable {
             result.clientResources = findAndOpen(context, loader, locatedRoots, CLIENT_RESOURCE_ROOT);
             result.neoForgeCommonClasses = findAndOpen(context, loader, locatedRoots, NEOFORGE_COMMON_CLASS);
             result.neoForgeClientClasses = findAndOpen(context, loader, locatedRoots, NEOFORGE_CLIENT_CLASS);
-            result.neoForgeResources = findNeoForgeResources(locatedRoots, loader);
+            result.neoForgeResources = findNeoForgeResources(context, locatedRoots, loader);
         } catch (Exception e) {
             closeAll(locatedRoots);
             throw e;
@@ -108,7 +108,7 @@ final class RequiredSystemFiles implements AutoCloseable {
         return result;
     }
 
-    private static JarContents findNeoForgeResources(List<JarContents> locatedRoots, ClassLoader loader) {
+    private static JarContents findNeoForgeResources(ILaunchContext context, List<JarContents> locatedRoots, ClassLoader loader) {
         // Check if any of the opened jar files already pointed to the Manifest.
         // If the NeoForge classes are already packaged into a jar, it will contain the manifest too.
         for (var root : locatedRoots) {
@@ -128,7 +128,7 @@ final class RequiredSystemFiles implements AutoCloseable {
             }
 
             if (isNeoForgeManifest(manifestRoot.resolve(JarModsDotTomlModFileReader.MANIFEST))) {
-                return openOrThrow(manifestRoot);
+                return openOrThrow(context, manifestRoot);
             }
         }
 
@@ -153,7 +153,7 @@ final class RequiredSystemFiles implements AutoCloseable {
             // The obfuscated client jar is on the classpath in production, and we mark it as located earlier.
             // This check prevents us trying to load our files from it.
             if (!context.isLocated(path)) {
-                var jar = openOrThrow(path);
+                var jar = openOrThrow(context, path);
                 alreadyOpened.add(jar);
                 return jar;
             }
@@ -162,9 +162,9 @@ final class RequiredSystemFiles implements AutoCloseable {
         return null;
     }
 
-    private static JarContents openOrThrow(Path root) {
+    private static JarContents openOrThrow(ILaunchContext context, Path root) {
         try {
-            return JarContents.ofPath(root);
+            return JarContents.ofPath(root, context.jarContentsOptions());
         } catch (IOException e) {
             throw new ModLoadingException(ModLoadingIssue.error("fml.modloadingissue.corrupted_minecraft_jar").withAffectedPath(root).withCause(e));
         }
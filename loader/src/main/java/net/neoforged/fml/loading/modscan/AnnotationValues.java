@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading.modscan;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the values of scanned annotations compactly. Value maps and lists are copied into immutable collections,
+ * which do not allocate an entry per value, and equal value maps, such as the values of an annotation that is used
+ * with the same arguments on many classes, are shared through a weak interner.
+ */
+final class AnnotationValues {
+    private static final Interner<Map<String, Object>> INTERNER = Interners.newWeakInterner();
+
+    private AnnotationValues() {}
+
+    static Map<String, Object> compact(Map<String, Object> values) {
+        if (values.isEmpty()) {
+            return Map.of();
+        }
+        var compacted = HashMap.<String, Object>newHashMap(values.size());
+        values.forEach((key, value) -> compacted.put(key, compactValue(value)));
+        return INTERNER.intern(Map.copyOf(compacted));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object compactValue(Object value) {
+        return switch (value) {
+            case Map<?, ?> map -> compact((Map<String, Object>) map);
+            case List<?> list -> list.stream().map(AnnotationValues::compactValue).toList();
+            default -> value;
+        };
+    }
+}
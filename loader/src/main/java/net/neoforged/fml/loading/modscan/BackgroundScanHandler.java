@@ -6,17 +6,31 @@
 package net.neoforged.fml.loading.modscan;
 
 import com.mojang.logging.LogUtils;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import net.neoforged.fml.loading.FMLConfig;
+import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.fml.loading.LogMarkers;
+import net.neoforged.fml.loading.StartupWait;
 import net.neoforged.fml.loading.moddiscovery.ModFile;
+import net.neoforged.neoforgespi.language.ModFileScanData;
 import net.neoforged.neoforgespi.locating.IModFile;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 public class BackgroundScanHandler {
@@ -30,20 +44,30 @@ public class BackgroundScanHandler {
     }
 
     private static final Logger LOGGER = LogUtils.getLogger();
-    private final ExecutorService modContentScanner;
+    private static final Duration TICK_INTERVAL = Duration.ofMillis(50);
+    private final ForkJoinPool modContentScanner;
+    private final int poolSize;
+    private final long startTime;
+    private final AtomicLong endTime = new AtomicLong();
+    private final Queue<ScanWorkerThread> workers = new ConcurrentLinkedQueue<>();
+    private final List<CompletionStage<ModFileScanData>> scans = new ArrayList<>();
+    @Nullable
+    private final ScanDataCache cache;
     private ScanStatus status;
 
     public BackgroundScanHandler(Collection<IModFile> modFiles) {
         int maxThreads = FMLConfig.getIntConfigValue(FMLConfig.ConfigValue.MAX_THREADS);
         // Leave 1 thread for Minecraft's own bootstrap
-        int poolSize = Math.max(1, maxThreads - 1);
+        poolSize = Math.max(1, maxThreads - 1);
+        startTime = System.nanoTime();
+        // Mod files are scanned in chunks of classes, which idle workers steal from the workers scanning large files
         AtomicInteger threadCount = new AtomicInteger();
-        modContentScanner = Executors.newFixedThreadPool(poolSize, r -> {
-            Thread thread = Executors.defaultThreadFactory().newThread(r);
-            thread.setDaemon(true);
+        modContentScanner = new ForkJoinPool(poolSize, pool -> {
+            var thread = new ScanWorkerThread(pool);
+            workers.add(thread);
             thread.setName("background-scan-handler-" + threadCount.getAndIncrement());
             return thread;
-        });
+        }, null, true);
         status = ScanStatus.NOT_STARTED;
 
         if (modContentScanner.isShutdown()) {
@@ -51,10 +75,26 @@ public class BackgroundScanHandler {
             throw new IllegalStateException("Scanner has shutdown");
         }
 
+        cache = FMLConfig.getBoolConfigValue(FMLConfig.ConfigValue.SCAN_DATA_CACHE) ? ScanDataCache.open(FMLPaths.SCAN_DATA_CACHEDIR.get()) : null;
+
         status = ScanStatus.RUNNING;
         for (var modFile : modFiles) {
-            ((ModFile) modFile).startScan(modContentScanner)
-                    .whenComplete((ignored, t) -> this.logFailure(modFile, t));
+            var scan = ((ModFile) modFile).startScan(modContentScanner, cache);
+            scan.whenComplete((ignored, t) -> {
+                this.logFailure(modFile, t);
+                endTime.accumulateAndGet(System.nanoTime(), Math::max);
+            });
+            scans.add(scan);
+        }
+    }
+
+    /**
+     * Passes the result of every successful scan to the given consumer, as soon as the scan completes. Results of
+     * scans that have already completed are passed immediately, others on the thread that completes them.
+     */
+    public void forEachScanResult(Consumer<ModFileScanData> consumer) {
+        for (var scan : scans) {
+            scan.thenAccept(consumer);
         }
     }
 
@@ -67,18 +107,102 @@ public class BackgroundScanHandler {
 
     public void waitForScanToComplete(Runnable ticker) {
         boolean timeoutActive = System.getProperty("fml.disableScanTimeout") == null;
-        Instant deadline = Instant.now().plus(Duration.ofMinutes(10));
         modContentScanner.shutdown();
-        do {
-            ticker.run();
-            try {
-                status = modContentScanner.awaitTermination(50, TimeUnit.MILLISECONDS) ? ScanStatus.COMPLETE : ScanStatus.RUNNING;
-            } catch (InterruptedException e) {
-                status = ScanStatus.INTERRUPTED;
-            }
-            if (timeoutActive && Instant.now().isAfter(deadline)) status = ScanStatus.TIMED_OUT;
-        } while (status == ScanStatus.RUNNING);
-        if (status == ScanStatus.INTERRUPTED) Thread.currentThread().interrupt();
+        // Completes once every scan has completed, and exceptionally if any of them failed
+        var allScans = CompletableFuture.allOf(scans.stream()
+                .map(CompletionStage::toCompletableFuture)
+                .toArray(CompletableFuture[]::new));
+        try {
+            StartupWait.await("mod file scan", allScans, ticker, TICK_INTERVAL, timeoutActive ? Duration.ofMinutes(10) : null);
+            status = ScanStatus.COMPLETE;
+        } catch (InterruptedException e) {
+            status = ScanStatus.INTERRUPTED;
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            status = ScanStatus.TIMED_OUT;
+        } catch (ExecutionException e) {
+            // The failed scans were already logged by logFailure
+            status = ScanStatus.ERRORED;
+        }
         if (status != ScanStatus.COMPLETE) throw new IllegalStateException("Failed to complete mod scan");
+        if (cache != null) {
+            cache.collectGarbage();
+        }
+        if (LOGGER.isDebugEnabled(LogMarkers.SCAN)) {
+            logParallelism();
+            logFootprint();
+        }
+    }
+
+    /**
+     * Logs how many workers were busy on average, measured as the CPU time used by the workers over the time it
+     * took to complete all scans.
+     */
+    private void logParallelism() {
+        long elapsed = (scans.isEmpty() ? System.nanoTime() : endTime.get()) - startTime;
+        long cpuTime = 0;
+        for (var worker : workers) {
+            long workerCpuTime = worker.getCpuTime();
+            if (workerCpuTime < 0) {
+                cpuTime = -1;
+                break;
+            }
+            cpuTime += workerCpuTime;
+        }
+        if (cpuTime < 0) {
+            LOGGER.debug(LogMarkers.SCAN, "Completed scanning {} mod files in {} ms with {} workers", scans.size(), elapsed / 1_000_000, poolSize);
+        } else {
+            LOGGER.debug(LogMarkers.SCAN, "Completed scanning {} mod files in {} ms with {} workers, achieving an average parallelism of {}",
+                    scans.size(), elapsed / 1_000_000, poolSize, String.format(Locale.ROOT, "%.2f", cpuTime / (double) Math.max(1, elapsed)));
+        }
+    }
+
+    private void logFootprint() {
+        var results = new ArrayList<ModFileScanData>(scans.size());
+        for (var scan : scans) {
+            var future = scan.toCompletableFuture();
+            if (!future.isCompletedExceptionally()) {
+                results.add(future.join());
+            }
+        }
+        var footprint = ScanDataFootprint.of(results);
+        LOGGER.debug(LogMarkers.SCAN, "Scan data of {} mod files holds {} classes, {} annotations and {} distinct types in approximately {} KiB",
+                results.size(), footprint.classes(), footprint.annotations(), footprint.distinctTypes(), footprint.estimatedBytes() / 1024);
+    }
+
+    /**
+     * Remembers its CPU time when it terminates, since the CPU time of a terminated thread cannot be queried.
+     */
+    private static final class ScanWorkerThread extends ForkJoinWorkerThread {
+        private static final long UNKNOWN = Long.MIN_VALUE;
+        private volatile long terminatedCpuTime = UNKNOWN;
+
+        private ScanWorkerThread(ForkJoinPool pool) {
+            super(pool);
+            setDaemon(true);
+        }
+
+        /**
+         * {@return the CPU time used by this worker so far, or -1 if it cannot be measured}
+         */
+        private long getCpuTime() {
+            long cpuTime = terminatedCpuTime;
+            if (cpuTime == UNKNOWN) {
+                var threadMXBean = ManagementFactory.getThreadMXBean();
+                cpuTime = threadMXBean.isThreadCpuTimeSupported() ? threadMXBean.getThreadCpuTime(threadId()) : -1;
+                // The worker may have terminated in the meantime
+                if (cpuTime < 0 && terminatedCpuTime != UNKNOWN) {
+                    cpuTime = terminatedCpuTime;
+                }
+            }
+            return cpuTime;
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            var threadMXBean = ManagementFactory.getThreadMXBean();
+            terminatedCpuTime = threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : -1;
+            super.onTermination(exception);
+        }
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading.modscan;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decides from the raw constant pool of a class file whether the class may carry annotations, without parsing it.
+ * <p>
+ * The name of every attribute in a class file is stored in its constant pool. A class without any of the
+ * {@code RuntimeVisibleAnnotations} or {@code RuntimeInvisibleAnnotations} attribute names in its constant pool has no
+ * annotations on the class, its fields or its methods, so the {@linkplain ModClassVisitor visitor} would only record
+ * its header. The names of the attributes that add flags to the access flags reported by ASM are treated the same
+ * way, so that the access flags taken from the header match those reported by the visitor.
+ */
+final class ClassFilePrefilter {
+    private static final byte[][] ATTRIBUTE_NAMES = {
+            utf8("RuntimeVisibleAnnotations"),
+            utf8("RuntimeInvisibleAnnotations"),
+            // ASM reports these attributes as ACC_DEPRECATED, ACC_SYNTHETIC and ACC_RECORD
+            utf8("Deprecated"),
+            utf8("Synthetic"),
+            utf8("Record"),
+    };
+
+    private ClassFilePrefilter() {}
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@return false if the class file certainly has no annotations, true if it may have some or cannot be read}
+     */
+    static boolean mayHaveAnnotations(byte[] classFile) {
+        if (classFile.length < 10 || readInt(classFile, 0) != 0xCAFEBABE) {
+            return true;
+        }
+        int count = readUnsignedShort(classFile, 8);
+        int offset = 10;
+        for (int i = 1; i < count; i++) {
+            if (offset >= classFile.length) {
+                return true;
+            }
+            int tag = classFile[offset++];
+            switch (tag) {
+                case 1 -> { // CONSTANT_Utf8
+                    if (offset + 2 > classFile.length) {
+                        return true;
+                    }
+                    int length = readUnsignedShort(classFile, offset);
+                    offset += 2;
+                    if (offset + length > classFile.length || isAttributeName(classFile, offset, length)) {
+                        return true;
+                    }
+                    offset += length;
+                }
+                // CONSTANT_Integer, CONSTANT_Float, CONSTANT_Fieldref, CONSTANT_Methodref, CONSTANT_InterfaceMethodref,
+                // CONSTANT_NameAndType, CONSTANT_Dynamic, CONSTANT_InvokeDynamic
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> offset += 4;
+                // CONSTANT_Long, CONSTANT_Double, which take up two entries
+                case 5, 6 -> {
+                    offset += 8;
+                    i++;
+                }
+                // CONSTANT_Class, CONSTANT_String, CONSTANT_MethodType, CONSTANT_Module, CONSTANT_Package
+                case 7, 8, 16, 19, 20 -> offset += 2;
+                // CONSTANT_MethodHandle
+                case 15 -> offset += 3;
+                default -> {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAttributeName(byte[] classFile, int offset, int length) {
+        for (var name : ATTRIBUTE_NAMES) {
+            if (name.length == length && Arrays.equals(classFile, offset, offset + length, name, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int readUnsignedShort(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        return (readUnsignedShort(b, offset) << 16) | readUnsignedShort(b, offset + 2);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading.modscan;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.objectweb.asm.Type;
+
+/**
+ * Creates the {@link Type types} of scan results through a shared weak interner, so that a type that occurs in many
+ * classes and mod files, such as the type of a commonly used annotation, is held in memory only once.
+ */
+final class InternedTypes {
+    private static final Interner<Type> INTERNER = Interners.newWeakInterner();
+
+    private InternedTypes() {}
+
+    static Type getType(String descriptor) {
+        return INTERNER.intern(Type.getType(descriptor));
+    }
+
+    static Type getObjectType(String internalName) {
+        return INTERNER.intern(Type.getObjectType(internalName));
+    }
+
+    static Type intern(Type type) {
+        return INTERNER.intern(type);
+    }
+}
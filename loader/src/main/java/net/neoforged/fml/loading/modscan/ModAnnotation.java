@@ -16,7 +16,7 @@ import org.objectweb.asm.Type;
 
 public class ModAnnotation {
     public static ModFileScanData.AnnotationData fromModAnnotation(Type clazz, ModAnnotation annotation) {
-        return new ModFileScanData.AnnotationData(annotation.asmType, annotation.type, clazz, annotation.member, annotation.values);
+        return new ModFileScanData.AnnotationData(annotation.asmType, annotation.type, clazz, annotation.member, AnnotationValues.compact(annotation.values));
     }
 
     public record EnumHolder(String desc, String value) {}
@@ -90,7 +90,7 @@ public class ModAnnotation {
     }
 
     public ModAnnotation addChildAnnotation(String name, String desc) {
-        ModAnnotation child = new ModAnnotation(Type.getType(desc), this);
+        ModAnnotation child = new ModAnnotation(InternedTypes.getType(desc), this);
         addProperty(name, child.getValues());
         return child;
     }
@@ -8,6 +8,7 @@ package net.neoforged.fml.loading.modscan;
 import java.util.LinkedList;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
 
 public class ModAnnotationVisitor extends AnnotationVisitor {
     private final ModAnnotation annotation;
@@ -36,7 +37,7 @@ public class ModAnnotationVisitor extends AnnotationVisitor {
 
     @Override
     public void visit(String key, Object value) {
-        annotation.addProperty(key, value);
+        annotation.addProperty(key, value instanceof Type type ? InternedTypes.intern(type) : value);
     }
 
     @Override
@@ -30,14 +30,14 @@ public class ModClassVisitor extends ClassVisitor {
 
     @Override
     public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
-        this.asmType = Type.getObjectType(name);
-        this.asmSuperType = superName != null && !superName.isEmpty() ? Type.getObjectType(superName) : null;
-        this.interfaces = Stream.of(interfaces).map(Type::getObjectType).collect(Collectors.toSet());
+        this.asmType = InternedTypes.getObjectType(name);
+        this.asmSuperType = superName != null && !superName.isEmpty() ? InternedTypes.getObjectType(superName) : null;
+        this.interfaces = Stream.of(interfaces).map(InternedTypes::getObjectType).collect(Collectors.toSet());
     }
 
     @Override
     public AnnotationVisitor visitAnnotation(String annotationName, boolean runtimeVisible) {
-        ModAnnotation ann = new ModAnnotation(ElementType.TYPE, Type.getType(annotationName), this.asmType.getClassName());
+        ModAnnotation ann = new ModAnnotation(ElementType.TYPE, InternedTypes.getType(annotationName), this.asmType.getClassName());
         annotations.addFirst(ann);
         return new ModAnnotationVisitor(annotations, ann);
     }
@@ -10,7 +10,6 @@ import java.util.LinkedList;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
 
 public class ModFieldVisitor extends FieldVisitor {
     private final LinkedList<ModAnnotation> annotations;
@@ -24,7 +23,7 @@ public class ModFieldVisitor extends FieldVisitor {
 
     @Override
     public AnnotationVisitor visitAnnotation(String annotationName, boolean runtimeVisible) {
-        ModAnnotation ann = new ModAnnotation(ElementType.FIELD, Type.getType(annotationName), fieldName);
+        ModAnnotation ann = new ModAnnotation(ElementType.FIELD, InternedTypes.getType(annotationName), fieldName);
         annotations.addFirst(ann);
         return new ModAnnotationVisitor(annotations, ann);
     }
@@ -10,7 +10,6 @@ import java.util.LinkedList;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
 
 public class ModMethodVisitor extends MethodVisitor {
     private final LinkedList<ModAnnotation> annotations;
@@ -26,7 +25,7 @@ public class ModMethodVisitor extends MethodVisitor {
 
     @Override
     public AnnotationVisitor visitAnnotation(String annotationName, boolean runtimeVisible) {
-        ModAnnotation ann = new ModAnnotation(ElementType.METHOD, Type.getType(annotationName), methodName + methodDescriptor);
+        ModAnnotation ann = new ModAnnotation(ElementType.METHOD, InternedTypes.getType(annotationName), methodName + methodDescriptor);
         annotations.addFirst(ann);
         return new ModAnnotationVisitor(annotations, ann);
     }
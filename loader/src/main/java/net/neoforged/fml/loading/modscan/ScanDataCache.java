@@ -0,0 +1,635 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading.modscan;
+
+import com.mojang.logging.LogUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import net.neoforged.fml.FMLVersion;
+import net.neoforged.neoforgespi.language.ModFileScanData;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+
+/**
+ * An on-disk cache of the {@linkplain Scanner scan results} of mod files, keyed by the checksum of the mod file and
+ * the {@linkplain Scanner#VERSION version of the scanner}.
+ * <p>
+ * Each entry is a compact binary file holding the classes and annotations of one mod file. Strings and types are
+ * written once into a string pool and referenced by index. Entries repeat their key, the FML version that wrote them
+ * and a checksum of their content, so that entries that are stale or corrupted are discarded and the mod file is
+ * simply scanned again. The {@linkplain ModFileScanData#getIModInfoData() mod file info} is not cached.
+ * <p>
+ * Entries that were not used by a launch are deleted by {@link #collectGarbage()} once they are old enough.
+ */
+@ApiStatus.Internal
+public final class ScanDataCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int MAGIC = 0x464D4C53; // FMLS
+    private static final int FORMAT_VERSION = 3;
+    private static final Pattern CHECKSUM_PATTERN = Pattern.compile("[0-9a-fA-F]{16,128}");
+    private static final ElementType[] ELEMENT_TYPES = ElementType.values();
+    private static final AtomicInteger hits = new AtomicInteger();
+    /**
+     * Unused entries are only deleted once they are this old, since another instance of the game may be using the
+     * same cache folder.
+     */
+    private static final Duration GARBAGE_GRACE_PERIOD = Duration.ofDays(1);
+
+    // Tags of annotation values
+    private static final int TAG_BOOLEAN = 0;
+    private static final int TAG_BYTE = 1;
+    private static final int TAG_CHAR = 2;
+    private static final int TAG_SHORT = 3;
+    private static final int TAG_INT = 4;
+    private static final int TAG_LONG = 5;
+    private static final int TAG_FLOAT = 6;
+    private static final int TAG_DOUBLE = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_TYPE = 9;
+    private static final int TAG_ENUM = 10;
+    private static final int TAG_ANNOTATION = 11;
+    private static final int TAG_LIST = 12;
+    private static final int TAG_BOOLEAN_ARRAY = 13;
+    private static final int TAG_BYTE_ARRAY = 14;
+    private static final int TAG_CHAR_ARRAY = 15;
+    private static final int TAG_SHORT_ARRAY = 16;
+    private static final int TAG_INT_ARRAY = 17;
+    private static final int TAG_LONG_ARRAY = 18;
+    private static final int TAG_FLOAT_ARRAY = 19;
+    private static final int TAG_DOUBLE_ARRAY = 20;
+
+    private final Path directory;
+    private final Set<Path> usedEntries = ConcurrentHashMap.newKeySet();
+
+    private ScanDataCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the cache in the given directory, which is created when the first entry is written.
+     */
+    public static ScanDataCache open(Path directory) {
+        return new ScanDataCache(directory);
+    }
+
+    /**
+     * {@return how many scan results were read from the cache since the game was started}
+     */
+    @VisibleForTesting
+    public static int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * {@return the cached scan result of the mod file with the given checksum, or null if there is no valid entry}
+     * The returned scan result does not contain any mod file info.
+     */
+    @Nullable
+    public ModFileScanData get(String checksum) {
+        if (!CHECKSUM_PATTERN.matcher(checksum).matches()) {
+            return null;
+        }
+        var file = getEntryPath(checksum);
+        usedEntries.add(file);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.debug("Failed to read scan data cache entry {}", file, e);
+            return null;
+        }
+
+        try {
+            var result = readEntry(checksum, content);
+            hits.incrementAndGet();
+            return result;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Discarding corrupted scan data cache entry {}: {}", file, e.toString());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {}
+            return null;
+        }
+    }
+
+    /**
+     * Stores the scan result of the mod file with the given checksum. Scan results that hold annotation values of
+     * an unknown type are not stored.
+     */
+    public void put(String checksum, ModFileScanData scanData) {
+        if (!CHECKSUM_PATTERN.matcher(checksum).matches()) {
+            return;
+        }
+        var file = getEntryPath(checksum);
+        usedEntries.add(file);
+        byte[] content;
+        try {
+            content = writeEntry(checksum, scanData);
+        } catch (IOException e) {
+            LOGGER.debug("Not caching scan data of mod file with checksum {}: {}", checksum, e.getMessage());
+            return;
+        }
+
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.write(tempFile, content);
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Failed to write scan data cache entry {}", file, e);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Deletes the entries and leftover temporary files that were not used since this cache was opened, and were
+     * last modified before the grace period. Must only be called once all mod files were scanned.
+     */
+    public void collectGarbage() {
+        var deleteBefore = Instant.now().minus(GARBAGE_GRACE_PERIOD);
+        try (var files = Files.newDirectoryStream(directory)) {
+            for (var file : files) {
+                var fileName = file.getFileName().toString();
+                if ((fileName.endsWith(".bin") || fileName.endsWith(".tmp")) && isUnusedBefore(file, deleteBefore)) {
+                    try {
+                        Files.deleteIfExists(file);
+                        LOGGER.debug("Deleted unused scan data cache entry {}", file);
+                    } catch (IOException e) {
+                        // The file may still be in use by another instance of the game
+                        LOGGER.debug("Failed to delete unused scan data cache entry {}", file, e);
+                    }
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+            // Nothing was cached yet
+        } catch (IOException e) {
+            LOGGER.warn("Failed to collect garbage in scan data cache {}", directory, e);
+        }
+    }
+
+    private boolean isUnusedBefore(Path file, Instant deleteBefore) {
+        if (usedEntries.contains(file)) {
+            return false;
+        }
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(deleteBefore);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path getEntryPath(String checksum) {
+        return directory.resolve(checksum.toLowerCase(Locale.ROOT) + "-" + Scanner.VERSION + ".bin");
+    }
+
+    private static byte[] writeEntry(String checksum, ModFileScanData scanData) throws IOException {
+        var body = new EntryWriter();
+        body.writeVarInt(scanData.getClasses().size());
+        for (var classData : scanData.getClasses()) {
+            body.writeType(classData.clazz());
+            body.writeType(classData.parent());
+            body.writeVarInt(classData.interfaces().size());
+            for (var itf : classData.interfaces()) {
+                body.writeType(itf);
+            }
+            body.out.writeBoolean(scanData.getInterfaceClasses().contains(classData.clazz()));
+        }
+        body.writeVarInt(scanData.getAnnotations().size());
+        for (var annotation : scanData.getAnnotations()) {
+            body.writeType(annotation.annotationType());
+            body.writeVarInt(annotation.targetType().ordinal());
+            body.writeType(annotation.clazz());
+            body.writeString(annotation.memberName());
+            body.writeValues(annotation.annotationData());
+        }
+        body.out.flush();
+
+        var bout = new ByteArrayOutputStream(body.bytes.size() + body.strings.size() * 32 + 128);
+        try (var out = new DataOutputStream(bout)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(FMLVersion.getVersion());
+            out.writeInt(Scanner.VERSION);
+            out.writeUTF(checksum);
+            out.writeInt(body.strings.size());
+            for (var string : body.strings.keySet()) {
+                out.writeUTF(string);
+            }
+            body.bytes.writeTo(out);
+            var crc = new CRC32();
+            crc.update(bout.toByteArray());
+            out.writeLong(crc.getValue());
+        }
+        return bout.toByteArray();
+    }
+
+    private static ModFileScanData readEntry(String checksum, byte[] content) throws IOException {
+        if (content.length < Long.BYTES) {
+            throw new IOException("Truncated entry");
+        }
+        var crc = new CRC32();
+        crc.update(content, 0, content.length - Long.BYTES);
+
+        try (var in = new DataInputStream(new ByteArrayInputStream(content, 0, content.length - Long.BYTES))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Invalid magic");
+            }
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported format version");
+            }
+            if (!FMLVersion.getVersion().equals(in.readUTF())) {
+                throw new IOException("Written by another FML version");
+            }
+            if (in.readInt() != Scanner.VERSION) {
+                throw new IOException("Written by another scanner version");
+            }
+            if (!checksum.equals(in.readUTF())) {
+                throw new IOException("Key mismatch");
+            }
+            var stringCount = in.readInt();
+            if (stringCount < 0 || stringCount > content.length) {
+                throw new IOException("Invalid string pool size");
+            }
+            var strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                strings[i] = in.readUTF();
+            }
+            var reader = new EntryReader(in, strings);
+
+            var result = new ModFileScanData();
+            var classCount = reader.readCount();
+            for (int i = 0; i < classCount; i++) {
+                var clazz = reader.readType();
+                var parent = reader.readType();
+                var interfaceCount = reader.readCount();
+                var interfaces = new HashSet<Type>(interfaceCount);
+                for (int j = 0; j < interfaceCount; j++) {
+                    interfaces.add(reader.readType());
+                }
+                result.getClasses().add(new ModFileScanData.ClassData(clazz, parent, interfaces));
+                if (in.readBoolean()) {
+                    result.getInterfaceClasses().add(clazz);
+                }
+            }
+            var annotationCount = reader.readCount();
+            for (int i = 0; i < annotationCount; i++) {
+                var annotationType = reader.readType();
+                var targetOrdinal = reader.readVarInt();
+                if (targetOrdinal < 0 || targetOrdinal >= ELEMENT_TYPES.length) {
+                    throw new IOException("Invalid element type " + targetOrdinal);
+                }
+                var clazz = reader.readType();
+                var memberName = reader.readString();
+                var values = AnnotationValues.compact(reader.readValues());
+                result.getAnnotations().add(new ModFileScanData.AnnotationData(annotationType, ELEMENT_TYPES[targetOrdinal], clazz, memberName, values));
+            }
+            if (in.available() != 0) {
+                throw new IOException("Trailing data");
+            }
+            if (ByteBuffer.wrap(content).getLong(content.length - Long.BYTES) != crc.getValue()) {
+                throw new IOException("Checksum mismatch");
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Writes the body of an entry, collecting the strings it references into the string pool.
+     */
+    private static final class EntryWriter {
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        /**
+         * Writes the index of the string in the pool, plus one, or zero for null.
+         */
+        void writeString(@Nullable String value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+            } else {
+                writeVarInt(strings.computeIfAbsent(value, ignored -> strings.size()) + 1);
+            }
+        }
+
+        void writeType(@Nullable Type type) throws IOException {
+            writeString(type != null ? type.getDescriptor() : null);
+        }
+
+        void writeValues(Map<String, Object> values) throws IOException {
+            writeVarInt(values.size());
+            for (var entry : values.entrySet()) {
+                writeString(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void writeValue(Object value) throws IOException {
+            switch (value) {
+                case Boolean b -> {
+                    out.writeByte(TAG_BOOLEAN);
+                    out.writeBoolean(b);
+                }
+                case Byte b -> {
+                    out.writeByte(TAG_BYTE);
+                    out.writeByte(b);
+                }
+                case Character c -> {
+                    out.writeByte(TAG_CHAR);
+                    out.writeChar(c);
+                }
+                case Short s -> {
+                    out.writeByte(TAG_SHORT);
+                    out.writeShort(s);
+                }
+                case Integer i -> {
+                    out.writeByte(TAG_INT);
+                    out.writeInt(i);
+                }
+                case Long l -> {
+                    out.writeByte(TAG_LONG);
+                    out.writeLong(l);
+                }
+                case Float f -> {
+                    out.writeByte(TAG_FLOAT);
+                    out.writeFloat(f);
+                }
+                case Double d -> {
+                    out.writeByte(TAG_DOUBLE);
+                    out.writeDouble(d);
+                }
+                case String s -> {
+                    out.writeByte(TAG_STRING);
+                    writeString(s);
+                }
+                case Type t -> {
+                    out.writeByte(TAG_TYPE);
+                    writeType(t);
+                }
+                case ModAnnotation.EnumHolder e -> {
+                    out.writeByte(TAG_ENUM);
+                    writeString(e.desc());
+                    writeString(e.value());
+                }
+                case Map<?, ?> m -> {
+                    out.writeByte(TAG_ANNOTATION);
+                    writeValues((Map<String, Object>) m);
+                }
+                case List<?> l -> {
+                    out.writeByte(TAG_LIST);
+                    writeVarInt(l.size());
+                    for (var element : l) {
+                        writeValue(element);
+                    }
+                }
+                case boolean[] a -> {
+                    out.writeByte(TAG_BOOLEAN_ARRAY);
+                    writeVarInt(a.length);
+                    for (var element : a) {
+                        out.writeBoolean(element);
+                    }
+                }
+                case byte[] a -> {
+                    out.writeByte(TAG_BYTE_ARRAY);
+                    writeVarInt(a.length);
+                    out.write(a);
+                }
+                case char[] a -> {
+                    out.writeByte(TAG_CHAR_ARRAY);
+                    writeVarInt(a.length);
+                    for (var element : a) {
+                        out.writeChar(element);
+                    }
+                }
+                case short[] a -> {
+                    out.writeByte(TAG_SHORT_ARRAY);
+                    writeVarInt(a.length);
+                    for (var element : a) {
+                        out.writeShort(element);
+                    }
+                }
+                case int[] a -> {
+                    out.writeByte(TAG_INT_ARRAY);
+                    writeVarInt(a.length);
+                    for (var element : a) {
+                        out.writeInt(element);
+                    }
+                }
+                case long[] a -> {
+                    out.writeByte(TAG_LONG_ARRAY);
+                    writeVarInt(a.length);
+                    for (var element : a) {
+                        out.writeLong(element);
+                    }
+                }
+                case float[] a -> {
+                    out.writeByte(TAG_FLOAT_ARRAY);
+                    writeVarInt(a.length);
+                    for (var element : a) {
+                        out.writeFloat(element);
+                    }
+                }
+                case double[] a -> {
+                    out.writeByte(TAG_DOUBLE_ARRAY);
+                    writeVarInt(a.length);
+                    for (var element : a) {
+                        out.writeDouble(element);
+                    }
+                }
+                case null, default -> throw new IOException("Unsupported annotation value " + value);
+            }
+        }
+    }
+
+    private record EntryReader(DataInputStream in, String[] strings) {
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer");
+        }
+
+        /**
+         * Reads the size of a collection, which cannot exceed the remaining length of the entry.
+         */
+        int readCount() throws IOException {
+            var count = readVarInt();
+            if (count < 0 || count > in.available()) {
+                throw new IOException("Invalid count " + count);
+            }
+            return count;
+        }
+
+        @Nullable
+        String readString() throws IOException {
+            var index = readVarInt();
+            if (index == 0) {
+                return null;
+            }
+            if (index < 0 || index > strings.length) {
+                throw new IOException("Invalid string index " + index);
+            }
+            return strings[index - 1];
+        }
+
+        String readNonNullString() throws IOException {
+            var value = readString();
+            if (value == null) {
+                throw new IOException("Unexpected null string");
+            }
+            return value;
+        }
+
+        @Nullable
+        Type readType() throws IOException {
+            var descriptor = readString();
+            return descriptor != null ? InternedTypes.getType(descriptor) : null;
+        }
+
+        Map<String, Object> readValues() throws IOException {
+            var count = readCount();
+            var values = new HashMap<String, Object>(count);
+            for (int i = 0; i < count; i++) {
+                var key = readString();
+                values.put(key, readValue());
+            }
+            return values;
+        }
+
+        Object readValue() throws IOException {
+            var tag = in.readUnsignedByte();
+            return switch (tag) {
+                case TAG_BOOLEAN -> in.readBoolean();
+                case TAG_BYTE -> in.readByte();
+                case TAG_CHAR -> in.readChar();
+                case TAG_SHORT -> in.readShort();
+                case TAG_INT -> in.readInt();
+                case TAG_LONG -> in.readLong();
+                case TAG_FLOAT -> in.readFloat();
+                case TAG_DOUBLE -> in.readDouble();
+                case TAG_STRING -> readNonNullString();
+                case TAG_TYPE -> InternedTypes.getType(readNonNullString());
+                case TAG_ENUM -> new ModAnnotation.EnumHolder(readNonNullString(), readNonNullString());
+                case TAG_ANNOTATION -> readValues();
+                case TAG_LIST -> {
+                    var count = readCount();
+                    var list = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        list.add(readValue());
+                    }
+                    yield list;
+                }
+                case TAG_BOOLEAN_ARRAY -> {
+                    var array = new boolean[readCount()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.readBoolean();
+                    }
+                    yield array;
+                }
+                case TAG_BYTE_ARRAY -> {
+                    var array = new byte[readCount()];
+                    in.readFully(array);
+                    yield array;
+                }
+                case TAG_CHAR_ARRAY -> {
+                    var array = new char[readCount()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.readChar();
+                    }
+                    yield array;
+                }
+                case TAG_SHORT_ARRAY -> {
+                    var array = new short[readCount()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.readShort();
+                    }
+                    yield array;
+                }
+                case TAG_INT_ARRAY -> {
+                    var array = new int[readCount()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.readInt();
+                    }
+                    yield array;
+                }
+                case TAG_LONG_ARRAY -> {
+                    var array = new long[readCount()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.readLong();
+                    }
+                    yield array;
+                }
+                case TAG_FLOAT_ARRAY -> {
+                    var array = new float[readCount()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.readFloat();
+                    }
+                    yield array;
+                }
+                case TAG_DOUBLE_ARRAY -> {
+                    var array = new double[readCount()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.readDouble();
+                    }
+                    yield array;
+                }
+                default -> throw new IOException("Invalid value tag " + tag);
+            };
+        }
+    }
+}
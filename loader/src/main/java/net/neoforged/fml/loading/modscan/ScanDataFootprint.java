@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading.modscan;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.neoforged.neoforgespi.language.ModFileScanData;
+import org.objectweb.asm.Type;
+
+/**
+ * A rough estimate of the heap memory retained by scan results, for debug logging.
+ * <p>
+ * Sizes assume a 64-bit JVM with compressed object pointers. Types, strings and annotation values that are shared
+ * between entries are counted once, so that the estimate reflects the effect of {@linkplain InternedTypes interning}
+ * and of {@linkplain AnnotationValues compact annotation values}. Indexes that were built for queries are not counted.
+ *
+ * @param classes        The number of classes.
+ * @param annotations    The number of annotations.
+ * @param distinctTypes  The number of distinct type instances.
+ * @param estimatedBytes The estimated number of bytes retained.
+ */
+record ScanDataFootprint(int classes, int annotations, int distinctTypes, long estimatedBytes) {
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    // A LinkedHashMap entry plus its slot in the table, as used by LinkedHashSet
+    private static final int LINKED_SET_ENTRY = 40 + REFERENCE;
+    // A HashMap entry plus its slot in the table
+    private static final int HASH_MAP_ENTRY = 32 + REFERENCE;
+    private static final int HASH_MAP = 48;
+    private static final int HASH_SET = 16 + HASH_MAP;
+    // The immutable collections used for annotation values, which hold their elements in a single array
+    private static final int IMMUTABLE_COLLECTION = 24;
+    private static final int RECORD_CLASS_DATA = align(OBJECT_HEADER + 3 * REFERENCE + Integer.BYTES);
+    private static final int RECORD_ANNOTATION_DATA = align(OBJECT_HEADER + 5 * REFERENCE);
+    private static final int TYPE = align(OBJECT_HEADER + 3 * Integer.BYTES + REFERENCE);
+    private static final int BOXED_VALUE = 16;
+    private static final int ENUM_HOLDER = align(OBJECT_HEADER + 2 * REFERENCE);
+
+    static ScanDataFootprint of(Collection<ModFileScanData> scanResults) {
+        var measurer = new Measurer();
+        int classes = 0;
+        int annotations = 0;
+        for (var scanResult : scanResults) {
+            classes += scanResult.getClasses().size();
+            annotations += scanResult.getAnnotations().size();
+            measurer.bytes += (long) scanResult.getClasses().size() * (LINKED_SET_ENTRY + RECORD_CLASS_DATA);
+            for (var classData : scanResult.getClasses()) {
+                measurer.type(classData.clazz());
+                measurer.type(classData.parent());
+                measurer.bytes += HASH_SET + (long) classData.interfaces().size() * HASH_MAP_ENTRY;
+                for (var itf : classData.interfaces()) {
+                    measurer.type(itf);
+                }
+            }
+            measurer.bytes += (long) scanResult.getAnnotations().size() * (LINKED_SET_ENTRY + RECORD_ANNOTATION_DATA);
+            for (var annotation : scanResult.getAnnotations()) {
+                measurer.type(annotation.annotationType());
+                measurer.type(annotation.clazz());
+                measurer.string(annotation.memberName());
+                measurer.value(annotation.annotationData());
+            }
+        }
+        return new ScanDataFootprint(classes, annotations, measurer.types.size(), measurer.bytes);
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    private static final class Measurer {
+        private final Set<Type> types = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<String> strings = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<Object> collections = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long bytes;
+
+        void type(Type type) {
+            if (type != null && types.add(type)) {
+                // Each type holds a string that contains at least its descriptor
+                bytes += TYPE + stringSize(type.getDescriptor());
+            }
+        }
+
+        void string(String string) {
+            if (string != null && strings.add(string)) {
+                bytes += stringSize(string);
+            }
+        }
+
+        private static long stringSize(String string) {
+            return align(OBJECT_HEADER + REFERENCE + 2 * Integer.BYTES) + align(16 + string.length());
+        }
+
+        void value(Object value) {
+            switch (value) {
+                case String s -> string(s);
+                case Type t -> type(t);
+                case ModAnnotation.EnumHolder e -> {
+                    bytes += ENUM_HOLDER;
+                    string(e.desc());
+                    string(e.value());
+                }
+                case Map<?, ?> map when collections.add(map) -> {
+                    bytes += IMMUTABLE_COLLECTION + align(16 + 2 * map.size() * REFERENCE);
+                    map.forEach((key, mapValue) -> {
+                        value(key);
+                        value(mapValue);
+                    });
+                }
+                case List<?> list when collections.add(list) -> {
+                    bytes += IMMUTABLE_COLLECTION + align(16 + list.size() * REFERENCE);
+                    list.forEach(this::value);
+                }
+                case Map<?, ?> ignored -> {}
+                case List<?> ignored -> {}
+                case boolean[] a -> bytes += align(16 + a.length);
+                case byte[] a -> bytes += align(16 + a.length);
+                case char[] a -> bytes += align(16 + a.length * Character.BYTES);
+                case short[] a -> bytes += align(16 + a.length * Short.BYTES);
+                case int[] a -> bytes += align(16 + a.length * Integer.BYTES);
+                case long[] a -> bytes += align(16 + a.length * Long.BYTES);
+                case float[] a -> bytes += align(16 + a.length * Float.BYTES);
+                case double[] a -> bytes += align(16 + a.length * Double.BYTES);
+                case null -> {}
+                default -> bytes += BOXED_VALUE;
+            }
+        }
+    }
+}
@@ -7,35 +7,125 @@ package net.neoforged.fml.loading.modscan;
 
 import com.mojang.logging.LogUtils;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import net.neoforged.fml.loading.LogMarkers;
 import net.neoforged.fml.loading.moddiscovery.ModFile;
 import net.neoforged.neoforgespi.language.ModFileScanData;
 import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
 import org.slf4j.Logger;
 
 public class Scanner {
     private static final Logger LOGGER = LogUtils.getLogger();
+    /**
+     * Identifies the output of the scanner. {@linkplain ScanDataCache Cached scan results} are keyed on it, so it
+     * must be incremented whenever the same mod file would be scanned differently.
+     */
+    static final int VERSION = 1;
+    /**
+     * The number of classes scanned by one task. Small enough to balance a single large mod file over all workers,
+     * and large enough that splitting and merging costs little compared to scanning.
+     */
+    private static final int CHUNK_SIZE = 64;
     private final ModFile fileToScan;
 
     public Scanner(ModFile fileToScan) {
         this.fileToScan = fileToScan;
     }
 
+    /**
+     * Scans the classes of the mod file. When called from a {@link ForkJoinPool}, the classes are split into chunks
+     * that idle workers of the pool can steal, so that a large mod file is scanned by all workers.
+     */
     public ModFileScanData scan() {
         ModFileScanData result = new ModFileScanData();
         result.addModFileInfo(fileToScan.getModFileInfo());
-        fileToScan.getContents().visitContent((relativePath, resource) -> {
-            if (relativePath.endsWith(".class")) {
-                try (var in = resource.open()) {
-                    ModClassVisitor mcv = new ModClassVisitor();
-                    ClassReader cr = new ClassReader(in);
-                    cr.accept(mcv, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG);
-                    mcv.buildData(result.getClasses(), result.getAnnotations());
-                } catch (IOException | IllegalArgumentException e) {
-                    LOGGER.error(LogMarkers.SCAN, "Exception scanning {} path {}", fileToScan, relativePath, e);
+        var classFiles = fileToScan.getContentsIndex().classFiles();
+        if (!ForkJoinTask.inForkJoinPool() || classFiles.size() <= CHUNK_SIZE) {
+            scanClasses(classFiles, result);
+            return result;
+        }
+
+        var chunks = new ModFileScanData[(classFiles.size() + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        new ChunkTask(classFiles, chunks, 0, chunks.length).invoke();
+        // Merge in order, so that the result does not depend on which worker scanned which chunk
+        for (var chunk : chunks) {
+            result.getClasses().addAll(chunk.getClasses());
+            result.getInterfaceClasses().addAll(chunk.getInterfaceClasses());
+            result.getAnnotations().addAll(chunk.getAnnotations());
+        }
+        return result;
+    }
+
+    private void scanClasses(List<String> classFiles, ModFileScanData result) {
+        var contents = fileToScan.getContents();
+        for (var relativePath : classFiles) {
+            try {
+                var classBytes = contents.readFile(relativePath);
+                if (classBytes == null) {
+                    continue;
                 }
+                scanClass(classBytes, result);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.error(LogMarkers.SCAN, "Exception scanning {} path {}", fileToScan, relativePath, e);
             }
-        });
-        return result;
+        }
+    }
+
+    /**
+     * Adds the class data and the annotations of the given class file to the given scan data.
+     * Classes whose constant pool shows that they cannot have annotations are not visited, only their header is read.
+     */
+    public static void scanClass(byte[] classBytes, ModFileScanData result) {
+        ClassReader cr = new ClassReader(classBytes);
+        if (ClassFilePrefilter.mayHaveAnnotations(classBytes)) {
+            ModClassVisitor mcv = new ModClassVisitor();
+            cr.accept(mcv, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG);
+            mcv.buildData(result.getClasses(), result.getAnnotations());
+        } else {
+            var superName = cr.getSuperName();
+            result.getClasses().add(new ModFileScanData.ClassData(
+                    InternedTypes.getObjectType(cr.getClassName()),
+                    superName != null && !superName.isEmpty() ? InternedTypes.getObjectType(superName) : null,
+                    Stream.of(cr.getInterfaces()).map(InternedTypes::getObjectType).collect(Collectors.toSet())));
+        }
+        if ((cr.getAccess() & Opcodes.ACC_INTERFACE) != 0) {
+            result.getInterfaceClasses().add(InternedTypes.getObjectType(cr.getClassName()));
+        }
+    }
+
+    /**
+     * Scans a range of chunks by splitting it in halves, which leaves one half to be stolen by idle workers.
+     */
+    private final class ChunkTask extends RecursiveAction {
+        private final List<String> classFiles;
+        private final ModFileScanData[] chunks;
+        private final int from;
+        private final int to;
+
+        private ChunkTask(List<String> classFiles, ModFileScanData[] chunks, int from, int to) {
+            this.classFiles = classFiles;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(classFiles, chunks, from, middle), new ChunkTask(classFiles, chunks, middle, to));
+                return;
+            }
+            var chunk = new ModFileScanData();
+            int start = from * CHUNK_SIZE;
+            scanClasses(classFiles.subList(start, Math.min(start + CHUNK_SIZE, classFiles.size())), chunk);
+            chunks[from] = chunk;
+        }
     }
 }
@@ -9,6 +9,7 @@ import java.nio.file.Path;
 import java.util.ServiceLoader;
 import java.util.stream.Stream;
 import net.neoforged.api.distmarker.Dist;
+import net.neoforged.fml.jarcontents.JarContents;
 import net.neoforged.fml.loading.VersionInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,4 +40,11 @@ public interface ILaunchContext {
     boolean addLocated(Path path);
 
     VersionInfo getVersions();
+
+    /**
+     * {@return the options to open jar files and folders found during this launch with}
+     */
+    default JarContents.OpenOptions jarContentsOptions() {
+        return JarContents.OpenOptions.DEFAULT;
+    }
 }
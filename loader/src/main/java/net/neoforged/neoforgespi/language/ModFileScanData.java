@@ -7,31 +7,67 @@ package net.neoforged.neoforgespi.language;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.Type;
 
 public class ModFileScanData {
-    private final Set<AnnotationData> annotations = new LinkedHashSet<>();
+    private final AnnotationSet annotations = new AnnotationSet();
     private final Set<ClassData> classes = new LinkedHashSet<>();
+    private final Set<Type> interfaceClasses = new HashSet<>();
     private final List<IModFileInfo> modFiles = new ArrayList<>();
 
     public Set<ClassData> getClasses() {
         return classes;
     }
 
+    /**
+     * {@return the types of the {@linkplain #getClasses() scanned classes} that are interfaces}
+     */
+    @ApiStatus.Internal
+    public Set<Type> getInterfaceClasses() {
+        return interfaceClasses;
+    }
+
     public Set<AnnotationData> getAnnotations() {
         return annotations;
     }
 
     public Stream<AnnotationData> getAnnotatedBy(Class<? extends Annotation> type, ElementType elementType) {
-        var anType = Type.getType(type);
-        return getAnnotations().stream()
-                .filter(ad -> ad.targetType == elementType && ad.annotationType.equals(anType));
+        return getAnnotatedBy(Type.getType(type), elementType);
+    }
+
+    /**
+     * {@return the annotations of the given type on elements of the given kind, in the order they were found}
+     */
+    public Stream<AnnotationData> getAnnotatedBy(Type annotationType, ElementType elementType) {
+        return getAnnotatedBy(annotationType).filter(ad -> ad.targetType == elementType);
+    }
+
+    /**
+     * {@return the annotations of the given type on any element, in the order they were found}
+     */
+    public Stream<AnnotationData> getAnnotatedBy(Type annotationType) {
+        return annotations.getAnnotatedBy(annotationType);
+    }
+
+    /**
+     * {@return the annotations on the given class and on its members, in the order they were found}
+     */
+    public Stream<AnnotationData> getAnnotationsOn(Type clazz) {
+        return annotations.getAnnotationsOn(clazz);
     }
 
     public void addModFileInfo(IModFileInfo info) {
@@ -45,4 +81,108 @@ public class ModFileScanData {
     public record ClassData(Type clazz, Type parent, Set<Type> interfaces) {}
 
     public record AnnotationData(Type annotationType, ElementType targetType, Type clazz, String memberName, Map<String, Object> annotationData) {}
+
+    /**
+     * The annotations of a mod file. The indexes by annotation type and by class are only built when they are first
+     * queried, and are discarded when the set is modified, so that scan results which are never queried that way
+     * only hold the set itself.
+     */
+    private static final class AnnotationSet extends AbstractSet<AnnotationData> {
+        private final Set<AnnotationData> annotations = new LinkedHashSet<>();
+        @Nullable
+        private volatile Map<Type, AnnotationData[]> byAnnotationType;
+        @Nullable
+        private volatile Map<Type, AnnotationData[]> byClass;
+
+        Stream<AnnotationData> getAnnotatedBy(Type annotationType) {
+            var index = byAnnotationType;
+            if (index == null) {
+                byAnnotationType = index = buildIndex(AnnotationData::annotationType);
+            }
+            return stream(index.get(annotationType));
+        }
+
+        Stream<AnnotationData> getAnnotationsOn(Type clazz) {
+            var index = byClass;
+            if (index == null) {
+                byClass = index = buildIndex(AnnotationData::clazz);
+            }
+            return stream(index.get(clazz));
+        }
+
+        private Map<Type, AnnotationData[]> buildIndex(Function<AnnotationData, Type> key) {
+            var lists = new HashMap<Type, List<AnnotationData>>();
+            for (var annotation : annotations) {
+                lists.computeIfAbsent(key.apply(annotation), ignored -> new ArrayList<>()).add(annotation);
+            }
+            var index = HashMap.<Type, AnnotationData[]>newHashMap(lists.size());
+            lists.forEach((type, list) -> index.put(type, list.toArray(AnnotationData[]::new)));
+            return index;
+        }
+
+        private static Stream<AnnotationData> stream(AnnotationData @Nullable [] annotations) {
+            return annotations != null ? Arrays.stream(annotations) : Stream.empty();
+        }
+
+        private void invalidateIndexes() {
+            byAnnotationType = null;
+            byClass = null;
+        }
+
+        @Override
+        public boolean add(AnnotationData annotation) {
+            if (!annotations.add(annotation)) {
+                return false;
+            }
+            invalidateIndexes();
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!annotations.remove(o)) {
+                return false;
+            }
+            invalidateIndexes();
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return annotations.contains(o);
+        }
+
+        @Override
+        public int size() {
+            return annotations.size();
+        }
+
+        @Override
+        public void clear() {
+            annotations.clear();
+            invalidateIndexes();
+        }
+
+        @Override
+        public Iterator<AnnotationData> iterator() {
+            var iterator = annotations.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public AnnotationData next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    invalidateIndexes();
+                }
+            };
+        }
+    }
 }
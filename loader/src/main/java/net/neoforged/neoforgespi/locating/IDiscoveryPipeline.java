@@ -5,6 +5,7 @@
 
 package net.neoforged.neoforgespi.locating;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
@@ -43,6 +44,31 @@ public interface IDiscoveryPipeline extends IIssueReporting {
      */
     Optional<IModFile> addPath(List<Path> groupedPaths, ModFileDiscoveryAttributes attributes, IncompatibleFileReporting incompatibleFileReporting);
 
+    /**
+     * Adds multiple files or folders to the discovery pipeline, each as its own mod file.
+     * <p>
+     * This is equivalent to calling {@link #addPath(Path, ModFileDiscoveryAttributes, IncompatibleFileReporting)}
+     * for each path in order, but allows the pipeline to open and read the files in parallel. All registered
+     * {@linkplain IModFileReader readers} must therefore be safe to call concurrently.
+     *
+     * @param paths                     The paths
+     * @param attributes                Additional attributes that describe the circumstance of how these paths were discovered.
+     * @param incompatibleFileReporting The desired behavior if any of the given files or folders is deemed to be incompatible with NeoForge.
+     */
+    default void addPaths(List<Path> paths, ModFileDiscoveryAttributes attributes, IncompatibleFileReporting incompatibleFileReporting) {
+        for (var path : paths) {
+            addPath(path, attributes, incompatibleFileReporting);
+        }
+    }
+
+    /**
+     * Opens a single file or folder in the same way as the paths added to the pipeline, for example to
+     * {@linkplain #readModFile read} it afterwards.
+     *
+     * @param path The path, which must exist
+     */
+    JarContents openJarContents(Path path) throws IOException;
+
     /**
      * Adds a pre-created {@link JarContents jar} to the discovery pipeline
      * to be further processed by registered {@linkplain IModFileReader readers} into a {@linkplain IModFile mod file}.
@@ -11,6 +11,9 @@ import org.jetbrains.annotations.Nullable;
 /**
  * Inspects {@link JarContents} found by {@link IModFileCandidateLocator} and tries to turn them into {@link IModFile}.
  * <p>
+ * Readers may be called concurrently for different jars, since {@link IDiscoveryPipeline#addPaths} reads files in
+ * parallel, and must therefore be thread-safe.
+ * <p>
  * Picked up via ServiceLoader.
  */
 public interface IModFileReader extends IOrderedProvider {
@@ -10,6 +10,7 @@ import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.ClassNode;
@@ -65,12 +66,49 @@ public interface ClassProcessor {
         return OrderingHint.DEFAULT;
     }
 
+    /**
+     * {@return an identifier for the current behavior of this processor, or {@code null} if its results must not be cached}
+     * If every processor that handles a class returns a non-null value, FML may persist the transformed class on disk
+     * and reuse it on later launches, as long as the original class and all of these values are unchanged. The value
+     * must therefore change whenever this processor could produce a different result for the same input class, for
+     * example because the files it was configured from have changed.
+     * <p>Returning {@code null}, which is the default, disables the cache for every class this processor handles,
+     * including the work of all other processors on those classes. Processors that run on many classes should
+     * therefore provide a version whenever their output is deterministic.
+     * <p>Results that require {@link ComputeFlags#COMPUTE_FRAMES} are never persisted, since they depend on the
+     * hierarchy of other classes.
+     */
+    @Nullable
+    default String cacheVersion() {
+        return null;
+    }
+
     enum OrderingHint {
         EARLY,
         DEFAULT,
         LATE
     }
 
+    /**
+     * {@return the classes this processor may want to handle} {@link #handlesClass(SelectionContext)} is only called
+     * for classes matched by this targeting. It is queried once, after {@linkplain #link(LinkContext) linking} and
+     * before the first class is loaded, so the result must not change afterward. Processors that cannot know their
+     * targets up front should keep the default, which considers every class.
+     */
+    default ClassTargeting targeting() {
+        return ClassTargeting.all();
+    }
+
+    /**
+     * {@return the parts of the class this processor needs to see in the {@linkplain TransformationContext#node() node}}
+     * Classes are parsed with the cheapest options that satisfy every processor handling them. Parts that no processor
+     * requires may be missing from the node or only be present in compact form, but they are preserved in the
+     * resulting class. The default requires everything.
+     */
+    default Set<ParseRequirement> parseRequirements() {
+        return ParseRequirement.ALL;
+    }
+
     /**
      * {@return whether the processor wants to recieve the class}
      *
@@ -137,6 +175,27 @@ public interface ClassProcessor {
         }
     }
 
+    enum ParseRequirement {
+        /**
+         * The instructions of methods. Without it, methods have no instructions and keep their original code in the
+         * resulting class, unless a processor provides new instructions for them.
+         */
+        CODE,
+        /**
+         * The source file, line numbers and local variable names. Debug information of methods is always present
+         * when {@link #CODE} is required, since the code is rewritten from the node.
+         */
+        DEBUG_INFO,
+        /**
+         * Stack map frames in their expanded form. Without it, frames are kept in the compressed form they have in the
+         * class file, which is only a problem for processors that inspect or insert frames themselves.
+         */
+        EXPANDED_FRAMES;
+
+        public static final Set<ParseRequirement> ALL = Set.of(values());
+        public static final Set<ParseRequirement> NONE = Set.of();
+    }
+
     /**
      * Context available when determining whether a processor wants to handle a class
      * 
@@ -153,7 +212,7 @@ public interface ClassProcessor {
      */
     final class TransformationContext implements SimpleTransformationContext {
         private final Type type;
-        private final ClassNode node;
+        private ClassNode node;
         private final boolean empty;
         private final BiConsumer<String, String[]> auditTrail;
         private final Supplier<byte[]> initialSha256;
@@ -181,6 +240,13 @@ public interface ClassProcessor {
             return node;
         }
 
+        /**
+         * Replaces the class being transformed, for processors that build the transformed class as a new node.
+         */
+        void replaceNode(ClassNode node) {
+            this.node = node;
+        }
+
         /**
          * {@return whether the class was empty when provided to this transformer} Note that a class might not exist on
          * disk but still return {@code false} here, if an earlier transformer provided it.
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforgespi.transformation;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Declares which classes a {@link ClassProcessor} may want to handle.
+ * <p>
+ * FML indexes the targeting of all processors once, so that {@link ClassProcessor#handlesClass(ClassProcessor.SelectionContext)}
+ * is only called for classes that are actually targeted. Classes targeted by no processor skip transformation entirely.
+ * Class and package names use the binary, dot-separated form, as {@link Class#getName()}.
+ */
+public final class ClassTargeting {
+    private static final ClassTargeting ALL = new ClassTargeting(true, Set.of(), Set.of());
+    private static final ClassTargeting NONE = new ClassTargeting(false, Set.of(), Set.of());
+
+    private final boolean all;
+    private final Set<String> classNames;
+    private final Set<String> packageNames;
+
+    private ClassTargeting(boolean all, Set<String> classNames, Set<String> packageNames) {
+        this.all = all;
+        this.classNames = classNames;
+        this.packageNames = packageNames;
+    }
+
+    /**
+     * {@return targeting that considers every class}
+     */
+    public static ClassTargeting all() {
+        return ALL;
+    }
+
+    /**
+     * {@return targeting that considers no class at all}
+     */
+    public static ClassTargeting none() {
+        return NONE;
+    }
+
+    /**
+     * {@return targeting that considers exactly the given classes}
+     *
+     * @param classNames the binary names of the targeted classes
+     */
+    public static ClassTargeting classes(Collection<String> classNames) {
+        classNames.forEach(NameValidation::validateClassName);
+        return new ClassTargeting(false, Set.copyOf(classNames), Set.of());
+    }
+
+    /**
+     * {@return targeting that considers all classes in the given packages, including their sub-packages}
+     *
+     * @param packageNames the names of the targeted packages, such as {@code net.minecraft.world}
+     */
+    public static ClassTargeting packages(Collection<String> packageNames) {
+        packageNames.forEach(NameValidation::validateClassName);
+        return new ClassTargeting(false, Set.of(), Set.copyOf(packageNames));
+    }
+
+    /**
+     * {@return targeting that considers every class considered by either this or the other targeting}
+     */
+    public ClassTargeting union(ClassTargeting other) {
+        if (all || other.all) {
+            return ALL;
+        }
+        var mergedClasses = new HashSet<>(classNames);
+        mergedClasses.addAll(other.classNames);
+        var mergedPackages = new HashSet<>(packageNames);
+        mergedPackages.addAll(other.packageNames);
+        return new ClassTargeting(false, Set.copyOf(mergedClasses), Set.copyOf(mergedPackages));
+    }
+
+    /**
+     * {@return whether every class is considered}
+     */
+    public boolean isAll() {
+        return all;
+    }
+
+    /**
+     * {@return the binary names of classes that are targeted individually}
+     */
+    public Set<String> classNames() {
+        return classNames;
+    }
+
+    /**
+     * {@return the packages whose classes, including those of sub-packages, are targeted}
+     */
+    public Set<String> packageNames() {
+        return packageNames;
+    }
+
+    /**
+     * {@return whether the given class is considered by this targeting}
+     *
+     * @param className the binary name of the class
+     */
+    public boolean matches(String className) {
+        if (all || classNames.contains(className)) {
+            return true;
+        }
+        for (int i = className.indexOf('.'); i != -1; i = className.indexOf('.', i + 1)) {
+            if (packageNames.contains(className.substring(0, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        if (all) {
+            return "ClassTargeting[all]";
+        }
+        return "ClassTargeting[classes=" + classNames + ", packages=" + packageNames + "]";
+    }
+}
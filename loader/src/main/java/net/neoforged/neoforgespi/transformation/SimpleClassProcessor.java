@@ -36,6 +36,11 @@ public abstract non-sealed class SimpleClassProcessor extends BaseSimpleProcesso
         }
     }
 
+    @Override
+    public final ClassTargeting targeting() {
+        return ClassTargeting.classes(targets().stream().map(Target::className).toList());
+    }
+
     @Override
     public final boolean handlesClass(SelectionContext context) {
         var targets = this.targets.updateAndGet(
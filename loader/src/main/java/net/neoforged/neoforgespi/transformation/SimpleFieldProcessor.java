@@ -9,9 +9,19 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.FieldNode;
 
-public abstract non-sealed class SimpleFieldProcessor extends BaseSimpleProcessor {
+/**
+ * Base class for simple {@link ClassProcessor} implementations that want to apply
+ * bytecode transformations to specific fields.
+ * <p>
+ * Only the targeted fields are built as a tree; the rest of the class is {@linkplain StreamingClassProcessor streamed}
+ * where possible.
+ */
+public abstract non-sealed class SimpleFieldProcessor extends BaseSimpleProcessor implements StreamingClassProcessor {
     private final AtomicReference<Map<String, Set<String>>> targetsByClass = new AtomicReference<>();
 
     /**
@@ -48,6 +58,16 @@ public abstract non-sealed class SimpleFieldProcessor extends BaseSimpleProcesso
                                         Collectors.toSet()))));
     }
 
+    @Override
+    public final ClassTargeting targeting() {
+        return ClassTargeting.classes(targetsByClass().keySet());
+    }
+
+    @Override
+    public final Set<ParseRequirement> parseRequirements() {
+        return ParseRequirement.NONE;
+    }
+
     @Override
     public final boolean handlesClass(SelectionContext context) {
         return targetsByClass().containsKey(context.type().getClassName());
@@ -70,4 +90,41 @@ public abstract non-sealed class SimpleFieldProcessor extends BaseSimpleProcesso
 
         return transformed ? ComputeFlags.COMPUTE_FRAMES : ComputeFlags.NO_REWRITE;
     }
+
+    @Override
+    public final ComputeFlags computeFlags() {
+        return ComputeFlags.COMPUTE_FRAMES;
+    }
+
+    @Override
+    public final ClassVisitor createVisitor(ClassVisitor next, StreamingTransformationContext context) {
+        var targetFields = this.targetsByClass().getOrDefault(context.type().getClassName(), Set.of());
+        return new ClassVisitor(Opcodes.ASM9, next) {
+            private boolean transformed;
+
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                if (!targetFields.contains(name)) {
+                    return super.visitField(access, name, descriptor, signature, value);
+                }
+                transformed = true;
+                // Only the targeted field is collected into a tree, and passed on once it is transformed
+                return new FieldNode(Opcodes.ASM9, access, name, descriptor, signature, value) {
+                    @Override
+                    public void visitEnd() {
+                        transform(this, context);
+                        accept(cv);
+                    }
+                };
+            }
+
+            @Override
+            public void visitEnd() {
+                if (!transformed) {
+                    context.markUnchanged();
+                }
+                super.visitEnd();
+            }
+        };
+    }
 }
@@ -9,13 +9,19 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.MethodNode;
 
 /**
  * Base class for simple {@link ClassProcessor} implementations that want to apply
  * bytecode transformations to specific methods.
+ * <p>
+ * Only the targeted methods are built as a tree; the rest of the class is {@linkplain StreamingClassProcessor streamed}
+ * where possible.
  */
-public abstract non-sealed class SimpleMethodProcessor extends BaseSimpleProcessor {
+public abstract non-sealed class SimpleMethodProcessor extends BaseSimpleProcessor implements StreamingClassProcessor {
     private final AtomicReference<Map<String, Set<String>>> targetsByClass = new AtomicReference<>();
 
     /**
@@ -53,6 +59,16 @@ public abstract non-sealed class SimpleMethodProcessor extends BaseSimpleProcess
                                         Collectors.toSet()))));
     }
 
+    @Override
+    public final ClassTargeting targeting() {
+        return ClassTargeting.classes(targetsByClass().keySet());
+    }
+
+    @Override
+    public final Set<ParseRequirement> parseRequirements() {
+        return Set.of(ParseRequirement.CODE, ParseRequirement.DEBUG_INFO);
+    }
+
     @Override
     public final boolean handlesClass(SelectionContext context) {
         return targetsByClass().containsKey(context.type().getClassName());
@@ -75,4 +91,41 @@ public abstract non-sealed class SimpleMethodProcessor extends BaseSimpleProcess
 
         return transformed ? ComputeFlags.COMPUTE_FRAMES : ComputeFlags.NO_REWRITE;
     }
+
+    @Override
+    public final ComputeFlags computeFlags() {
+        return ComputeFlags.COMPUTE_FRAMES;
+    }
+
+    @Override
+    public final ClassVisitor createVisitor(ClassVisitor next, StreamingTransformationContext context) {
+        var targetMethods = this.targetsByClass().getOrDefault(context.type().getClassName(), Set.of());
+        return new ClassVisitor(Opcodes.ASM9, next) {
+            private boolean transformed;
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                if (!targetMethods.contains(name + descriptor)) {
+                    return super.visitMethod(access, name, descriptor, signature, exceptions);
+                }
+                transformed = true;
+                // Only the targeted method is collected into a tree, and passed on once it is transformed
+                return new MethodNode(Opcodes.ASM9, access, name, descriptor, signature, exceptions) {
+                    @Override
+                    public void visitEnd() {
+                        transform(this, context);
+                        accept(cv);
+                    }
+                };
+            }
+
+            @Override
+            public void visitEnd() {
+                if (!transformed) {
+                    context.markUnchanged();
+                }
+                super.visitEnd();
+            }
+        };
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforgespi.transformation;
+
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+
+/**
+ * A {@link ClassProcessor} that transforms classes by taking part in a {@link ClassVisitor} chain instead of
+ * modifying a {@link ClassNode}.
+ * <p>
+ * If every processor that handles a class is a streaming processor, the class is read and written in a single pass,
+ * without building a tree. Methods that no visitor touches, as well as the constant pool, are then copied over from
+ * the original class as they are. If other processors handle the class too, the visitor is applied to the tree
+ * instead, see {@link #processClass(TransformationContext)}.
+ * <p>
+ * A streaming processor is assumed to change every class it handles, since the class is written while it is visited,
+ * unless its visitor {@linkplain StreamingTransformationContext#markUnchanged() marks the class unchanged}.
+ */
+public interface StreamingClassProcessor extends ClassProcessor {
+    /**
+     * {@return how classes changed by this processor have to be rewritten}
+     * Unlike {@link #processClass(TransformationContext)}, this has to be known before the class is visited. The
+     * output of the visitor is used unless it {@linkplain StreamingTransformationContext#markUnchanged() marks the
+     * class unchanged}, so {@link ComputeFlags#NO_REWRITE NO_REWRITE} is treated like
+     * {@link ComputeFlags#SIMPLE_REWRITE SIMPLE_REWRITE} here.
+     */
+    ComputeFlags computeFlags();
+
+    /**
+     * Creates the visitor that transforms a class this processor {@linkplain #handlesClass(SelectionContext) handles}.
+     *
+     * @param next    the visitor that the transformed class has to be passed on to
+     * @param context the context of the class to process
+     * @return the visitor to pass the class to
+     */
+    ClassVisitor createVisitor(ClassVisitor next, StreamingTransformationContext context);
+
+    /**
+     * Applies the {@linkplain #createVisitor visitor} of this processor to the tree of the class, for when other
+     * processors require the class as a tree.
+     */
+    @Override
+    default ComputeFlags processClass(TransformationContext context) {
+        var transformed = new ClassNode(Opcodes.ASM9);
+        var streamingContext = new StreamingTransformationContext(context.type(), context.empty(), context::audit, context::initialSha256);
+        context.node().accept(createVisitor(transformed, streamingContext));
+        if (streamingContext.isUnchanged()) {
+            return ComputeFlags.NO_REWRITE;
+        }
+        context.replaceNode(transformed);
+        return computeFlags().max(ComputeFlags.SIMPLE_REWRITE);
+    }
+
+    /**
+     * Context available when streaming a class through the visitor of a processor
+     */
+    final class StreamingTransformationContext implements SimpleTransformationContext {
+        private final Type type;
+        private final boolean empty;
+        private final BiConsumer<String, String[]> auditTrail;
+        private final Supplier<byte[]> initialSha256;
+        private boolean unchanged;
+
+        @ApiStatus.Internal
+        public StreamingTransformationContext(Type type, boolean empty, BiConsumer<String, String[]> auditTrail, Supplier<byte[]> initialSha256) {
+            this.type = type;
+            this.empty = empty;
+            this.auditTrail = auditTrail;
+            this.initialSha256 = initialSha256;
+        }
+
+        @Override
+        public Type type() {
+            return type;
+        }
+
+        @Override
+        public boolean empty() {
+            return empty;
+        }
+
+        /**
+         * Add audit activity for this transformation.
+         *
+         * @param activity what was done to the class
+         * @param context  any additional information to include
+         */
+        public void audit(String activity, String... context) {
+            auditTrail.accept(activity, context);
+        }
+
+        @Override
+        public byte[] initialSha256() {
+            return initialSha256.get();
+        }
+
+        /**
+         * Signals that the visitor passed the class on exactly as it received it. The class then does not count as
+         * rewritten by this processor, and if no other processor changed it either, the original bytecode is used.
+         */
+        public void markUnchanged() {
+            unchanged = true;
+        }
+
+        @ApiStatus.Internal
+        public boolean isUnchanged() {
+            return unchanged;
+        }
+    }
+}
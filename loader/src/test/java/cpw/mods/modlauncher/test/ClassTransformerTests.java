@@ -18,15 +18,34 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.neoforged.fml.classloading.transformation.ClassHierarchyIndex;
 import net.neoforged.fml.classloading.transformation.ClassHierarchyRecomputationContext;
 import net.neoforged.fml.classloading.transformation.ClassProcessorAuditLog;
 import net.neoforged.fml.classloading.transformation.ClassProcessorSet;
 import net.neoforged.fml.classloading.transformation.ClassTransformer;
 import net.neoforged.neoforgespi.transformation.ClassProcessor;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
 import net.neoforged.neoforgespi.transformation.ProcessorName;
+import net.neoforged.neoforgespi.transformation.SimpleMethodProcessor;
+import net.neoforged.neoforgespi.transformation.SimpleTransformationContext;
+import net.neoforged.neoforgespi.transformation.StreamingClassProcessor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.junit.jupiter.MockitoSettings;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodNode;
 
 /**
  * Test core transformer functionality
@@ -61,4 +80,338 @@ class ClassTransformerTests {
         assertThat(handlesClassCalls).containsExactly(
                 "empty=true, name=test.TestClass");
     }
+
+    @Test
+    void testOnlyTargetingProcessorsAreAsked() {
+        var handlesClassCalls = new ArrayList<String>();
+        var byName = new TargetedProcessor("test:by_name", ClassTargeting.classes(List.of("test.TestClass")), handlesClassCalls);
+        var byPackage = new TargetedProcessor("test:by_package", ClassTargeting.packages(List.of("test.sub")), handlesClassCalls);
+        var processorSet = ClassProcessorSet.of(byName, byPackage);
+
+        assertThat(processorSet.transformersFor("test.TestClass", false, null)).containsExactly(byName);
+        assertThat(processorSet.transformersFor("test.sub.deeper.TestClass", false, null)).containsExactly(byPackage);
+        assertThat(processorSet.transformersFor("test.subpackage.TestClass", false, null)).isEmpty();
+        assertThat(processorSet.transformersFor("other.TestClass", false, null)).isEmpty();
+        assertThat(handlesClassCalls).containsExactly(
+                "test:by_name asked for test.TestClass",
+                "test:by_package asked for test.sub.deeper.TestClass");
+    }
+
+    @Test
+    void testCodeIsKeptWhenNotParsed() {
+        var seenInstructions = new ArrayList<Integer>();
+        var processor = new ClassProcessor() {
+            @Override
+            public ProcessorName name() {
+                return ProcessorName.parse("test:no_code");
+            }
+
+            @Override
+            public Set<ParseRequirement> parseRequirements() {
+                return ParseRequirement.NONE;
+            }
+
+            @Override
+            public boolean handlesClass(SelectionContext context) {
+                return true;
+            }
+
+            @Override
+            public ComputeFlags processClass(TransformationContext context) {
+                for (var method : context.node().methods) {
+                    seenInstructions.add(method.instructions.size());
+                }
+                context.node().access |= Opcodes.ACC_FINAL;
+                return ComputeFlags.SIMPLE_REWRITE;
+            }
+        };
+
+        var classTransformer = new ClassTransformer(ClassProcessorSet.of(processor), new ClassProcessorAuditLog());
+        var result = classTransformer.transform(createClassWithCode(), "test.TestClass", null, mock(ClassHierarchyRecomputationContext.class));
+
+        assertThat(seenInstructions).containsOnly(0);
+        var node = new ClassNode();
+        new ClassReader(result).accept(node, 0);
+        assertThat(node.access & Opcodes.ACC_FINAL).isNotZero();
+        assertThat(node.sourceFile).isEqualTo("TestClass.java");
+        var method = findMethod(node, "answer");
+        assertThat(method.parameters).singleElement().satisfies(p -> assertThat(p.name).isEqualTo("value"));
+        assertThat(method.instructions.size()).isPositive();
+        assertThat(method.instructions).filteredOn(LineNumberNode.class::isInstance)
+                .singleElement()
+                .satisfies(insn -> assertThat(((LineNumberNode) insn).line).isEqualTo(42));
+    }
+
+    private static byte[] createClassWithCode() {
+        var cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V21, Opcodes.ACC_PUBLIC, "test/TestClass", null, "java/lang/Object", null);
+        cw.visitSource("TestClass.java", null);
+        var mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "answer", "(I)I", null, null);
+        mv.visitParameter("value", 0);
+        mv.visitCode();
+        var start = new Label();
+        mv.visitLabel(start);
+        mv.visitLineNumber(42, start);
+        mv.visitVarInsn(Opcodes.ILOAD, 0);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "other", "()I", null, null);
+        mv.visitCode();
+        mv.visitInsn(Opcodes.ICONST_1);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    @Test
+    void testStreamingAndTreeProcessingAgree() {
+        var returnSeven = new SimpleMethodProcessor() {
+            @Override
+            public ProcessorName name() {
+                return ProcessorName.parse("test:return_seven");
+            }
+
+            @Override
+            public Set<Target> targets() {
+                return Set.of(new Target("test.TestClass", "answer", "(I)I"));
+            }
+
+            @Override
+            public void transform(MethodNode input, SimpleTransformationContext context) {
+                input.instructions.clear();
+                input.localVariables = null;
+                input.instructions.add(new IntInsnNode(Opcodes.BIPUSH, 7));
+                input.instructions.add(new InsnNode(Opcodes.IRETURN));
+            }
+        };
+        // Any processor that needs the tree forces the tree path
+        var treeProcessor = new ClassProcessor() {
+            @Override
+            public ProcessorName name() {
+                return ProcessorName.parse("test:tree");
+            }
+
+            @Override
+            public boolean handlesClass(SelectionContext context) {
+                return true;
+            }
+
+            @Override
+            public ComputeFlags processClass(TransformationContext context) {
+                return ComputeFlags.NO_REWRITE;
+            }
+        };
+
+        var streamed = new ClassTransformer(ClassProcessorSet.of(returnSeven), new ClassProcessorAuditLog())
+                .transform(createClassWithCode(), "test.TestClass", null, mock(ClassHierarchyRecomputationContext.class));
+        var tree = new ClassTransformer(ClassProcessorSet.of(returnSeven, treeProcessor), new ClassProcessorAuditLog())
+                .transform(createClassWithCode(), "test.TestClass", null, mock(ClassHierarchyRecomputationContext.class));
+
+        for (var result : List.of(streamed, tree)) {
+            var node = new ClassNode();
+            new ClassReader(result).accept(node, 0);
+            assertThat(findMethod(node, "answer").instructions.toArray())
+                    .filteredOn(IntInsnNode.class::isInstance)
+                    .singleElement()
+                    .satisfies(insn -> assertThat(((IntInsnNode) insn).operand).isEqualTo(7));
+            assertThat(findMethod(node, "other").instructions.toArray())
+                    .anySatisfy(insn -> assertThat(insn.getOpcode()).isEqualTo(Opcodes.ICONST_1));
+        }
+    }
+
+    @Test
+    void testHierarchyIsResolvedWithoutTransformingUntransformedClasses() {
+        var passThrough = new SimpleMethodProcessor() {
+            @Override
+            public ProcessorName name() {
+                return ProcessorName.parse("test:pass_through");
+            }
+
+            @Override
+            public Set<Target> targets() {
+                return Set.of(new Target("test.TestClass", "pick", "(Z)Ljava/lang/Object;"));
+            }
+
+            @Override
+            public void transform(MethodNode input, SimpleTransformationContext context) {}
+        };
+        var headers = Map.of(
+                "test.A", new ClassHierarchyIndex.ClassHeader(Opcodes.ACC_PUBLIC, "test/Base", new String[0]),
+                "test.B", new ClassHierarchyIndex.ClassHeader(Opcodes.ACC_PUBLIC, "test/Base", new String[0]),
+                "test.Base", new ClassHierarchyIndex.ClassHeader(Opcodes.ACC_PUBLIC, "java/lang/Object", new String[0]));
+        var upToFramesCalls = new ArrayList<String>();
+        var hierarchyIndex = new ClassHierarchyIndex();
+        var context = new ClassHierarchyRecomputationContext() {
+            @Override
+            public Class<?> findLoadedClass(String className) {
+                return className.equals("java.lang.Object") ? Object.class : null;
+            }
+
+            @Override
+            public byte[] upToFrames(String className) throws ClassNotFoundException {
+                upToFramesCalls.add(className);
+                throw new ClassNotFoundException(className);
+            }
+
+            @Override
+            public Class<?> locateParentClass(String className) throws ClassNotFoundException {
+                throw new ClassNotFoundException(className);
+            }
+
+            @Override
+            public ClassHierarchyIndex.ClassHeader findUntransformedHeader(String className) {
+                return headers.get(className);
+            }
+
+            @Override
+            public ClassHierarchyIndex hierarchyIndex() {
+                return hierarchyIndex;
+            }
+        };
+
+        var result = new ClassTransformer(ClassProcessorSet.of(passThrough), new ClassProcessorAuditLog())
+                .transform(createClassWithBranches(), "test.TestClass", null, context);
+
+        assertThat(upToFramesCalls).isEmpty();
+        var node = new ClassNode();
+        new ClassReader(result).accept(node, 0);
+        assertThat(findMethod(node, "pick").instructions.toArray())
+                .filteredOn(FrameNode.class::isInstance)
+                .anySatisfy(frame -> assertThat(((FrameNode) frame).stack).containsExactly("test/Base"));
+    }
+
+    @Test
+    void testClassesWithoutTargetedMethodAreNotRewritten() {
+        var missingTarget = new SimpleMethodProcessor() {
+            @Override
+            public ProcessorName name() {
+                return ProcessorName.parse("test:missing_target");
+            }
+
+            @Override
+            public Set<Target> targets() {
+                return Set.of(new Target("test.TestClass", "missing", "()V"));
+            }
+
+            @Override
+            public void transform(MethodNode input, SimpleTransformationContext context) {
+                Assertions.fail();
+            }
+        };
+        var treeProcessor = new ClassProcessor() {
+            @Override
+            public ProcessorName name() {
+                return ProcessorName.parse("test:tree");
+            }
+
+            @Override
+            public boolean handlesClass(SelectionContext context) {
+                return true;
+            }
+
+            @Override
+            public ComputeFlags processClass(TransformationContext context) {
+                return ComputeFlags.NO_REWRITE;
+            }
+        };
+
+        for (var processors : List.of(ClassProcessorSet.of(missingTarget), ClassProcessorSet.of(missingTarget, treeProcessor))) {
+            var auditLog = new ClassProcessorAuditLog();
+            var input = createClassWithCode();
+            var result = new ClassTransformer(processors, auditLog)
+                    .transform(input, "test.TestClass", null, mock(ClassHierarchyRecomputationContext.class));
+
+            assertThat(result).isSameAs(input);
+            assertThat(auditLog.getAuditString("test.TestClass")).isEmpty();
+        }
+    }
+
+    @Test
+    void testStreamedOutputIsUsedRegardlessOfComputeFlags() {
+        var makeFinal = new StreamingClassProcessor() {
+            @Override
+            public ProcessorName name() {
+                return ProcessorName.parse("test:make_final");
+            }
+
+            @Override
+            public boolean handlesClass(SelectionContext context) {
+                return true;
+            }
+
+            @Override
+            public ComputeFlags computeFlags() {
+                return ComputeFlags.NO_REWRITE;
+            }
+
+            @Override
+            public ClassVisitor createVisitor(ClassVisitor next, StreamingTransformationContext context) {
+                return new ClassVisitor(Opcodes.ASM9, next) {
+                    @Override
+                    public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                        super.visit(version, access | Opcodes.ACC_FINAL, name, signature, superName, interfaces);
+                    }
+                };
+            }
+        };
+
+        var result = new ClassTransformer(ClassProcessorSet.of(makeFinal), new ClassProcessorAuditLog())
+                .transform(createClassWithCode(), "test.TestClass", null, mock(ClassHierarchyRecomputationContext.class));
+
+        var node = new ClassNode();
+        new ClassReader(result).accept(node, 0);
+        assertThat(node.access & Opcodes.ACC_FINAL).isNotZero();
+    }
+
+    /**
+     * Creates a class with a method whose branches merge two different types, without any frames.
+     */
+    private static byte[] createClassWithBranches() {
+        var cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "test/TestClass", null, "java/lang/Object", null);
+        var mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "pick", "(Z)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        var useB = new Label();
+        var end = new Label();
+        mv.visitVarInsn(Opcodes.ILOAD, 0);
+        mv.visitJumpInsn(Opcodes.IFEQ, useB);
+        mv.visitTypeInsn(Opcodes.NEW, "test/A");
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "test/A", "<init>", "()V", false);
+        mv.visitJumpInsn(Opcodes.GOTO, end);
+        mv.visitLabel(useB);
+        mv.visitTypeInsn(Opcodes.NEW, "test/B");
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "test/B", "<init>", "()V", false);
+        mv.visitLabel(end);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static MethodNode findMethod(ClassNode node, String name) {
+        return node.methods.stream().filter(m -> m.name.equals(name)).findFirst().orElseThrow();
+    }
+
+    private record TargetedProcessor(ProcessorName name, ClassTargeting targeting, List<String> handlesClassCalls) implements ClassProcessor {
+        TargetedProcessor(String name, ClassTargeting targeting, List<String> handlesClassCalls) {
+            this(ProcessorName.parse(name), targeting, handlesClassCalls);
+        }
+
+        @Override
+        public boolean handlesClass(SelectionContext context) {
+            handlesClassCalls.add(name + " asked for " + context.type().getClassName());
+            return true;
+        }
+
+        @Override
+        public ComputeFlags processClass(TransformationContext context) {
+            return Assertions.fail();
+        }
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.neoforgespi.language.IModInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that parallel mod tasks are started in the order of the longest remaining path, using an executor that runs
+ * the submitted tasks one after the other once the test drains it.
+ */
+class CriticalPathSchedulerTest {
+    private final ArrayDeque<Runnable> submitted = new ArrayDeque<>();
+    private final Map<IModInfo, List<IModInfo>> dependencies = new IdentityHashMap<>();
+    // A mod without dependencies, and two chains of two mods each, in the order dependencies are sorted in
+    private final ModContainer chainA = createMod("chain_a");
+    private final ModContainer chainAEnd = createMod("chain_a_end", chainA);
+    private final ModContainer chainB = createMod("chain_b");
+    private final ModContainer chainBEnd = createMod("chain_b_end", chainB);
+    private final ModContainer heavy = createMod("heavy");
+
+    @Test
+    void testLongerChainsStartFirstWithoutTimings() {
+        var started = runTasks(Map.of());
+
+        assertThat(started).containsExactly("chain_a", "chain_b", "chain_a_end", "chain_b_end", "heavy");
+    }
+
+    @Test
+    void testSlowModsStartFirstOnceTheirTimingsAreKnown() {
+        var started = runTasks(Map.of(
+                "heavy", TimeUnit.MILLISECONDS.toNanos(200),
+                "chain_a", TimeUnit.MILLISECONDS.toNanos(50),
+                "chain_a_end", TimeUnit.MILLISECONDS.toNanos(50),
+                "chain_b", TimeUnit.MILLISECONDS.toNanos(50),
+                "chain_b_end", TimeUnit.MILLISECONDS.toNanos(50)));
+
+        assertThat(started.getFirst()).isEqualTo("heavy");
+    }
+
+    @Test
+    void testTimingsAreOnlyWrittenWhenSaved(@TempDir Path tempDir) {
+        var timingsFile = tempDir.resolve("mod_task_timings.txt");
+        var timings = new ModTaskTimings(timingsFile);
+        timings.record("Synthetic Task", Map.of("heavy", 200L, "chain_a", 50L));
+        assertThat(timingsFile).doesNotExist();
+
+        timings.save();
+        assertThat(timingsFile).exists();
+        // The next launch reads them from the file
+        assertThat(new ModTaskTimings(timingsFile).get("Synthetic Task")).containsOnly(entry("heavy", 200L), entry("chain_a", 50L));
+    }
+
+    /**
+     * @return the mods in the order their tasks started
+     */
+    private List<String> runTasks(Map<String, Long> predictedDurations) {
+        var scheduler = new CriticalPathScheduler("Synthetic Task", List.of(chainA, chainAEnd, chainB, chainBEnd, heavy),
+                modContainer -> dependencies.get(modContainer.getModInfo()), predictedDurations);
+        var started = new ArrayList<String>();
+        var futures = scheduler.start(submitted::add, (modContainer, dependencyFailure) -> started.add(modContainer.getModId()));
+        while (!submitted.isEmpty()) {
+            submitted.poll().run();
+        }
+
+        assertThat(futures).allSatisfy(future -> assertThat(future).isCompleted());
+        return started;
+    }
+
+    private ModContainer createMod(String modId, ModContainer... modDependencies) {
+        var modInfo = mock(IModInfo.class);
+        when(modInfo.getModId()).thenReturn(modId);
+        dependencies.put(modInfo, List.of(modDependencies).stream().map(ModContainer::getModInfo).toList());
+        return new ModContainer(modInfo) {
+            @Override
+            public IEventBus getEventBus() {
+                return null;
+            }
+        };
+    }
+}
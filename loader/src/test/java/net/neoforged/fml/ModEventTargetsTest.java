@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.neoforged.bus.api.BusBuilder;
+import net.neoforged.bus.api.Event;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.event.IModBusEvent;
+import net.neoforged.neoforgespi.language.IModInfo;
+import org.junit.jupiter.api.Test;
+
+class ModEventTargetsTest {
+    private final List<String> received = new ArrayList<>();
+
+    @Test
+    void testOnlyModsWithListenersAreTargeted() {
+        var explicit = createMod("explicit");
+        var subscriber = createMod("subscriber");
+        var inferred = createMod("inferred");
+        var parent = createMod("parent");
+        var empty = createMod("empty");
+        var targets = new ModEventTargets(List.of(explicit, subscriber, inferred, parent, empty));
+
+        explicit.getEventBus().addListener(TestEvent.class, e -> received.add("explicit"));
+        subscriber.getEventBus().register(new Subscriber());
+        inferred.getEventBus().addListener(EventPriority.LOW, (TestEvent e) -> received.add("inferred"));
+        parent.getEventBus().addListener(ParentEvent.class, e -> received.add("parent"));
+
+        assertThat(targets.get(TestEvent.class)).containsExactly(explicit, subscriber, inferred, parent);
+        assertThat(targets.get(ParentEvent.class)).containsExactly(parent);
+        assertThat(targets.get(OtherEvent.class)).isEmpty();
+    }
+
+    @Test
+    void testModsWithUnknownListenersAreAlwaysTargeted() {
+        var tracked = createMod("tracked");
+        var untracked = createUntrackedMod("untracked");
+        var targets = new ModEventTargets(List.of(tracked, untracked));
+
+        assertThat(targets.get(TestEvent.class)).containsExactly(untracked);
+    }
+
+    @Test
+    void testTargetsAreUpdatedWhenListenersAreRegistered() {
+        var first = createMod("first");
+        var second = createMod("second");
+        var targets = new ModEventTargets(List.of(first, second));
+        assertThat(targets.get(TestEvent.class)).isEmpty();
+
+        second.getEventBus().addListener(TestEvent.class, e -> received.add("second"));
+        assertThat(targets.get(TestEvent.class)).containsExactly(second);
+
+        first.getEventBus().addListener(TestEvent.class, e -> received.add("first"));
+        assertThat(targets.get(TestEvent.class)).containsExactly(first, second);
+    }
+
+    @Test
+    void testPostingToTargetsReachesAllListeners() {
+        var mods = new ArrayList<ModContainer>();
+        for (int i = 0; i < 10; i++) {
+            var mod = createMod("mod" + i);
+            if (i % 3 == 0) {
+                var modId = mod.getModId();
+                mod.getEventBus().addListener(TestEvent.class, e -> received.add(modId));
+            }
+            mods.add(mod);
+        }
+        var targets = new ModEventTargets(mods);
+
+        var event = new TestEvent();
+        for (var priority : EventPriority.values()) {
+            targets.get(TestEvent.class).forEach(mod -> mod.acceptEvent(priority, event));
+        }
+
+        assertThat(received).containsExactly("mod0", "mod3", "mod6", "mod9");
+    }
+
+    private static ModContainer createMod(String modId) {
+        var modInfo = mock(IModInfo.class);
+        when(modInfo.getModId()).thenReturn(modId);
+        var listenedEventTypes = new ListenedEventTypes();
+        var bus = BusBuilder.builder()
+                .markerType(IModBusEvent.class)
+                .classChecker(listenedEventTypes)
+                .allowPerPhasePost()
+                .build();
+        return new ModContainer(modInfo) {
+            @Override
+            public IEventBus getEventBus() {
+                return bus;
+            }
+
+            @Override
+            public ListenedEventTypes getListenedEventTypes() {
+                return listenedEventTypes;
+            }
+        };
+    }
+
+    private static ModContainer createUntrackedMod(String modId) {
+        var modInfo = mock(IModInfo.class);
+        when(modInfo.getModId()).thenReturn(modId);
+        var bus = BusBuilder.builder()
+                .markerType(IModBusEvent.class)
+                .allowPerPhasePost()
+                .build();
+        return new ModContainer(modInfo) {
+            @Override
+            public IEventBus getEventBus() {
+                return bus;
+            }
+        };
+    }
+
+    public static class ParentEvent extends Event implements IModBusEvent {}
+
+    public static class TestEvent extends ParentEvent {}
+
+    public static class OtherEvent extends Event implements IModBusEvent {}
+
+    public class Subscriber {
+        @SubscribeEvent(priority = EventPriority.HIGH)
+        public void onTestEvent(TestEvent event) {
+            received.add("subscriber");
+        }
+    }
+}
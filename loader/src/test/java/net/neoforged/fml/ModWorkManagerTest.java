@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import net.neoforged.fml.loading.FMLConfig;
+import net.neoforged.fml.loading.LauncherTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares dispatching mod tasks that block, as if waiting for I/O, on the thread pool and on virtual threads.
+ */
+public class ModWorkManagerTest extends LauncherTest {
+    private static final int MOD_COUNT = 16;
+    private static final int THREADS = 2;
+    private static final long BLOCKING_MILLIS = 100;
+
+    @Test
+    void testVirtualThreadsDispatchBlockingModsFaster() throws Exception {
+        setupMods();
+
+        long threadPoolNanos = timeBlockingTask(ModWorkManager.createParallelExecutor(false, THREADS));
+        long virtualThreadNanos = timeBlockingTask(ModWorkManager.createParallelExecutor(true, FMLConfig.getIntConfigValue(FMLConfig.ConfigValue.VIRTUAL_THREAD_TASKS)));
+
+        // The pool can only block on as many mods at once as it has threads
+        long threadPoolMinimum = TimeUnit.MILLISECONDS.toNanos(MOD_COUNT / THREADS * BLOCKING_MILLIS);
+        assertThat(threadPoolNanos).isGreaterThanOrEqualTo(threadPoolMinimum);
+        // While virtual threads block on all of them at once by default
+        assertThat(virtualThreadNanos).isLessThan(threadPoolMinimum);
+    }
+
+    @Test
+    void testVirtualThreadsAreBoundedBySemaphore() throws Exception {
+        setupMods();
+
+        int parallelism = 4;
+        var barrier = new CyclicBarrier(parallelism);
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        // Tasks wait for each other in groups, so that the bound is guaranteed to be reached if the executor allows it
+        dispatchBlockingTask(ModWorkManager.createParallelExecutor(true, parallelism), modContainer -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                barrier.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (BrokenBarrierException | TimeoutException e) {
+                throw new RuntimeException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+
+        assertThat(maxRunning.get()).isEqualTo(parallelism);
+    }
+
+    private void setupMods() throws Exception {
+        installation.setupProductionClient();
+        for (int i = 0; i < MOD_COUNT; i++) {
+            installation.buildModJar("blocking" + i + ".jar").withMod("blocking" + i, "1.0").build();
+        }
+        launchAndLoad("neoforgeclient");
+    }
+
+    /**
+     * Dispatches a task for each synthetic mod that sleeps for {@link #BLOCKING_MILLIS}.
+     *
+     * @return the time it took for all tasks to complete
+     */
+    private static long timeBlockingTask(Executor executor) {
+        long start = System.nanoTime();
+        dispatchBlockingTask(executor, modContainer -> {
+            try {
+                Thread.sleep(BLOCKING_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+    private static void dispatchBlockingTask(Executor executor, Consumer<ModContainer> task) {
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        try {
+            ModLoader.dispatchParallelTask("Blocking Task", executor, () -> {}, modContainer -> {
+                if (!modContainer.getModId().startsWith("blocking")) {
+                    return;
+                }
+                assertThat(ModLoadingContext.get().getActiveContainer()).isSameAs(modContainer);
+                task.accept(modContainer);
+                completed.add(modContainer.getModId());
+            });
+            assertThat(completed).hasSize(MOD_COUNT);
+        } finally {
+            if (executor instanceof ExecutorService executorService) {
+                executorService.shutdownNow();
+            }
+        }
+    }
+}
@@ -37,6 +37,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import net.neoforged.fml.testlib.ModFileBuilder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -613,6 +616,30 @@ class ModuleClassLoaderTest {
                 assertEquals(layer1.findLoader("layer1"), classFromLayer.getClassLoader());
             }
 
+            // All threads loading the same class concurrently must see the same class
+            @Test
+            void testConcurrentLoadClass() throws Exception {
+                var start = new CountDownLatch(1);
+                var executor = Executors.newFixedThreadPool(8);
+                try {
+                    var futures = new ArrayList<Future<Class<?>>>();
+                    for (int i = 0; i < 8; i++) {
+                        futures.add(executor.submit(() -> {
+                            start.await();
+                            return loader.loadClass("layer3.ServiceLoaderProxy");
+                        }));
+                    }
+                    start.countDown();
+                    var classes = new ArrayList<Class<?>>();
+                    for (var future : futures) {
+                        classes.add(future.get());
+                    }
+                    assertThat(classes).allSatisfy(c -> assertSame(classes.getFirst(), c));
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+
             @Test
             void testLoadClassFromDefaultPackage() throws Exception {
                 // If no parent loader is visible up to the classpath, a class from the default package can't be loaded
@@ -846,4 +873,28 @@ class ModuleClassLoaderTest {
             }
         }
     }
+
+    /**
+     * Resources outside of module packages are looked up through an index of the module contents. Folders can change
+     * while they are in use, so resources added to them after the index was built must still be found.
+     */
+    @Test
+    void testResourcesAddedToFolderModuleAreFound() throws Exception {
+        var jar = ModFileBuilder.toJar(tempDir.resolve("indexed.jar"))
+                .withManifest(Map.of("Automatic-Module-Name", "indexed"))
+                .addTextFile("indexed.txt", "from jar")
+                .addTextFile("shared.txt", "from jar")
+                .build();
+        var folder = Files.createDirectories(tempDir.resolve("unindexed"));
+        Files.writeString(folder.resolve("shared.txt"), "from folder");
+
+        try (var layer = TestjarUtil.buildLayer(List.of(jar, folder), List.of(ModuleLayer.boot()))) {
+            assertNotNull(layer.cl().getResource("indexed.txt"));
+            assertNull(layer.cl().getResource("added.txt"));
+            assertThat(Collections.list(layer.cl().getResources("shared.txt"))).hasSize(2);
+
+            Files.writeString(folder.resolve("added.txt"), "from folder");
+            assertEquals(folder.resolve("added.txt").toUri().toURL(), layer.cl().getResource("added.txt"));
+        }
+    }
 }
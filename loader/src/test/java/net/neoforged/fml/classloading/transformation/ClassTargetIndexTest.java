@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.classloading.transformation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import net.neoforged.neoforgespi.transformation.ClassTargeting;
+import org.junit.jupiter.api.Test;
+
+class ClassTargetIndexTest {
+    @Test
+    void testCandidatesCombineAllTargeting() {
+        var index = new ClassTargetIndex(List.of(
+                ClassTargeting.all(),
+                ClassTargeting.classes(Set.of("test.A")),
+                ClassTargeting.packages(Set.of("test.sub")),
+                ClassTargeting.none()), 3);
+
+        assertThat(index.candidates("test.A").stream()).containsExactly(0, 1, 3);
+        assertThat(index.candidates("test.sub.B").stream()).containsExactly(0, 2, 3);
+        assertThat(index.candidates("test.B").stream()).containsExactly(0, 3);
+        // Looking up test.A must not have changed the result for other classes
+        assertThat(index.candidates("test.C").stream()).containsExactly(0, 3);
+    }
+
+    @Test
+    void testClassesOnlyTargetedByAllShareResult() {
+        var index = new ClassTargetIndex(List.of(ClassTargeting.all(), ClassTargeting.classes(Set.of("test.A"))), -1);
+
+        assertThat(index.candidates("test.B")).isSameAs(index.candidates("test.C"));
+        assertThat(index.candidates("test.A")).isNotSameAs(index.candidates("test.B"));
+    }
+
+    @Test
+    void testUntargetedClassesHaveNoCandidates() {
+        var index = new ClassTargetIndex(List.of(ClassTargeting.classes(Set.of("test.A")), ClassTargeting.none()), 1);
+
+        assertThat(index.candidates("test.B")).isNull();
+        assertThat(index.candidates("test.A").stream()).containsExactly(0, 1);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.classloading.transformation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class IntermediateClassCacheTest {
+    @Test
+    void testEntriesAreKeyedByClassAndProcessor() {
+        var cache = new IntermediateClassCache(1024);
+        cache.put("test.A", 1, new byte[] { 1 });
+        cache.put("test.A", 2, new byte[] { 2 });
+
+        assertThat(cache.get("test.A", 1)).containsExactly(1);
+        assertThat(cache.get("test.A", 2)).containsExactly(2);
+        assertThat(cache.get("test.A", 3)).isNull();
+        assertThat(cache.get("test.B", 1)).isNull();
+    }
+
+    @Test
+    void testCachedBytecodeCannotBeModified() {
+        var cache = new IntermediateClassCache(1024);
+        var bytecode = new byte[] { 1, 2, 3 };
+        cache.put("test.A", 0, bytecode);
+        bytecode[0] = 42;
+        cache.get("test.A", 0)[1] = 42;
+
+        assertThat(cache.get("test.A", 0)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() {
+        var cache = new IntermediateClassCache(30);
+        cache.put("test.A", 0, new byte[10]);
+        cache.put("test.B", 0, new byte[10]);
+        cache.put("test.C", 0, new byte[10]);
+        // Using A makes B the least recently used entry
+        cache.get("test.A", 0);
+        cache.put("test.D", 0, new byte[10]);
+
+        assertThat(cache.get("test.B", 0)).isNull();
+        assertThat(cache.get("test.A", 0)).isNotNull();
+        assertThat(cache.get("test.C", 0)).isNotNull();
+        assertThat(cache.get("test.D", 0)).isNotNull();
+        assertThat(cache.totalBytes()).isEqualTo(30);
+    }
+
+    @Test
+    void testOversizedEntriesAreNotCached() {
+        var cache = new IntermediateClassCache(30);
+        cache.put("test.A", 0, new byte[10]);
+        cache.put("test.B", 0, new byte[31]);
+
+        assertThat(cache.get("test.A", 0)).isNotNull();
+        assertThat(cache.get("test.B", 0)).isNull();
+        assertThat(cache.totalBytes()).isEqualTo(10);
+    }
+}
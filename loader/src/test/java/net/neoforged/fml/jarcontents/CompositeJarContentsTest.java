@@ -14,25 +14,43 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import net.neoforged.fml.jarcontents.JarContents.FilteredPath;
 import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedClass;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.Mockito;
 
+/**
+ * Runs against folders, and against jar files for which lookups are answered by the index of the composite.
+ */
+@ParameterizedClass
+@EnumSource(CompositeJarContentsTest.DelegateType.class)
 class CompositeJarContentsTest extends AbstractJarContentsTest {
+    enum DelegateType {
+        FOLDER,
+        JAR
+    }
+
+    final DelegateType delegateType;
     private Path path1;
     private Path path2;
     private Path path3;
@@ -42,6 +60,10 @@ class CompositeJarContentsTest extends AbstractJarContentsTest {
     // Maps from relative path to the delegate we expect to contain it
     private Map<String, JarContents> relativePathToExpectedDelegate;
 
+    CompositeJarContentsTest(DelegateType delegateType) {
+        this.delegateType = delegateType;
+    }
+
     @BeforeEach
     void setUp() throws IOException {
         // Set up three folders with overlapping and unique files
@@ -67,6 +89,12 @@ class CompositeJarContentsTest extends AbstractJarContentsTest {
         writeTextFile("folder3/shared.txt", "folder3");
         writeTextFile("folder3/META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nFrom: folder3\n");
 
+        if (delegateType == DelegateType.JAR) {
+            path1 = zipFolder(path1);
+            path2 = zipFolder(path2);
+            path3 = zipFolder(path3);
+        }
+
         delegate1 = JarContents.ofPath(path1);
         delegate2 = JarContents.ofPath(path2);
         delegate3 = JarContents.ofPath(path3);
@@ -218,6 +246,46 @@ class CompositeJarContentsTest extends AbstractJarContentsTest {
         }
     }
 
+    @Test
+    void testOpenAndReadFolder() throws IOException {
+        try (var composite = JarContents.ofPaths(List.of(path1, path2, path3))) {
+            assertThrows(IOException.class, () -> {
+                try (var is = composite.openFile("subdir")) {
+                    is.read(); // On Linux, opening a directory as a file succeeds, but the IOException is thrown on reading
+                }
+            });
+            assertThrows(IOException.class, () -> composite.readFile("subdir"));
+            assertFalse(composite.containsFile("subdir"));
+            assertThat(composite.findFile("subdir")).isEmpty();
+            assertNull(composite.get("subdir"));
+        }
+    }
+
+    @Test
+    void testNonNormalizedPaths() throws IOException {
+        try (var composite = JarContents.ofPaths(List.of(path1, path2, path3))) {
+            for (var entry : relativePathToExpectedDelegate.entrySet()) {
+                var content = composite.readFile("/" + entry.getKey().replace('/', '\\'));
+                assertContentMatches(entry, content);
+            }
+            assertThrows(IllegalArgumentException.class, () -> composite.containsFile("subdir/../file1.txt"));
+        }
+    }
+
+    @Test
+    void testMultiReleaseJar() throws IOException {
+        assumeTrue(delegateType == DelegateType.JAR);
+
+        writeTextFile("multirelease/META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nMulti-Release: true\n");
+        writeTextFile("multirelease/META-INF/versions/9/versioned.txt", "multirelease");
+        var multiReleaseJar = zipFolder(tempDir.resolve("multirelease"));
+
+        try (var composite = JarContents.ofPaths(List.of(path1, multiReleaseJar))) {
+            assertTrue(composite.containsFile("versioned.txt"));
+            assertEquals("multirelease", new String(composite.readFile("versioned.txt")));
+        }
+    }
+
     @Test
     void testVisitContent() throws IOException {
         try (var composite = JarContents.ofPaths(List.of(path1, path2, path3))) {
@@ -368,6 +436,28 @@ class CompositeJarContentsTest extends AbstractJarContentsTest {
             }
         }
 
+        @Test
+        void testFiltersAreAppliedOnceForJars() throws IOException {
+            assumeTrue(delegateType == DelegateType.JAR);
+
+            var filterCalls = new AtomicInteger();
+            try (var filtered = JarContents.ofFilteredPaths(List.of(
+                    new FilteredPath(path1, path -> {
+                        filterCalls.incrementAndGet();
+                        return filter1.test(path);
+                    }),
+                    new FilteredPath(path2, filter2),
+                    new FilteredPath(path3, filter3)))) {
+                assertFalse(filtered.containsFile("file1.txt"));
+                filterCalls.set(0);
+
+                assertFalse(filtered.containsFile("file1.txt"));
+                assertTrue(filtered.containsFile("subdir/file1.txt"));
+                assertEquals("folder1", new String(filtered.readFile("subdir/shared.txt")));
+                assertEquals(0, filterCalls.get());
+            }
+        }
+
         @Test
         void testPartialFilters() throws IOException {
             // Test with some paths filtered and some not
@@ -391,6 +481,8 @@ class CompositeJarContentsTest extends AbstractJarContentsTest {
     class ChecksumTests {
         @Test
         void testChecksumWithFolders() throws IOException {
+            assumeTrue(delegateType == DelegateType.FOLDER);
+
             // Folders don't have checksums, so composite shouldn't either
             try (var composite = JarContents.ofPaths(List.of(path1, path2))) {
                 assertThat(composite.getChecksum()).isEmpty();
@@ -420,6 +512,31 @@ class CompositeJarContentsTest extends AbstractJarContentsTest {
         }
     }
 
+    /**
+     * Zips the content of a folder without adding a manifest, unlike {@link #makeJar}.
+     */
+    private Path zipFolder(Path folder) throws IOException {
+        var zipFile = folder.resolveSibling(folder.getFileName() + ".jar");
+        try (var out = new ZipOutputStream(Files.newOutputStream(zipFile));
+                var stream = Files.walk(folder)) {
+            for (var it = stream.iterator(); it.hasNext();) {
+                var path = it.next();
+                if (path.equals(folder)) {
+                    continue;
+                }
+                var relativePath = folder.relativize(path).toString().replace('\\', '/');
+                if (Files.isDirectory(path)) {
+                    out.putNextEntry(new ZipEntry(relativePath + "/"));
+                } else {
+                    out.putNextEntry(new ZipEntry(relativePath));
+                    out.write(Files.readAllBytes(path));
+                }
+                out.closeEntry();
+            }
+        }
+        return zipFile;
+    }
+
     private static void assertContentMatches(Map.Entry<String, JarContents> entry, byte @Nullable [] actual) throws IOException {
         assertNotNull(actual, "Expected to find " + entry.getKey());
 
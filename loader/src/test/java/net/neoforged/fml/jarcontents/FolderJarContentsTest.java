@@ -19,19 +19,46 @@ import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 import java.util.jar.Manifest;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedClass;
+import org.junit.jupiter.params.provider.ValueSource;
 
+/**
+ * Runs against folders with and without an in-memory index, which are expected to behave identically.
+ */
+@ParameterizedClass
+@ValueSource(booleans = { false, true })
 class FolderJarContentsTest extends AbstractJarContentsTest {
-    JarContents contents;
+    final boolean indexed;
+    @Nullable
+    FolderWatcher watcher;
+    FolderJarContents contents;
+
+    FolderJarContentsTest(boolean indexed) {
+        this.indexed = indexed;
+    }
 
     @BeforeEach
     void setUp() throws IOException {
-        contents = JarContents.ofPath(tempDir);
+        watcher = indexed ? new FolderWatcher() : null;
+        contents = new FolderJarContents(tempDir, watcher);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        contents.close();
+        if (watcher != null) {
+            watcher.close();
+        }
     }
 
     @Test
@@ -205,6 +232,104 @@ class FolderJarContentsTest extends AbstractJarContentsTest {
         assertEquals("folder(" + expected + ")", contents.toString());
     }
 
+    @Test
+    void testOfPathUsesFolderWatcherOfOptions() throws IOException {
+        try (var opened = JarContents.ofPath(tempDir, new JarContents.OpenOptions(JarFileBackend.JAR_FILE, watcher))) {
+            writeTextFile("file", "file");
+            assertTrue(opened.containsFile("file"));
+        }
+    }
+
+    @Test
+    void testClosedWatcherFallsBackToFileSystem() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+        writeTextFile("file", "file");
+        assertTrue(contents.containsFile("file"));
+    }
+
+    /**
+     * Tests changes to the folder after it was first accessed, which the index has to pick up.
+     */
+    @Nested
+    class LiveChanges {
+        @BeforeEach
+        void setUp() throws IOException {
+            writeTextFile("folder/existing", "folder/existing");
+            // Access the contents once, so that an index is built
+            assertTrue(contents.containsFile("folder/existing"));
+        }
+
+        @Test
+        void testAddedFileIsFoundAfterRefresh() throws IOException {
+            writeTextFile("folder/added", "folder/added");
+            contents.refresh();
+
+            assertTrue(contents.containsFile("folder/added"));
+            assertNotNull(contents.get("folder/added"));
+            assertThat(contents.findFile("folder/added")).isPresent();
+            assertThat(contents.readFile("folder/added")).isEqualTo("folder/added".getBytes());
+        }
+
+        @Test
+        void testRemovedFileIsMissingAfterRefresh() throws IOException {
+            Files.delete(tempDir.resolve("folder/existing"));
+            contents.refresh();
+
+            assertFalse(contents.containsFile("folder/existing"));
+            assertNull(contents.get("folder/existing"));
+            assertThat(contents.findFile("folder/existing")).isEmpty();
+            assertNull(contents.readFile("folder/existing"));
+            assertNull(contents.openFile("folder/existing"));
+        }
+
+        @Test
+        void testAddedFolderIsVisitedAfterRefresh() throws IOException {
+            writeTextFile("folder/subfolder/added", "folder/subfolder/added");
+            contents.refresh();
+
+            var visitor = new VisitContent.CollectingVisitor();
+            contents.visitContent("folder", visitor);
+            assertThat(visitor.visited).containsOnly("folder/existing", "folder/subfolder/added");
+        }
+
+        @Test
+        void testAddedFileIsFoundWithoutRefresh() throws Exception {
+            writeTextFile("folder/added", "folder/added");
+            awaitChanges(() -> contents.containsFile("folder/added"));
+        }
+
+        @Test
+        void testFileAddedToNewFolderIsFoundWithoutRefresh() throws Exception {
+            writeTextFile("new_folder/added", "new_folder/added");
+            awaitChanges(() -> contents.containsFile("new_folder/added"));
+            // The new folder is watched as well
+            writeTextFile("new_folder/added2", "new_folder/added2");
+            awaitChanges(() -> contents.containsFile("new_folder/added2"));
+        }
+
+        @Test
+        void testRemovedFileIsMissingWithoutRefresh() throws Exception {
+            Files.delete(tempDir.resolve("folder/existing"));
+            awaitChanges(() -> !contents.containsFile("folder/existing"));
+        }
+
+        /**
+         * Waits for the watcher to report changes until the condition is met, since the file system reports changes
+         * asynchronously and may split them across several events.
+         */
+        private void awaitChanges(BooleanSupplier condition) throws InterruptedException {
+            for (int i = 0; i < 5 && !condition.getAsBoolean(); i++) {
+                // Without an index, changes are visible immediately
+                assertNotNull(watcher);
+                // Some file systems poll for changes, which can take a few seconds
+                assertTrue(watcher.awaitChange(Duration.ofSeconds(10)), "No change was reported in time");
+            }
+            assertTrue(condition.getAsBoolean());
+        }
+    }
+
     @Nested
     class VisitContent {
         @BeforeEach
@@ -258,6 +383,36 @@ class FolderJarContentsTest extends AbstractJarContentsTest {
                     .containsOnly("folder/file1", "folder/file2");
         }
 
+        @Test
+        void testVisitFromSubfolderOfSimilarlyNamedFolders() throws IOException {
+            writeTextFile("folder-a/file", "folder-a/file");
+            writeTextFile("folder.b", "folder.b");
+            writeTextFile("folder/sub/file3", "folder/sub/file3");
+            var visitor = new CollectingVisitor();
+            contents.visitContent("folder/", visitor);
+
+            assertThat(visitor.visited).containsOnly("folder/file1", "folder/file2", "folder/sub/file3");
+        }
+
+        @Test
+        void testListFolder() throws IOException {
+            writeTextFile("folder/sub/file3", "folder/sub/file3");
+            writeTextFile("folder/sub.txt", "folder/sub.txt");
+
+            assertThat(contents.listFolder("")).containsExactly("folder/", "folder2/", "root_file");
+            assertThat(contents.listFolder("folder")).containsExactly("file1", "file2", "sub.txt", "sub/");
+            assertThat(contents.listFolder("/folder2/")).containsExactly("subfolder/");
+            assertThat(contents.listFolder("folder2/subfolder")).containsExactly("file");
+        }
+
+        @Test
+        void testListFolderForFileOrMissingFolder() {
+            assertThat(contents.listFolder("root_file")).isEmpty();
+            assertThat(contents.listFolder("does_not_exist")).isEmpty();
+            // Folders without files are not listed
+            assertThat(contents.listFolder("empty_folder")).isEmpty();
+        }
+
         static class CollectingVisitor implements JarResourceVisitor {
             List<String> visited = new ArrayList<>();
 
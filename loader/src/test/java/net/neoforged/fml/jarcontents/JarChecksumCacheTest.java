@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JarChecksumCacheTest {
+    private static final String CHECKSUM_A = "a".repeat(64);
+    private static final String CHECKSUM_B = "b".repeat(64);
+
+    @TempDir
+    Path tempDir;
+    Path jar;
+    Path cacheFile;
+    AtomicInteger hashed = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        JarChecksumCache.clear();
+        jar = tempDir.resolve("test.jar");
+        cacheFile = tempDir.resolve("cache/jar_checksums.txt");
+        writeJar("content");
+    }
+
+    @AfterEach
+    void tearDown() {
+        JarChecksumCache.clear();
+    }
+
+    private void writeJar(String content) throws IOException {
+        Files.writeString(jar, content);
+        // Files that were modified very recently are not cached
+        Files.setLastModifiedTime(jar, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS).plusSeconds(content.length())));
+    }
+
+    private Function<Path, String> hasher(String checksum) {
+        return path -> {
+            hashed.incrementAndGet();
+            return checksum;
+        };
+    }
+
+    @Test
+    void testUnchangedFileIsHashedOnce() {
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A))).isEqualTo(CHECKSUM_A);
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A))).isEqualTo(CHECKSUM_A);
+        assertThat(hashed).hasValue(1);
+    }
+
+    @Test
+    void testChangedFileIsHashedAgain() throws IOException {
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A))).isEqualTo(CHECKSUM_A);
+        writeJar("changed content");
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_B))).isEqualTo(CHECKSUM_B);
+        assertThat(hashed).hasValue(2);
+    }
+
+    @Test
+    void testRecentlyModifiedFileIsNotCached() throws IOException {
+        Files.setLastModifiedTime(jar, FileTime.from(Instant.now()));
+        JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A));
+        JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A));
+        assertThat(hashed).hasValue(2);
+    }
+
+    @Test
+    void testRecordedChecksumIsUsed() {
+        JarChecksumCache.record(jar, CHECKSUM_B);
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A))).isEqualTo(CHECKSUM_B);
+        assertThat(hashed).hasValue(0);
+    }
+
+    @Test
+    void testChecksumsArePersisted() {
+        JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A));
+        JarChecksumCache.save(cacheFile);
+        JarChecksumCache.clear();
+
+        JarChecksumCache.load(cacheFile);
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_B))).isEqualTo(CHECKSUM_A);
+        assertThat(hashed).hasValue(1);
+    }
+
+    @Test
+    void testPersistedChecksumOfChangedFileIsIgnored() throws IOException {
+        JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A));
+        JarChecksumCache.save(cacheFile);
+        JarChecksumCache.clear();
+        writeJar("changed content");
+
+        JarChecksumCache.load(cacheFile);
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_B))).isEqualTo(CHECKSUM_B);
+    }
+
+    @Test
+    void testCorruptedCacheFileIsIgnored() throws IOException {
+        JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A));
+        JarChecksumCache.save(cacheFile);
+        JarChecksumCache.clear();
+        Files.writeString(cacheFile, Files.readString(cacheFile).replace(CHECKSUM_A, "not a checksum"));
+
+        JarChecksumCache.load(cacheFile);
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_B))).isEqualTo(CHECKSUM_B);
+    }
+
+    @Test
+    void testMissingCacheFileIsIgnored() {
+        JarChecksumCache.load(cacheFile);
+        assertThat(JarChecksumCache.getChecksum(jar, hasher(CHECKSUM_A))).isEqualTo(CHECKSUM_A);
+    }
+
+    @Test
+    void testJarFileContentsUseCache() throws IOException {
+        var realJar = tempDir.resolve("real.jar");
+        try (var out = new ZipOutputStream(Files.newOutputStream(realJar))) {
+            out.putNextEntry(new ZipEntry("file.txt"));
+            out.closeEntry();
+        }
+        Files.setLastModifiedTime(realJar, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+        JarChecksumCache.record(realJar, CHECKSUM_A);
+
+        try (var contents = new JarFileContents(realJar)) {
+            assertThat(contents.getChecksum()).contains(CHECKSUM_A);
+        }
+    }
+}
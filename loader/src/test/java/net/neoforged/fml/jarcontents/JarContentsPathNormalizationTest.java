@@ -227,6 +227,26 @@ public class JarContentsPathNormalizationTest {
         }
     }
 
+    @Nested
+    class IndexedFolderJarContentsTest extends NormalizationTests {
+        final FolderWatcher watcher = new FolderWatcher();
+
+        @AfterEach
+        void closeWatcher() throws IOException {
+            watcher.close();
+        }
+
+        @Override
+        JarContents makeJarContents(String... files) throws IOException {
+            for (String file : files) {
+                Path filePath = tempDir.resolve(file);
+                Files.createDirectories(filePath.getParent());
+                Files.createFile(filePath);
+            }
+            return new FolderJarContents(tempDir, watcher);
+        }
+    }
+
     @Nested
     class JarFileContentsTest extends NormalizationTests {
         @Override
@@ -239,4 +259,17 @@ public class JarContentsPathNormalizationTest {
             return JarContents.ofPath(makeJar());
         }
     }
+
+    @Nested
+    class MappedJarContentsTest extends NormalizationTests {
+        @Override
+        JarContents makeJarContents(String... files) throws IOException {
+            for (String file : files) {
+                Path filePath = tempDir.resolve(file);
+                Files.createDirectories(filePath.getParent());
+                Files.createFile(filePath);
+            }
+            return new MappedJarContents(makeJar());
+        }
+    }
 }
@@ -127,6 +127,15 @@ public class JarContentsTest {
             }
         }
 
+        @Test
+        void testJarFileWithBackend() throws IOException {
+            var path = createEmptyJar("test.jar");
+            try (var contents = JarContents.ofPath(path, new JarContents.OpenOptions(JarFileBackend.MEMORY_MAPPED, null))) {
+                assertThat(contents).isExactlyInstanceOf(MappedJarContents.class);
+                assertThat(contents.getPrimaryPath()).isEqualTo(path);
+            }
+        }
+
         @Test
         void testFolder() throws IOException {
             // Note that the file just must exist, it doesn't need to have a specific extension
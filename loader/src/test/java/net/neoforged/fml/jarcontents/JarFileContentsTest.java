@@ -35,19 +35,32 @@ import org.junit.jupiter.api.AutoClose;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedClass;
+import org.junit.jupiter.params.provider.EnumSource;
 
+/**
+ * Runs against every {@linkplain JarFileBackend backend} for jar files, which are expected to behave identically.
+ */
+@ParameterizedClass
+@EnumSource(JarFileBackend.class)
 class JarFileContentsTest extends AbstractJarContentsTest {
+    final JarFileBackend backend;
+
     JarContents contents;
 
     Path jarFilePath;
 
+    JarFileContentsTest(JarFileBackend backend) {
+        this.backend = backend;
+    }
+
     private JarContents getJarContents() throws IOException {
         return getJarContents(manifest -> {});
     }
 
     private JarContents getJarContents(Consumer<Manifest> customizer) throws IOException {
         jarFilePath = makeJar(customizer);
-        return contents = JarContents.ofPath(jarFilePath);
+        return contents = backend.open(jarFilePath);
     }
 
     @AfterEach
@@ -243,7 +256,7 @@ class JarFileContentsTest extends AbstractJarContentsTest {
         Path emptyZip = tempDir.resolve("emptyzip.zip");
         new ZipOutputStream(Files.newOutputStream(emptyZip)).close();
 
-        try (var content = JarContents.ofPath(emptyZip)) {
+        try (var content = backend.open(emptyZip)) {
             // JarFile will return null if there's no manifest at all
             Manifest manifest = content.getManifest();
             assertNotNull(manifest);
@@ -274,7 +287,7 @@ class JarFileContentsTest extends AbstractJarContentsTest {
                 manifest.getMainAttributes().putValue("Multi-Release", "true");
             });
 
-            contents = JarContents.ofPath(tempJar);
+            contents = backend.open(tempJar);
         }
 
         @Test
@@ -351,6 +364,39 @@ class JarFileContentsTest extends AbstractJarContentsTest {
                     .containsOnly("folder/file1", "folder/file2");
         }
 
+        @Test
+        void testVisitFromSubfolderOfSimilarlyNamedFolders() throws IOException {
+            writeTextFile("folder-a/file", "folder-a/file");
+            writeTextFile("folder.b", "folder.b");
+            writeTextFile("folder/sub/file3", "folder/sub/file3");
+            var visitor = new CollectingVisitor();
+            getJarContents().visitContent("folder/", visitor);
+
+            assertThat(visitor.visited).containsOnly("folder/file1", "folder/file2", "folder/sub/file3");
+        }
+
+        @Test
+        void testListFolder() throws IOException {
+            writeTextFile("folder/sub/file3", "folder/sub/file3");
+            writeTextFile("folder/sub.txt", "folder/sub.txt");
+            var contents = getJarContents();
+
+            assertThat(contents.listFolder("")).containsExactly("META-INF/", "folder/", "folder2/", "root_file");
+            assertThat(contents.listFolder("folder")).containsExactly("file1", "file2", "sub.txt", "sub/");
+            assertThat(contents.listFolder("/folder2/")).containsExactly("subfolder/");
+            assertThat(contents.listFolder("folder2/subfolder")).containsExactly("file");
+        }
+
+        @Test
+        void testListFolderForFileOrMissingFolder() throws IOException {
+            var contents = getJarContents();
+
+            assertThat(contents.listFolder("root_file")).isEmpty();
+            assertThat(contents.listFolder("does_not_exist")).isEmpty();
+            // Folders without files are not listed
+            assertThat(contents.listFolder("empty_folder")).isEmpty();
+        }
+
         static class CollectingVisitor implements JarResourceVisitor {
             List<String> visited = new ArrayList<>();
 
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.jarcontents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MappedJarContentsTest extends AbstractJarContentsTest {
+    private static final byte[] STORED_CONTENT = "stored content".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DEFLATED_CONTENT = "deflated content ".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    Path jarFilePath;
+    MappedJarContents contents;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jarFilePath = tempDir.resolve("test.jar");
+        try (var out = new ZipOutputStream(Files.newOutputStream(jarFilePath))) {
+            var stored = new ZipEntry("folder/stored.txt");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(STORED_CONTENT.length);
+            var crc = new CRC32();
+            crc.update(STORED_CONTENT);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(STORED_CONTENT);
+            out.closeEntry();
+
+            out.putNextEntry(new ZipEntry("folder/deflated.txt"));
+            out.write(DEFLATED_CONTENT);
+            out.closeEntry();
+        }
+        contents = new MappedJarContents(jarFilePath);
+    }
+
+    @AfterEach
+    void tearDown() {
+        contents.close();
+    }
+
+    @Test
+    void testJarFileBackendOpensMappedContents() throws IOException {
+        try (var opened = JarFileBackend.MEMORY_MAPPED.open(jarFilePath)) {
+            assertThat(opened).isInstanceOf(MappedJarContents.class);
+        }
+    }
+
+    @Test
+    void testReadBufferOfStoredEntryIsReadOnlyViewOfFile() throws IOException {
+        var buffer = contents.readBuffer("folder/stored.txt");
+        assertNotNull(buffer);
+        assertThat(buffer.isReadOnly()).isTrue();
+        assertThat(buffer.isDirect()).isTrue();
+        assertThat(buffer).isEqualTo(ByteBuffer.wrap(STORED_CONTENT));
+    }
+
+    @Test
+    void testReadBufferOfDeflatedEntryHasExactSize() throws IOException {
+        var buffer = contents.readBuffer("folder/deflated.txt");
+        assertNotNull(buffer);
+        assertThat(buffer.hasArray()).isTrue();
+        assertThat(buffer.array()).isEqualTo(DEFLATED_CONTENT);
+    }
+
+    @Test
+    void testReadBufferForMissingFileOrFolder() throws IOException {
+        assertNull(contents.readBuffer("missing.txt"));
+        assertNull(contents.readBuffer("folder"));
+    }
+
+    @Test
+    void testReadFile() throws IOException {
+        assertThat(contents.readFile("folder/stored.txt")).isEqualTo(STORED_CONTENT);
+        assertThat(contents.readFile("folder/deflated.txt")).isEqualTo(DEFLATED_CONTENT);
+    }
+
+    @Test
+    void testOpenFile() throws IOException {
+        try (var in = contents.openFile("folder/stored.txt")) {
+            assertNotNull(in);
+            assertThat(in.readAllBytes()).isEqualTo(STORED_CONTENT);
+        }
+        try (var in = contents.openFile("folder/deflated.txt")) {
+            assertNotNull(in);
+            assertThat(in.readAllBytes()).isEqualTo(DEFLATED_CONTENT);
+        }
+    }
+
+    @Test
+    void testArchiveWithPrependedData() throws IOException {
+        var prefixed = tempDir.resolve("prefixed.jar");
+        try (var out = Files.newOutputStream(prefixed)) {
+            out.write("#!/bin/sh\nexit 0\n".getBytes(StandardCharsets.UTF_8));
+            out.write(Files.readAllBytes(jarFilePath));
+        }
+        try (var prefixedContents = new MappedJarContents(prefixed)) {
+            assertThat(prefixedContents.readFile("folder/stored.txt")).isEqualTo(STORED_CONTENT);
+            assertThat(prefixedContents.readFile("folder/deflated.txt")).isEqualTo(DEFLATED_CONTENT);
+        }
+    }
+}
@@ -22,7 +22,10 @@ import net.neoforged.fml.ModLoader;
 import net.neoforged.fml.ModLoadingException;
 import net.neoforged.fml.ModWorkManager;
 import net.neoforged.fml.event.lifecycle.FMLClientSetupEvent;
+import net.neoforged.fml.jarcontents.JarContentsIndex;
+import net.neoforged.fml.jarcontents.NestedJarContents;
 import net.neoforged.fml.javafmlmod.FMLJavaModLanguageProvider;
+import net.neoforged.fml.loading.moddiscovery.locators.JarInJarDependencyLocator;
 import net.neoforged.fml.testlib.IdentifiableContent;
 import net.neoforged.fml.testlib.ModFileBuilder;
 import net.neoforged.fml.testlib.SimulatedInstallation;
@@ -275,11 +278,13 @@ public class FMLLoaderTest extends LauncherTest {
         }
 
         /**
-         * A mod-jar that contains another mod and a plugin jar.
+         * A mod-jar that contains another mod and a plugin jar, which are either extracted or read in place.
          */
-        @Test
-        void testJarInJar() throws Exception {
+        @ParameterizedTest
+        @ValueSource(booleans = { false, true })
+        void testJarInJar(boolean inPlace) throws Exception {
             installation.setupProductionClient();
+            installation.writeConfig("inPlaceJarInJar = " + inPlace);
             installation.writeModJar("jijmod.jar",
                     SimulatedInstallation.createModsToml("jijmod", "1.0"),
                     SimulatedInstallation.createJarFile(
@@ -301,6 +306,96 @@ public class FMLLoaderTest extends LauncherTest {
             assertThat(result.pluginLayerModules()).containsOnlyKeys("embedded.lib", "embedded.service");
             assertThat(result.loadedMods()).containsOnlyKeys("minecraft", "neoforge", "embeddedmod", "jijmod");
             assertThat(result.issues()).isEmpty();
+            if (inPlace) {
+                assertThat(result.gameLayerModules().get("embeddedmod")).isInstanceOf(NestedJarContents.class);
+                assertThat(result.pluginLayerModules().get("embedded.lib")).isInstanceOf(NestedJarContents.class);
+            }
+        }
+
+        /**
+         * Jar-in-Jar files that are stored without compression are not extracted in place mode, and their resources
+         * can still be opened through the URLs handed out by the class loader.
+         */
+        @Test
+        void testStoredJarInJarIsNotExtracted() throws Exception {
+            installation.setupProductionClient();
+            installation.writeConfig("inPlaceJarInJar = true");
+            installation.writeModJar("jijmod.jar",
+                    SimulatedInstallation.createModsToml("jijmod", "1.0"),
+                    SimulatedInstallation.createJarFile(
+                            "EMBEDDED_MOD", "META-INF/jarjar/embedded_mod-1.0.jar",
+                            SimulatedInstallation.createModsToml("embeddedmod", "1.0"),
+                            new IdentifiableContent("EMBEDDED_RESOURCE", "embeddedmod.txt")),
+                    SimulatedInstallation.createJijMetadata(
+                            new ContainedJarMetadata(new ContainedJarIdentifier("modgroup", "embedded-mod"), JIJ_V1, "META-INF/jarjar/embedded_mod-1.0.jar", false)));
+
+            int readsBefore = JarInJarDependencyLocator.getNestedJarReads();
+            var result = launchAndLoad("neoforgeclient");
+            assertThat(JarInJarDependencyLocator.getNestedJarReads() - readsBefore).isZero();
+            assertThat(result.loadedMods()).containsOnlyKeys("minecraft", "neoforge", "embeddedmod", "jijmod");
+            assertThat(result.issues()).isEmpty();
+
+            var url = result.launchClassLoader().getResource("embeddedmod.txt");
+            assertNotNull(url);
+            assertThat(url.getProtocol()).isEqualTo(NestedJarContents.SCHEME);
+            try (var in = url.openStream()) {
+                assertThat(in.readAllBytes()).isEqualTo("EMBEDDED_RESOURCE".getBytes());
+            }
+        }
+
+        /**
+         * Building module descriptors and scanning both read the content of a jar from a shared index, and early
+         * service discovery does not traverse jars at all, so that each jar is only traversed once.
+         */
+        @Test
+        void testEachJarIsTraversedOnce() throws Exception {
+            installation.setupProductionClient();
+            installation.setupModInModsFolder("testmod1", "1.0");
+            installation.setupModInModsFolder("testmod2", "1.0");
+            installation.writeModJar("jijmod.jar",
+                    SimulatedInstallation.createModsToml("jijmod", "1.0"),
+                    SimulatedInstallation.createJarFile(
+                            "EMBEDDED_MOD", "META-INF/jarjar/embedded_mod-1.0.jar", SimulatedInstallation.createModsToml("embeddedmod", "1.0")),
+                    SimulatedInstallation.createJijMetadata(
+                            new ContainedJarMetadata(new ContainedJarIdentifier("modgroup", "embedded-mod"), JIJ_V1, "META-INF/jarjar/embedded_mod-1.0.jar", false)));
+
+            var result = launchAndLoad("neoforgeclient");
+            assertThat(result.loadedMods()).containsOnlyKeys("minecraft", "neoforge", "testmod1", "testmod2", "jijmod", "embeddedmod");
+
+            var traversalCounts = JarContentsIndex.getTraversalCounts();
+            assertThat(traversalCounts).hasSizeGreaterThanOrEqualTo(6);
+            assertThat(traversalCounts).allSatisfy((path, count) -> assertThat(count).as("traversals of %s", path).isOne());
+        }
+
+        /**
+         * Jar-in-Jar files extracted by a previous launch are reused without reading them from the outer jar again,
+         * as long as the outer jar did not change.
+         */
+        @Test
+        void testSecondLaunchReusesExtractedJarInJar() throws Exception {
+            installation.setupProductionClient();
+            installation.writeModJar("jijmod.jar",
+                    SimulatedInstallation.createModsToml("jijmod", "1.0"),
+                    SimulatedInstallation.createJarFile(
+                            "EMBEDDED_MOD", "META-INF/jarjar/embedded_mod-1.0.jar", SimulatedInstallation.createModsToml("embeddedmod", "1.0")),
+                    SimulatedInstallation.createJarFile(
+                            "EMBEDDED_LIB", "META-INF/jarjar/embedded_lib-1.0.jar"),
+                    SimulatedInstallation.createJijMetadata(
+                            new ContainedJarMetadata(new ContainedJarIdentifier("modgroup", "embedded-mod"), JIJ_V1, "META-INF/jarjar/embedded_mod-1.0.jar", false),
+                            new ContainedJarMetadata(new ContainedJarIdentifier("modgroup", "embedded-lib"), JIJ_V1, "META-INF/jarjar/embedded_lib-1.0.jar", false)));
+
+            int readsBefore = JarInJarDependencyLocator.getNestedJarReads();
+            launchAndLoad("neoforgeclient");
+            assertThat(JarInJarDependencyLocator.getNestedJarReads() - readsBefore).isEqualTo(2);
+            loader.close();
+            loader = null;
+
+            readsBefore = JarInJarDependencyLocator.getNestedJarReads();
+            var result = launchAndLoad("neoforgeclient");
+            assertThat(JarInJarDependencyLocator.getNestedJarReads() - readsBefore).isZero();
+            assertThat(result.loadedMods()).containsOnlyKeys("minecraft", "neoforge", "embeddedmod", "jijmod");
+            assertThat(result.pluginLayerModules()).containsKey("embedded.lib");
+            assertThat(result.issues()).isEmpty();
         }
 
         /**
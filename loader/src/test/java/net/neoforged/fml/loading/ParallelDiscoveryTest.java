@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.neoforged.fml.testlib.SimulatedInstallation;
+import net.neoforged.fml.testlib.args.InstallationTypeSource;
+import net.neoforged.jarjar.metadata.ContainedJarIdentifier;
+import net.neoforged.jarjar.metadata.ContainedJarMetadata;
+import net.neoforged.jarjar.metadata.ContainedVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.junit.jupiter.params.ParameterizedTest;
+
+/**
+ * Checks that reading candidate mod files in parallel discovers the same files, in the same order, and reports the
+ * same issues as reading them one after another.
+ */
+public class ParallelDiscoveryTest extends LauncherTest {
+    private static final ContainedVersion JIJ_V1 = new ContainedVersion(VersionRange.createFromVersion("1.0"), new DefaultArtifactVersion("1.0"));
+
+    @ParameterizedTest
+    @InstallationTypeSource({
+            SimulatedInstallation.Type.PRODUCTION_CLIENT,
+            SimulatedInstallation.Type.PRODUCTION_SERVER
+    })
+    void testParallelDiscoveryMatchesSerialDiscovery(SimulatedInstallation.Type type) throws Exception {
+        installation.setup(type);
+        for (int i = 0; i < 20; i++) {
+            installation.setupModInModsFolder("testmod" + i, "1.0");
+        }
+        // Duplicates are resolved by the unique mod list, regardless of the order they were read in
+        installation.setupModInModsFolder("testmod1", "12.0");
+        installation.setupModInModsFolder("testmod1", "3.0");
+        installation.setupPlainJarInModsFolder("plainmod.jar");
+        installation.writeModJar("jijmod.jar",
+                SimulatedInstallation.createModsToml("jijmod", "1.0"),
+                SimulatedInstallation.createJarFile(
+                        "EMBEDDED_MOD", "META-INF/jarjar/embedded_mod-1.0.jar", SimulatedInstallation.createModsToml("embeddedmod", "1.0")),
+                SimulatedInstallation.createJijMetadata(
+                        new ContainedJarMetadata(new ContainedJarIdentifier("modgroup", "embedded-mod"), JIJ_V1, "META-INF/jarjar/embedded_mod-1.0.jar", false)));
+
+        installation.writeConfig("parallelDiscovery = false");
+        var serialResult = launchInstalledDist();
+        var serialDiscovery = describeDiscovery(serialResult);
+        loader.close();
+        loader = null;
+
+        installation.writeConfig("parallelDiscovery = true", "maxThreads = 4");
+        var parallelResult = launchInstalledDist();
+        var parallelDiscovery = describeDiscovery(parallelResult);
+
+        assertThat(parallelDiscovery).containsExactlyElementsOf(serialDiscovery);
+        assertThat(parallelResult.loadedMods()).containsKeys("testmod0", "testmod19", "jijmod", "embeddedmod");
+        assertThat(parallelResult.loadedMods().get("testmod1").versionString()).isEqualTo("12.0");
+        assertThat(getTranslatedIssues(parallelResult)).contains("WARNING: File mods/plainmod.jar is not a valid mod file");
+    }
+
+    private List<String> describeDiscovery(LaunchResult result) {
+        var lines = new ArrayList<String>();
+        var loadingModList = loader.getLoadingModList();
+        for (var plugin : loadingModList.getPlugins()) {
+            lines.add("plugin " + plugin.getFile().getFilePath());
+        }
+        for (var gameLibrary : loadingModList.getGameLibraries()) {
+            lines.add("game library " + gameLibrary.getFilePath());
+        }
+        for (var modFile : loadingModList.getModFiles()) {
+            lines.add("mod file " + modFile.getFile().getFilePath() + " " + modFile.versionString());
+        }
+        for (var module : result.gameLayerModules().keySet()) {
+            lines.add("game module " + module);
+        }
+        for (var issue : getTranslatedIssues(result)) {
+            lines.add("issue " + issue);
+        }
+        return lines;
+    }
+}
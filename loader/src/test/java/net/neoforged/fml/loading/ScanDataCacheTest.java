@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import net.neoforged.fml.loading.modscan.ScanDataCache;
+import net.neoforged.neoforgespi.language.ModFileScanData;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+
+/**
+ * Tests that the scan results of mod files are persisted on disk and that the cached results are identical to the
+ * results of scanning the mod files again.
+ */
+public class ScanDataCacheTest extends LauncherTest {
+    @Test
+    void testCachedScanResultMatchesFreshScan() throws Exception {
+        setupAnnotatedMod();
+
+        launchAndLoad("neoforgeclient");
+        var freshResults = describeScanResults();
+        assertThat(freshResults).containsKey("test.jar");
+        assertThat(freshResults.get("test.jar")).contains(new TreeSet<>(List.of("testmod/Everything", "testmod/Inner")));
+        assertThat(getCacheEntries()).isNotEmpty();
+        int hitsBefore = ScanDataCache.getHits();
+        relaunch();
+
+        assertThat(ScanDataCache.getHits()).isGreaterThan(hitsBefore);
+        var cachedResults = describeScanResults();
+        assertThat(cachedResults).isEqualTo(freshResults);
+        var modFileInfo = loader.getLoadingModList().getModFileById("testmod");
+        assertThat(modFileInfo.getFile().getScanResult().getIModInfoData()).containsExactly(modFileInfo);
+    }
+
+    @Test
+    void testCorruptedEntriesAreDiscarded() throws Exception {
+        setupAnnotatedMod();
+
+        launchAndLoad("neoforgeclient");
+        var freshResults = describeScanResults();
+        var entries = getCacheEntries();
+        assertThat(entries).isNotEmpty();
+        for (var entry : entries) {
+            var content = Files.readAllBytes(entry);
+            content[content.length / 2] ^= 0x5A;
+            Files.write(entry, content);
+        }
+        int hitsBefore = ScanDataCache.getHits();
+        relaunch();
+
+        assertThat(ScanDataCache.getHits()).isEqualTo(hitsBefore);
+        assertThat(describeScanResults()).isEqualTo(freshResults);
+    }
+
+    @Test
+    void testUnusedEntriesAreDeleted() throws Exception {
+        setupAnnotatedMod();
+
+        launchAndLoad("neoforgeclient");
+        var usedEntries = getCacheEntries();
+        assertThat(usedEntries).isNotEmpty();
+        var unusedEntry = usedEntries.getFirst().resolveSibling("0123456789abcdef.bin");
+        Files.write(unusedEntry, new byte[] { 1, 2, 3 });
+        var longAgo = FileTime.from(Instant.now().minus(Duration.ofDays(30)));
+        for (var entry : getCacheEntries()) {
+            Files.setLastModifiedTime(entry, longAgo);
+        }
+        relaunch();
+
+        assertThat(getCacheEntries()).containsExactlyInAnyOrderElementsOf(usedEntries);
+    }
+
+    @Test
+    void testCacheCanBeDisabled() throws Exception {
+        setupAnnotatedMod();
+        installation.writeConfig("scanDataCache = false");
+
+        launchAndLoad("neoforgeclient");
+
+        assertThat(describeScanResults()).containsKey("test.jar");
+        assertThat(getCacheEntries()).isEmpty();
+    }
+
+    private void setupAnnotatedMod() throws Exception {
+        installation.setupProductionClient();
+        installation.buildModJar("test.jar")
+                .withTestmodModsToml()
+                .addClass("testmod.Everything", """
+                        import java.lang.annotation.ElementType;
+
+                        @interface Everything {
+                            boolean z();
+                            byte b();
+                            char c();
+                            short s();
+                            int i();
+                            long j();
+                            float f();
+                            double d();
+                            String str();
+                            Class<?> type();
+                            ElementType element();
+                            Inner inner();
+                            int[] ints();
+                            double[] doubles();
+                            String[] strings();
+                            Inner[] inners();
+                        }
+                        """)
+                .addClass("testmod.Inner", """
+                        @interface Inner {
+                            String value() default "";
+                        }
+                        """)
+                .addClass("testmod.Annotated", """
+                        import java.lang.annotation.ElementType;
+
+                        @Everything(z = true, b = 1, c = 'c', s = 2, i = 3, j = 4L, f = 5f, d = 6d, str = "str",
+                                type = String[].class, element = ElementType.FIELD, inner = @Inner("inner"),
+                                ints = {1, 2, 3}, doubles = {0.5, 1.5}, strings = {"a", "b"}, inners = {@Inner("x"), @Inner})
+                        class Annotated implements Runnable, java.io.Serializable {
+                            @Inner("field")
+                            int field;
+
+                            @Inner
+                            public void run() {}
+                        }
+                        """)
+                .build();
+    }
+
+    private void relaunch() throws Exception {
+        loader.close();
+        loader = null;
+        launchAndLoad("neoforgeclient");
+    }
+
+    private List<Path> getCacheEntries() throws Exception {
+        var cacheDir = installation.getGameDir().resolve(FMLPaths.SCAN_DATA_CACHEDIR.relative());
+        if (!Files.isDirectory(cacheDir)) {
+            return List.of();
+        }
+        try (var stream = Files.list(cacheDir)) {
+            return stream.filter(p -> p.getFileName().toString().endsWith(".bin")).toList();
+        }
+    }
+
+    /**
+     * Describes the classes, interfaces and annotations found in each mod file, with array values replaced by lists
+     * so that they can be compared.
+     */
+    private Map<String, List<Object>> describeScanResults() {
+        var results = new TreeMap<String, List<Object>>();
+        for (var modFileInfo : loader.getLoadingModList().getModFiles()) {
+            var scanResult = modFileInfo.getFile().getScanResult();
+            var description = new ArrayList<Object>(scanResult.getClasses());
+            description.add(new TreeSet<>(scanResult.getInterfaceClasses().stream().map(Type::getInternalName).toList()));
+            for (var annotation : scanResult.getAnnotations()) {
+                description.add(new ModFileScanData.AnnotationData(annotation.annotationType(), annotation.targetType(),
+                        annotation.clazz(), annotation.memberName(), normalizeValues(annotation.annotationData())));
+            }
+            results.put(modFileInfo.getFile().getFileName(), description);
+        }
+        return results;
+    }
+
+    private static Map<String, Object> normalizeValues(Map<String, Object> values) {
+        var result = new HashMap<String, Object>();
+        values.forEach((key, value) -> result.put(key, normalizeValue(value)));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object normalizeValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return normalizeValues((Map<String, Object>) map);
+        } else if (value instanceof List<?> list) {
+            return list.stream().map(ScanDataCacheTest::normalizeValue).toList();
+        } else if (value.getClass().isArray()) {
+            var list = new ArrayList<>();
+            for (int i = 0; i < Array.getLength(value); i++) {
+                list.add(Array.get(value, i));
+            }
+            return list;
+        }
+        return value;
+    }
+}
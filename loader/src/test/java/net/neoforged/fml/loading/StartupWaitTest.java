@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class StartupWaitTest {
+    // The interval at which startup used to poll for completed phases
+    private static final Duration OLD_POLL_INTERVAL = Duration.ofMillis(50);
+
+    @Test
+    void testWakesUpImmediatelyWhenPhaseCompletes() throws Exception {
+        // Initialize logging before measuring
+        StartupWait.await("warmup", CompletableFuture.completedFuture(null), () -> {}, OLD_POLL_INTERVAL);
+        try (var executor = Executors.newSingleThreadScheduledExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                var future = new CompletableFuture<Long>();
+                // Complete the phase at a random point between two ticks
+                executor.schedule(() -> future.complete(System.nanoTime()), 5 + i, TimeUnit.MILLISECONDS);
+
+                long completedAt = StartupWait.await("handoff", future, () -> {}, OLD_POLL_INTERVAL);
+                long latency = System.nanoTime() - completedAt;
+
+                assertThat(Duration.ofNanos(latency)).isLessThan(OLD_POLL_INTERVAL.dividedBy(2));
+            }
+        }
+    }
+
+    @Test
+    void testTicksAtFixedCadence() throws Exception {
+        var ticks = new AtomicInteger();
+        var future = new CompletableFuture<Void>();
+        try (var executor = Executors.newSingleThreadScheduledExecutor()) {
+            executor.schedule(() -> future.complete(null), 300, TimeUnit.MILLISECONDS);
+            StartupWait.await("cadence", future, ticks::incrementAndGet, OLD_POLL_INTERVAL);
+        }
+
+        // One tick right away and one every 50ms after that, with some leeway for slow machines
+        assertThat(ticks.get()).isBetween(4, 8);
+    }
+
+    @Test
+    void testSkipsTicksMissedBySlowTask() throws Exception {
+        var ticks = new AtomicInteger();
+        var future = new CompletableFuture<Void>();
+        try (var executor = Executors.newSingleThreadScheduledExecutor()) {
+            executor.schedule(() -> future.complete(null), 200, TimeUnit.MILLISECONDS);
+            StartupWait.await("slow task", future, () -> {
+                ticks.incrementAndGet();
+                sleep(35);
+            }, Duration.ofMillis(10));
+        }
+
+        // A task that takes 35ms cannot run more than once per 35ms, even though it overran its 10ms interval
+        assertThat(ticks.get()).isBetween(3, 8);
+    }
+
+    @Test
+    void testPropagatesFailureOfPhase() {
+        var failure = new IllegalStateException("failed");
+
+        assertThatThrownBy(() -> StartupWait.await("failing phase", CompletableFuture.failedFuture(failure), () -> {}, OLD_POLL_INTERVAL))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+    }
+
+    @Test
+    void testTimesOut() {
+        var ticks = new AtomicLong();
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> StartupWait.await("stuck phase", new CompletableFuture<>(), ticks::incrementAndGet, OLD_POLL_INTERVAL, Duration.ofMillis(120)))
+                .isInstanceOf(TimeoutException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(120));
+        assertThat(ticks.get()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void testInterruptionStopsWaiting() throws Exception {
+        var thread = Thread.currentThread();
+        try (var executor = Executors.newSingleThreadScheduledExecutor()) {
+            executor.schedule(thread::interrupt, 30, TimeUnit.MILLISECONDS);
+
+            assertThatThrownBy(() -> StartupWait.await("interrupted phase", new CompletableFuture<>(), () -> {}, OLD_POLL_INTERVAL))
+                    .isInstanceOf(InterruptedException.class);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.fml.loading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import net.neoforged.fml.classloading.transformation.ClassTransformStatistics;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that transformed classes are persisted on disk and reused when the same installation is launched again.
+ */
+public class TransformedClassCacheTest extends LauncherTest {
+    @Test
+    void testSecondLaunchIsServedFromCache() throws Exception {
+        setupAccessTransformedMod();
+
+        launchAndLoad("neoforgeclient");
+        int hitsBefore = ClassTransformStatistics.getClassCacheHits();
+        assertClassIsPublic("testmod.TestClass");
+        assertThat(ClassTransformStatistics.getClassCacheHits()).isEqualTo(hitsBefore);
+        assertThat(getCacheEntries()).isNotEmpty();
+        relaunch();
+
+        assertClassIsPublic("testmod.TestClass");
+        assertThat(ClassTransformStatistics.getClassCacheHits()).isEqualTo(hitsBefore + 1);
+        assertThat(loader.getClassTransformerAuditLog().getAuditString("testmod.TestClass"))
+                .isEqualTo("neoforge:access_transformer");
+    }
+
+    @Test
+    void testCorruptedEntriesAreDiscarded() throws Exception {
+        setupAccessTransformedMod();
+
+        launchAndLoad("neoforgeclient");
+        assertClassIsPublic("testmod.TestClass");
+        var entries = getCacheEntries();
+        assertThat(entries).isNotEmpty();
+        for (var entry : entries) {
+            var content = Files.readAllBytes(entry);
+            content[content.length / 2] ^= 0x5A;
+            Files.write(entry, content);
+        }
+        relaunch();
+
+        int hitsBefore = ClassTransformStatistics.getClassCacheHits();
+        int missesBefore = ClassTransformStatistics.getClassCacheMisses();
+        assertClassIsPublic("testmod.TestClass");
+        assertThat(ClassTransformStatistics.getClassCacheHits()).isEqualTo(hitsBefore);
+        assertThat(ClassTransformStatistics.getClassCacheMisses()).isEqualTo(missesBefore + 1);
+    }
+
+    @Test
+    void testChangedAccessTransformerInvalidatesCache() throws Exception {
+        setupAccessTransformedMod();
+
+        launchAndLoad("neoforgeclient");
+        assertClassIsPublic("testmod.TestClass");
+        loader.close();
+        loader = null;
+
+        installation.buildModJar("test.jar")
+                .withTestmodModsToml()
+                .addClass("testmod.TestClass", """
+                        class TestClass {}
+                        """)
+                .addTextFile("META-INF/accesstransformer.cfg", "public-f testmod.TestClass")
+                .build();
+        int hitsBefore = ClassTransformStatistics.getClassCacheHits();
+        launchAndLoad("neoforgeclient");
+
+        assertClassIsPublic("testmod.TestClass");
+        assertThat(ClassTransformStatistics.getClassCacheHits()).isEqualTo(hitsBefore);
+    }
+
+    @Test
+    void testUnusedEntriesArePruned() throws Exception {
+        setupAccessTransformedMod();
+
+        launchAndLoad("neoforgeclient");
+        assertClassIsPublic("testmod.TestClass");
+        var entries = getCacheEntries();
+        assertThat(entries).isNotEmpty();
+        var longAgo = FileTime.from(Instant.now().minus(Duration.ofDays(30)));
+        for (var entry : entries) {
+            Files.setLastModifiedTime(entry, longAgo);
+        }
+        Files.setLastModifiedTime(getCacheDir().resolve("last_pruned"), longAgo);
+        relaunch();
+
+        assertThat(getCacheEntries()).isEmpty();
+    }
+
+    @Test
+    void testCacheOfOtherVersionIsDiscarded() throws Exception {
+        setupAccessTransformedMod();
+
+        launchAndLoad("neoforgeclient");
+        assertClassIsPublic("testmod.TestClass");
+        assertThat(getCacheEntries()).isNotEmpty();
+        Files.writeString(getCacheDir().resolve("version.txt"), "1 0.0.0");
+        relaunch();
+
+        assertThat(getCacheEntries()).isEmpty();
+    }
+
+    private void setupAccessTransformedMod() throws Exception {
+        installation.setupProductionClient();
+        installation.buildModJar("test.jar")
+                .withTestmodModsToml()
+                .addClass("testmod.TestClass", """
+                        class TestClass {}
+                        """)
+                .addTextFile("META-INF/accesstransformer.cfg", "public testmod.TestClass")
+                .build();
+    }
+
+    private void relaunch() throws Exception {
+        loader.close();
+        loader = null;
+        launchAndLoad("neoforgeclient");
+    }
+
+    private Path getCacheDir() {
+        return installation.getGameDir().resolve(FMLPaths.TRANSFORMED_CLASS_CACHEDIR.relative());
+    }
+
+    private List<Path> getCacheEntries() throws Exception {
+        try (var stream = Files.walk(getCacheDir())) {
+            return stream.filter(p -> p.getFileName().toString().endsWith(".bin")).toList();
+        }
+    }
+
+    private void assertClassIsPublic(String className) throws Exception {
+        var clazz = Class.forName(className, false, gameClassLoader);
+        assertTrue(Modifier.isPublic(clazz.getModifiers()));
+    }
+}
@@ -12,9 +12,12 @@ import java.io.IOException;
 import java.lang.annotation.ElementType;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import net.neoforged.fml.loading.modscan.ModAnnotation;
 import net.neoforged.fml.test.TestModFile;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
 public class ScanDataTest {
@@ -181,6 +184,148 @@ public class ScanDataTest {
         }
     }
 
+    @Test
+    void testClassesWithoutAnnotations() throws IOException {
+        try (final var mod = modFile()) {
+            mod.classBuilder()
+                    .addClass("com.example.Plain", """
+                            class Plain extends Thread implements Runnable, Comparable<Plain> {
+                                int field;
+
+                                public int compareTo(Plain other) {
+                                    return 0;
+                                }
+                            }""")
+                    .addClass("com.example.PlainRecord", """
+                            record PlainRecord(int value) {
+                            }""")
+                    .compile();
+
+            mod.scan();
+
+            assertThat(mod.getScanResult().getClasses())
+                    .containsOnly(
+                            new ModFileScanData.ClassData(
+                                    Type.getObjectType("com/example/Plain"), Type.getObjectType("java/lang/Thread"),
+                                    Set.of(Type.getObjectType("java/lang/Runnable"), Type.getObjectType("java/lang/Comparable")),
+                                    Opcodes.ACC_SUPER),
+                            new ModFileScanData.ClassData(
+                                    Type.getObjectType("com/example/PlainRecord"), Type.getObjectType("java/lang/Record"),
+                                    Set.of(), Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_RECORD));
+            assertThat(mod.getScanResult().getAnnotations()).isEmpty();
+        }
+    }
+
+    @Test
+    void testAnnotationIndices() throws IOException {
+        try (final var mod = modFile()) {
+            mod.classBuilder()
+                    .addClass("com.example.idx.Marker", """
+                            @interface Marker {
+                            }
+
+                            @interface Other {
+                            }
+
+                            @Marker
+                            class C1 {
+                                @Marker
+                                @Other
+                                int field;
+                            }
+
+                            @Other
+                            class C2 {
+                            }""")
+                    .compile();
+            mod.scan();
+
+            var scanResult = mod.getScanResult();
+            final var marker = Type.getObjectType("com/example/idx/Marker");
+            final var other = Type.getObjectType("com/example/idx/Other");
+            final var c1 = Type.getObjectType("com/example/idx/C1");
+            final var c2 = Type.getObjectType("com/example/idx/C2");
+            assertThat(scanResult.getAnnotatedBy(marker))
+                    .containsExactly(
+                            new ModFileScanData.AnnotationData(marker, ElementType.TYPE, c1, "com.example.idx.C1", Map.of()),
+                            new ModFileScanData.AnnotationData(marker, ElementType.FIELD, c1, "field", Map.of()));
+            assertThat(scanResult.getAnnotatedBy(marker, ElementType.FIELD))
+                    .extracting(ModFileScanData.AnnotationData::memberName)
+                    .containsExactly("field");
+            assertThat(scanResult.getAnnotationsOn(c2))
+                    .containsExactly(new ModFileScanData.AnnotationData(other, ElementType.TYPE, c2, "com.example.idx.C2", Map.of()));
+            assertThat(scanResult.getAnnotatedBy(Type.getObjectType("com/example/idx/Missing"))).isEmpty();
+
+            // Types of the same annotation are shared between entries
+            var otherTypes = scanResult.getAnnotatedBy(other).map(ModFileScanData.AnnotationData::annotationType).toList();
+            assertThat(otherTypes).hasSize(2);
+            assertThat(otherTypes.get(0)).isSameAs(otherTypes.get(1));
+
+            // Indices follow changes to the annotation set
+            scanResult.getAnnotations().removeIf(ad -> ad.clazz().equals(c1));
+            assertThat(scanResult.getAnnotatedBy(marker)).isEmpty();
+            assertThat(scanResult.getAnnotationsOn(c1)).isEmpty();
+            assertThat(scanResult.getAnnotatedBy(other)).hasSize(1);
+        }
+    }
+
+    @Test
+    void testEqualAnnotationValuesAreShared() throws IOException {
+        try (final var mod = modFile()) {
+            mod.classBuilder()
+                    .addClass("com.example.shared.Tagged", """
+                            @interface Tagged {
+                                String[] value();
+                            }
+
+                            @Tagged({"a", "b"})
+                            class C1 {
+                            }
+
+                            @Tagged({"a", "b"})
+                            class C2 {
+                            }
+
+                            @Tagged("c")
+                            class C3 {
+                            }""")
+                    .compile();
+            mod.scan();
+
+            var values = mod.getScanResult().getAnnotatedBy(Type.getObjectType("com/example/shared/Tagged"))
+                    .map(ModFileScanData.AnnotationData::annotationData)
+                    .toList();
+            assertThat(values).containsExactly(
+                    Map.of("value", List.of("a", "b")),
+                    Map.of("value", List.of("a", "b")),
+                    Map.of("value", List.of("c")));
+            assertThat(values.get(0)).isSameAs(values.get(1));
+            assertThat(values.get(2)).isNotSameAs(values.get(0));
+        }
+    }
+
+    @Test
+    void testScanningInChunksMatchesSerialScanning() throws Exception {
+        var source = new StringBuilder("@interface Marker { int value(); }\n");
+        for (int i = 0; i < 300; i++) {
+            source.append(i % 3 == 0 ? "@Marker(" + i + ") " : "").append("class C").append(i).append(" {}\n");
+        }
+        var pool = new ForkJoinPool(4);
+        try (final var serialMod = modFile(); final var chunkedMod = modFile()) {
+            serialMod.classBuilder().addClass("com.example.chunks.Marker", source.toString()).compile();
+            chunkedMod.classBuilder().addClass("com.example.chunks.Marker", source.toString()).compile();
+            serialMod.scan();
+            chunkedMod.startScan(pool);
+
+            var serialResult = serialMod.getScanResult();
+            var chunkedResult = chunkedMod.getScanResult();
+            assertThat(chunkedResult.getClasses()).hasSize(301).containsExactlyElementsOf(serialResult.getClasses());
+            assertThat(chunkedResult.getAnnotations()).hasSize(100).containsExactlyElementsOf(serialResult.getAnnotations());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     private static TestModFile modFile() throws IOException {
         return TestModFile.newInstance("""
                 license="LGPL v3"
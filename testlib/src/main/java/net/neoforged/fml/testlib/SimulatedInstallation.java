@@ -32,6 +32,7 @@ import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import net.neoforged.jarjar.metadata.ContainedJarMetadata;
@@ -769,6 +770,14 @@ public class SimulatedInstallation implements AutoCloseable {
                 }
 
                 var ze = new JarEntry(identifiableContent.relativePath());
+                if (ze.getName().endsWith(".jar")) {
+                    // Embedded jars are usually stored without compressing them again
+                    var crc = new CRC32();
+                    crc.update(identifiableContent.content());
+                    ze.setMethod(ZipEntry.STORED);
+                    ze.setSize(identifiableContent.content().length);
+                    ze.setCrc(crc.getValue());
+                }
                 jout.putNextEntry(ze);
                 jout.write(identifiableContent.content());
                 jout.closeEntry();